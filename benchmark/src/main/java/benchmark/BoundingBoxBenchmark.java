@@ -0,0 +1,57 @@
+package benchmark;
+
+import core.BoundingBox;
+import core.Transform;
+import core.math.Plane;
+import core.math.Vector3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World bounds calculation and the box-plane test at the core of frustum culling.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class BoundingBoxBenchmark {
+    private BoundingBox box;
+    private BoundingBox output;
+    private Transform transform;
+    private Plane plane;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Samples.SEED);
+
+        box = Samples.boxes(random, 1)[0];
+        output = new BoundingBox();
+        transform = Samples.transform(random, new Transform());
+        plane = new Plane(new Vector3(0.48f, 0.6f, 0.64f), -3f);
+    }
+
+    @Benchmark
+    public BoundingBox transform() {
+        return box.transform(transform, output);
+    }
+
+    @Benchmark
+    public Plane.Position position() {
+        return box.position(plane);
+    }
+}
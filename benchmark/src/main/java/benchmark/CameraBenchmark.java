@@ -0,0 +1,68 @@
+package benchmark;
+
+import core.BoundingBox;
+import core.BoundsBatch;
+import core.Camera;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Frustum culling of a scattered set of boxes, some inside, some crossing and most outside the view. Scores are per
+ * box.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class CameraBenchmark {
+    private static final int NUM_BOXES = 4096;
+
+    private Camera camera;
+    private BoundingBox[] boxes;
+    private BoundsBatch batch;
+    private long[] visibility;
+
+    @Setup
+    public void setup() {
+        camera = Samples.camera();
+        boxes = Samples.boxes(new Random(Samples.SEED), NUM_BOXES);
+        batch = new BoundsBatch(NUM_BOXES);
+
+        for (BoundingBox box : boxes) {
+            batch.add(box);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_BOXES)
+    public void intersects(Blackhole blackhole) {
+        for (BoundingBox box : boxes) {
+            blackhole.consume(camera.intersects(box));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(NUM_BOXES)
+    public long[] intersectsBatch() {
+        visibility = camera.intersects(batch, visibility);
+
+        return visibility;
+    }
+}
@@ -0,0 +1,63 @@
+package benchmark;
+
+import core.math.Matrix3;
+import core.math.Matrix4;
+import core.math.Vector3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Products, inverses and vector transforms of the rotation and scale blocks used for normals and bounding boxes.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Matrix3Benchmark {
+    private Matrix3 matrix;
+    private Matrix3 output;
+    private Vector3 vector;
+    private Vector3 vectorOutput;
+
+    @Setup
+    public void setup() {
+        matrix = Samples.affineMatrix(new Matrix4()).toMatrix3(new Matrix3());
+        output = new Matrix3();
+        vector = new Vector3(0.3f, -1.2f, 4.5f);
+        vectorOutput = new Vector3();
+    }
+
+    @Benchmark
+    public Matrix3 multiply() {
+        return output.set(matrix).multiply(matrix);
+    }
+
+    @Benchmark
+    public Matrix3 invert() {
+        return output.set(matrix).invert();
+    }
+
+    @Benchmark
+    public Matrix3 transpose() {
+        return output.set(matrix).transpose();
+    }
+
+    @Benchmark
+    public Vector3 transform() {
+        return matrix.transform(vector, vectorOutput);
+    }
+}
@@ -0,0 +1,78 @@
+package benchmark;
+
+import core.math.Matrix4;
+import core.math.Vector4;
+import core.utility.Buffers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.FloatBuffer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Matrix products, inverses, vector transforms and buffer uploads as done per shape and per joint every frame.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Matrix4Benchmark {
+    private Matrix4 affine;
+    private Matrix4 projective;
+    private Matrix4 output;
+    private Vector4 vector;
+    private Vector4 vectorOutput;
+    private FloatBuffer buffer;
+
+    @Setup
+    public void setup() {
+        affine = Samples.affineMatrix(new Matrix4());
+        projective = Samples.projectiveMatrix(new Matrix4());
+        output = new Matrix4();
+        vector = new Vector4(0.3f, -1.2f, 4.5f, 1f);
+        vectorOutput = new Vector4();
+        buffer = Buffers.createFloatBuffer(16);
+    }
+
+    @Benchmark
+    public Matrix4 multiply() {
+        return output.set(affine).multiply(projective);
+    }
+
+    @Benchmark
+    public Matrix4 multiplyAffine() {
+        return output.set(affine).multiplyAffine(affine);
+    }
+
+    @Benchmark
+    public Matrix4 invert() {
+        return output.set(projective).invert();
+    }
+
+    @Benchmark
+    public Matrix4 invertAffine() {
+        return output.set(affine).invertAffine();
+    }
+
+    @Benchmark
+    public Vector4 transform() {
+        return projective.transform(vector, vectorOutput);
+    }
+
+    @Benchmark
+    public FloatBuffer toFloatBuffer() {
+        return affine.toFloatBuffer(buffer);
+    }
+}
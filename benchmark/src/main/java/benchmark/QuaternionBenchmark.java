@@ -0,0 +1,62 @@
+package benchmark;
+
+import core.math.Matrix3;
+import core.math.Quaternion;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Quaternion interpolation and matrix conversions used by keyframe animation and transforms.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class QuaternionBenchmark {
+    private Quaternion start;
+    private Quaternion end;
+    private Quaternion output;
+    private Matrix3 matrix;
+    private Matrix3 matrixOutput;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Samples.SEED);
+
+        start = Samples.rotation(random, new Quaternion());
+        end = Samples.rotation(random, new Quaternion());
+        output = new Quaternion();
+        matrix = Samples.rotation(random, new Quaternion()).toMatrix3(new Matrix3());
+        matrixOutput = new Matrix3();
+    }
+
+    @Benchmark
+    public Quaternion slerp() {
+        return output.set(start).slerp(end, 0.37f);
+    }
+
+    @Benchmark
+    public Matrix3 toMatrix3() {
+        return start.toMatrix3(matrixOutput);
+    }
+
+    @Benchmark
+    public Quaternion fromMatrix3() {
+        return output.fromMatrix3(matrix);
+    }
+}
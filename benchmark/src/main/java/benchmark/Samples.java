@@ -0,0 +1,91 @@
+package benchmark;
+
+import core.BoundingBox;
+import core.Camera;
+import core.Transform;
+import core.math.EngineMath;
+import core.math.Matrix4;
+import core.math.Quaternion;
+import core.math.Vector3;
+
+import java.util.Random;
+
+/**
+ * Deterministic inputs shared by the benchmarks, so runs across releases measure the same work.
+ *
+ * @author John Paul Quijano
+ */
+final class Samples {
+    static final long SEED = 0x5EEDL;
+
+    private Samples() {}
+
+    /**
+     * Gives a translation, rotation and scale matrix.
+     */
+    static Matrix4 affineMatrix(Matrix4 output) {
+        return output.set(transform(new Random(SEED), new Transform()).toMatrix());
+    }
+
+    /**
+     * Gives a view-projection matrix of a perspective camera.
+     */
+    static Matrix4 projectiveMatrix(Matrix4 output) {
+        return output.set(camera().getViewProjectionMatrix());
+    }
+
+    /**
+     * Gives a random unit quaternion.
+     */
+    static Quaternion rotation(Random random, Quaternion output) {
+        return output.fromAngles(angle(random), angle(random), angle(random));
+    }
+
+    /**
+     * Gives a random transform with a non-uniform scale.
+     */
+    static Transform transform(Random random, Transform output) {
+        Quaternion rotation = rotation(random, new Quaternion());
+
+        output.setRotation(rotation);
+        output.setScale(0.5f + random.nextFloat(), 0.5f + random.nextFloat(), 0.5f + random.nextFloat());
+        output.setTranslation(coordinate(random), coordinate(random), coordinate(random));
+
+        return output;
+    }
+
+    /**
+     * Gives the given number of boxes scattered around the origin.
+     */
+    static BoundingBox[] boxes(Random random, int count) {
+        BoundingBox[] boxes = new BoundingBox[count];
+
+        for (int i = 0; i < count; i++) {
+            boxes[i] = new BoundingBox(new Vector3(0.5f + random.nextFloat(), 0.5f + random.nextFloat(), 0.5f + random.nextFloat()),
+                    new Vector3(coordinate(random), coordinate(random), coordinate(random)));
+        }
+
+        return boxes;
+    }
+
+    /**
+     * Gives a perspective camera at (0, 5, 30) looking at the origin, with its matrices and frustum up to date.
+     */
+    static Camera camera() {
+        Camera camera = new Camera(EngineMath.QUARTER_PI, 16f / 9f, 0.1f, 100f);
+
+        camera.setLocation(0f, 5f, 30f);
+        camera.lookAt(0f, 0f, 0f, Vector3.UNIT_Y);
+        camera.updateViewProjection();
+
+        return camera;
+    }
+
+    private static float angle(Random random) {
+        return (random.nextFloat() * 2f - 1f) * EngineMath.PI;
+    }
+
+    private static float coordinate(Random random) {
+        return (random.nextFloat() * 2f - 1f) * 50f;
+    }
+}
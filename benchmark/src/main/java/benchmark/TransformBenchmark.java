@@ -0,0 +1,58 @@
+package benchmark;
+
+import core.Transform;
+import core.math.Matrix4;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * World transform propagation, which combines every spatial's local transform with its parent's then rebuilds its
+ * matrix.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class TransformBenchmark {
+    private Transform local;
+    private Transform parent;
+    private Transform output;
+
+    @Setup
+    public void setup() {
+        Random random = new Random(Samples.SEED);
+
+        local = Samples.transform(random, new Transform());
+        parent = Samples.transform(random, new Transform());
+        output = new Transform();
+    }
+
+    @Benchmark
+    public Transform combine() {
+        return local.combine(parent, output);
+    }
+
+    /**
+     * The transform is modified first, since its matrix is cached until then.
+     */
+    @Benchmark
+    public Matrix4 toMatrix() {
+        output.set(local);
+        return output.toMatrix();
+    }
+}
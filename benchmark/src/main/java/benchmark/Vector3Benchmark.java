@@ -0,0 +1,69 @@
+package benchmark;
+
+import core.math.Vector3;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Chained vector arithmetic as found in bounding box, camera and transform code.
+ *
+ * @author John Paul Quijano
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class Vector3Benchmark {
+    private Vector3 a;
+    private Vector3 b;
+    private Vector3 output;
+
+    @Setup
+    public void setup() {
+        a = new Vector3(1.5f, -2.25f, 3.75f);
+        b = new Vector3(-0.5f, 4f, 0.125f);
+        output = new Vector3();
+    }
+
+    @Benchmark
+    public Vector3 addMultiply() {
+        return output.set(a).add(b).multiply(0.5f);
+    }
+
+    @Benchmark
+    public Vector3 cross() {
+        return output.set(a).cross(b);
+    }
+
+    @Benchmark
+    public float dot() {
+        return a.dot(b);
+    }
+
+    @Benchmark
+    public Vector3 normalize() {
+        return output.set(a).normalize();
+    }
+
+    @Benchmark
+    public Vector3 lerp() {
+        return output.set(a).lerp(b, 0.37f);
+    }
+
+    @Benchmark
+    public float distance() {
+        return a.distance(b);
+    }
+}
@@ -0,0 +1,268 @@
+package core;
+
+import core.animation.Animation;
+import core.importer.AnimationImporter;
+import core.importer.GeometryImporter;
+import core.utility.EngineException;
+import core.utility.Reader;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Loads assets in the background. Files are read and decoded on a pool of worker threads, then the finished objects
+ * are handed to the render thread through a bounded queue. Every frame, the engine drains the queue for up to the
+ * frame budget, building graphics objects and completing their futures on the render thread. Callbacks attached to the
+ * returned futures therefore run on the render thread and may modify the scene.
+ *
+ * @author John Paul Quijano
+ */
+public final class AssetLoader {
+    public static final int DEFAULT_QUEUE_CAPACITY = 64;
+    public static final long DEFAULT_FRAME_BUDGET = 4000000L;
+
+    private long frameBudget;
+    private Renderer renderer;
+    private ExecutorService workers;
+    private BlockingQueue<Completion<?>> completions;
+    private AtomicInteger pending;
+
+    /**
+     * @param renderer - renderer used to build graphics objects
+     */
+    AssetLoader(Renderer renderer) {
+        this.renderer = renderer;
+
+        frameBudget = DEFAULT_FRAME_BUDGET;
+        pending = new AtomicInteger();
+        completions = new ArrayBlockingQueue<>(DEFAULT_QUEUE_CAPACITY);
+        workers = Executors.newFixedThreadPool(Math.max(1, Runtime.getRuntime().availableProcessors() - 1), new ThreadFactory() {
+            private final AtomicInteger count = new AtomicInteger();
+
+            @Override
+            public Thread newThread(Runnable runnable) {
+                Thread thread = new Thread(runnable, "asset-loader-" + count.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }
+        });
+    }
+
+    /**
+     * Sets the maximum time spent each frame on building and completing loaded assets. At least one asset is
+     * completed per frame regardless of the budget.
+     *
+     * @param nanos - frame budget in nanoseconds
+     */
+    public void setFrameBudget(long nanos) {
+        if (nanos < 0) {
+            throw new EngineException("Frame budget cannot be negative.");
+        }
+
+        frameBudget = nanos;
+    }
+
+    /**
+     * Gives the maximum time spent each frame on building and completing loaded assets.
+     *
+     * @return frame budget in nanoseconds
+     */
+    public long getFrameBudget() {
+        return frameBudget;
+    }
+
+    /**
+     * Gives the number of loads that have not been completed.
+     *
+     * @return number of pending loads
+     */
+    public int numPending() {
+        return pending.get();
+    }
+
+    /**
+     * Imports a geometry in the background. The geometry is built on the render thread before the future completes.
+     * Loads sharing an importer run one at a time.
+     *
+     * @param path - path to the input file
+     * @param importer - importer for the file's format
+     *
+     * @return future of the imported geometry
+     */
+    public CompletableFuture<ShapeGeometry> loadGeometry(final String path, final GeometryImporter importer) {
+        return submit(new Callable<ShapeGeometry>() {
+            @Override
+            public ShapeGeometry call() {
+                synchronized (importer) {
+                    return importer.importFile(path);
+                }
+            }
+        });
+    }
+
+    /**
+     * Imports an animation in the background. Loads sharing an importer run one at a time.
+     *
+     * @param path - path to the input file
+     * @param importer - importer for the file's format
+     *
+     * @return future of the imported animation
+     */
+    public CompletableFuture<Animation> loadAnimation(final String path, final AnimationImporter importer) {
+        return submit(new Callable<Animation>() {
+            @Override
+            public Animation call() {
+                synchronized (importer) {
+                    return importer.importFile(path);
+                }
+            }
+        });
+    }
+
+    /**
+     * Decodes an image in the background.
+     *
+     * @param path - image file location
+     * @param flip - if true, data decoding is reversed
+     *
+     * @return future of the decoded image
+     */
+    public CompletableFuture<Image> loadImage(final String path, final boolean flip) {
+        return submit(new Callable<Image>() {
+            @Override
+            public Image call() {
+                return new Image(path, flip);
+            }
+        });
+    }
+
+    /**
+     * Decodes an image in the background into a texture. The texture is built on the render thread before the future
+     * completes.
+     *
+     * @param path - image file location
+     * @param flip - if true, data decoding is reversed
+     * @param mipmapped - if true, mipmaps are generated
+     *
+     * @return future of the created texture
+     */
+    public CompletableFuture<Texture> loadTexture(final String path, final boolean flip, final boolean mipmapped) {
+        return submit(new Callable<Texture>() {
+            @Override
+            public Texture call() {
+                Texture texture = new Texture(mipmapped);
+                texture.setImage(new Image(path, flip));
+                return texture;
+            }
+        });
+    }
+
+    /**
+     * Reads a text file in the background.
+     *
+     * @param path - file path
+     *
+     * @return future of the file's contents
+     */
+    public CompletableFuture<String> loadText(final String path) {
+        return submit(new Callable<String>() {
+            @Override
+            public String call() {
+                return Reader.read(path);
+            }
+        });
+    }
+
+    /**
+     * Runs the given task on a worker thread. A result that is a graphics object is built on the render thread before
+     * the future completes.
+     *
+     * @param task - task that creates the asset
+     *
+     * @return future of the task's result
+     */
+    public <T> CompletableFuture<T> submit(final Callable<T> task) {
+        final Completion<T> completion = new Completion<>();
+
+        pending.incrementAndGet();
+
+        workers.execute(new Runnable() {
+            @Override
+            public void run() {
+                try {
+                    completion.result = task.call();
+                } catch (Throwable ex) {
+                    completion.error = ex;
+                }
+
+                try {
+                    completions.put(completion);
+                } catch (InterruptedException ex) {
+                    pending.decrementAndGet();
+                    completion.future.completeExceptionally(ex);
+                    Thread.currentThread().interrupt();
+                }
+            }
+        });
+
+        return completion.future;
+    }
+
+    /**
+     * Builds and completes finished assets until the queue is empty or the frame budget is used up. This is called
+     * by the engine on the render thread once per frame.
+     */
+    void update() {
+        long start = System.nanoTime();
+
+        do {
+            Completion<?> completion = completions.poll();
+
+            if (completion == null) {
+                break;
+            }
+
+            pending.decrementAndGet();
+            completion.complete(renderer);
+        } while (System.nanoTime() - start < frameBudget);
+    }
+
+    /**
+     * A finished task waiting for the render thread.
+     */
+    private static final class Completion<T> {
+        private final CompletableFuture<T> future;
+        private T result;
+        private Throwable error;
+
+        Completion() {
+            future = new CompletableFuture<>();
+        }
+
+        void complete(Renderer renderer) {
+            if (future.isDone()) { /** cancelled by the caller */
+                return;
+            }
+
+            if (error == null && result instanceof GraphicsObject) {
+                try {
+                    renderer.build((GraphicsObject) result);
+                } catch (RuntimeException ex) {
+                    error = ex;
+                }
+            }
+
+            if (error != null) {
+                future.completeExceptionally(error);
+            } else {
+                future.complete(result);
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package core;
+
+import core.math.Ray;
+
+import java.util.Arrays;
+
+/**
+ * Splits runs of boxes with the binned surface area heuristic, for hierarchies that keep their boxes in flat arrays
+ * of six floats each, the minimum followed by the maximum. The boxes are never moved; a split only reorders the
+ * indices pointing at them. Also holds the operations on such arrays that the hierarchies share.
+ *
+ * @author John Paul Quijano
+ */
+final class BinnedSplitter {
+    private static final int NUM_BINS = 16;
+
+    private final int[] binCount;
+    private final float[] binBounds;
+    private final float[] rightArea;
+    private final int[] rightCount;
+    private final float[] centroidBounds;
+    private final float[] sweepBounds;
+
+    BinnedSplitter() {
+        binCount = new int[NUM_BINS];
+        binBounds = new float[NUM_BINS * 6];
+        rightArea = new float[NUM_BINS];
+        rightCount = new int[NUM_BINS];
+        centroidBounds = new float[6];
+        sweepBounds = new float[6];
+    }
+
+    /**
+     * Partitions the given run of indices along the binned split with the lowest surface area cost. If every
+     * centroid coincides, the run is split in half.
+     *
+     * @param bounds - boxes, six floats each
+     * @param order - indices of the boxes, partitioned in place
+     * @param first - position of the first index of the run
+     * @param count - number of indices in the run
+     *
+     * @return position of the first index of the right half
+     */
+    int split(float[] bounds, int[] order, int first, int count) {
+        resetBounds(centroidBounds, 0);
+
+        /** centroids are kept doubled, as the sum of the minimum and maximum, since only their order matters */
+        for (int k = first; k < first + count; k++) {
+            int offset = order[k] * 6;
+
+            for (int axis = 0; axis < 3; axis++) {
+                float centroid = bounds[offset + axis] + bounds[offset + 3 + axis];
+
+                centroidBounds[axis] = Math.min(centroidBounds[axis], centroid);
+                centroidBounds[axis + 3] = Math.max(centroidBounds[axis + 3], centroid);
+            }
+        }
+
+        int bestAxis = -1;
+        int bestBin = 0;
+        float bestCost = Float.MAX_VALUE;
+
+        for (int axis = 0; axis < 3; axis++) {
+            float length = centroidBounds[axis + 3] - centroidBounds[axis];
+
+            if (!(length > 0f)) {
+                continue;
+            }
+
+            float scale = NUM_BINS / length;
+
+            Arrays.fill(binCount, 0);
+
+            for (int b = 0; b < NUM_BINS; b++) {
+                resetBounds(binBounds, b * 6);
+            }
+
+            for (int k = first; k < first + count; k++) {
+                int b = getBin(bounds, order[k], axis, centroidBounds[axis], scale);
+
+                binCount[b]++;
+                growBounds(binBounds, b * 6, bounds, order[k] * 6);
+            }
+
+            int total = 0;
+
+            resetBounds(sweepBounds, 0);
+
+            for (int b = NUM_BINS - 1; b > 0; b--) {
+                total += binCount[b];
+                growBounds(sweepBounds, 0, binBounds, b * 6);
+                rightCount[b] = total;
+                rightArea[b] = area(sweepBounds, 0);
+            }
+
+            total = 0;
+            resetBounds(sweepBounds, 0);
+
+            for (int b = 0; b < NUM_BINS - 1; b++) {
+                total += binCount[b];
+                growBounds(sweepBounds, 0, binBounds, b * 6);
+
+                if (total > 0 && rightCount[b + 1] > 0) {
+                    float splitCost = area(sweepBounds, 0) * total + rightArea[b + 1] * rightCount[b + 1];
+
+                    if (splitCost < bestCost) {
+                        bestCost = splitCost;
+                        bestAxis = axis;
+                        bestBin = b;
+                    }
+                }
+            }
+        }
+
+        if (bestAxis < 0) { /** all centroids coincide, so any split is as good as another */
+            return first + count / 2;
+        }
+
+        float scale = NUM_BINS / (centroidBounds[bestAxis + 3] - centroidBounds[bestAxis]);
+        int i = first;
+        int j = first + count - 1;
+
+        while (i <= j) {
+            if (getBin(bounds, order[i], bestAxis, centroidBounds[bestAxis], scale) <= bestBin) {
+                i++;
+            } else {
+                int swap = order[i];
+
+                order[i] = order[j];
+                order[j--] = swap;
+            }
+        }
+
+        return i;
+    }
+
+    private static int getBin(float[] bounds, int index, int axis, float min, float scale) {
+        int offset = index * 6;
+        float centroid = bounds[offset + axis] + bounds[offset + 3 + axis];
+
+        return Math.min(NUM_BINS - 1, (int) ((centroid - min) * scale));
+    }
+
+    /**
+     * Casts the given ray at the box at the given offset.
+     *
+     * @return distance to where the ray enters the box or positive infinity if the ray misses it
+     */
+    static float intersect(Ray ray, float[] bounds, int offset) {
+        return ray.intersectBox(bounds[offset], bounds[offset + 1], bounds[offset + 2],
+            bounds[offset + 3], bounds[offset + 4], bounds[offset + 5]);
+    }
+
+    static void resetBounds(float[] bounds, int offset) {
+        bounds[offset] = Float.MAX_VALUE;
+        bounds[offset + 1] = Float.MAX_VALUE;
+        bounds[offset + 2] = Float.MAX_VALUE;
+        bounds[offset + 3] = -Float.MAX_VALUE;
+        bounds[offset + 4] = -Float.MAX_VALUE;
+        bounds[offset + 5] = -Float.MAX_VALUE;
+    }
+
+    static void growBounds(float[] bounds, int offset, float[] source, int sourceOffset) {
+        bounds[offset] = Math.min(bounds[offset], source[sourceOffset]);
+        bounds[offset + 1] = Math.min(bounds[offset + 1], source[sourceOffset + 1]);
+        bounds[offset + 2] = Math.min(bounds[offset + 2], source[sourceOffset + 2]);
+        bounds[offset + 3] = Math.max(bounds[offset + 3], source[sourceOffset + 3]);
+        bounds[offset + 4] = Math.max(bounds[offset + 4], source[sourceOffset + 4]);
+        bounds[offset + 5] = Math.max(bounds[offset + 5], source[sourceOffset + 5]);
+    }
+
+    /**
+     * Gives half the surface area of the given bounds, which is all the heuristic needs.
+     */
+    static float area(float[] bounds, int offset) {
+        float x = bounds[offset + 3] - bounds[offset];
+        float y = bounds[offset + 4] - bounds[offset + 1];
+        float z = bounds[offset + 5] - bounds[offset + 2];
+
+        if (x < 0f || y < 0f || z < 0f) {
+            return 0f;
+        }
+
+        return x * y + y * z + z * x;
+    }
+}
@@ -4,6 +4,7 @@ import core.buffer.Vector3Buffer;
 import core.math.EngineMath;
 import core.math.Matrix3;
 import core.math.Plane;
+import core.math.Ray;
 import core.math.Vector3;
 import core.utility.EngineException;
 import core.utility.Poolable;
@@ -374,9 +375,40 @@ public class BoundingBox implements Poolable {
             return true;
         }
 
-        return !(center.getX() + extent.getX() < boundingBox.center.getX() - boundingBox.extent.getX() || center.getX() - extent.getX() > boundingBox.center.getX() + boundingBox.extent.getX())
-                || (center.getY() + extent.getY() < boundingBox.center.getY() - boundingBox.extent.getY() || center.getY() - extent.getY() > boundingBox.center.getY() + boundingBox.extent.getY())
-                || (center.getZ() + extent.getZ() < boundingBox.center.getZ() - boundingBox.extent.getZ() || center.getZ() - extent.getX() > boundingBox.center.getZ() + boundingBox.extent.getZ());
+        return !(center.getX() + extent.getX() < boundingBox.center.getX() - boundingBox.extent.getX() || center.getX() - extent.getX() > boundingBox.center.getX() + boundingBox.extent.getX()
+                || center.getY() + extent.getY() < boundingBox.center.getY() - boundingBox.extent.getY() || center.getY() - extent.getY() > boundingBox.center.getY() + boundingBox.extent.getY()
+                || center.getZ() + extent.getZ() < boundingBox.center.getZ() - boundingBox.extent.getZ() || center.getZ() - extent.getZ() > boundingBox.center.getZ() + boundingBox.extent.getZ());
+    }
+
+    /**
+     * Calculates where the given ray enters this bounding box using the slab method. This immediately returns zero if
+     * this bounding box is infinite. Distances are measured in multiples of the ray direction's length.
+     *
+     * @param ray - ray to test intersection with
+     *
+     * @return distance to where the ray enters this bounding box, zero if the ray starts inside it or positive infinity
+     * if the ray misses it
+     */
+    public float intersect(Ray ray) {
+        if (isInfinite()) {
+            return 0f;
+        }
+
+        return ray.intersectBox(center.getX() - extent.getX(), center.getY() - extent.getY(), center.getZ() - extent.getZ(),
+                center.getX() + extent.getX(), center.getY() + extent.getY(), center.getZ() + extent.getZ());
+    }
+
+    /**
+     * Tests intersection with the given ray within the given distance.
+     *
+     * @param ray - ray to test intersection with
+     * @param maxDistance - distance beyond which the ray is ignored, in multiples of the ray direction's length, which
+     * may be infinite
+     *
+     * @return true if the ray enters this bounding box no farther than the given distance
+     */
+    public boolean intersects(Ray ray, float maxDistance) {
+        return intersect(ray) <= Math.min(maxDistance, Float.MAX_VALUE);
     }
 
     /**
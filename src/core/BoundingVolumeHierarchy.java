@@ -0,0 +1,678 @@
+package core;
+
+import core.math.Ray;
+import core.math.Vector3;
+import core.utility.EngineException;
+import core.utility.IntArray;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A bounding volume hierarchy over the world bounds of every enabled shape in a scene, regardless of how the scene
+ * graph groups them. Nodes are split with the binned surface area heuristic and stored in flat arrays, with the shapes
+ * of each subtree kept contiguous so that a subtree completely inside a query is taken without further tests.
+ * <p>
+ * The hierarchy is refitted each frame from the spatials whose transform or bounds were set, growing only the nodes
+ * above the shapes within them. Refitting keeps the hierarchy correct but loosens it, so it is rebuilt once its surface area cost exceeds the
+ * cost at the last build by the rebuild ratio. Attaching, detaching, enabling or disabling spatials also triggers a
+ * rebuild. Shapes with infinite bounds are kept outside the hierarchy and are part of every query result.
+ *
+ * @author John Paul Quijano
+ */
+public final class BoundingVolumeHierarchy implements SpatialIndex<Shape> {
+    public static final int DEFAULT_LEAF_SIZE = 4;
+    public static final float DEFAULT_REBUILD_RATIO = 1.5f;
+
+    private static final float TRAVERSAL_COST = 1f;
+
+    private int leafSize;
+    private float rebuildRatio;
+    private float buildCost;
+    private float cost;
+    private float costSum;
+    private int structureVersion;
+    private boolean rebuildNeeded;
+    private Spatial scene;
+    private ChangeLog changes;
+
+    private List<Shape> shapes;
+    private List<Shape> unbounded;
+    private List<Spatial> pending;
+    private Map<Spatial, Integer> shapeIndices;
+    private float[] shapeBounds;
+    private int[] shapeLeaf;
+    private int[] order;
+
+    private int numNodes;
+    private int mark;
+    private float[] nodeBounds;
+    private int[] nodeFirst;
+    private int[] nodeCount;
+    private int[] nodeLeft;
+    private int[] nodeParent;
+    private int[] nodeMark;
+
+    private int[] stack;
+    private int[] maskStack;
+    private BinnedSplitter splitter;
+    private IntArray refitNodes;
+    private BoundingBox nodeBox;
+
+    public BoundingVolumeHierarchy() {
+        leafSize = DEFAULT_LEAF_SIZE;
+        rebuildRatio = DEFAULT_REBUILD_RATIO;
+        shapes = new ArrayList<>();
+        unbounded = new ArrayList<>();
+        pending = new ArrayList<>();
+        shapeIndices = new IdentityHashMap<>();
+        shapeBounds = new float[0];
+        shapeLeaf = new int[0];
+        order = new int[0];
+        nodeBounds = new float[0];
+        nodeFirst = new int[0];
+        nodeCount = new int[0];
+        nodeLeft = new int[0];
+        nodeParent = new int[0];
+        nodeMark = new int[0];
+        stack = new int[0];
+        maskStack = new int[0];
+        splitter = new BinnedSplitter();
+        refitNodes = new IntArray();
+        nodeBox = new BoundingBox();
+    }
+
+    /**
+     * Sets the number of shapes at which a node stops being split. Takes effect on the next build.
+     *
+     * @param leafSize - maximum number of shapes in a leaf node
+     */
+    public void setLeafSize(int leafSize) {
+        if (leafSize < 1) {
+            throw new EngineException("Leaf size must be at least 1.");
+        }
+
+        this.leafSize = leafSize;
+    }
+
+    /**
+     * Gives the number of shapes at which a node stops being split.
+     *
+     * @return maximum number of shapes in a leaf node
+     */
+    public int getLeafSize() {
+        return leafSize;
+    }
+
+    /**
+     * Sets how much refitting may raise the cost of this hierarchy before it is rebuilt.
+     *
+     * @param ratio - ratio of the current cost to the cost at the last build
+     */
+    public void setRebuildRatio(float ratio) {
+        if (ratio < 1f) {
+            throw new EngineException("Rebuild ratio cannot be less than 1.");
+        }
+
+        rebuildRatio = ratio;
+    }
+
+    /**
+     * Gives how much refitting may raise the cost of this hierarchy before it is rebuilt.
+     *
+     * @return ratio of the current cost to the cost at the last build
+     */
+    public float getRebuildRatio() {
+        return rebuildRatio;
+    }
+
+    /**
+     * Gives the surface area heuristic cost of this hierarchy, relative to the area of the root.
+     *
+     * @return current cost
+     */
+    public float getCost() {
+        return cost;
+    }
+
+    /**
+     * Gives the number of shapes in this hierarchy, including the ones with infinite bounds.
+     *
+     * @return number of shapes
+     */
+    public int size() {
+        return shapes.size() + unbounded.size();
+    }
+
+    /**
+     * Gives the number of nodes in this hierarchy.
+     *
+     * @return number of nodes
+     */
+    public int numNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Brings this hierarchy up to date with the given scene. This rebuilds the hierarchy if the scene changed, if
+     * spatials were attached, detached, enabled or disabled since the last build, or if refitting degraded it past
+     * the rebuild ratio. Otherwise, the bounds of changed shapes are refitted. This must be called after the world
+     * bounds of the scene have been calculated.
+     *
+     * @param scene - scene graph
+     */
+    @Override
+    public void update(Spatial scene) {
+        if (scene != this.scene || scene != null && structureVersion != scene.getStructureVersion() || rebuildNeeded) {
+            build(scene);
+            return;
+        }
+
+        refit();
+
+        if (rebuildNeeded || cost > buildCost * rebuildRatio) {
+            build(scene);
+        }
+    }
+
+    /**
+     * Builds this hierarchy from every enabled shape in the given scene.
+     *
+     * @param scene - scene graph
+     */
+    public void build(Spatial scene) {
+        this.scene = scene;
+
+        structureVersion = scene != null ? scene.getStructureVersion() : 0;
+        changes = ChangeLog.reopen(changes, scene);
+        rebuildNeeded = false;
+
+        collect(scene);
+
+        int n = shapes.size();
+
+        shapeIndices.clear();
+
+        for (int i = 0; i < n; i++) {
+            shapeIndices.put(shapes.get(i), i);
+        }
+
+        for (Shape shape : unbounded) {
+            shapeIndices.put(shape, -1);
+        }
+
+        if (order.length < n) {
+            shapeBounds = new float[n * 6];
+            shapeLeaf = new int[n];
+            order = new int[n];
+        }
+
+        for (int i = 0; i < n; i++) {
+            storeBounds(i, shapes.get(i).worldBoundingBox);
+            order[i] = i;
+        }
+
+        numNodes = 0;
+
+        if (n > 0) {
+            ensureNodeCapacity(2 * n);
+
+            int top = 0;
+
+            stack[top++] = allocateNode(-1, 0, n);
+
+            while (top > 0) {
+                int node = stack[--top];
+
+                if (split(node)) {
+                    stack[top++] = nodeLeft[node];
+                    stack[top++] = nodeLeft[node] + 1;
+                } else {
+                    for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+                        shapeLeaf[order[k]] = node;
+                    }
+                }
+            }
+        }
+
+        cost = calculateCost();
+        buildCost = cost;
+    }
+
+    /**
+     * Refits the hierarchy to the shapes within the spatials whose transform or bounds were set since the last build
+     * or refit. Only the leaves holding those shapes and their ancestors are recalculated.
+     */
+    public void refit() {
+        mark++;
+        refitNodes.clear();
+        pending.clear();
+
+        if (changes != null) {
+            for (int i = 0; i < changes.size(); i++) {
+                pending.add(changes.get(i));
+            }
+
+            changes.clear();
+        }
+
+        while (!pending.isEmpty()) {
+            Spatial current = pending.remove(pending.size() - 1);
+
+            if (!current.isEnabled()) {
+                continue;
+            }
+
+            if (!current.isLeaf()) {
+                for (Spatial child : current) {
+                    pending.add(child);
+                }
+
+                continue;
+            }
+
+            Integer index = shapeIndices.get(current);
+
+            if (index == null) { /** not part of this hierarchy */
+                continue;
+            }
+
+            if (index < 0) { /** shapes with infinite bounds only move into the hierarchy by a rebuild */
+                if (!current.worldBoundingBox.isInfinite()) {
+                    rebuildNeeded = true;
+                }
+            } else if (current.worldBoundingBox.isInfinite()) {
+                rebuildNeeded = true;
+            } else if (storeBounds(index, current.worldBoundingBox)) {
+                markPath(shapeLeaf[index]);
+            }
+        }
+
+        if (refitNodes.size() > 0) {
+            int[] nodes = refitNodes.array();
+
+            Arrays.sort(nodes, 0, refitNodes.size());
+
+            /** children are allocated after their parents, so descending order visits children first */
+            for (int i = refitNodes.size() - 1; i >= 0; i--) {
+                int node = nodes[i];
+
+                costSum -= getWeightedArea(node);
+
+                if (nodeLeft[node] < 0) {
+                    calculateNodeBounds(node);
+                } else {
+                    combineChildBounds(node);
+                }
+
+                costSum += getWeightedArea(node);
+            }
+
+            cost = getCost(costSum);
+        }
+    }
+
+    /**
+     * Collects shapes whose bounds intersect or are completely within the given camera's view frustum.
+     *
+     * @param camera - camera to test against
+     * @param output - list to append the shapes to
+     *
+     * @return output list
+     */
+    @Override
+    public List<Shape> query(Camera camera, List<Shape> output) {
+        int cullPlane = 0;
+        int top = 0;
+
+        if (numNodes > 0) {
+            stack[top] = 0;
+            maskStack[top++] = Camera.ALL_PLANES;
+        }
+
+        while (top > 0) {
+            top--;
+
+            int node = stack[top];
+            int mask = camera.intersects(getNodeBounds(node), maskStack[top]);
+
+            if (mask == Camera.CULLED) {
+                continue;
+            }
+
+            if (mask == 0) {
+                addShapes(node, output);
+            } else if (nodeLeft[node] < 0) {
+                for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+                    Shape shape = shapes.get(order[k]);
+                    int shapeMask = camera.cull(shape.worldBoundingBox, mask, cullPlane);
+
+                    if (shapeMask < 0) {
+                        cullPlane = ~shapeMask;
+                    } else {
+                        output.add(shape);
+                    }
+                }
+            } else {
+                stack[top] = nodeLeft[node];
+                maskStack[top++] = mask;
+                stack[top] = nodeLeft[node] + 1;
+                maskStack[top++] = mask;
+            }
+        }
+
+        output.addAll(unbounded);
+
+        return output;
+    }
+
+    /**
+     * Collects shapes whose bounds intersect the given bounding box.
+     *
+     * @param boundingBox - bounding box to test against
+     * @param output - list to append the shapes to
+     *
+     * @return output list
+     */
+    @Override
+    public List<Shape> query(BoundingBox boundingBox, List<Shape> output) {
+        if (boundingBox.isInfinite()) {
+            if (numNodes > 0) {
+                addShapes(0, output);
+            }
+
+            output.addAll(unbounded);
+
+            return output;
+        }
+
+        Vector3 center = boundingBox.getCenter();
+        Vector3 extent = boundingBox.getExtent();
+        float minX = center.getX() - extent.getX();
+        float minY = center.getY() - extent.getY();
+        float minZ = center.getZ() - extent.getZ();
+        float maxX = center.getX() + extent.getX();
+        float maxY = center.getY() + extent.getY();
+        float maxZ = center.getZ() + extent.getZ();
+        int top = 0;
+
+        if (numNodes > 0) {
+            stack[top++] = 0;
+        }
+
+        while (top > 0) {
+            int node = stack[--top];
+
+            if (!overlaps(nodeBounds, node * 6, minX, minY, minZ, maxX, maxY, maxZ)) {
+                continue;
+            }
+
+            if (nodeLeft[node] < 0) {
+                for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+                    if (overlaps(shapeBounds, order[k] * 6, minX, minY, minZ, maxX, maxY, maxZ)) {
+                        output.add(shapes.get(order[k]));
+                    }
+                }
+            } else {
+                stack[top++] = nodeLeft[node];
+                stack[top++] = nodeLeft[node] + 1;
+            }
+        }
+
+        output.addAll(unbounded);
+
+        return output;
+    }
+
+    /**
+     * Collects shapes whose bounds the given ray passes through within the given distance.
+     *
+     * @param ray - ray to cast
+     * @param maxDistance - distance beyond which shapes are ignored, in multiples of the ray direction's length
+     * @param output - list to append the shapes to
+     *
+     * @return output list
+     */
+    @Override
+    public List<Shape> query(Ray ray, float maxDistance, List<Shape> output) {
+        maxDistance = Math.min(maxDistance, Float.MAX_VALUE); /** a miss is infinitely far, so it must not pass */
+
+        int top = 0;
+
+        if (numNodes > 0) {
+            stack[top++] = 0;
+        }
+
+        while (top > 0) {
+            int node = stack[--top];
+
+            if (BinnedSplitter.intersect(ray, nodeBounds, node * 6) > maxDistance) {
+                continue;
+            }
+
+            if (nodeLeft[node] < 0) {
+                for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+                    if (BinnedSplitter.intersect(ray, shapeBounds, order[k] * 6) <= maxDistance) {
+                        output.add(shapes.get(order[k]));
+                    }
+                }
+            } else {
+                stack[top++] = nodeLeft[node];
+                stack[top++] = nodeLeft[node] + 1;
+            }
+        }
+
+        output.addAll(unbounded);
+
+        return output;
+    }
+
+    /**
+     * Gathers every enabled shape that the renderer's traversal would reach.
+     */
+    private void collect(Spatial scene) {
+        shapes.clear();
+        unbounded.clear();
+        pending.clear();
+
+        if (scene != null) {
+            pending.add(scene);
+        }
+
+        while (!pending.isEmpty()) {
+            Spatial current = pending.remove(pending.size() - 1);
+
+            if (!current.isEnabled()) {
+                continue;
+            }
+
+            if (current.isLeaf()) {
+                if (current instanceof Shape) {
+                    if (current.worldBoundingBox.isInfinite()) {
+                        unbounded.add((Shape) current);
+                    } else {
+                        shapes.add((Shape) current);
+                    }
+                }
+            } else {
+                for (Spatial child : current) {
+                    pending.add(child);
+                }
+            }
+        }
+    }
+
+    /**
+     * Splits the given node into two children along the binned split with the lowest surface area cost.
+     *
+     * @return false if the node is a leaf
+     */
+    private boolean split(int node) {
+        int first = nodeFirst[node];
+        int count = nodeCount[node];
+
+        if (count <= leafSize) {
+            return false;
+        }
+
+        int middle = splitter.split(shapeBounds, order, first, count);
+        int left = allocateNode(node, first, middle - first);
+
+        allocateNode(node, middle, first + count - middle);
+        nodeLeft[node] = left;
+
+        return true;
+    }
+
+    private int allocateNode(int parent, int first, int count) {
+        int node = numNodes++;
+
+        nodeFirst[node] = first;
+        nodeCount[node] = count;
+        nodeLeft[node] = -1;
+        nodeParent[node] = parent;
+        nodeMark[node] = mark;
+
+        calculateNodeBounds(node);
+
+        return node;
+    }
+
+    private void ensureNodeCapacity(int capacity) {
+        if (nodeFirst.length < capacity) {
+            nodeBounds = new float[capacity * 6];
+            nodeFirst = new int[capacity];
+            nodeCount = new int[capacity];
+            nodeLeft = new int[capacity];
+            nodeParent = new int[capacity];
+            nodeMark = new int[capacity];
+            stack = new int[capacity + 1];
+            maskStack = new int[capacity + 1];
+        }
+    }
+
+    /**
+     * Copies the given box into the bounds of the shape at the given index.
+     *
+     * @return true if the stored bounds changed
+     */
+    private boolean storeBounds(int index, BoundingBox box) {
+        Vector3 center = box.getCenter();
+        Vector3 extent = box.getExtent();
+        int offset = index * 6;
+        float minX = center.getX() - extent.getX();
+        float minY = center.getY() - extent.getY();
+        float minZ = center.getZ() - extent.getZ();
+        float maxX = center.getX() + extent.getX();
+        float maxY = center.getY() + extent.getY();
+        float maxZ = center.getZ() + extent.getZ();
+
+        if (shapeBounds[offset] == minX && shapeBounds[offset + 1] == minY && shapeBounds[offset + 2] == minZ
+                && shapeBounds[offset + 3] == maxX && shapeBounds[offset + 4] == maxY && shapeBounds[offset + 5] == maxZ) {
+            return false;
+        }
+
+        shapeBounds[offset] = minX;
+        shapeBounds[offset + 1] = minY;
+        shapeBounds[offset + 2] = minZ;
+        shapeBounds[offset + 3] = maxX;
+        shapeBounds[offset + 4] = maxY;
+        shapeBounds[offset + 5] = maxZ;
+
+        return true;
+    }
+
+    private void markPath(int node) {
+        while (node >= 0 && nodeMark[node] != mark) {
+            nodeMark[node] = mark;
+            refitNodes.add(node);
+            node = nodeParent[node];
+        }
+    }
+
+    private void calculateNodeBounds(int node) {
+        int offset = node * 6;
+
+        BinnedSplitter.resetBounds(nodeBounds, offset);
+
+        for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+            BinnedSplitter.growBounds(nodeBounds, offset, shapeBounds, order[k] * 6);
+        }
+    }
+
+    private void combineChildBounds(int node) {
+        int offset = node * 6;
+
+        System.arraycopy(nodeBounds, nodeLeft[node] * 6, nodeBounds, offset, 6);
+        BinnedSplitter.growBounds(nodeBounds, offset, nodeBounds, (nodeLeft[node] + 1) * 6);
+    }
+
+    /**
+     * Sums the weighted surface areas of all the nodes. Refits keep the sum up to date by replacing the terms of the
+     * nodes they recalculate.
+     */
+    private float calculateCost() {
+        costSum = 0f;
+
+        for (int node = 0; node < numNodes; node++) {
+            costSum += getWeightedArea(node);
+        }
+
+        return getCost(costSum);
+    }
+
+    /**
+     * Gives the given sum of weighted surface areas relative to the root's area.
+     */
+    private float getCost(float sum) {
+        if (numNodes == 0) {
+            return 0f;
+        }
+
+        float rootArea = BinnedSplitter.area(nodeBounds, 0);
+
+        return rootArea > 0f ? sum / rootArea : nodeCount[0];
+    }
+
+    /**
+     * Gives the surface area of the given node, weighted by its number of shapes for leaves.
+     */
+    private float getWeightedArea(int node) {
+        float nodeArea = BinnedSplitter.area(nodeBounds, node * 6);
+
+        return nodeLeft[node] < 0 ? nodeArea * nodeCount[node] : nodeArea * TRAVERSAL_COST;
+    }
+
+    private BoundingBox getNodeBounds(int node) {
+        int offset = node * 6;
+
+        nodeBox.setCenter(
+            (nodeBounds[offset] + nodeBounds[offset + 3]) * 0.5f,
+            (nodeBounds[offset + 1] + nodeBounds[offset + 4]) * 0.5f,
+            (nodeBounds[offset + 2] + nodeBounds[offset + 5]) * 0.5f
+        );
+
+        nodeBox.setExtent(
+            (nodeBounds[offset + 3] - nodeBounds[offset]) * 0.5f,
+            (nodeBounds[offset + 4] - nodeBounds[offset + 1]) * 0.5f,
+            (nodeBounds[offset + 5] - nodeBounds[offset + 2]) * 0.5f
+        );
+
+        return nodeBox;
+    }
+
+    private void addShapes(int node, List<Shape> output) {
+        for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+            output.add(shapes.get(order[k]));
+        }
+    }
+
+    private static boolean overlaps(float[] bounds, int offset, float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        return bounds[offset] <= maxX && bounds[offset + 3] >= minX
+            && bounds[offset + 1] <= maxY && bounds[offset + 4] >= minY
+            && bounds[offset + 2] <= maxZ && bounds[offset + 5] >= minZ;
+    }
+}
@@ -0,0 +1,227 @@
+package core;
+
+import core.math.Plane;
+import core.math.Vector3;
+
+import java.util.Arrays;
+
+/**
+ * A packed list of axis-aligned bounding boxes for culling many boxes at once. Centers and extents are stored as
+ * separate arrays per component, so the culling loop streams through contiguous floats instead of following
+ * references to each box's vectors.
+ * <p>
+ * Culling results are visibility masks, one bit per box: bit i of word i / 64 is set if box i is visible.
+ *
+ * @author John Paul Quijano
+ */
+public final class BoundsBatch {
+    public static final int DEFAULT_CAPACITY = 64;
+
+    private static final int PLANE_STRIDE = 7;
+
+    int size;
+    float[] centerX;
+    float[] centerY;
+    float[] centerZ;
+    float[] extentX;
+    float[] extentY;
+    float[] extentZ;
+
+    private float[] planeData;
+
+    /**
+     * Creates an empty batch with the default capacity.
+     */
+    public BoundsBatch() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty batch with the given capacity.
+     *
+     * @param capacity - number of boxes this batch can hold before growing
+     */
+    public BoundsBatch(int capacity) {
+        capacity = Math.max(capacity, 1);
+
+        centerX = new float[capacity];
+        centerY = new float[capacity];
+        centerZ = new float[capacity];
+        extentX = new float[capacity];
+        extentY = new float[capacity];
+        extentZ = new float[capacity];
+        planeData = new float[6 * PLANE_STRIDE];
+    }
+
+    /**
+     * Checks the visibility bit of the given box.
+     *
+     * @param mask - visibility mask given by a culling method
+     * @param index - index of the box
+     *
+     * @return true if the box is visible
+     */
+    public static boolean isVisible(long[] mask, int index) {
+        return (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * Appends the given bounding box.
+     *
+     * @param box - bounding box to append
+     *
+     * @return index of the box in this batch
+     */
+    public int add(BoundingBox box) {
+        if (size == centerX.length) {
+            grow(size + 1);
+        }
+
+        set(size, box);
+
+        return size++;
+    }
+
+    /**
+     * Overwrites the box at the given index. Infinite boxes are stored with the largest finite extent so that they
+     * pass every plane test.
+     *
+     * @param index - index of the box
+     * @param box - bounding box to copy
+     */
+    public void set(int index, BoundingBox box) {
+        if (index < 0 || index > size || index == centerX.length) {
+            throw new ArrayIndexOutOfBoundsException(index);
+        }
+
+        if (box.isInfinite()) {
+            centerX[index] = 0f;
+            centerY[index] = 0f;
+            centerZ[index] = 0f;
+            extentX[index] = Float.MAX_VALUE;
+            extentY[index] = Float.MAX_VALUE;
+            extentZ[index] = Float.MAX_VALUE;
+        } else {
+            Vector3 center = box.getCenter();
+            Vector3 extent = box.getExtent();
+
+            centerX[index] = center.getX();
+            centerY[index] = center.getY();
+            centerZ[index] = center.getZ();
+            extentX[index] = extent.getX();
+            extentY[index] = extent.getY();
+            extentZ[index] = extent.getZ();
+        }
+    }
+
+    /**
+     * Gives the number of boxes in this batch.
+     *
+     * @return number of boxes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all boxes while keeping the allocated storage.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Gives the number of words in a visibility mask of this batch.
+     *
+     * @return number of 64-bit words needed to hold one bit per box
+     */
+    public int numMaskWords() {
+        return (size + 63) >>> 6;
+    }
+
+    /**
+     * Tests every box against the given planes. A box is culled if it lies entirely on the negative side of any plane,
+     * which matches {@link BoundingBox#position(Plane)} returning {@link Plane.Position#NEGATIVE}.
+     * <p>
+     * Plane data is copied into a flat array first, so the loop reads boxes and planes from contiguous floats only.
+     * Each box stops at the first plane that culls it, which beats testing whole blocks plane by plane when most boxes
+     * are outside the view and the loop cannot be vectorized.
+     *
+     * @param planes - planes to test against
+     * @param output - storage for the visibility mask, replaced if shorter than {@link #numMaskWords()}
+     *
+     * @return visibility mask
+     */
+    long[] cull(Plane[] planes, long[] output) {
+        int numWords = numMaskWords();
+        int planeEnd = planes.length * PLANE_STRIDE;
+
+        if (output == null || output.length < numWords) {
+            output = new long[numWords];
+        }
+
+        if (planeData.length < planeEnd) {
+            planeData = new float[planeEnd];
+        }
+
+        for (int p = 0; p < planes.length; p++) {
+            Vector3 normal = planes[p].getNormal();
+            int offset = p * PLANE_STRIDE;
+
+            planeData[offset] = normal.getX();
+            planeData[offset + 1] = normal.getY();
+            planeData[offset + 2] = normal.getZ();
+            planeData[offset + 3] = planes[p].getConstant();
+            planeData[offset + 4] = Math.abs(normal.getX());
+            planeData[offset + 5] = Math.abs(normal.getY());
+            planeData[offset + 6] = Math.abs(normal.getZ());
+        }
+
+        float[] plane = planeData;
+
+        for (int word = 0; word < numWords; word++) {
+            int start = word << 6;
+            int length = Math.min(64, size - start);
+            long mask = 0L;
+
+            for (int i = 0; i < length; i++) {
+                int j = start + i;
+                float x = centerX[j];
+                float y = centerY[j];
+                float z = centerZ[j];
+                float ex = extentX[j];
+                float ey = extentY[j];
+                float ez = extentZ[j];
+                long visible = 1L;
+
+                for (int offset = 0; offset < planeEnd; offset += PLANE_STRIDE) {
+                    float distance = plane[offset] * x + plane[offset + 1] * y + plane[offset + 2] * z
+                        - plane[offset + 3];
+                    float radius = ex * plane[offset + 4] + ey * plane[offset + 5] + ez * plane[offset + 6];
+
+                    if (distance < -radius) {
+                        visible = 0L;
+                        break;
+                    }
+                }
+
+                mask |= visible << i;
+            }
+
+            output[word] = mask;
+        }
+
+        return output;
+    }
+
+    private void grow(int minCapacity) {
+        int capacity = Math.max(minCapacity, centerX.length + (centerX.length >> 1));
+
+        centerX = Arrays.copyOf(centerX, capacity);
+        centerY = Arrays.copyOf(centerY, capacity);
+        centerZ = Arrays.copyOf(centerZ, capacity);
+        extentX = Arrays.copyOf(extentX, capacity);
+        extentY = Arrays.copyOf(extentY, capacity);
+        extentZ = Arrays.copyOf(extentZ, capacity);
+    }
+}
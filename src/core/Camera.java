@@ -27,6 +27,9 @@ public class Camera {
         }
     }
 
+    public static final int ALL_PLANES = (1 << 6) - 1;
+    public static final int CULLED = -1;
+
     public enum Projection {
         PERSPECTIVE, ORTHOGRAPHIC
     }
@@ -681,6 +684,72 @@ public class Camera {
         return true;
     }
 
+    /**
+     * Tests intersection of the given boundingBox object with the frustum planes in the given mask. Bit i of the mask
+     * stands for the plane at {@link Frustum} value i. Planes the box is completely inside of are removed from the
+     * returned mask, so the children of a spatial whose bounds enclose theirs only need to be tested against the
+     * remaining planes. Testing with {@link #ALL_PLANES} gives the same result as {@link #intersects(BoundingBox)}.
+     *
+     * @param boundingBox - boundingBox to test intersection with
+     * @param planeMask - planes to test against
+     *
+     * @return planes the box crosses or {@link #CULLED} if the box is outside the view frustum
+     */
+    public int intersects(BoundingBox boundingBox, int planeMask) {
+        int mask = cull(boundingBox, planeMask, 0);
+
+        return mask < 0 ? CULLED : mask;
+    }
+
+    /**
+     * Tests intersection of the given boundingBox object with the frustum planes in the given mask, starting with the
+     * given plane. Traversals pass the plane that culled their previous box, since neighbouring boxes are usually
+     * culled by the same plane. The hint is kept by the caller, so traversals sharing a scene do not disturb each
+     * other.
+     *
+     * @param boundingBox - boundingBox to test intersection with
+     * @param planeMask - planes to test against
+     * @param firstPlane - index of the plane to test first
+     *
+     * @return planes the box crosses or, if the box is outside the view frustum, the complement of the index of the
+     * plane that culls it, which is always negative
+     */
+    public int cull(BoundingBox boundingBox, int planeMask, int firstPlane) {
+        int mask = planeMask;
+
+        for (int i = 0; i < frustum.length; i++) {
+            int plane = (firstPlane + i) % frustum.length;
+            int bit = 1 << plane;
+
+            if ((mask & bit) != 0) {
+                Plane.Position position = boundingBox.position(frustum[plane]);
+
+                if (position == Plane.Position.NEGATIVE) {
+                    return ~plane;
+                }
+
+                if (position == Plane.Position.POSITIVE) {
+                    mask &= ~bit;
+                }
+            }
+        }
+
+        return mask;
+    }
+
+    /**
+     * Tests intersection of every box in the given batch with this camera's view frustum. Bit i of the returned mask
+     * is set if box i intersects or is completely within the view frustum, the same as {@link #intersects(BoundingBox)}.
+     *
+     * @param batch - boxes to test intersection with
+     * @param output - storage for the visibility mask, replaced if too short
+     *
+     * @return visibility mask, read with {@link BoundsBatch#isVisible(long[], int)}
+     */
+    public long[] intersects(BoundsBatch batch, long[] output) {
+        return batch.cull(frustum, output);
+    }
+
     /**
      * Tests strict containment of the given boundingBox object within this camera's view frustum. This method returns false
      * for OBJECTS that intersect or are outside the view frustum.
@@ -0,0 +1,132 @@
+package core;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The spatials of a scene whose transform or bounds were set since the log was last cleared, each listed once. A log
+ * belongs to a single consumer, such as a flattened scene or a spatial index, so consumers of the same scene never
+ * take changes away from each other. Spatials record their changes into the logs of the scenes they are part of, and a
+ * scene only holds its logs weakly, so a log stops collecting once its consumer is gone.
+ *
+ * @author John Paul Quijano
+ */
+final class ChangeLog {
+    private final Spatial scene;
+    private final List<Spatial> spatials;
+    private final Set<Spatial> recorded;
+    private final WeakReference<ChangeLog> reference;
+
+    /**
+     * Creates an empty log of the given scene.
+     *
+     * @param scene - scene whose changes are recorded
+     */
+    ChangeLog(Spatial scene) {
+        this.scene = scene;
+
+        spatials = new ArrayList<>();
+        recorded = Collections.newSetFromMap(new IdentityHashMap<Spatial, Boolean>());
+        reference = new WeakReference<>(this);
+
+        if (scene.changeLogs == null) {
+            scene.changeLogs = new ArrayList<>(1);
+        }
+
+        scene.changeLogs.add(reference);
+    }
+
+    /**
+     * Gives an empty log of the given scene, clearing the given log if it already belongs to that scene or closing it
+     * otherwise.
+     *
+     * @param log - current log or null
+     * @param scene - scene whose changes are recorded or null
+     *
+     * @return log of the given scene or null if there is no scene
+     */
+    static ChangeLog reopen(ChangeLog log, Spatial scene) {
+        if (log != null && log.scene == scene) {
+            log.clear();
+            return log;
+        }
+
+        if (log != null) {
+            log.close();
+        }
+
+        return scene != null ? new ChangeLog(scene) : null;
+    }
+
+    /**
+     * Records the given spatial in every open log of the given spatial's scenes.
+     *
+     * @param spatial - spatial whose transform or bounds were set
+     */
+    static void record(Spatial spatial) {
+        for (Spatial current = spatial; current != null; current = current.getParent()) {
+            if (current.changeLogs == null) {
+                continue;
+            }
+
+            for (int i = current.changeLogs.size() - 1; i >= 0; i--) {
+                ChangeLog log = current.changeLogs.get(i).get();
+
+                if (log == null) {
+                    current.changeLogs.remove(i);
+                } else if (log.recorded.add(spatial)) {
+                    log.spatials.add(spatial);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gives the scene whose changes are recorded.
+     *
+     * @return scene
+     */
+    Spatial getScene() {
+        return scene;
+    }
+
+    /**
+     * Gives the number of recorded spatials.
+     *
+     * @return number of recorded spatials
+     */
+    int size() {
+        return spatials.size();
+    }
+
+    /**
+     * Gives the recorded spatial at the given index, in the order they were recorded.
+     *
+     * @param index - index of a recorded spatial
+     *
+     * @return recorded spatial
+     */
+    Spatial get(int index) {
+        return spatials.get(index);
+    }
+
+    /**
+     * Forgets the recorded spatials.
+     */
+    void clear() {
+        spatials.clear();
+        recorded.clear();
+    }
+
+    /**
+     * Stops recording the scene's changes.
+     */
+    void close() {
+        scene.changeLogs.remove(reference);
+        clear();
+    }
+}
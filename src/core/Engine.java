@@ -29,6 +29,7 @@ public final class Engine {
     private Input input;
     private Display display;
     private Renderer renderer;
+    private AssetLoader assetLoader;
     private EngineEvent event;
     private List<EngineListener> listeners;
 
@@ -38,6 +39,7 @@ public final class Engine {
         input = new Input();
         display = new Display(input);
         renderer = new Renderer();
+        assetLoader = new AssetLoader(renderer);
         event = new EngineEvent(this);
         listeners = new ArrayList<>();
 
@@ -75,6 +77,15 @@ public final class Engine {
         return renderer;
     }
 
+    /**
+     * Gives the background asset loader.
+     *
+     * @return asset loader
+     */
+    public AssetLoader getAssetLoader() {
+        return assetLoader;
+    }
+
     /**
      * Gives the FPS cap.
      *
@@ -270,6 +281,7 @@ public final class Engine {
                     continue;
                 }
 
+                assetLoader.update();
                 renderer.render();
                 display.swap();
 
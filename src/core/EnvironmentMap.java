@@ -28,6 +28,10 @@ public class EnvironmentMap extends GraphicsObject {
     private Camera[] cameras;
     protected List<Sky>[] reflectableSkies;
     protected List<Shape>[] reflectableShapes;
+    private List<Shape> candidates;
+    private List<Spatial> pending;
+    private BoundsBatch candidateBounds;
+    private long[] visibility;
 
 
     public EnvironmentMap() {
@@ -38,6 +42,9 @@ public class EnvironmentMap extends GraphicsObject {
         cameras = new Camera[6];
         reflectableSkies = new List[6];
         reflectableShapes = new List[6];
+        candidates = new ArrayList<>();
+        pending = new ArrayList<>();
+        candidateBounds = new BoundsBatch();
         location = new Vector3();
 
         for (int i = 0; i < 6; i++) {
@@ -274,35 +281,68 @@ public class EnvironmentMap extends GraphicsObject {
      * @param exclude - shape to exclude
      */
     public void collectReflectables(Spatial scene, Shape exclude) {
+        candidates.clear();
+        candidateBounds.clear();
+
         for (int i = 0; i < 6; i++) {
             reflectableSkies[i].clear();
             reflectableShapes[i].clear();
+        }
+
+        pending.clear();
 
-            Spatial current = scene;
+        if (scene != null) {
+            pending.add(scene);
+        }
 
-            while (current != null) {
-                if (current.isLeaf() || !current.hasNext()) {
-                    if (current instanceof Shape) {
-                        Shape shape = (Shape) current;
+        /** one traversal for all faces, pruning branches that none of the cameras can see */
+        while (!pending.isEmpty()) {
+            Spatial current = pending.remove(pending.size() - 1);
 
-                        if (!shape.equals(exclude) && cameras[i].intersects(shape.getWorldBounds())) {
-                            reflectableShapes[i].add(shape);
-                        }
-                    } else if (current instanceof Sky) {
+            if (current.isLeaf()) {
+                if (current instanceof Shape) {
+                    if (!current.equals(exclude)) {
+                        candidates.add((Shape) current);
+                        candidateBounds.add(current.getWorldBounds());
+                    }
+                } else if (current instanceof Sky) {
+                    for (int i = 0; i < 6; i++) {
                         reflectableSkies[i].add((Sky) current);
                     }
+                }
+            } else if (intersectsAny(current.getWorldBounds())) {
+                /** children are pushed last to first so that they are visited in order */
+                for (int i = current.numChildren() - 1; i >= 0; i--) {
+                    pending.add(current.getChild(i));
+                }
+            }
+        }
 
-                    current.resetNext();
-                    current = current.getParent();
-                } else {
-                    if (!cameras[i].intersects(current.getWorldBounds())) {
-                        current = current.getParent();
-                        continue;
-                    }
+        for (int i = 0; i < 6; i++) {
+            visibility = cameras[i].intersects(candidateBounds, visibility);
 
-                    current = current.next();
+            for (int j = 0; j < candidates.size(); j++) {
+                if (BoundsBatch.isVisible(visibility, j)) {
+                    reflectableShapes[i].add(candidates.get(j));
                 }
             }
         }
     }
+
+    /**
+     * Tests the given bounds against the cameras of all faces.
+     *
+     * @param bounds - bounds to test
+     *
+     * @return true if any of the cameras can see the bounds
+     */
+    private boolean intersectsAny(BoundingBox bounds) {
+        for (Camera camera : cameras) {
+            if (camera.intersects(bounds)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
 }
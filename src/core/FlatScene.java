@@ -0,0 +1,528 @@
+package core;
+
+import core.math.Ray;
+import core.math.Vector3;
+import core.utility.EngineException;
+import core.utility.IntArray;
+import core.utility.Parallel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * A flattened copy of a scene's hierarchy for updating world transforms and bounds without walking the scene graph.
+ * The enabled spatials are stored in depth-first order along with their parent indices and the end of their
+ * subtrees, so that every parent comes before its children and every subtree is one contiguous range. World
+ * transforms are then propagated by a single forward sweep and hierarchical bounds by a single backward sweep.
+ * <p>
+ * World matrices and world bounds are also packed into primitive arrays in the same order, so that consumers that
+ * only need those values can stream through them instead of following references to each spatial. The renderer's
+ * picking does so when it has no spatial index, sweeping the packed bounds and skipping the subtrees the ray misses.
+ * <p>
+ * The hierarchy is compiled again whenever spatials are attached, detached, enabled or disabled, after which every
+ * spatial is checked. Between structural changes, only the subtrees of spatials whose transform or bounds were set
+ * since the last update are swept, along with the ancestors of those subtrees, so a scene that does not change costs
+ * next to nothing to update.
+ * <p>
+ * Updates can run in parallel on the fork-join pool of {@link Parallel}. Sibling subtrees do not depend on each other,
+ * so they are split into tasks of about the grain size each, while the spatials above them are updated before and
+ * after their tasks. Every spatial goes through the same calculations with the same inputs as in a serial update, so
+ * the results are identical.
+ *
+ * @author John Paul Quijano
+ */
+public final class FlatScene {
+    public static final int DEFAULT_GRAIN = 1024;
+
+    static final int MATRIX_STRIDE = 16;
+    static final int BOUNDS_STRIDE = 6;
+
+    private int size;
+    private int grain;
+    private int structureVersion;
+    private boolean parallel;
+    private Spatial scene;
+    private ChangeLog changes;
+    private Spatial[] spatials;
+    private int[] parents;
+    private int[] subtreeEnds;
+    private float[] worldMatrices;
+    private float[] worldBounds;
+    private boolean[] updatedBranches;
+    private IntArray changed;
+    private IntArray roots;
+    private IntArray ancestors;
+    private int[] ancestorMarks;
+    private int ancestorMark;
+    private List<Spatial> pending;
+    private int[] pendingParents;
+
+    /**
+     * Creates an empty flattened scene.
+     */
+    public FlatScene() {
+        spatials = new Spatial[0];
+        parents = new int[0];
+        subtreeEnds = new int[0];
+        worldMatrices = new float[0];
+        worldBounds = new float[0];
+        updatedBranches = new boolean[0];
+        ancestorMarks = new int[0];
+        changed = new IntArray();
+        roots = new IntArray();
+        ancestors = new IntArray();
+        grain = DEFAULT_GRAIN;
+        pending = new ArrayList<>();
+        pendingParents = new int[16];
+    }
+
+    /**
+     * Sets the parallel update state. This is disabled by default.
+     *
+     * @param enabled - if true, independent subtrees are updated in parallel
+     */
+    public void setParallelEnabled(boolean enabled) {
+        parallel = enabled;
+    }
+
+    /**
+     * Gives the parallel update state.
+     *
+     * @return true if independent subtrees are updated in parallel
+     */
+    public boolean isParallelEnabled() {
+        return parallel;
+    }
+
+    /**
+     * Sets the number of spatials below which subtrees are updated by a single task. Scenes no larger than this are
+     * always updated serially.
+     *
+     * @param grain - maximum number of spatials updated by a single task
+     */
+    public void setGrain(int grain) {
+        if (grain < 1) {
+            throw new EngineException("Grain must be at least 1.");
+        }
+
+        this.grain = grain;
+    }
+
+    /**
+     * Gives the number of spatials below which subtrees are updated by a single task.
+     *
+     * @return maximum number of spatials updated by a single task
+     */
+    public int getGrain() {
+        return grain;
+    }
+
+    /**
+     * Brings this flattened scene up to date with the given scene. The hierarchy is compiled again if the scene or its
+     * structure changed, then the world transforms and bounds of spatials whose transform or bounds changed are
+     * recalculated. Transforms and bounds come out the same as the renderer's traversal would calculate them.
+     *
+     * @param scene - scene graph
+     */
+    public void update(Spatial scene) {
+        roots.clear();
+        ancestors.clear();
+
+        if (scene != this.scene || scene != null && structureVersion != scene.getStructureVersion()) {
+            compile(scene);
+
+            if (size > 0) {
+                roots.add(0);
+            }
+        } else if (changes != null) {
+            collectChanges();
+            changes.clear();
+        }
+
+        for (int i = 0; i < roots.size(); i++) {
+            int root = roots.get(i);
+            int end = subtreeEnds[root];
+
+            if (!parallel || end - root <= grain) {
+                updateRange(root, end);
+            } else {
+                ForkJoinPool pool = Parallel.getPool();
+                UpdateAction action = new UpdateAction(root, end);
+
+                if (ForkJoinTask.getPool() == pool) {
+                    action.invoke();
+                } else {
+                    pool.invoke(action);
+                }
+            }
+        }
+
+        /** descendants have higher indices than their ancestors, so going from the highest index combines them first */
+        Arrays.sort(ancestors.array(), 0, ancestors.size());
+
+        for (int i = ancestors.size() - 1; i >= 0; i--) {
+            updateBranch(ancestors.get(i));
+        }
+    }
+
+    /**
+     * Stores the enabled spatials of the given scene in depth-first order.
+     *
+     * @param scene - scene graph
+     */
+    public void compile(Spatial scene) {
+        this.scene = scene;
+
+        structureVersion = scene != null ? scene.getStructureVersion() : 0;
+        changes = ChangeLog.reopen(changes, scene);
+        size = 0;
+        pending.clear();
+
+        if (scene != null) {
+            pendingParents[0] = -1;
+            pending.add(scene);
+        }
+
+        while (!pending.isEmpty()) {
+            int parent = pendingParents[pending.size() - 1];
+            Spatial current = pending.remove(pending.size() - 1);
+
+            if (!current.isEnabled()) {
+                continue;
+            }
+
+            if (size == spatials.length) {
+                grow(Math.max(16, size * 2));
+            }
+
+            int index = size++;
+
+            spatials[index] = current;
+            current.flatIndex = index;
+            parents[index] = parent;
+            subtreeEnds[index] = index + 1;
+
+            /** children are pushed last to first so that they are stored in order */
+            for (int i = current.numChildren() - 1; i >= 0; i--) {
+                if (pending.size() == pendingParents.length) {
+                    pendingParents = Arrays.copyOf(pendingParents, pendingParents.length * 2);
+                }
+
+                pendingParents[pending.size()] = index;
+                pending.add(current.getChild(i));
+            }
+        }
+
+        Arrays.fill(spatials, size, spatials.length, null);
+        Arrays.fill(updatedBranches, false);
+
+        for (int i = size - 1; i > 0; i--) {
+            subtreeEnds[parents[i]] = Math.max(subtreeEnds[parents[i]], subtreeEnds[i]);
+        }
+
+        for (int i = 0; i < size; i++) {
+            spatials[i].worldMatrix.toArray(worldMatrices, i * MATRIX_STRIDE);
+            storeBounds(i, spatials[i].worldBoundingBox);
+        }
+    }
+
+    /**
+     * Gives the number of spatials in this flattened scene.
+     *
+     * @return number of spatials
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the spatial at the given index.
+     *
+     * @param index - depth-first index
+     *
+     * @return spatial at the given index
+     */
+    public Spatial getSpatial(int index) {
+        return spatials[index];
+    }
+
+    /**
+     * Gives the index of the parent of the spatial at the given index.
+     *
+     * @param index - depth-first index
+     *
+     * @return parent index or -1 for the scene
+     */
+    public int getParent(int index) {
+        return parents[index];
+    }
+
+    /**
+     * Gives the end of the subtree rooted at the given index. The subtree occupies the indices from the given index up
+     * to, but not including, the returned index.
+     *
+     * @param index - depth-first index
+     *
+     * @return index following the last descendant
+     */
+    public int getSubtreeEnd(int index) {
+        return subtreeEnds[index];
+    }
+
+    /**
+     * Gives the packed world matrices, sixteen values per spatial in the same layout as {@link
+     * core.math.Matrix4#toArray(float[], int)}. The array may be longer than needed.
+     *
+     * @return world matrices
+     */
+    public float[] getWorldMatrices() {
+        return worldMatrices;
+    }
+
+    /**
+     * Gives the packed world bounds, six values per spatial holding the minimum then the maximum corner. Infinite
+     * bounds are stored with infinite corners. The array may be longer than needed.
+     *
+     * @return world bounds
+     */
+    public float[] getWorldBounds() {
+        return worldBounds;
+    }
+
+    /**
+     * Checks if this flattened scene holds the given scene as it is now, that is, if it was last compiled from the
+     * given scene and no spatials were attached, detached, enabled or disabled since.
+     *
+     * @param scene - scene graph
+     *
+     * @return true if the stored hierarchy matches the given scene
+     */
+    public boolean isCurrent(Spatial scene) {
+        return scene == this.scene && (scene == null || structureVersion == scene.getStructureVersion());
+    }
+
+    /**
+     * Gathers the shapes whose packed world bounds the given ray passes through. Subtrees whose bounds the ray misses
+     * are skipped as a whole, so this is a single forward sweep over the packed bounds. The bounds are those of the
+     * last update.
+     *
+     * @param ray - ray to test
+     * @param maxDistance - distance beyond which the ray is ignored, in multiples of the ray direction's length, which
+     * may be infinite
+     * @param output - list to add the shapes to
+     */
+    public void query(Ray ray, float maxDistance, List<Shape> output) {
+        float limit = Math.min(maxDistance, Float.MAX_VALUE);
+        int i = 0;
+
+        while (i < size) {
+            if (BinnedSplitter.intersect(ray, worldBounds, i * BOUNDS_STRIDE) > limit) {
+                i = subtreeEnds[i];
+            } else {
+                if (spatials[i] instanceof Shape) {
+                    output.add((Shape) spatials[i]);
+                }
+
+                i++;
+            }
+        }
+    }
+
+    /**
+     * Resets the dirty flags of the branches that were changed or whose hierarchical bounds were recalculated by the
+     * last update. Leaves are left to the rendering modules, which clean the shapes they draw.
+     */
+    void cleanBranches() {
+        for (int i = 0; i < roots.size(); i++) {
+            int root = roots.get(i);
+
+            if (!spatials[root].isLeaf()) {
+                spatials[root].clean();
+            }
+
+            for (int j = root; j < subtreeEnds[root]; j++) {
+                if (updatedBranches[j]) {
+                    updatedBranches[j] = false;
+                    spatials[j].clean();
+                }
+            }
+        }
+
+        for (int i = 0; i < ancestors.size(); i++) {
+            int ancestor = ancestors.get(i);
+
+            if (updatedBranches[ancestor]) {
+                updatedBranches[ancestor] = false;
+                spatials[ancestor].clean();
+            }
+        }
+
+        roots.clear();
+        ancestors.clear();
+    }
+
+    /**
+     * Turns the recorded changes into the roots of the subtrees that need to be swept, leaving out changed spatials
+     * that lie within another changed spatial's subtree, and gathers the ancestors of those roots.
+     */
+    private void collectChanges() {
+        changed.clear();
+
+        for (int i = 0; i < changes.size(); i++) {
+            Spatial spatial = changes.get(i);
+            int index = spatial.flatIndex;
+
+            /** spatials that are not part of this flattened scene are skipped */
+            if (index < size && spatials[index] == spatial) {
+                changed.add(index);
+            }
+        }
+
+        Arrays.sort(changed.array(), 0, changed.size());
+
+        int end = 0;
+
+        for (int i = 0; i < changed.size(); i++) {
+            int index = changed.get(i);
+
+            if (index >= end) {
+                roots.add(index);
+                end = subtreeEnds[index];
+            }
+        }
+
+        if (ancestorMarks.length < size) {
+            ancestorMarks = new int[spatials.length];
+            ancestorMark = 0;
+        }
+
+        ancestorMark++;
+
+        for (int i = 0; i < roots.size(); i++) {
+            int ancestor = parents[roots.get(i)];
+
+            while (ancestor >= 0 && ancestorMarks[ancestor] != ancestorMark) {
+                ancestorMarks[ancestor] = ancestorMark;
+                ancestors.add(ancestor);
+                ancestor = parents[ancestor];
+            }
+        }
+    }
+
+    /**
+     * Updates a range made of whole sibling subtrees whose parent is already up to date.
+     */
+    private void updateRange(int start, int end) {
+        /** parents come before their children, so a parent's world transform is always ready */
+        for (int i = start; i < end; i++) {
+            updateSpatial(i);
+        }
+
+        /** children come after their parents, so sweeping backwards combines them before their parents */
+        for (int i = end - 1; i >= start; i--) {
+            updateBranch(i);
+        }
+    }
+
+    /**
+     * Calculates the world transform and, for leaves, the world bounds of the spatial at the given index.
+     */
+    private void updateSpatial(int index) {
+        Spatial spatial = spatials[index];
+
+        if (spatial.transformDirty) {
+            spatial.calculateWorldTransform();
+            spatial.worldMatrix.toArray(worldMatrices, index * MATRIX_STRIDE);
+        }
+
+        if (spatial.isLeaf() && (spatial.transformDirty || spatial.boundsDirty)) {
+            spatial.calculateWorldBounds();
+            storeBounds(index, spatial.worldBoundingBox);
+        }
+    }
+
+    /**
+     * Calculates the hierarchical bounds of the branch at the given index once its children are up to date.
+     */
+    private void updateBranch(int index) {
+        Spatial spatial = spatials[index];
+
+        if (!spatial.isLeaf() && (spatial.transformDirty || spatial.descendantTransformDirty)) {
+            spatial.calculateHierarchicalBounds();
+            storeBounds(index, spatial.worldBoundingBox);
+            updatedBranches[index] = true;
+        }
+    }
+
+    private void storeBounds(int index, BoundingBox box) {
+        int offset = index * BOUNDS_STRIDE;
+
+        if (box.isInfinite()) {
+            Arrays.fill(worldBounds, offset, offset + 3, Float.NEGATIVE_INFINITY);
+            Arrays.fill(worldBounds, offset + 3, offset + 6, Float.POSITIVE_INFINITY);
+        } else {
+            Vector3 center = box.getCenter();
+            Vector3 extent = box.getExtent();
+
+            worldBounds[offset] = center.getX() - extent.getX();
+            worldBounds[offset + 1] = center.getY() - extent.getY();
+            worldBounds[offset + 2] = center.getZ() - extent.getZ();
+            worldBounds[offset + 3] = center.getX() + extent.getX();
+            worldBounds[offset + 4] = center.getY() + extent.getY();
+            worldBounds[offset + 5] = center.getZ() + extent.getZ();
+        }
+    }
+
+    private void grow(int capacity) {
+        spatials = Arrays.copyOf(spatials, capacity);
+        parents = Arrays.copyOf(parents, capacity);
+        subtreeEnds = Arrays.copyOf(subtreeEnds, capacity);
+        worldMatrices = Arrays.copyOf(worldMatrices, capacity * MATRIX_STRIDE);
+        worldBounds = Arrays.copyOf(worldBounds, capacity * BOUNDS_STRIDE);
+        updatedBranches = Arrays.copyOf(updatedBranches, capacity);
+    }
+
+    /**
+     * Updates a range made of whole sibling subtrees, splitting it into groups of siblings no larger than the grain.
+     * A single subtree larger than the grain updates its root, then its children as a range, then its bounds.
+     */
+    private final class UpdateAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+
+        UpdateAction(int start, int end) {
+            this.start = start;
+            this.end = end;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                updateRange(start, end);
+            } else if (subtreeEnds[start] == end) {
+                updateSpatial(start);
+                new UpdateAction(start + 1, end).compute();
+                updateBranch(start);
+            } else {
+                List<UpdateAction> actions = new ArrayList<>();
+                int groupStart = start;
+
+                for (int i = start; i < end; i = subtreeEnds[i]) {
+                    if (i > groupStart && subtreeEnds[i] - groupStart > grain) {
+                        actions.add(new UpdateAction(groupStart, i));
+                        groupStart = i;
+                    }
+                }
+
+                actions.add(new UpdateAction(groupStart, end));
+                invokeAll(actions);
+            }
+        }
+    }
+}
@@ -7,6 +7,7 @@ import java.nio.ByteBuffer;
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
 import java.util.List;
 
@@ -267,6 +268,9 @@ public final class GL {
     private static int fbReadState;
     private static int fbWriteState;
     private static int vertexArrayState;
+    private static int activeTextureState;
+    private static int[] textureStates = new int[32];
+    private static int[] textureTargetStates = new int[32];
     private static int viewportStateX;
     private static int viewportStateY;
     private static int viewportStateWidth;
@@ -1330,6 +1334,53 @@ public final class GL {
         }
     }
 
+    /**
+     * Attaches the given buffer of per-instance matrices to the given vertex array. Each instance holds a 4x4 world
+     * matrix followed by a 3x3 normal matrix, and a matrix attribute takes one consecutive location per column.
+     *
+     * @param vao - vertex array id
+     * @param id - instance buffer id
+     * @param matrixLoc - location of the first column of the world matrix
+     * @param normalMatrixLoc - location of the first column of the normal matrix
+     * @param data - float buffer data, twenty-five values per instance
+     */
+    public static void setInstanceBuffer(int vao, int id, int matrixLoc, int normalMatrixLoc, FloatBuffer data) {
+        bindVertexArray(vao);
+        GL15.glBindBuffer(GL15.GL_ARRAY_BUFFER, id);
+        GL15.glBufferData(GL15.GL_ARRAY_BUFFER, data, GL15.GL_STREAM_DRAW);
+
+        for (int i = 0; i < 4; i++) {
+            GL20.glVertexAttribPointer(matrixLoc + i, 4, GL11.GL_FLOAT, false, 100, i * 16);
+            GL33.glVertexAttribDivisor(matrixLoc + i, 1);
+            GL20.glEnableVertexAttribArray(matrixLoc + i);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            GL20.glVertexAttribPointer(normalMatrixLoc + i, 3, GL11.GL_FLOAT, false, 100, 64 + i * 12);
+            GL33.glVertexAttribDivisor(normalMatrixLoc + i, 1);
+            GL20.glEnableVertexAttribArray(normalMatrixLoc + i);
+        }
+    }
+
+    /**
+     * Detaches the per-instance matrix attributes from the given vertex array.
+     *
+     * @param vao - vertex array id
+     * @param matrixLoc - location of the first column of the world matrix
+     * @param normalMatrixLoc - location of the first column of the normal matrix
+     */
+    public static void clearInstanceBuffer(int vao, int matrixLoc, int normalMatrixLoc) {
+        bindVertexArray(vao);
+
+        for (int i = 0; i < 4; i++) {
+            GL20.glDisableVertexAttribArray(matrixLoc + i);
+        }
+
+        for (int i = 0; i < 3; i++) {
+            GL20.glDisableVertexAttribArray(normalMatrixLoc + i);
+        }
+    }
+
     /**
      * Renders the given vertex array object as triangles.
      *
@@ -1363,6 +1414,42 @@ public final class GL {
         GL11.glDrawElements(GL11.GL_QUADS, numIndices, GL11.GL_UNSIGNED_INT, 0);
     }
 
+    /**
+     * Renders several instances of the given vertex array object as triangles.
+     *
+     * @param vao - vertex array id
+     * @param numIndices - number of indices
+     * @param numInstances - number of instances
+     */
+    public static void drawTrisInstanced(int vao, int numIndices, int numInstances) {
+        bindVertexArray(vao);
+        GL31.glDrawElementsInstanced(GL11.GL_TRIANGLES, numIndices, GL11.GL_UNSIGNED_INT, 0, numInstances);
+    }
+
+    /**
+     * Renders several instances of the given vertex array object as lines.
+     *
+     * @param vao - vertex array id
+     * @param numIndices - number of indices
+     * @param numInstances - number of instances
+     */
+    public static void drawLinesInstanced(int vao, int numIndices, int numInstances) {
+        bindVertexArray(vao);
+        GL31.glDrawElementsInstanced(GL11.GL_LINES, numIndices, GL11.GL_UNSIGNED_INT, 0, numInstances);
+    }
+
+    /**
+     * Renders several instances of the given vertex array object as quadrilaterals.
+     *
+     * @param vao - vertex array id
+     * @param numIndices - number of indices
+     * @param numInstances - number of instances
+     */
+    public static void drawQuadsInstanced(int vao, int numIndices, int numInstances) {
+        bindVertexArray(vao);
+        GL31.glDrawElementsInstanced(GL11.GL_QUADS, numIndices, GL11.GL_UNSIGNED_INT, 0, numInstances);
+    }
+
     /**
      * Creates a frame buffer.
      *
@@ -1562,7 +1649,7 @@ public final class GL {
         int texture = GL11.glGenTextures();
         int filter = filtered ? GL11.GL_LINEAR : GL11.GL_NEAREST;
 
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
 
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, filter);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, filter);
@@ -1596,7 +1683,7 @@ public final class GL {
         int texture = GL11.glGenTextures();
         int filter = filtered ? GL11.GL_LINEAR : GL11.GL_NEAREST;
 
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
 
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, filter);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, filter);
@@ -1625,7 +1712,7 @@ public final class GL {
      * @param data - buffer of byte values
      */
     public static void updateColorBuffer(int id, int components, int width, int height, ByteBuffer data) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+        bindTexture(GL11.GL_TEXTURE_2D, id);
 
         switch (components) {
             case 1: GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_R8, width, height, 0, GL11.GL_RED, GL11.GL_UNSIGNED_BYTE, data); break;
@@ -1645,7 +1732,7 @@ public final class GL {
      * @param data - buffer of float values
      */
     public static void updateColorBuffer(int id, int components, int width, int height, FloatBuffer data) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+        bindTexture(GL11.GL_TEXTURE_2D, id);
 
         switch (components) {
             case 1: GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL30.GL_R16F, width, height, 0, GL11.GL_RED, GL11.GL_FLOAT, data); break;
@@ -1670,7 +1757,7 @@ public final class GL {
         int texture = GL11.glGenTextures();
         int filter = filtered ? GL11.GL_LINEAR : GL11.GL_NEAREST;
 
-        GL11.glBindTexture(GL32.GL_TEXTURE_2D_MULTISAMPLE, texture);
+        bindTexture(GL32.GL_TEXTURE_2D_MULTISAMPLE, texture);
 
         GL11.glTexParameteri(GL32.GL_TEXTURE_2D_MULTISAMPLE, GL11.GL_TEXTURE_MIN_FILTER, filter);
         GL11.glTexParameteri(GL32.GL_TEXTURE_2D_MULTISAMPLE, GL11.GL_TEXTURE_MAG_FILTER, filter);
@@ -1698,7 +1785,7 @@ public final class GL {
      * @param height - color buffer height
      */
     public static void updateColorBufferMultisampled(int id, int components, int samples, int width, int height) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+        bindTexture(GL11.GL_TEXTURE_2D, id);
 
         switch (components) {
             case 1: GL32.glTexImage2DMultisample(GL32.GL_TEXTURE_2D_MULTISAMPLE, samples, GL30.GL_R16F, width, height, true); break;
@@ -1719,7 +1806,7 @@ public final class GL {
     public static int createDepthTexture(int width, int height) {
         int texture = GL11.glGenTextures();
 
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
 
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_NEAREST);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_NEAREST);
@@ -1740,7 +1827,7 @@ public final class GL {
      * @param height - depth texture height
      */
     public static void updateDepthTexture(int id, int width, int height) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+        bindTexture(GL11.GL_TEXTURE_2D, id);
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL14.GL_DEPTH_COMPONENT24, width, height, 0, GL11.GL_DEPTH_COMPONENT, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
     }
 
@@ -1868,8 +1955,7 @@ public final class GL {
      * @param unit - texture unit
      */
     public static void bindTexture2D(int id, int unit) {
-        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, id);
+        bindTexture(GL11.GL_TEXTURE_2D, id, unit);
     }
 
     /**
@@ -1879,8 +1965,7 @@ public final class GL {
      * @param unit - texture unit
      */
     public static void bindTextureArray(int id, int unit) {
-        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
-        GL11.glBindTexture(GL30.GL_TEXTURE_2D_ARRAY, id);
+        bindTexture(GL30.GL_TEXTURE_2D_ARRAY, id, unit);
     }
 
     /**
@@ -1890,8 +1975,49 @@ public final class GL {
      * @param unit - texture unit
      */
     public static void bindTextureCube(int id, int unit) {
-        GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, id);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, id, unit);
+    }
+
+    /**
+     * Binds the given texture to the given texture unit unless it is already bound there.
+     *
+     * @param target - texture target
+     * @param id - texture id
+     * @param unit - texture unit
+     */
+    private static void bindTexture(int target, int id, int unit) {
+        ensureTextureUnit(unit);
+
+        if (textureStates[unit] != id || textureTargetStates[unit] != target) {
+            if (activeTextureState != unit) {
+                GL13.glActiveTexture(GL13.GL_TEXTURE0 + unit);
+                activeTextureState = unit;
+            }
+
+            bindTexture(target, id);
+        }
+    }
+
+    /**
+     * Binds the given texture to the active texture unit, keeping track of the binding so that binding it to the same
+     * unit again can be skipped.
+     *
+     * @param target - texture target
+     * @param id - texture id
+     */
+    private static void bindTexture(int target, int id) {
+        ensureTextureUnit(activeTextureState);
+        GL11.glBindTexture(target, id);
+
+        textureStates[activeTextureState] = id;
+        textureTargetStates[activeTextureState] = target;
+    }
+
+    private static void ensureTextureUnit(int unit) {
+        if (unit >= textureStates.length) {
+            textureStates = Arrays.copyOf(textureStates, Math.max(unit + 1, textureStates.length * 2));
+            textureTargetStates = Arrays.copyOf(textureTargetStates, textureStates.length);
+        }
     }
 
     /**
@@ -1907,7 +2033,7 @@ public final class GL {
     public static int createTexture2D(WrapMode wrapModeS, WrapMode wrapModeT, Filter minFilter, Filter magFilter) {
         int texture = GL11.glGenTextures();
 
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
 
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, wrapModeS.value);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, wrapModeT.value);
@@ -1929,7 +2055,7 @@ public final class GL {
      * @param data - texture data
      */
     public static void setTexture2DData(int texture, int width, int height, boolean compressed, ByteBuffer data) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, compressed ? GL13.GL_COMPRESSED_RGBA : GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data);
     }
 
@@ -1939,7 +2065,7 @@ public final class GL {
      * @param texture - texture id
      */
     public static void generateTexture2DMipmap(int texture) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL30.glGenerateMipmap(GL11.GL_TEXTURE_2D);
     }
 
@@ -1953,7 +2079,7 @@ public final class GL {
      * @param data - texture data
      */
     public static void updateTexture2DData(int texture, int width, int height, boolean compressed, ByteBuffer data) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, compressed ? GL13.GL_COMPRESSED_RGBA : GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data);
     }
 
@@ -1965,7 +2091,7 @@ public final class GL {
      * @param magFilter - magnification filter
      */
     public static void updateTexture2DFilter(int texture, Filter minFilter, Filter magFilter) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, minFilter.value);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, magFilter.value);
     }
@@ -1978,7 +2104,7 @@ public final class GL {
      * @param wrapModeT - vertical wrap mode
      */
     public static void updateTexture2DWrapMode(int texture, WrapMode wrapModeS, WrapMode wrapModeT) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, wrapModeS.value);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, wrapModeT.value);
     }
@@ -1997,7 +2123,7 @@ public final class GL {
     public static int createTextureCube(WrapMode wrapModeS, WrapMode wrapModeT, WrapMode wrapModeR, Filter minFilter, Filter magFilter) {
         int texture = GL11.glGenTextures();
 
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
 
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL11.GL_TEXTURE_WRAP_S, wrapModeS.value);
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL11.GL_TEXTURE_WRAP_T, wrapModeT.value);
@@ -2021,7 +2147,7 @@ public final class GL {
      * @param data - texture data
      */
     public static void setTextureCubeData(int index, int texture, int width, int height, boolean compressed, ByteBuffer data) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexImage2D(GL13.GL_TEXTURE_CUBE_MAP_POSITIVE_X + index, 0, compressed ? GL13.GL_COMPRESSED_RGBA : GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data);
     }
 
@@ -2036,7 +2162,7 @@ public final class GL {
      * @param data - texture data
      */
     public static void setTextureCubeData(int index, int texture, int width, int height, boolean compressed, FloatBuffer data) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexImage2D(GL13.GL_TEXTURE_CUBE_MAP_POSITIVE_X + index, 0, compressed ? GL13.GL_COMPRESSED_RGBA : GL30.GL_RGBA16F, width, height, 0, GL11.GL_RGBA, GL11.GL_FLOAT, data);
     }
 
@@ -2048,7 +2174,7 @@ public final class GL {
      * @param max - mipmap max level
      */
     public static void generateTextureCubeMipmap(int texture, int base, int max) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL12.GL_TEXTURE_BASE_LEVEL, base);
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL12.GL_TEXTURE_MAX_LEVEL, max);
         GL30.glGenerateMipmap(GL13.GL_TEXTURE_CUBE_MAP);
@@ -2065,7 +2191,7 @@ public final class GL {
      * @param data - texture data
      */
     public static void updateTextureCubeData(int index, int texture, int width, int height, boolean compressed, ByteBuffer data) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexImage2D(GL13.GL_TEXTURE_CUBE_MAP_POSITIVE_X + index, 0, compressed ? GL13.GL_COMPRESSED_RGBA : GL11.GL_RGBA8, width, height, 0, GL11.GL_RGBA, GL11.GL_UNSIGNED_BYTE, data);
     }
 
@@ -2077,7 +2203,7 @@ public final class GL {
      * @param magFilter - magnification filter
      */
     public static void updateTextureCubeFilter(int texture, Filter minFilter, Filter magFilter) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, minFilter.value);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, magFilter.value);
     }
@@ -2091,7 +2217,7 @@ public final class GL {
      * @param wrapModeR - orthogonal wrap mode
      */
     public static void updateTextureCubeWrapMode(int texture, WrapMode wrapModeS, WrapMode wrapModeT, WrapMode wrapModeR) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, wrapModeS.value);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_T, wrapModeT.value);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL12.GL_TEXTURE_WRAP_R, wrapModeR.value);
@@ -2108,7 +2234,7 @@ public final class GL {
     public static int createShadowTexture(int width, int height) {
         int texture = GL11.glGenTextures();
 
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
         GL11.glTexParameteri(GL11.GL_TEXTURE_2D, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
@@ -2129,7 +2255,7 @@ public final class GL {
      * @param height - texture height
      */
     public static void updateShadowTexture(int texture, int width, int height) {
-        GL11.glBindTexture(GL11.GL_TEXTURE_2D, texture);
+        bindTexture(GL11.GL_TEXTURE_2D, texture);
         GL11.glTexImage2D(GL11.GL_TEXTURE_2D, 0, GL14.GL_DEPTH_COMPONENT24, width, height, 0, GL11.GL_DEPTH_COMPONENT, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
     }
 
@@ -2144,7 +2270,7 @@ public final class GL {
     public static int createShadowTextureCube(int width, int height) {
         int texture = GL11.glGenTextures();
 
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL11.GL_TEXTURE_MIN_FILTER, GL11.GL_LINEAR);
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL11.GL_TEXTURE_MAG_FILTER, GL11.GL_LINEAR);
         GL11.glTexParameteri(GL13.GL_TEXTURE_CUBE_MAP, GL11.GL_TEXTURE_WRAP_S, GL12.GL_CLAMP_TO_EDGE);
@@ -2169,7 +2295,7 @@ public final class GL {
      * @param height - texture height
      */
     public static void updateShadowTextureCube(int texture, int width, int height) {
-        GL11.glBindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
+        bindTexture(GL13.GL_TEXTURE_CUBE_MAP, texture);
 
         for (int i = 0; i < 6; i++) {
             GL11.glTexImage2D(GL13.GL_TEXTURE_CUBE_MAP_POSITIVE_X + i, 0, GL14.GL_DEPTH_COMPONENT24, width, height, 0, GL11.GL_DEPTH_COMPONENT, GL11.GL_UNSIGNED_BYTE, (ByteBuffer) null);
@@ -2196,6 +2322,13 @@ public final class GL {
     public static void freeTexture(int id) {
         GL11.glDeleteTextures(id);
         textures.remove(Integer.valueOf(id));
+
+        /** deleting a texture unbinds it, and its name may be reused by a later texture */
+        for (int i = 0; i < textureStates.length; i++) {
+            if (textureStates[i] == id) {
+                textureTargetStates[i] = 0;
+            }
+        }
     }
 
     /**
@@ -2343,6 +2476,8 @@ public final class GL {
         textures.clear();
         framebuffers.clear();
         renderbuffers.clear();
+
+        Arrays.fill(textureTargetStates, 0);
     }
 
     /**
@@ -2369,5 +2504,10 @@ public final class GL {
         setPolygonOffset(polygonOffsetFactor, polygonOffsetUnits);
         setClearColor(clearColorStateR, clearColorStateG, clearColorStateB, clearColorStateA);
         setViewport(viewportStateX, viewportStateY, viewportStateWidth, viewportStateHeight);
+
+        /** texture bindings are not restored, so they are forgotten to make the next binds go through */
+        Arrays.fill(textureTargetStates, 0);
+        GL13.glActiveTexture(GL13.GL_TEXTURE0);
+        activeTextureState = 0;
     }
 }
@@ -7,6 +7,7 @@ import core.math.Vector2;
 import core.math.Vector3;
 import core.math.Vector4;
 import core.utility.Buffers;
+import core.utility.EngineException;
 import core.utility.Face;
 import core.utility.Pools;
 
@@ -76,6 +77,33 @@ public class Geometry extends GraphicsObject {
         }
     }
 
+    /**
+     * Creates a geometry backed by the given buffers. The buffers are used as they are, without copying. Read-only
+     * buffers are copied the first time they are written to.
+     *
+     * @param type - geometry type, either one of TYPE_LINES, TYPE_TRIS, or TYPE_QUADS
+     * @param indices - index buffer
+     * @param coords - coordinate buffer
+     * @param colors - color buffer, holding as many elements as the coordinate buffer
+     * @param texCoords - texture coordinate buffer, holding as many elements as the coordinate buffer
+     */
+    protected Geometry(Type type, IntBuffer indices, Vector3Buffer coords, Vector4Buffer colors, Vector2Buffer texCoords) {
+        if (colors.size() != coords.size() || texCoords.size() != coords.size()) {
+            throw new EngineException("Vertex attribute buffers must have the same number of elements.");
+        }
+
+        this.type = type;
+        this.indices = indices;
+        this.coords = coords;
+        this.colors = colors;
+        this.texCoords = texCoords;
+
+        numCoords = coords.size();
+        numIndices = indices.capacity();
+        indicesReadOnly = indices.asReadOnlyBuffer();
+        faces = new ArrayList<>();
+    }
+
     /**
      * Creates a geometry based on the given template.
      *
@@ -159,6 +187,7 @@ public class Geometry extends GraphicsObject {
      * @param value input value
      */
     public void setIndex(int i, int value) {
+        ensureIndicesWritable();
         indices.put(i, value);
         indexDirty = true;
         dirty = true;
@@ -170,6 +199,8 @@ public class Geometry extends GraphicsObject {
      * @param indices - array of indices
      */
     public void setIndices(int[] indices) {
+        ensureIndicesWritable();
+
         this.indices.clear();
         this.indices.put(indices);
         this.indices.flip();
@@ -178,12 +209,31 @@ public class Geometry extends GraphicsObject {
         dirty = true;
     }
 
+    /**
+     * Copies the given number of indices from the given array to this geometry's index buffer.
+     *
+     * @param indices - array of indices
+     * @param length - number of indices to copy
+     */
+    public void setIndices(int[] indices, int length) {
+        ensureIndicesWritable();
+
+        this.indices.clear();
+        this.indices.put(indices, 0, length);
+        this.indices.flip();
+
+        indexDirty = true;
+        dirty = true;
+    }
+
     /**
      * Copies the contents of the given buffer to this geometry's index buffer.
      *
      * @param indices - buffer of indices
      */
     public void setIndices(IntBuffer indices) {
+        ensureIndicesWritable();
+
         indices.clear();
         this.indices.clear();
         this.indices.put(indices);
@@ -200,6 +250,8 @@ public class Geometry extends GraphicsObject {
      * @param indices - list of indices
      */
     public void setIndices(List<Integer> indices) {
+        ensureIndicesWritable();
+
         this.indices.clear();
 
         for (int i = 0; i < indices.size(); i++) {
@@ -221,6 +273,17 @@ public class Geometry extends GraphicsObject {
         return indices.get(index);
     }
 
+    /**
+     * Replaces a read-only index buffer, such as a view of a mapped mesh file, with a writable copy before it is first
+     * written to.
+     */
+    private void ensureIndicesWritable() {
+        if (indices.isReadOnly()) {
+            indices = Buffers.writable(indices);
+            indicesReadOnly = indices.asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Gives the immutable buffer containing this geometry's indices.
      *
@@ -265,6 +328,18 @@ public class Geometry extends GraphicsObject {
         dirty = true;
     }
 
+    /**
+     * Copies the given number of packed x, y, z components from the given array to this geometry's coordinate buffer.
+     *
+     * @param coords - array of packed coordinate components
+     * @param length - number of components to copy
+     */
+    public void setCoordinates(float[] coords, int length) {
+        this.coords.set(coords, length);
+        coordDirty = true;
+        dirty = true;
+    }
+
     /**
      * Copies the contents of the given buffer to this geometry's coordinate buffer.
      *
@@ -357,6 +432,18 @@ public class Geometry extends GraphicsObject {
         dirty = true;
     }
 
+    /**
+     * Copies the given number of packed r, g, b, a components from the given array to this geometry's color buffer.
+     *
+     * @param colors - array of packed color components
+     * @param length - number of components to copy
+     */
+    public void setColors(float[] colors, int length) {
+        this.colors.set(colors, length);
+        colorDirty = true;
+        dirty = true;
+    }
+
     /**
      * Copies the contents of the given buffer to this geometry's color buffer.
      *
@@ -469,6 +556,19 @@ public class Geometry extends GraphicsObject {
         dirty = true;
     }
 
+    /**
+     * Copies the given number of packed x, y components from the given array to this geometry's texture coordinate
+     * buffer.
+     *
+     * @param texCoords - array of packed texture coordinate components
+     * @param length - number of components to copy
+     */
+    public void setTextureCoordinates(float[] texCoords, int length) {
+        this.texCoords.set(texCoords, length);
+        texCoordDirty = true;
+        dirty = true;
+    }
+
     /**
      * Copies the contents of the given buffer to this geometry's texture coordinate buffer.
      *
@@ -583,6 +683,11 @@ public class Geometry extends GraphicsObject {
         return numCoords;
     }
 
+    @Override
+    public long getUploadSize() {
+        return numIndices * 4L + numCoords * (12L + 16L + 8L);
+    }
+
     /**
      * Resets all dirty flags.
      */
@@ -678,6 +783,26 @@ public class Geometry extends GraphicsObject {
         }
     }
 
+    /**
+     * Writes several instances of the given geometry to the currently active framebuffer. The per-instance data has
+     * to be attached to this geometry's vertex array beforehand.
+     *
+     * @param numInstances - number of instances
+     */
+    public void drawInstanced(int numInstances) {
+        switch (type) {
+            case TRIS:
+                GL.drawTrisInstanced(id, numIndices, numInstances);
+                break;
+            case QUADS:
+                GL.drawQuadsInstanced(id, numIndices, numInstances);
+                break;
+            case LINES:
+                GL.drawLinesInstanced(id, numIndices, numInstances);
+                break;
+        }
+    }
+
     /**
      * Applies changes to a geometry instance in the graphics processor.
      */
@@ -817,6 +942,7 @@ public class Geometry extends GraphicsObject {
 
         Collections.sort(faces, Comparator.reverseOrder());
 
+        ensureIndicesWritable();
         indices.clear();
 
         for (Face face : faces) {
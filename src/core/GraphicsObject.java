@@ -14,7 +14,7 @@ public abstract class GraphicsObject {
      * @return true if this object's graphics context representation has been built
      */
     public boolean isBuilt() {
-        return id >= 0;
+        return id > 0;
     }
 
     /**
@@ -26,6 +26,15 @@ public abstract class GraphicsObject {
         return id;
     }
 
+    /**
+     * Gives an estimate of the number of bytes sent to the graphics context when this object is built.
+     *
+     * @return estimated upload size in bytes
+     */
+    public long getUploadSize() {
+        return 0;
+    }
+
     /**
      * Creates an instance of this object in the graphics context.
      */
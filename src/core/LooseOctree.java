@@ -0,0 +1,693 @@
+package core;
+
+import core.math.Ray;
+import core.math.Vector3;
+import core.utility.EngineException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A loose octree of leaf spatials, placed by their world bounds. Each cell accepts spatials whose center lies inside
+ * it and whose extents are no larger than half the cell's size, so a spatial always fits within twice the cell's
+ * size. The cell of a spatial is found directly from its size and center, which makes insertion and moving a spatial
+ * cost a walk of at most the maximum depth, regardless of how many spatials the octree holds.
+ * <p>
+ * The root region is fitted to the spatials when the octree is rebuilt. Spatials that leave it, or have infinite
+ * bounds, are kept in a list tested on every query, and the octree is rebuilt once that list grows too long. Cells
+ * are freed once the last spatial within them leaves.
+ *
+ * @author John Paul Quijano
+ */
+public final class LooseOctree<T extends Spatial> implements SpatialIndex<T> {
+    public static final int DEFAULT_MAX_DEPTH = 8;
+
+    private static final int MIN_OUTSIDE_LIMIT = 64;
+    private static final float ROOT_MARGIN = 1.25f;
+
+    private final Class<T> type;
+    private int maxDepth;
+    private int structureVersion;
+    private Spatial scene;
+    private ChangeLog changes;
+    private Cell<T> root;
+    private List<Entry<T>> outside;
+    private Map<Spatial, Entry<T>> entries;
+    private List<Cell<T>> cellStack;
+    private int[] maskStack;
+    private List<Spatial> pending;
+    private BoundingBox cellBox;
+
+    /**
+     * @param type - class of the spatials collected from scenes
+     */
+    public LooseOctree(Class<T> type) {
+        this(type, DEFAULT_MAX_DEPTH);
+    }
+
+    /**
+     * @param type - class of the spatials collected from scenes
+     * @param maxDepth - maximum number of subdivisions of the root region
+     */
+    public LooseOctree(Class<T> type, int maxDepth) {
+        if (maxDepth < 0 || maxDepth > 20) {
+            throw new EngineException("Maximum depth must be between 0 and 20.");
+        }
+
+        this.type = type;
+        this.maxDepth = maxDepth;
+
+        root = new Cell<>(null, 0f, 0f, 0f, 1f, 0);
+        outside = new ArrayList<>();
+        entries = new IdentityHashMap<>();
+        cellStack = new ArrayList<>();
+        maskStack = new int[64];
+        pending = new ArrayList<>();
+        cellBox = new BoundingBox();
+    }
+
+    /**
+     * Gives the number of spatials in this octree.
+     *
+     * @return number of spatials
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Removes all spatials and sets the root region to the given bounds.
+     *
+     * @param bounds - region covered by the root cell, enlarged to a cube
+     */
+    public void clear(BoundingBox bounds) {
+        Vector3 center = bounds.getCenter();
+        Vector3 extent = bounds.getExtent();
+        float half = Math.max(extent.getX(), Math.max(extent.getY(), extent.getZ()));
+
+        if (bounds.isInfinite() || !(half > 0f)) {
+            throw new EngineException("Octree bounds must be finite and non-empty.");
+        }
+
+        root = new Cell<>(null, center.getX(), center.getY(), center.getZ(), half, 0);
+        outside.clear();
+        entries.clear();
+    }
+
+    /**
+     * Adds the given spatial at the cell matching its world bounds.
+     *
+     * @param spatial - spatial to add
+     */
+    public void insert(T spatial) {
+        if (entries.containsKey(spatial)) {
+            throw new EngineException("Spatial is already in the octree.");
+        }
+
+        Entry<T> entry = new Entry<>(spatial);
+
+        entries.put(spatial, entry);
+        place(entry);
+    }
+
+    /**
+     * Removes the given spatial.
+     *
+     * @param spatial - spatial to remove
+     *
+     * @return true if the spatial was in this octree
+     */
+    public boolean remove(T spatial) {
+        Entry<T> entry = entries.remove(spatial);
+
+        if (entry == null) {
+            return false;
+        }
+
+        unplace(entry);
+
+        return true;
+    }
+
+    /**
+     * Moves the given spatial to the cell matching its current world bounds. This does nothing if the spatial still
+     * belongs to its cell.
+     *
+     * @param spatial - spatial whose bounds changed
+     */
+    public void move(T spatial) {
+        Entry<T> entry = entries.get(spatial);
+
+        if (entry == null) {
+            throw new EngineException("Spatial is not in the octree.");
+        }
+
+        if (entry.cell == null || findDepth(spatial.worldBoundingBox) != entry.cell.depth
+                || !entry.cell.contains(spatial.worldBoundingBox.getCenter())) {
+            unplace(entry);
+            place(entry);
+        }
+    }
+
+    /**
+     * Rebuilds this octree if the given scene changed or if spatials were attached, detached, enabled or disabled
+     * since the last rebuild. Otherwise, only the spatials within those whose transform or bounds were set since the
+     * last update are moved.
+     *
+     * @param scene - scene graph
+     */
+    @Override
+    public void update(Spatial scene) {
+        if (scene != this.scene || scene != null && structureVersion != scene.getStructureVersion()) {
+            rebuild(scene);
+            return;
+        }
+
+        pending.clear();
+
+        if (changes != null) {
+            for (int i = 0; i < changes.size(); i++) {
+                pending.add(changes.get(i));
+            }
+
+            changes.clear();
+        }
+
+        while (!pending.isEmpty()) {
+            Spatial current = pending.remove(pending.size() - 1);
+
+            if (!current.isLeaf()) {
+                for (Spatial child : current) {
+                    pending.add(child);
+                }
+            } else if (entries.containsKey(current)) {
+                move(type.cast(current));
+            }
+        }
+
+        if (outside.size() > Math.max(MIN_OUTSIDE_LIMIT, entries.size() / 8)) {
+            rebuild(scene);
+        }
+    }
+
+    /**
+     * Collects the enabled leaf spatials of the given type in the given scene and rebuilds this octree around them.
+     *
+     * @param scene - scene graph
+     */
+    public void rebuild(Spatial scene) {
+        this.scene = scene;
+
+        changes = ChangeLog.reopen(changes, scene);
+        structureVersion = scene != null ? scene.getStructureVersion() : 0;
+
+        List<T> spatials = new ArrayList<>();
+
+        pending.clear();
+
+        if (scene != null) {
+            pending.add(scene);
+        }
+
+        while (!pending.isEmpty()) {
+            Spatial current = pending.remove(pending.size() - 1);
+
+            if (!current.isEnabled()) {
+                continue;
+            }
+
+            if (current.isLeaf()) {
+                if (type.isInstance(current)) {
+                    spatials.add(type.cast(current));
+                }
+            } else {
+                for (Spatial child : current) {
+                    pending.add(child);
+                }
+            }
+        }
+
+        rebuild(spatials);
+    }
+
+    @Override
+    public List<T> query(Camera camera, List<T> output) {
+        int cullPlane = 0;
+
+        cellStack.clear();
+        cellStack.add(root);
+        maskStack[0] = Camera.ALL_PLANES;
+
+        while (!cellStack.isEmpty()) {
+            int top = cellStack.size() - 1;
+            Cell<T> cell = cellStack.remove(top);
+            int mask = maskStack[top];
+
+            if (cell.count == 0) {
+                continue;
+            }
+
+            mask = camera.intersects(getLooseBounds(cell), mask);
+
+            if (mask == Camera.CULLED) {
+                continue;
+            }
+
+            if (mask == 0) {
+                addAll(cell, output);
+                continue;
+            }
+
+            for (Entry<T> entry : cell.entries) {
+                int entryMask = camera.cull(entry.spatial.worldBoundingBox, mask, cullPlane);
+
+                if (entryMask < 0) {
+                    cullPlane = ~entryMask;
+                } else {
+                    output.add(entry.spatial);
+                }
+            }
+
+            if (cell.children != null) {
+                for (Cell<T> child : cell.children) {
+                    if (child != null) {
+                        if (cellStack.size() == maskStack.length) {
+                            maskStack = Arrays.copyOf(maskStack, maskStack.length * 2);
+                        }
+
+                        maskStack[cellStack.size()] = mask;
+                        cellStack.add(child);
+                    }
+                }
+            }
+        }
+
+        for (Entry<T> entry : outside) {
+            if (camera.intersects(entry.spatial.worldBoundingBox)) {
+                output.add(entry.spatial);
+            }
+        }
+
+        return output;
+    }
+
+    @Override
+    public List<T> query(BoundingBox boundingBox, List<T> output) {
+        if (boundingBox.isInfinite()) {
+            for (Entry<T> entry : entries.values()) {
+                output.add(entry.spatial);
+            }
+
+            return output;
+        }
+
+        Vector3 center = boundingBox.getCenter();
+        Vector3 extent = boundingBox.getExtent();
+
+        cellStack.clear();
+        cellStack.add(root);
+
+        while (!cellStack.isEmpty()) {
+            Cell<T> cell = cellStack.remove(cellStack.size() - 1);
+            float loose = cell.half * 2f;
+
+            if (cell.count == 0
+                    || Math.abs(cell.x - center.getX()) > loose + extent.getX()
+                    || Math.abs(cell.y - center.getY()) > loose + extent.getY()
+                    || Math.abs(cell.z - center.getZ()) > loose + extent.getZ()) {
+                continue;
+            }
+
+            for (Entry<T> entry : cell.entries) {
+                if (boundingBox.intersects(entry.spatial.worldBoundingBox)) {
+                    output.add(entry.spatial);
+                }
+            }
+
+            pushChildren(cell);
+        }
+
+        for (Entry<T> entry : outside) {
+            if (boundingBox.intersects(entry.spatial.worldBoundingBox)) {
+                output.add(entry.spatial);
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Collects spatials whose bounds intersect the given sphere.
+     *
+     * @param center - center of the sphere
+     * @param radius - radius of the sphere
+     * @param output - list to append the spatials to
+     *
+     * @return output list
+     */
+    public List<T> query(Vector3 center, float radius, List<T> output) {
+        float radiusSquared = radius * radius;
+
+        cellStack.clear();
+        cellStack.add(root);
+
+        while (!cellStack.isEmpty()) {
+            Cell<T> cell = cellStack.remove(cellStack.size() - 1);
+            float loose = cell.half * 2f;
+
+            if (cell.count == 0 || distanceSquared(center, cell.x, cell.y, cell.z, loose, loose, loose) > radiusSquared) {
+                continue;
+            }
+
+            for (Entry<T> entry : cell.entries) {
+                if (intersects(entry.spatial.worldBoundingBox, center, radiusSquared)) {
+                    output.add(entry.spatial);
+                }
+            }
+
+            pushChildren(cell);
+        }
+
+        for (Entry<T> entry : outside) {
+            if (intersects(entry.spatial.worldBoundingBox, center, radiusSquared)) {
+                output.add(entry.spatial);
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Collects spatials whose bounds the given ray passes through within the given distance. Distances are measured
+     * in multiples of the ray direction's length.
+     *
+     * @param ray - ray to cast
+     * @param maxDistance - distance beyond which spatials are ignored
+     * @param output - list to append the spatials to
+     *
+     * @return output list
+     */
+    @Override
+    public List<T> query(Ray ray, float maxDistance, List<T> output) {
+        maxDistance = Math.min(maxDistance, Float.MAX_VALUE); /** a miss is infinitely far, so it must not pass */
+
+        cellStack.clear();
+        cellStack.add(root);
+
+        while (!cellStack.isEmpty()) {
+            Cell<T> cell = cellStack.remove(cellStack.size() - 1);
+            float loose = cell.half * 2f;
+
+            if (cell.count == 0 || ray.intersectBox(cell.x - loose, cell.y - loose, cell.z - loose,
+                    cell.x + loose, cell.y + loose, cell.z + loose) > maxDistance) {
+                continue;
+            }
+
+            for (Entry<T> entry : cell.entries) {
+                if (entry.spatial.worldBoundingBox.intersects(ray, maxDistance)) {
+                    output.add(entry.spatial);
+                }
+            }
+
+            pushChildren(cell);
+        }
+
+        for (Entry<T> entry : outside) {
+            if (entry.spatial.worldBoundingBox.intersects(ray, maxDistance)) {
+                output.add(entry.spatial);
+            }
+        }
+
+        return output;
+    }
+
+    /**
+     * Fits the root region around the given spatials then inserts them.
+     */
+    private void rebuild(List<T> spatials) {
+        float minX = Float.MAX_VALUE;
+        float minY = Float.MAX_VALUE;
+        float minZ = Float.MAX_VALUE;
+        float maxX = -Float.MAX_VALUE;
+        float maxY = -Float.MAX_VALUE;
+        float maxZ = -Float.MAX_VALUE;
+        float maxExtent = 0f;
+
+        for (T spatial : spatials) {
+            BoundingBox bounds = spatial.worldBoundingBox;
+
+            if (!bounds.isInfinite()) {
+                Vector3 center = bounds.getCenter();
+                Vector3 extent = bounds.getExtent();
+
+                minX = Math.min(minX, center.getX());
+                minY = Math.min(minY, center.getY());
+                minZ = Math.min(minZ, center.getZ());
+                maxX = Math.max(maxX, center.getX());
+                maxY = Math.max(maxY, center.getY());
+                maxZ = Math.max(maxZ, center.getZ());
+                maxExtent = Math.max(maxExtent, Math.max(extent.getX(), Math.max(extent.getY(), extent.getZ())));
+            }
+        }
+
+        if (minX > maxX) {
+            cellBox.setCenter(0f, 0f, 0f);
+            cellBox.setExtent(1f, 1f, 1f);
+        } else {
+            float half = Math.max(Math.max(maxX - minX, maxY - minY), maxZ - minZ) * 0.5f;
+
+            half = Math.max(Math.max(half, maxExtent) * ROOT_MARGIN, 1f);
+
+            cellBox.setCenter((minX + maxX) * 0.5f, (minY + maxY) * 0.5f, (minZ + maxZ) * 0.5f);
+            cellBox.setExtent(half, half, half);
+        }
+
+        clear(cellBox);
+
+        for (T spatial : spatials) {
+            insert(spatial);
+        }
+    }
+
+    /**
+     * Puts the given entry in the cell matching its spatial's bounds, creating cells along the way.
+     */
+    private void place(Entry<T> entry) {
+        BoundingBox bounds = entry.spatial.worldBoundingBox;
+        Vector3 center = bounds.getCenter();
+
+        if (bounds.isInfinite() || !root.contains(center) || findDepth(bounds) < 0) {
+            entry.cell = null;
+            entry.slot = outside.size();
+            outside.add(entry);
+            return;
+        }
+
+        int depth = findDepth(bounds);
+        Cell<T> cell = root;
+
+        cell.count++;
+
+        while (cell.depth < depth) {
+            cell = cell.getChild(center);
+            cell.count++;
+        }
+
+        entry.cell = cell;
+        entry.slot = cell.entries.size();
+        cell.entries.add(entry);
+    }
+
+    /**
+     * Takes the given entry out of its cell or the outside list, freeing the cells left empty.
+     */
+    private void unplace(Entry<T> entry) {
+        List<Entry<T>> list = entry.cell == null ? outside : entry.cell.entries;
+        Entry<T> last = list.remove(list.size() - 1);
+
+        if (last != entry) {
+            list.set(entry.slot, last);
+            last.slot = entry.slot;
+        }
+
+        for (Cell<T> cell = entry.cell; cell != null; cell = cell.parent) {
+            cell.count--;
+
+            if (cell.count == 0 && cell.parent != null) {
+                cell.parent.removeChild(cell);
+            }
+        }
+
+        entry.cell = null;
+    }
+
+    /**
+     * Gives the depth of the smallest cells whose loose bounds always hold the given bounds.
+     *
+     * @return depth of the cells or -1 if the bounds are larger than the root
+     */
+    private int findDepth(BoundingBox bounds) {
+        Vector3 extent = bounds.getExtent();
+        float size = Math.max(extent.getX(), Math.max(extent.getY(), extent.getZ()));
+        float half = root.half;
+
+        if (size > half) {
+            return -1;
+        }
+
+        int depth = 0;
+
+        while (depth < maxDepth && size <= half * 0.5f) {
+            half *= 0.5f;
+            depth++;
+        }
+
+        return depth;
+    }
+
+    private void pushChildren(Cell<T> cell) {
+        if (cell.children != null) {
+            for (Cell<T> child : cell.children) {
+                if (child != null) {
+                    cellStack.add(child);
+                }
+            }
+        }
+    }
+
+    private void addAll(Cell<T> cell, List<T> output) {
+        for (Entry<T> entry : cell.entries) {
+            output.add(entry.spatial);
+        }
+
+        if (cell.children != null) {
+            for (Cell<T> child : cell.children) {
+                if (child != null && child.count > 0) {
+                    addAll(child, output);
+                }
+            }
+        }
+    }
+
+    private BoundingBox getLooseBounds(Cell<T> cell) {
+        float loose = cell.half * 2f;
+
+        cellBox.setCenter(cell.x, cell.y, cell.z);
+        cellBox.setExtent(loose, loose, loose);
+
+        return cellBox;
+    }
+
+    private static boolean intersects(BoundingBox bounds, Vector3 center, float radiusSquared) {
+        if (bounds.isInfinite()) {
+            return true;
+        }
+
+        Vector3 boxCenter = bounds.getCenter();
+        Vector3 extent = bounds.getExtent();
+
+        return distanceSquared(center, boxCenter.getX(), boxCenter.getY(), boxCenter.getZ(),
+                extent.getX(), extent.getY(), extent.getZ()) <= radiusSquared;
+    }
+
+    /**
+     * Gives the squared distance from the given point to the nearest point of the given box.
+     */
+    private static float distanceSquared(Vector3 point, float x, float y, float z, float ex, float ey, float ez) {
+        float dx = Math.max(Math.abs(point.getX() - x) - ex, 0f);
+        float dy = Math.max(Math.abs(point.getY() - y) - ey, 0f);
+        float dz = Math.max(Math.abs(point.getZ() - z) - ez, 0f);
+
+        return dx * dx + dy * dy + dz * dz;
+    }
+
+    /**
+     * A cell of the octree. Children are created on first use.
+     */
+    private static final class Cell<T extends Spatial> {
+        private final Cell<T> parent;
+        private final float x;
+        private final float y;
+        private final float z;
+        private final float half;
+        private final int depth;
+        private final List<Entry<T>> entries;
+        private Cell<T>[] children;
+        private int numChildren;
+        private int count;
+
+        Cell(Cell<T> parent, float x, float y, float z, float half, int depth) {
+            this.parent = parent;
+            this.x = x;
+            this.y = y;
+            this.z = z;
+            this.half = half;
+            this.depth = depth;
+
+            entries = new ArrayList<>();
+        }
+
+        boolean contains(Vector3 point) {
+            return Math.abs(point.getX() - x) <= half && Math.abs(point.getY() - y) <= half
+                && Math.abs(point.getZ() - z) <= half;
+        }
+
+        @SuppressWarnings("unchecked")
+        Cell<T> getChild(Vector3 point) {
+            int octant = (point.getX() >= x ? 1 : 0) | (point.getY() >= y ? 2 : 0) | (point.getZ() >= z ? 4 : 0);
+
+            if (children == null) {
+                children = (Cell<T>[]) new Cell<?>[8];
+            }
+
+            if (children[octant] == null) {
+                float childHalf = half * 0.5f;
+
+                children[octant] = new Cell<>(
+                    this,
+                    (octant & 1) != 0 ? x + childHalf : x - childHalf,
+                    (octant & 2) != 0 ? y + childHalf : y - childHalf,
+                    (octant & 4) != 0 ? z + childHalf : z - childHalf,
+                    childHalf,
+                    depth + 1
+                );
+                numChildren++;
+            }
+
+            return children[octant];
+        }
+
+        /**
+         * Detaches the given empty child, dropping the child array once no children are left.
+         */
+        void removeChild(Cell<T> child) {
+            for (int i = 0; i < children.length; i++) {
+                if (children[i] == child) {
+                    children[i] = null;
+                    numChildren--;
+                    break;
+                }
+            }
+
+            if (numChildren == 0) {
+                children = null;
+            }
+        }
+    }
+
+    /**
+     * A spatial and its place in the octree.
+     */
+    private static final class Entry<T extends Spatial> {
+        private final T spatial;
+        private Cell<T> cell;
+        private int slot;
+
+        Entry(T spatial) {
+            this.spatial = spatial;
+        }
+    }
+}
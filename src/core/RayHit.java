@@ -0,0 +1,102 @@
+package core;
+
+import core.math.Vector3;
+
+/**
+ * The nearest intersection found by casting a ray against shapes. Casts only accept hits nearer than the current one,
+ * so the same hit can be passed to several casts to find the nearest among them.
+ *
+ * @author John Paul Quijano
+ */
+public final class RayHit {
+    Shape shape;
+    float distance;
+    int triangle;
+
+    private Vector3 point;
+
+    /**
+     * Creates an empty hit.
+     */
+    public RayHit() {
+        point = new Vector3();
+        clear();
+    }
+
+    /**
+     * Resets this hit so that the next cast accepts any intersection.
+     *
+     * @return this hit
+     */
+    public RayHit clear() {
+        return clear(Float.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Resets this hit so that the next cast accepts intersections no farther than the given distance.
+     *
+     * @param maxDistance - distance beyond which intersections are ignored
+     *
+     * @return this hit
+     */
+    public RayHit clear(float maxDistance) {
+        shape = null;
+        distance = maxDistance;
+        triangle = -1;
+        point.set(Vector3.ZERO);
+
+        return this;
+    }
+
+    /**
+     * Gives the shape that was hit.
+     *
+     * @return shape that was hit or null if nothing was hit
+     */
+    public Shape getShape() {
+        return shape;
+    }
+
+    /**
+     * Gives the distance along the ray to the hit point, in multiples of the ray direction's length.
+     *
+     * @return distance to the hit point
+     */
+    public float getDistance() {
+        return distance;
+    }
+
+    /**
+     * Gives the index of the triangle that was hit. Quads count as two triangles, the first sharing the quad's first
+     * three vertices.
+     *
+     * @return triangle index or -1 if nothing was hit
+     */
+    public int getTriangle() {
+        return triangle;
+    }
+
+    /**
+     * Gives the world-space hit point.
+     *
+     * @return hit point
+     */
+    public Vector3 getPoint() {
+        return point;
+    }
+
+    /**
+     * Checks whether anything was hit.
+     *
+     * @return true if a triangle was hit
+     */
+    public boolean isHit() {
+        return triangle >= 0;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName() + "[Shape: " + shape + ", Distance: " + distance + ", Triangle: " + triangle
+                + ", Point: (" + point.getX() + ", " + point.getY() + ", " + point.getZ() + ")]";
+    }
+}
@@ -4,6 +4,9 @@ import core.event.TraverserEvent;
 import core.event.listener.TraverserListener;
 import core.event.type.TraverserEventType;
 import core.framebuffer.*;
+import core.math.Matrix4;
+import core.math.Ray;
+import core.math.Vector3;
 import core.math.Vector4;
 import core.shader.Sampler;
 import core.shader.Shader;
@@ -11,11 +14,15 @@ import core.shader.Variable;
 import core.utility.Buffers;
 import core.utility.Colors;
 import core.utility.EngineException;
+import core.utility.Pools;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -49,6 +56,8 @@ public final class Renderer implements TraverserListener {
 
     public static final int MAX_FRAGMENT_OUTPUTS = 6;
     public static final int NUM_UTILITY_SAMPLERS = 8;
+    public static final long DEFAULT_UPLOAD_TIME_BUDGET = 2000000L;
+    public static final long DEFAULT_UPLOAD_BYTE_BUDGET = 16L * 1024L * 1024L;
 
     public static final Vector4 DEFAULT_CLEAR_COLOR = new Vector4(Colors.DARK_GRAY4);
 
@@ -67,7 +76,14 @@ public final class Renderer implements TraverserListener {
     private boolean initialized;
     private boolean cameraDirty;
     private boolean frustumCullingEnabled;
+    private int frustumMask;
+    private int cullPlane;
+    private int[] frustumMasks;
+    private long uploadTimeBudget;
+    private long uploadByteBudget;
     private Camera camera;
+    private SpatialIndex<Shape> spatialIndex;
+    private FlatScene flatScene;
     private Shader shader;
     private Spatial scene;
     private Traverser traverser;
@@ -78,8 +94,13 @@ public final class Renderer implements TraverserListener {
     private FrameBuffer defaultFB;
     private Geometry fullscreenQuad;
     private Set<GraphicsObject> graphicsObjects;
+    private Set<GraphicsObject> uploads;
     private List<RenderingModule> renderingModules;
     private List<Spatial> branches;
+    private List<Spatial> pickPending;
+    private List<Shape> pickCandidates;
+    private Ray pickRay;
+    private Ray localRay;
     private IntBuffer writeBuffer;
 
     Renderer() {
@@ -87,16 +108,24 @@ public final class Renderer implements TraverserListener {
         height = GL.DEFAULT_VIEWPORT_HEIGHT;
         clearColor = new Vector4(DEFAULT_CLEAR_COLOR);
         frustumCullingEnabled = true;
+        uploadTimeBudget = DEFAULT_UPLOAD_TIME_BUDGET;
+        uploadByteBudget = DEFAULT_UPLOAD_BYTE_BUDGET;
         camera = new Camera();
         shader = new Shader();
         traverser = new Traverser();
+        frustumMasks = new int[Traverser.DEFAULT_CAPACITY];
         fullscreenQuad = new Geometry(Geometry.Type.TRIS, 4, 6);
         defaultDB = new DepthBuffer(DepthBuffer.Type.RENDERBUFFER);
         defaultCB = new ColorBuffer(ColorBuffer.Type.RGBA, false);
         defaultFB = new FrameBuffer(GL.DEFAULT_VIEWPORT_WIDTH, GL.DEFAULT_VIEWPORT_HEIGHT, defaultDB, defaultCB);
         graphicsObjects = new HashSet<>();
+        uploads = new LinkedHashSet<>();
         renderingModules = new ArrayList<>();
         branches = new ArrayList();
+        pickPending = new ArrayList<>();
+        pickCandidates = new ArrayList<>();
+        pickRay = new Ray();
+        localRay = new Ray();
         writeBuffer = Buffers.createIntBuffer(MAX_FRAGMENT_OUTPUTS);
 
         renderTarget = defaultFB;
@@ -145,6 +174,84 @@ public final class Renderer implements TraverserListener {
     public void destroy(GraphicsObject object) {
         object.destroy();
         graphicsObjects.remove(object);
+        uploads.remove(object);
+    }
+
+    /**
+     * Queues the given graphics object to be built at the start of a later frame. Objects are built in the order they
+     * were scheduled, as many per frame as the upload budgets allow. Scheduling an object that is already queued has
+     * no effect.
+     *
+     * @param object - graphics object to build
+     */
+    public void schedule(GraphicsObject object) {
+        uploads.add(object);
+    }
+
+    /**
+     * Checks if the given graphics object is waiting to be built.
+     *
+     * @param object - graphics object to check
+     *
+     * @return true if the object is queued for building
+     */
+    public boolean isScheduled(GraphicsObject object) {
+        return uploads.contains(object);
+    }
+
+    /**
+     * Gives the number of graphics objects waiting to be built.
+     *
+     * @return number of queued graphics objects
+     */
+    public int numScheduled() {
+        return uploads.size();
+    }
+
+    /**
+     * Sets the maximum time spent each frame on building scheduled graphics objects. At least one object is built per
+     * frame regardless of the budget.
+     *
+     * @param nanos - upload time budget in nanoseconds
+     */
+    public void setUploadTimeBudget(long nanos) {
+        if (nanos < 0) {
+            throw new EngineException("Upload time budget cannot be negative.");
+        }
+
+        uploadTimeBudget = nanos;
+    }
+
+    /**
+     * Gives the maximum time spent each frame on building scheduled graphics objects.
+     *
+     * @return upload time budget in nanoseconds
+     */
+    public long getUploadTimeBudget() {
+        return uploadTimeBudget;
+    }
+
+    /**
+     * Sets the maximum estimated number of bytes sent each frame when building scheduled graphics objects. At least
+     * one object is built per frame regardless of the budget.
+     *
+     * @param bytes - upload byte budget
+     */
+    public void setUploadByteBudget(long bytes) {
+        if (bytes < 0) {
+            throw new EngineException("Upload byte budget cannot be negative.");
+        }
+
+        uploadByteBudget = bytes;
+    }
+
+    /**
+     * Gives the maximum estimated number of bytes sent each frame when building scheduled graphics objects.
+     *
+     * @return upload byte budget
+     */
+    public long getUploadByteBudget() {
+        return uploadByteBudget;
     }
 
     /**
@@ -171,6 +278,149 @@ public final class Renderer implements TraverserListener {
         return camera;
     }
 
+    /**
+     * Gives the frustum planes of the camera that the spatial currently visited by this renderer's traversal still
+     * needs to be tested against. Planes that the bounds of its ancestors are completely inside of are left out. The
+     * masks are kept by the renderer along the traversal path, so other traversals of the scene do not disturb them.
+     *
+     * @return frustum plane mask, see {@link Camera#intersects(BoundingBox, int)}
+     */
+    public int getFrustumMask() {
+        return frustumMask;
+    }
+
+    /**
+     * Sets the spatial index kept over the scene's shapes, such as a {@link BoundingVolumeHierarchy} or a
+     * {@link LooseOctree}. The index is updated every frame after the traversal and used in place of per-shape tests
+     * for view culling and shadow caster collection. Setting null returns to culling during the traversal. No index is
+     * set by default.
+     *
+     * @param spatialIndex - spatial index or null
+     */
+    public void setSpatialIndex(SpatialIndex<Shape> spatialIndex) {
+        this.spatialIndex = spatialIndex;
+    }
+
+    /**
+     * Gives the spatial index kept over the scene's shapes.
+     *
+     * @return spatial index or null if none is set
+     */
+    public SpatialIndex<Shape> getSpatialIndex() {
+        return spatialIndex;
+    }
+
+    /**
+     * Finds the nearest shape under the given screen coordinates. Screen coordinates are those of
+     * {@link Camera#getWorldCoordinates(float, float, float, Vector3)}, and only what lies between the camera's near
+     * and far clipping planes can be picked. This uses the world transforms and bounds of the last rendered frame.
+     *
+     * @param x - first screen-space coordinate
+     * @param y - second screen-space coordinate
+     *
+     * @return nearest hit or null if no shape is under the given coordinates
+     */
+    public RayHit pick(float x, float y) {
+        Vector3 near = camera.getWorldCoordinates(x, y, 0f, Pools.Vector3.get());
+        Vector3 far = camera.getWorldCoordinates(x, y, 1f, Pools.Vector3.get());
+        Vector3 direction = far.subtract(near);
+        float length = direction.magnitude();
+        RayHit hit = null;
+
+        if (length > 0f) {
+            pickRay.setOrigin(near).setDirection(direction.divide(length));
+            hit = new RayHit();
+
+            if (!cast(pickRay, length, hit)) {
+                hit = null;
+            }
+        }
+
+        Pools.Vector3.put(near);
+        Pools.Vector3.put(far);
+
+        return hit;
+    }
+
+    /**
+     * Casts the given world-space ray at the shapes of the scene and finds the nearest triangle hit. Candidate shapes
+     * are taken from the spatial index if one is set, otherwise from a sweep of the flattened scene or a walk of the
+     * scene graph that skips branches whose bounds the ray misses. Each candidate is then tested in its local space
+     * against its most detailed geometry, skipping candidates whose bounds start beyond the nearest hit so far.
+     *
+     * @param ray - ray to cast
+     * @param maxDistance - distance beyond which shapes are ignored, in multiples of the ray direction's length
+     * @param hit - storage for the nearest hit
+     *
+     * @return true if a shape was hit
+     */
+    public boolean cast(Ray ray, float maxDistance, RayHit hit) {
+        hit.clear(maxDistance);
+        pickCandidates.clear();
+
+        /** candidates from the flattened scene have their bounds and matrices read from its packed arrays */
+        FlatScene flat = null;
+
+        if (spatialIndex != null) {
+            spatialIndex.query(ray, maxDistance, pickCandidates);
+        } else if (flatScene != null && flatScene.isCurrent(scene)) {
+            flat = flatScene;
+            flat.query(ray, maxDistance, pickCandidates);
+        } else {
+            collectPickCandidates(ray, maxDistance);
+        }
+
+        Matrix4 inverse = Pools.Matrix4.get();
+        Vector4 temp = Pools.Vector4.get();
+
+        for (Shape shape : pickCandidates) {
+            if (!shape.hasGeometry()) {
+                continue;
+            }
+
+            if (flat != null) {
+                float distance = BinnedSplitter.intersect(ray, flat.getWorldBounds(), shape.flatIndex * FlatScene.BOUNDS_STRIDE);
+
+                if (distance >= hit.distance) {
+                    continue;
+                }
+
+                inverse.set(flat.getWorldMatrices(), shape.flatIndex * FlatScene.MATRIX_STRIDE);
+            } else if (shape.worldBoundingBox.intersect(ray) >= hit.distance) {
+                continue;
+            } else {
+                inverse.set(shape.getWorldTransformMatrix());
+            }
+
+            try {
+                inverse.invertAffine();
+            } catch (EngineException ex) { /** a shape scaled down to nothing cannot be hit */
+                continue;
+            }
+
+            /** the local direction is left unnormalized so that distances stay in world-space units */
+            inverse.transform(temp.set(ray.getOrigin(), 1f), temp);
+            localRay.getOrigin().set(temp.getX(), temp.getY(), temp.getZ());
+            inverse.transform(temp.set(ray.getDirection(), 0f), temp);
+            localRay.getDirection().set(temp.getX(), temp.getY(), temp.getZ());
+
+            if (shape.getGeometryDetail(0).intersect(localRay, hit)) {
+                hit.shape = shape;
+            }
+        }
+
+        Pools.Matrix4.put(inverse);
+        Pools.Vector4.put(temp);
+
+        if (hit.shape != null) {
+            hit.getPoint().set(ray.getDirection()).multiply(hit.distance).add(ray.getOrigin());
+        }
+
+        pickCandidates.clear();
+
+        return hit.shape != null;
+    }
+
     /**
      * Checks if the camera has been changed.
      *
@@ -360,6 +610,40 @@ public final class Renderer implements TraverserListener {
         return frustumCullingEnabled;
     }
 
+    /**
+     * If enabled, world transforms and bounds are updated by sweeping a flattened copy of the scene before the scene
+     * is traversed, instead of during the traversal. Branches can then be culled even while their transforms are
+     * changing, since their bounds are already up to date. Only the parts of the scene that changed since the last
+     * frame are updated and cleaned. This is disabled by default.
+     *
+     * @param enabled - if true, a flattened scene is kept
+     */
+    public void setFlatSceneEnabled(boolean enabled) {
+        if (enabled && flatScene == null) {
+            flatScene = new FlatScene();
+        } else if (!enabled) {
+            flatScene = null;
+        }
+    }
+
+    /**
+     * Checks if a flattened scene is kept.
+     *
+     * @return true if a flattened scene is kept
+     */
+    public boolean isFlatSceneEnabled() {
+        return flatScene != null;
+    }
+
+    /**
+     * Gives the flattened copy of the scene, updated at the start of every frame.
+     *
+     * @return flattened scene or null if disabled
+     */
+    public FlatScene getFlatScene() {
+        return flatScene;
+    }
+
     /**
      * Checks if this renderer has been initialized.
      *
@@ -430,28 +714,98 @@ public final class Renderer implements TraverserListener {
     public boolean listen(TraverserEvent event) {
         if (event.getType() == TraverserEventType.BRANCH_DONE) {
             Spatial branch = event.getSource().getCurrent();
-            branch.calculateHierarchicalBounds();
-            branches.add(branch);
+
+            /** with a flattened scene, only the branches it updated are cleaned */
+            if (flatScene == null) {
+                branch.calculateHierarchicalBounds();
+                branches.add(branch);
+            }
         } else if (event.getType() == TraverserEventType.BRANCH_NEXT) {
             Spatial branch = event.getSource().getCurrent();
+            int depth = event.getSource().getDepth();
 
-            if (branch.isReset()) {
-                branch.calculateWorldTransform();
+            if (event.getSource().getChildIndex() == 0) {
+                frustumMask = getInheritedFrustumMask(depth);
 
-                if (frustumCullingEnabled && !branch.transformDirty && !branch.descendantTransformDirty && !camera.intersects(branch.worldBoundingBox)) {
-                    return true;
+                if (flatScene == null) {
+                    branch.calculateWorldTransform();
                 }
+
+                /** without a flattened scene, bounds of changed branches are only known once their children are done */
+                boolean boundsReady = flatScene != null || !branch.transformDirty && !branch.descendantTransformDirty;
+
+                if (frustumCullingEnabled && boundsReady) {
+                    int mask = camera.cull(branch.worldBoundingBox, frustumMask, cullPlane);
+
+                    if (mask < 0) {
+                        cullPlane = ~mask;
+                        return true;
+                    }
+
+                    frustumMask = mask;
+                }
+
+                if (depth == frustumMasks.length) {
+                    frustumMasks = Arrays.copyOf(frustumMasks, depth * 2);
+                }
+
+                frustumMasks[depth] = frustumMask;
             }
         } else if (event.getType() == TraverserEventType.LEAF) {
             Spatial leaf = event.getSource().getCurrent();
 
-            leaf.calculateWorldTransform();
-            leaf.calculateWorldBounds();
+            if (flatScene == null) {
+                leaf.calculateWorldTransform();
+                leaf.calculateWorldBounds();
+            }
+
+            frustumMask = getInheritedFrustumMask(event.getSource().getDepth());
         }
 
         return false;
     }
 
+    /**
+     * Gives the frustum planes a spatial at the given depth of the traversal needs to be tested against, which are the
+     * planes its parent's bounds cross.
+     *
+     * @param depth - depth of the spatial being traversed
+     *
+     * @return frustum plane mask
+     */
+    private int getInheritedFrustumMask(int depth) {
+        return depth == 0 ? Camera.ALL_PLANES : frustumMasks[depth - 1];
+    }
+
+    /**
+     * Gathers the enabled shapes of the scene whose bounds the given ray passes through.
+     */
+    private void collectPickCandidates(Ray ray, float maxDistance) {
+        pickPending.clear();
+
+        if (scene != null) {
+            pickPending.add(scene);
+        }
+
+        while (!pickPending.isEmpty()) {
+            Spatial current = pickPending.remove(pickPending.size() - 1);
+
+            if (!current.isEnabled() || !current.worldBoundingBox.intersects(ray, maxDistance)) {
+                continue;
+            }
+
+            if (current.isLeaf()) {
+                if (current instanceof Shape) {
+                    pickCandidates.add((Shape) current);
+                }
+            } else {
+                for (Spatial child : current) {
+                    pickPending.add(child);
+                }
+            }
+        }
+    }
+
     /**
      * Initializes rendering. This is called by the engine just before entering the application loop.
      */
@@ -476,11 +830,20 @@ public final class Renderer implements TraverserListener {
      * Runs the rendering modules.
      */
     void render() {
+        upload();
         resetStates();
         updateCamera();
 
+        if (flatScene != null) {
+            flatScene.update(scene);
+        }
+
         traverser.traverse(scene);
 
+        if (spatialIndex != null) {
+            spatialIndex.update(scene);
+        }
+
         bind(renderTarget);
 
         for (RenderingModule module : renderingModules) {
@@ -626,6 +989,9 @@ public final class Renderer implements TraverserListener {
     private void updateCamera() {
         camera.updateViewProjection();
 
+        /** the buffer is only refreshed when asked for while the camera is dirty, so it is asked for every frame */
+        setVPMatrix(camera.getViewProjectionBuffer());
+
         if (cameraDirty) {
             GL.setVector2(cameraClip_u.getID(), camera.getNearClipDistance(), camera.getFarClipDistance());
             GL.setVector3(cameraLoc_u.getID(), camera.getLocation().getX(), camera.getLocation().getY(), camera.getLocation().getZ());
@@ -645,6 +1011,38 @@ public final class Renderer implements TraverserListener {
         }
     }
 
+    /**
+     * Builds scheduled graphics objects until the queue is empty or either upload budget is used up. Objects that were
+     * built directly after being scheduled are dropped from the queue.
+     */
+    private void upload() {
+        long start = System.nanoTime();
+        long bytes = 0;
+        boolean uploaded = false;
+        Iterator<GraphicsObject> iterator = uploads.iterator();
+
+        while (iterator.hasNext()) {
+            GraphicsObject object = iterator.next();
+
+            if (object.isBuilt()) {
+                iterator.remove();
+                continue;
+            }
+
+            long size = object.getUploadSize();
+
+            if (uploaded && (bytes + size > uploadByteBudget || System.nanoTime() - start >= uploadTimeBudget)) {
+                break;
+            }
+
+            iterator.remove();
+            build(object);
+
+            bytes += size;
+            uploaded = true;
+        }
+    }
+
     /**
      * Resets dirty flags.
      */
@@ -656,6 +1054,10 @@ public final class Renderer implements TraverserListener {
         branches.clear();
         camera.clean();
 
+        if (flatScene != null) {
+            flatScene.cleanBranches();
+        }
+
         resized = false;
         cameraDirty = false;
     }
@@ -1,5 +1,7 @@
 package core;
 
+import core.animation.Animation;
+import core.animation.AnimationInstance;
 import core.math.EngineMath;
 import core.math.Matrix3;
 import core.math.Matrix4;
@@ -42,6 +44,7 @@ public class Shape extends Spatial implements Comparable<Shape> {
     protected List<ShapeGeometry> geometries;
     protected List<Light> lights;
     protected List<Shadow> shadows;
+    protected AnimationInstance animation;
 
     public Shape() {
         maxMatIndex = -1;
@@ -248,6 +251,16 @@ public class Shape extends Spatial implements Comparable<Shape> {
         return lodGeometry;
     }
 
+    /**
+     * Gives the distance from the camera to the nearest point of the world bounds, as of the last level-of-detail
+     * calculation.
+     *
+     * @return distance from the camera
+     */
+    public float getCameraDistance() {
+        return camDistance;
+    }
+
     /**
      * Updates the bounds to tightly contain the given geometry.
      *
@@ -256,6 +269,7 @@ public class Shape extends Spatial implements Comparable<Shape> {
     public void calculateBounds(ShapeGeometry geometry) {
         localBoundingBox.fromCoordinates(geometry.getCoordinates());
         boundsDirty = true;
+        recordChange();
     }
 
     /**
@@ -491,16 +505,50 @@ public class Shape extends Spatial implements Comparable<Shape> {
         return isLightingReady() && materials.get(lodMaterial).getNormalMap() != null && geometries.get(lodGeometry).isTexCoordEnabled() && geometries.get(lodGeometry).isTangentEnabled();
     }
 
+    /**
+     * Sets the animation instance this shape is posed with, so that shapes sharing a geometry can play its clip at their
+     * own time offsets and speeds. If null, the shape is posed with its geometry's animation.
+     *
+     * @param animation - animation instance, usually made by {@link Animation#createInstance()}
+     */
+    public void setAnimation(AnimationInstance animation) {
+        this.animation = animation;
+    }
+
+    /**
+     * Gives the animation instance set on this shape.
+     *
+     * @return this shape's animation instance, or null if it is posed with its geometry's animation
+     */
+    public AnimationInstance getAnimation() {
+        return animation;
+    }
+
+    /**
+     * Gives the animation instance this shape is posed with, which is either its own or its geometry's.
+     *
+     * @return animation instance in use, or null if the shape is not animated
+     */
+    public AnimationInstance getActiveAnimation() {
+        if (animation != null) {
+            return animation;
+        }
+
+        Animation geometryAnimation = geometries.get(lodGeometry).getAnimation();
+
+        return geometryAnimation == null ? null : geometryAnimation.getInstance();
+    }
+
     /**
      * Checks if this shape has all the prerequisites for animation. These prerequisites are:
-     *     - geometry contains animation
+     *     - shape or geometry contains animation
      *     - joints enabled in geometry
      *
      * @return true if this shape is being animated
      */
     public boolean isAnimationReady() {
         ShapeGeometry geometry = geometries.get(lodGeometry);
-        return geometry.getAnimation() != null && geometry.isJointEnabled();
+        return (animation != null || geometry.getAnimation() != null) && geometry.isJointEnabled();
     }
 
     @Override
@@ -513,6 +561,7 @@ public class Shape extends Spatial implements Comparable<Shape> {
         clone.lodStep = lodStep;
         clone.lodEnabled = lodEnabled;
         clone.sortEnabled = sortEnabled;
+        clone.animation = animation;
 
         clone.maxMatIndex = maxMatIndex;
         clone.maxGeomIndex = maxGeomIndex;
@@ -1,15 +1,21 @@
 package core;
 
+import core.buffer.Vector2Buffer;
 import core.buffer.Vector3Buffer;
-import core.math.Vector2;
+import core.buffer.Vector4Buffer;
+import core.math.EngineMath;
+import core.math.Ray;
 import core.math.Vector3;
 import core.shader.Shader;
 import core.utility.Buffers;
+import core.utility.EngineException;
+import core.utility.Parallel;
 import core.utility.Pools;
 import core.animation.Animation;
 
 import java.nio.FloatBuffer;
 import java.nio.IntBuffer;
+import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -22,7 +28,10 @@ public class ShapeGeometry extends Geometry {
         NORMAL(3, Shader.Type.VEC3),
         TANGENT(4, Shader.Type.VEC3),
         JOINT(5, Shader.Type.IVEC4),
-        WEIGHT(6, Shader.Type.VEC4);
+        WEIGHT(6, Shader.Type.VEC4),
+        BITANGENT_SIGN(7, Shader.Type.FLOAT),
+        INSTANCE(8, Shader.Type.MAT4),
+        INSTANCE_NORMAL(12, Shader.Type.MAT3);
 
         private int identifier;
         private Shader.Type type;
@@ -41,11 +50,39 @@ public class ShapeGeometry extends Geometry {
         }
     }
 
+    /**
+     * Contribution of each face to the normals of its vertices.
+     */
+    public enum NormalWeighting {
+        /**
+         * Each face contributes equally.
+         */
+        UNIFORM,
+
+        /**
+         * Each face contributes in proportion to its area.
+         */
+        AREA,
+
+        /**
+         * Each face contributes in proportion to its angle at the vertex.
+         */
+        ANGLE
+    }
+
     public static final int JOINTS_PER_VERTEX = 4;
 
+    private static final ThreadLocal<float[]> scratch = new ThreadLocal<float[]>() {
+        @Override
+        protected float[] initialValue() {
+            return new float[0];
+        }
+    };
+
     protected int numJoints;
     protected int normalBuffer;
     protected int tangentBuffer;
+    protected int bitangentSignBuffer;
     protected int jointBuffer;
     protected int weightBuffer;
     protected boolean normalDirty;
@@ -62,10 +99,15 @@ public class ShapeGeometry extends Geometry {
     protected IntBuffer jointsReadOnly;
     protected FloatBuffer weights;
     protected FloatBuffer weightsReadOnly;
+    protected FloatBuffer bitangentSigns;
+    protected FloatBuffer bitangentSignsReadOnly;
     protected Vector3Buffer normals;
     protected Vector3Buffer tangents;
     protected Animation animation;
 
+    private boolean triangleHierarchyEnabled;
+    private TriangleHierarchy triangleHierarchy;
+
     /**
      * Creates an empty shape geometry.
      *
@@ -86,6 +128,46 @@ public class ShapeGeometry extends Geometry {
 
         normals = new Vector3Buffer(numCoords);
         tangents = new Vector3Buffer(numCoords);
+        createBitangentSigns(numCoords);
+    }
+
+    /**
+     * Creates a shape geometry backed by the given buffers. The buffers are used as they are, without copying, so
+     * they may be views of a memory-mapped file. Read-only buffers are copied the first time they are written to.
+     *
+     * @param type - geometry type, either one of TYPE_LINES, TYPE_TRIS, or TYPE_QUADS
+     * @param indices - index buffer
+     * @param coords - coordinate buffer
+     * @param colors - color buffer
+     * @param texCoords - texture coordinate buffer
+     * @param normals - normal buffer
+     * @param tangents - tangent buffer
+     * @param bitangentSigns - bi-tangent sign buffer, holding one value per coordinate
+     * @param joints - joint index buffer, holding JOINTS_PER_VERTEX values per coordinate
+     * @param weights - weight buffer, holding JOINTS_PER_VERTEX values per coordinate
+     */
+    public ShapeGeometry(Type type, IntBuffer indices, Vector3Buffer coords, Vector4Buffer colors,
+                         Vector2Buffer texCoords, Vector3Buffer normals, Vector3Buffer tangents,
+                         FloatBuffer bitangentSigns, IntBuffer joints, FloatBuffer weights) {
+        super(type, indices, coords, colors, texCoords);
+
+        if (normals.size() != numCoords || tangents.size() != numCoords || bitangentSigns.capacity() != numCoords
+                || joints.capacity() != numCoords * JOINTS_PER_VERTEX
+                || weights.capacity() != numCoords * JOINTS_PER_VERTEX) {
+            throw new EngineException("Vertex attribute buffers must have the same number of elements.");
+        }
+
+        numJoints = numCoords * JOINTS_PER_VERTEX;
+
+        this.joints = joints;
+        this.weights = weights;
+        this.normals = normals;
+        this.tangents = tangents;
+        this.bitangentSigns = bitangentSigns;
+
+        jointsReadOnly = joints.asReadOnlyBuffer();
+        weightsReadOnly = weights.asReadOnlyBuffer();
+        bitangentSignsReadOnly = bitangentSigns.asReadOnlyBuffer();
     }
 
     /**
@@ -106,6 +188,7 @@ public class ShapeGeometry extends Geometry {
 
         normals = new Vector3Buffer(numCoords);
         tangents = new Vector3Buffer(numCoords);
+        createBitangentSigns(numCoords);
     }
 
     /**
@@ -124,9 +207,11 @@ public class ShapeGeometry extends Geometry {
 
         normals = new Vector3Buffer(template.numCoords);
         tangents = new Vector3Buffer(template.numCoords);
+        createBitangentSigns(template.numCoords);
 
         numJoints = template.numJoints;
         animation = template.animation;
+        triangleHierarchyEnabled = template.triangleHierarchyEnabled;
 
         jointEnabled = template.jointEnabled;
         normalEnabled = template.normalEnabled;
@@ -140,6 +225,9 @@ public class ShapeGeometry extends Geometry {
 
         normals.set(template.normals);
         tangents.set(template.tangents);
+
+        bitangentSigns.put(template.bitangentSigns).flip();
+        template.bitangentSigns.flip();
     }
 
     /**
@@ -161,6 +249,7 @@ public class ShapeGeometry extends Geometry {
 
             normals = new Vector3Buffer(template.numCoords);
             tangents = new Vector3Buffer(template.numCoords);
+            createBitangentSigns(template.numCoords);
         }
 
         numJoints = template.numJoints;
@@ -176,6 +265,12 @@ public class ShapeGeometry extends Geometry {
         setTangents(template.tangents);
         setAnimation(template.animation);
 
+        ensureBitangentSignsWritable();
+        bitangentSigns.clear();
+        bitangentSigns.put(template.bitangentSigns);
+        bitangentSigns.flip();
+        template.bitangentSigns.flip();
+
         return this;
     }
 
@@ -214,6 +309,18 @@ public class ShapeGeometry extends Geometry {
         dirty = true;
     }
 
+    /**
+     * Copies the given number of packed x, y, z components from the given array to this geometry's normal buffer.
+     *
+     * @param normals - array of packed normal components
+     * @param length - number of components to copy
+     */
+    public void setNormals(float[] normals, int length) {
+        this.normals.set(normals, length);
+        normalDirty = true;
+        dirty = true;
+    }
+
     /**
      * Copies the contents of the given buffer to this geometry's normal buffer.
      *
@@ -429,6 +536,38 @@ public class ShapeGeometry extends Geometry {
         return tangentDirty;
     }
 
+    /**
+     * Gives the bi-tangent sign at the given index. The bi-tangent of a vertex is cross(normal, tangent) multiplied
+     * by this sign.
+     *
+     * @param index - buffer index
+     *
+     * @return either 1 or -1
+     */
+    public float getBitangentSign(int index) {
+        return bitangentSigns.get(index);
+    }
+
+    /**
+     * Replaces a read-only bi-tangent sign buffer, such as a view of a mapped mesh file, with a writable copy
+     * before it is first written to.
+     */
+    private void ensureBitangentSignsWritable() {
+        if (bitangentSigns.isReadOnly()) {
+            bitangentSigns = Buffers.writable(bitangentSigns);
+            bitangentSignsReadOnly = bitangentSigns.asReadOnlyBuffer();
+        }
+    }
+
+    /**
+     * Gives the immutable buffer containing this geometry's bi-tangent signs.
+     *
+     * @return immutable buffer containing this geometry's bi-tangent signs
+     */
+    public FloatBuffer getBitangentSignBuffer() {
+        return bitangentSignsReadOnly;
+    }
+
     /**
      * Sets the joint index values at the given buffer index.
      *
@@ -436,6 +575,8 @@ public class ShapeGeometry extends Geometry {
      * @param values input values
      */
     public void setJoints(int index, int[] values) {
+        ensureJointsWritable();
+
         int start = index * 4;
 
         for (int i = 0; i < values.length; i++) {
@@ -452,6 +593,8 @@ public class ShapeGeometry extends Geometry {
      * @param joints - array of joint indices
      */
     public void setJoints(int[] joints) {
+        ensureJointsWritable();
+
         this.joints.clear();
         this.joints.put(joints);
         this.joints.flip();
@@ -466,6 +609,8 @@ public class ShapeGeometry extends Geometry {
      * @param joints - buffer of joint indices
      */
     public void setJoints(IntBuffer joints) {
+        ensureJointsWritable();
+
         joints.clear();
         this.joints.clear();
         this.joints.put(joints);
@@ -482,6 +627,8 @@ public class ShapeGeometry extends Geometry {
      * @param joints - list of joint indices
      */
     public void setJoints(List<Integer> joints) {
+        ensureJointsWritable();
+
         this.joints.clear();
 
         for (int i = 0; i < joints.size(); i++) {
@@ -503,6 +650,17 @@ public class ShapeGeometry extends Geometry {
         return joints.get(coordIndex * JOINTS_PER_VERTEX + compIndex);
     }
 
+    /**
+     * Replaces a read-only joint index buffer, such as a view of a mapped mesh file, with a writable copy
+     * before it is first written to.
+     */
+    private void ensureJointsWritable() {
+        if (joints.isReadOnly()) {
+            joints = Buffers.writable(joints);
+            jointsReadOnly = joints.asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Gives the immutable buffer containing this geometry's joint indices.
      *
@@ -519,6 +677,8 @@ public class ShapeGeometry extends Geometry {
      * @param values input values
      */
     public void setWeights(int index, float[] values) {
+        ensureWeightsWritable();
+
         int start = index * 4;
 
         for (int i = 0; i < values.length; i++) {
@@ -535,6 +695,8 @@ public class ShapeGeometry extends Geometry {
      * @param weights - array of vertex weights
      */
     public void setWeights(float[] weights) {
+        ensureWeightsWritable();
+
         this.weights.clear();
         this.weights.put(weights);
         this.weights.flip();
@@ -549,6 +711,8 @@ public class ShapeGeometry extends Geometry {
      * @param weights - buffer of vertex weights
      */
     public void setWeights(FloatBuffer weights) {
+        ensureWeightsWritable();
+
         weights.clear();
         this.weights.clear();
         this.weights.put(weights);
@@ -565,6 +729,8 @@ public class ShapeGeometry extends Geometry {
      * @param weights - list of vertex weights
      */
     public void setWeights(List<Float> weights) {
+        ensureWeightsWritable();
+
         this.weights.clear();
 
         for (int i = 0; i < weights.size(); i++) {
@@ -585,6 +751,17 @@ public class ShapeGeometry extends Geometry {
         return weights.get(coordIndex * JOINTS_PER_VERTEX + compIndex);
     }
 
+    /**
+     * Replaces a read-only weight buffer, such as a view of a mapped mesh file, with a writable copy before it is first
+     * written to.
+     */
+    private void ensureWeightsWritable() {
+        if (weights.isReadOnly()) {
+            weights = Buffers.writable(weights);
+            weightsReadOnly = weights.asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Gives the immutable buffer containing this geometry's weights.
      */
@@ -666,6 +843,96 @@ public class ShapeGeometry extends Geometry {
         return animation;
     }
 
+    /**
+     * Sets the triangle hierarchy enabled state. If enabled, rays cast at this geometry traverse a bounding volume
+     * hierarchy over its triangles instead of testing every triangle. The hierarchy is built by the first cast and
+     * rebuilt after the coordinates or indices change, which suits large geometries that are picked often but rarely
+     * modified. This is disabled by default.
+     *
+     * @param enabled - triangle hierarchy enabled state
+     */
+    public void setTriangleHierarchyEnabled(boolean enabled) {
+        triangleHierarchyEnabled = enabled;
+
+        if (!enabled) {
+            triangleHierarchy = null;
+        }
+    }
+
+    /**
+     * Gives the triangle hierarchy enabled state.
+     *
+     * @return triangle hierarchy enabled state
+     */
+    public boolean isTriangleHierarchyEnabled() {
+        return triangleHierarchyEnabled;
+    }
+
+    /**
+     * Gives the number of triangles this geometry is made of. Quads count as two triangles and lines as none.
+     *
+     * @return number of triangles
+     */
+    public int numTriangles() {
+        switch (getType()) {
+            case TRIS:
+                return numIndices / 3;
+            case QUADS:
+                return numIndices / 4 * 2;
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Casts the given ray at the triangles of this geometry using the Moller-Trumbore test. The ray must be in this
+     * geometry's local space. Skinned geometries are tested in their bind pose.
+     *
+     * @param ray - ray to cast
+     * @param hit - nearest hit so far, updated with the distance and triangle index of a nearer hit
+     *
+     * @return true if a triangle nearer than the given hit was hit
+     */
+    public boolean intersect(Ray ray, RayHit hit) {
+        int numTriangles = numTriangles();
+
+        if (numTriangles == 0) {
+            return false;
+        }
+
+        /** geometry modified since the last upload is tested directly rather than rebuilding the hierarchy every cast */
+        if (triangleHierarchyEnabled && !coordDirty && !indexDirty) {
+            if (triangleHierarchy == null) {
+                triangleHierarchy = new TriangleHierarchy(getTriangleCoordinates(numTriangles), numTriangles);
+            }
+
+            return triangleHierarchy.intersect(ray, hit);
+        }
+
+        FloatBuffer coordinates = coords.toFloatBuffer();
+        boolean found = false;
+
+        for (int i = 0; i < numTriangles; i++) {
+            int a = getTriangleIndex(i, 0) * 3;
+            int b = getTriangleIndex(i, 1) * 3;
+            int c = getTriangleIndex(i, 2) * 3;
+
+            float t = ray.intersectTriangle(
+                coordinates.get(a), coordinates.get(a + 1), coordinates.get(a + 2),
+                coordinates.get(b), coordinates.get(b + 1), coordinates.get(b + 2),
+                coordinates.get(c), coordinates.get(c + 1), coordinates.get(c + 2)
+            );
+
+            if (t < hit.distance) {
+                hit.distance = t;
+                hit.triangle = i;
+                found = true;
+            }
+        }
+
+        return found;
+    }
+
     /**
      * Calculates a normal for each vertex.
      */
@@ -673,6 +940,16 @@ public class ShapeGeometry extends Geometry {
         generateNormals(this);
     }
 
+    /**
+     * Calculates a normal for each vertex.
+     *
+     * @param weighting - contribution of each face to the normals of its vertices
+     * @param parallel - if true, normals are calculated on the fork-join pool
+     */
+    public void generateNormals(NormalWeighting weighting, boolean parallel) {
+        generateNormals(this, weighting, parallel);
+    }
+
     /**
      * Calculates tangent vector for each vertex.
      *
@@ -683,8 +960,26 @@ public class ShapeGeometry extends Geometry {
         generateTangents(this);
     }
 
+    /**
+     * Calculates tangent vector for each vertex.
+     *
+     * @param parallel - if true, tangents are calculated on the fork-join pool
+     */
+    public void generateTangents(boolean parallel) {
+        generateTangents(this, parallel);
+    }
+
+    @Override
+    public long getUploadSize() {
+        return super.getUploadSize() + numCoords * (12L + 12L + JOINTS_PER_VERTEX * 8L);
+    }
+
     @Override
     public void clean() {
+        if (coordDirty || indexDirty) {
+            triangleHierarchy = null;
+        }
+
         super.clean();
 
         jointDirty = false;
@@ -706,6 +1001,7 @@ public class ShapeGeometry extends Geometry {
 
         if (tangentDirty) {
             GL.updateVertexBuffer(tangentBuffer, tangents.toFloatBuffer());
+            GL.updateVertexBuffer(bitangentSignBuffer, bitangentSigns);
         }
 
         if (jointDirty) {
@@ -722,6 +1018,7 @@ public class ShapeGeometry extends Geometry {
 
         if (tangentEnabledDirty) {
             GL.setAttributeEnabled(VertexAttribute.TANGENT.getIdentifier(), tangentEnabled);
+            GL.setAttributeEnabled(VertexAttribute.BITANGENT_SIGN.getIdentifier(), tangentEnabled);
         }
 
         if (jointEnabledDirty) {
@@ -736,6 +1033,7 @@ public class ShapeGeometry extends Geometry {
 
         GL.freeBuffer(normalBuffer);
         GL.freeBuffer(tangentBuffer);
+        GL.freeBuffer(bitangentSignBuffer);
         GL.freeBuffer(jointBuffer);
         GL.freeBuffer(weightBuffer);
 
@@ -743,6 +1041,7 @@ public class ShapeGeometry extends Geometry {
         weightBuffer = 0;
         normalBuffer = 0;
         tangentBuffer = 0;
+        bitangentSignBuffer = 0;
 
         clean();
     }
@@ -753,11 +1052,13 @@ public class ShapeGeometry extends Geometry {
 
         normalBuffer = GL.createVertexBuffer();
         tangentBuffer = GL.createVertexBuffer();
+        bitangentSignBuffer = GL.createVertexBuffer();
         jointBuffer = GL.createVertexBuffer();
         weightBuffer = GL.createVertexBuffer();
 
         GL.fillVertexBuffer(normalBuffer, 3, VertexAttribute.NORMAL.getIdentifier(), normals.toFloatBuffer());
         GL.fillVertexBuffer(tangentBuffer, 3, VertexAttribute.TANGENT.getIdentifier(), tangents.toFloatBuffer());
+        GL.fillVertexBuffer(bitangentSignBuffer, 1, VertexAttribute.BITANGENT_SIGN.getIdentifier(), bitangentSigns);
         GL.fillVertexBuffer(jointBuffer, JOINTS_PER_VERTEX, VertexAttribute.JOINT.getIdentifier(), joints);
         GL.fillVertexBuffer(weightBuffer, JOINTS_PER_VERTEX, VertexAttribute.WEIGHT.getIdentifier(), weights);
 
@@ -767,6 +1068,7 @@ public class ShapeGeometry extends Geometry {
 
         if (tangentEnabled) {
             GL.setAttributeEnabled(VertexAttribute.TANGENT.getIdentifier(), true);
+            GL.setAttributeEnabled(VertexAttribute.BITANGENT_SIGN.getIdentifier(), true);
         }
 
         if (jointEnabled) {
@@ -777,6 +1079,64 @@ public class ShapeGeometry extends Geometry {
         clean();
     }
 
+    /**
+     * Allocates the bi-tangent sign buffer, defaulting every sign to 1.
+     *
+     * @param numCoords - number of coordinates
+     */
+    private void createBitangentSigns(int numCoords) {
+        bitangentSigns = Buffers.createFloatBuffer(numCoords);
+        bitangentSignsReadOnly = bitangentSigns.asReadOnlyBuffer();
+
+        for (int i = 0; i < numCoords; i++) {
+            bitangentSigns.put(i, 1f);
+        }
+    }
+
+    /**
+     * Gives the coordinate index of a corner of the given triangle. Each quad is split into the triangles (0, 1, 2)
+     * and (0, 2, 3).
+     *
+     * @param triangle - triangle index
+     * @param corner - corner of the triangle, from 0 to 2
+     *
+     * @return coordinate index
+     */
+    private int getTriangleIndex(int triangle, int corner) {
+        if (getType() == Type.QUADS) {
+            int quad = (triangle >> 1) * 4;
+
+            return indices.get(corner == 0 ? quad : quad + corner + (triangle & 1));
+        }
+
+        return indices.get(triangle * 3 + corner);
+    }
+
+    /**
+     * Copies the vertex coordinates of every triangle, nine per triangle.
+     *
+     * @param numTriangles - number of triangles
+     *
+     * @return triangle coordinates
+     */
+    private float[] getTriangleCoordinates(int numTriangles) {
+        FloatBuffer coordinates = coords.toFloatBuffer();
+        float[] output = new float[numTriangles * 9];
+
+        for (int i = 0; i < numTriangles; i++) {
+            for (int corner = 0; corner < 3; corner++) {
+                int source = getTriangleIndex(i, corner) * 3;
+                int target = i * 9 + corner * 3;
+
+                output[target] = coordinates.get(source);
+                output[target + 1] = coordinates.get(source + 1);
+                output[target + 2] = coordinates.get(source + 2);
+            }
+        }
+
+        return output;
+    }
+
     /**
      * Moves vertices along the normal.
      *
@@ -837,129 +1197,513 @@ public class ShapeGeometry extends Geometry {
      * @param geom - geometry for which to compute surface normals
      */
     public static void generateNormals(ShapeGeometry geom) {
-        int index;
-        int adjacent;
-        Vector3 coord0 = Pools.Vector3.get();
-        Vector3 coord1 = Pools.Vector3.get();
-        Vector3 coord2 = Pools.Vector3.get();
-        Vector3 normal = Pools.Vector3.get();
-        Vector3 totalNormal = Pools.Vector3.get();
-
-        for (int i = 0; i < geom.numCoordinates(); i++) {
-            index = 0;
-            adjacent = 0;
-            totalNormal.set(Vector3.ZERO);
+        generateNormals(geom, NormalWeighting.UNIFORM, false);
+    }
 
-            /**
-             * Find all faces sharing this vertex.
-             * Calculate normal for each then add to the total.
-             */
-            while (index < geom.numIndices()) {
-                int index0 = geom.getIndex(index++);
-                int index1 = geom.getIndex(index++);
-                int index2 = geom.getIndex(index++);
+    /**
+     * Calculates the normal vector for each vertex in the given geometry. Face normals are accumulated into each of
+     * their vertices in a single pass over the index buffer, weighted according to the given weighting scheme, then
+     * normalized. Vertices not referenced by any triangle are given a zero normal.
+     *
+     * @param geom - geometry for which to compute surface normals
+     * @param weighting - contribution of each face to the normals of its vertices
+     * @param parallel - if true, faces and vertices are processed in ranges on the fork-join pool
+     */
+    public static void generateNormals(ShapeGeometry geom, NormalWeighting weighting, boolean parallel) {
+        int numCoords = geom.numCoordinates();
+        int numFaces = geom.numIndices() / 3;
+
+        geom.normals.ensureWritable();
+
+        if (parallel && numFaces > Parallel.DEFAULT_GRAIN) {
+            generateNormalsParallel(geom, weighting, numFaces);
+        } else {
+            IntBuffer indices = geom.indices;
+            FloatBuffer coords = geom.coords.toFloatBuffer();
+            float[] corners = new float[9];
+            float[] sums = getScratch(numCoords * 3);
+
+            for (int face = 0; face < numFaces; face++) {
+                calculateCornerNormals(indices, coords, face, weighting, corners, 0);
+
+                for (int i = 0; i < 3; i++) {
+                    int dst = indices.get(face * 3 + i) * 3;
+                    int src = i * 3;
+
+                    sums[dst] += corners[src];
+                    sums[dst + 1] += corners[src + 1];
+                    sums[dst + 2] += corners[src + 2];
+                }
+            }
 
-                if (index0 == i || index1 == i || index2 == i) {
-                    geom.getCoordinate(index0, coord0);
-                    geom.getCoordinate(index1, coord1);
-                    geom.getCoordinate(index2, coord2);
+            for (int i = 0; i < numCoords; i++) {
+                int start = i * 3;
+                setNormalized(geom.normals, i, sums[start], sums[start + 1], sums[start + 2]);
+            }
+        }
 
-                    calculateNormal(coord0, coord1, coord2, normal);
+        geom.normalDirty = true;
+        geom.dirty = true;
+    }
 
-                    totalNormal.add(normal);
-                    adjacent++;
+    /**
+     * Parallel variant of normal generation. Per-corner contributions are computed over face ranges, then each vertex
+     * sums its corners in face order, which yields the same result as the serial path.
+     *
+     * @param geom - geometry for which to compute surface normals
+     * @param weighting - contribution of each face to the normals of its vertices
+     * @param numFaces - number of triangles
+     */
+    private static void generateNormalsParallel(ShapeGeometry geom, NormalWeighting weighting, int numFaces) {
+        IntBuffer indices = geom.indices;
+        FloatBuffer coords = geom.coords.toFloatBuffer();
+        Vector3Buffer normals = geom.normals;
+        float[] corners = new float[numFaces * 9];
+        int[] offsets = new int[geom.numCoordinates() + 1];
+        int[] adjacency = generateAdjacency(indices, numFaces * 3, offsets);
+
+        Parallel.forRange(0, numFaces, new Parallel.RangeTask() {
+            @Override
+            public void run(int start, int end) {
+                for (int face = start; face < end; face++) {
+                    calculateCornerNormals(indices, coords, face, weighting, corners, face * 9);
                 }
             }
+        });
 
-            /**
-             * Average result.
-             */
-            totalNormal.divide(adjacent).normalize();
-            geom.setNormal(i, totalNormal);
+        Parallel.forRange(0, geom.numCoordinates(), new Parallel.RangeTask() {
+            @Override
+            public void run(int start, int end) {
+                for (int i = start; i < end; i++) {
+                    float x = 0f;
+                    float y = 0f;
+                    float z = 0f;
+
+                    for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                        int corner = adjacency[j] * 3;
+
+                        x += corners[corner];
+                        y += corners[corner + 1];
+                        z += corners[corner + 2];
+                    }
+
+                    setNormalized(normals, i, x, y, z);
+                }
+            }
+        });
+    }
+
+    /**
+     * Calculates the weighted normal contribution of a triangle to each of its three corners.
+     *
+     * @param indices - index buffer
+     * @param coords - coordinate buffer
+     * @param face - triangle index
+     * @param weighting - contribution of the face to the normals of its vertices
+     * @param output - storage for the nine resulting components
+     * @param offset - position in the output array to start writing to
+     */
+    private static void calculateCornerNormals(IntBuffer indices, FloatBuffer coords, int face, NormalWeighting weighting, float[] output, int offset) {
+        int i0 = indices.get(face * 3) * 3;
+        int i1 = indices.get(face * 3 + 1) * 3;
+        int i2 = indices.get(face * 3 + 2) * 3;
+
+        float x0 = coords.get(i0);
+        float y0 = coords.get(i0 + 1);
+        float z0 = coords.get(i0 + 2);
+        float e1x = coords.get(i1) - x0;
+        float e1y = coords.get(i1 + 1) - y0;
+        float e1z = coords.get(i1 + 2) - z0;
+        float e2x = coords.get(i2) - x0;
+        float e2y = coords.get(i2 + 1) - y0;
+        float e2z = coords.get(i2 + 2) - z0;
+
+        /**
+         * The length of the cross product is twice the triangle's area.
+         */
+        float nx = e1y * e2z - e1z * e2y;
+        float ny = e1z * e2x - e1x * e2z;
+        float nz = e1x * e2y - e1y * e2x;
+
+        float w0 = 1f;
+        float w1 = 1f;
+        float w2 = 1f;
+
+        if (weighting != NormalWeighting.AREA) {
+            float lengthSquared = nx * nx + ny * ny + nz * nz;
+
+            if (lengthSquared > 0f) {
+                float inverse = EngineMath.invSqrt(lengthSquared);
+
+                nx *= inverse;
+                ny *= inverse;
+                nz *= inverse;
+            }
+
+            if (weighting == NormalWeighting.ANGLE) {
+                float e3x = e2x - e1x;
+                float e3y = e2y - e1y;
+                float e3z = e2z - e1z;
+
+                w0 = angle(e1x, e1y, e1z, e2x, e2y, e2z);
+                w1 = angle(-e1x, -e1y, -e1z, e3x, e3y, e3z);
+                w2 = EngineMath.max(EngineMath.PI - w0 - w1, 0f);
+            }
+        }
+
+        output[offset] = nx * w0;
+        output[offset + 1] = ny * w0;
+        output[offset + 2] = nz * w0;
+        output[offset + 3] = nx * w1;
+        output[offset + 4] = ny * w1;
+        output[offset + 5] = nz * w1;
+        output[offset + 6] = nx * w2;
+        output[offset + 7] = ny * w2;
+        output[offset + 8] = nz * w2;
+    }
+
+    /**
+     * Calculates the angle between two edge vectors.
+     *
+     * @return angle in radians, or zero if either edge is degenerate
+     */
+    private static float angle(float ax, float ay, float az, float bx, float by, float bz) {
+        float lengths = (ax * ax + ay * ay + az * az) * (bx * bx + by * by + bz * bz);
+
+        if (lengths <= 0f) {
+            return 0f;
         }
 
-        Pools.Vector3.put(coord0);
-        Pools.Vector3.put(coord1);
-        Pools.Vector3.put(coord2);
-        Pools.Vector3.put(normal);
-        Pools.Vector3.put(totalNormal);
+        float cos = (ax * bx + ay * by + az * bz) * EngineMath.invSqrt(lengths);
+
+        return EngineMath.acos(EngineMath.clamp(cos, -1f, 1f));
     }
 
     /**
-     * Calculates the tangent and bi-tangent vectors for each vertex in the given geometry. The resulting vectors are
-     * averaged for vertices that are being shared by multiple triangles.
+     * Builds a vertex to corner lookup in compressed form. The corners of vertex i are stored in ascending order at
+     * output[offsets[i]] up to, but excluding, output[offsets[i + 1]].
+     *
+     * @param indices - index buffer
+     * @param numCorners - number of indices to consider
+     * @param offsets - storage for the start of each vertex's corner list, must hold one more than the number of vertices
+     *
+     * @return array of corner indices grouped by vertex
+     */
+    private static int[] generateAdjacency(IntBuffer indices, int numCorners, int[] offsets) {
+        int[] adjacency = new int[numCorners];
+
+        Arrays.fill(offsets, 0);
+
+        for (int i = 0; i < numCorners; i++) {
+            offsets[indices.get(i) + 1]++;
+        }
+
+        for (int i = 1; i < offsets.length; i++) {
+            offsets[i] += offsets[i - 1];
+        }
+
+        int[] cursors = Arrays.copyOf(offsets, offsets.length - 1);
+
+        for (int i = 0; i < numCorners; i++) {
+            adjacency[cursors[indices.get(i)]++] = i;
+        }
+
+        return adjacency;
+    }
+
+    /**
+     * Normalizes the given components then stores them at the given index. Zero-length input is stored as is.
+     */
+    private static void setNormalized(Vector3Buffer buffer, int index, float x, float y, float z) {
+        float lengthSquared = x * x + y * y + z * z;
+
+        if (lengthSquared > 0f) {
+            float inverse = EngineMath.invSqrt(lengthSquared);
+
+            x *= inverse;
+            y *= inverse;
+            z *= inverse;
+        }
+
+        buffer.set(index, x, y, z);
+    }
+
+    /**
+     * Gives this thread's zeroed scratch array, growing it if it is smaller than the given size.
+     *
+     * @param size - minimum number of elements
+     *
+     * @return scratch array whose first size elements are zero
+     */
+    private static float[] getScratch(int size) {
+        float[] array = scratch.get();
+
+        if (array.length < size) {
+            array = new float[size];
+            scratch.set(array);
+        } else {
+            Arrays.fill(array, 0, size, 0f);
+        }
+
+        return array;
+    }
+
+    /**
+     * Calculates the tangent vector and bi-tangent sign for each vertex in the given geometry. The resulting vectors
+     * are averaged for vertices that are being shared by multiple triangles.
      *
      * @param geom - geometry for which to compute tangent and bi-tangent vectors
      */
     public static void generateTangents(ShapeGeometry geom) {
-        int index;
-        int adjacent;
-        Vector3 tangent = Pools.Vector3.get();
-        Vector3 totalTangent = Pools.Vector3.get();
-        Vector3 coord0 = Pools.Vector3.get();
-        Vector3 coord1 = Pools.Vector3.get();
-        Vector3 coord2 = Pools.Vector3.get();
-        Vector3 deltaCoord0 = Pools.Vector3.get();
-        Vector3 deltaCoord1 = Pools.Vector3.get();
-        Vector2 texCoord0 = Pools.Vector2.get();
-        Vector2 texCoord1 = Pools.Vector2.get();
-        Vector2 texCoord2 = Pools.Vector2.get();
-        Vector2 deltaTexCoord0 = Pools.Vector2.get();
-        Vector2 deltaTexCoord1 = Pools.Vector2.get();
-
-        for (int i = 0; i < geom.numCoordinates(); i++) {
-            index = 0;
-            adjacent = 0;
-            totalTangent.set(Vector3.ZERO);
+        generateTangents(geom, false);
+    }
 
-            /**
-             * Find all faces sharing this vertex.
-             * Calculate tangent and bi-tangent for each then add to the total.
-             */
-            while (index < geom.numIndices()) {
-                int index0 = geom.getIndex(index++);
-                int index1 = geom.getIndex(index++);
-                int index2 = geom.getIndex(index++);
+    /**
+     * Calculates the tangent vector and bi-tangent sign for each vertex in the given geometry in a single pass over
+     * the index buffer. Each triangle contributes its texture-space tangent and bi-tangent directions weighted by its
+     * area. The accumulated tangent is then made orthogonal to the vertex normal, and the sign records whether the
+     * bi-tangent follows cross(normal, tangent) or its opposite, as with mirrored texture coordinates.
+     * <p>
+     * Triangles with zero area or collinear texture coordinates contribute nothing. Vertices left without a
+     * contribution are given an arbitrary tangent perpendicular to their normal.
+     *
+     * @param geom - geometry for which to compute tangent and bi-tangent vectors
+     * @param parallel - if true, faces and vertices are processed in ranges on the fork-join pool
+     */
+    public static void generateTangents(ShapeGeometry geom, boolean parallel) {
+        int numCoords = geom.numCoordinates();
+        int numFaces = geom.numIndices() / 3;
+        IntBuffer indices = geom.indices;
+        FloatBuffer coords = geom.coords.toFloatBuffer();
+        FloatBuffer texCoords = geom.texCoords.toFloatBuffer();
+        FloatBuffer normals = geom.normals.toFloatBuffer();
+        Vector3Buffer tangents = geom.tangents;
+
+        tangents.ensureWritable();
+        geom.ensureBitangentSignsWritable();
+
+        FloatBuffer signs = geom.bitangentSigns;
+
+        if (parallel && numFaces > Parallel.DEFAULT_GRAIN) {
+            float[] faces = new float[numFaces * 6];
+            int[] offsets = new int[numCoords + 1];
+            int[] adjacency = generateAdjacency(indices, numFaces * 3, offsets);
+
+            Parallel.forRange(0, numFaces, new Parallel.RangeTask() {
+                @Override
+                public void run(int start, int end) {
+                    for (int face = start; face < end; face++) {
+                        calculateFaceTangent(indices, coords, texCoords, face, faces, face * 6);
+                    }
+                }
+            });
 
-                if (index0 == i || index1 == i || index2 == i) {
-                    geom.getCoordinate(index0, coord0);
-                    geom.getCoordinate(index1, coord1);
-                    geom.getCoordinate(index2, coord2);
+            Parallel.forRange(0, numCoords, new Parallel.RangeTask() {
+                @Override
+                public void run(int start, int end) {
+                    float[] sum = new float[6];
 
-                    geom.getTextureCoordinate(index0, texCoord0);
-                    geom.getTextureCoordinate(index1, texCoord1);
-                    geom.getTextureCoordinate(index2, texCoord2);
+                    for (int i = start; i < end; i++) {
+                        Arrays.fill(sum, 0f);
 
-                    deltaCoord0.set(coord1).subtract(coord0);
-                    deltaCoord1.set(coord2).subtract(coord0);
+                        for (int j = offsets[i]; j < offsets[i + 1]; j++) {
+                            int face = adjacency[j] / 3 * 6;
 
-                    deltaTexCoord0.set(texCoord1).subtract(texCoord0);
-                    deltaTexCoord1.set(texCoord2).subtract(texCoord0);
+                            for (int k = 0; k < 6; k++) {
+                                sum[k] += faces[face + k];
+                            }
+                        }
+
+                        resolveTangent(i, sum, 0, normals, tangents, signs);
+                    }
+                }
+            });
+        } else {
+            float[] face = new float[6];
+            float[] sums = getScratch(numCoords * 6);
 
-                    float r = 1f / (deltaTexCoord0.getX() * deltaTexCoord1.getY() - deltaTexCoord0.getY() * deltaTexCoord1.getX());
+            for (int f = 0; f < numFaces; f++) {
+                calculateFaceTangent(indices, coords, texCoords, f, face, 0);
 
-                    tangent.set(deltaCoord0.multiply(deltaTexCoord1.getY())).subtract(deltaCoord1.multiply(deltaTexCoord0.getY())).multiply(r);
+                for (int i = 0; i < 3; i++) {
+                    int dst = indices.get(f * 3 + i) * 6;
 
-                    totalTangent.add(tangent);
-                    adjacent++;
+                    for (int k = 0; k < 6; k++) {
+                        sums[dst + k] += face[k];
+                    }
                 }
             }
 
-            totalTangent.divide(adjacent).normalize();
-            geom.setTangent(i, totalTangent);
-        }
-
-        Pools.Vector3.put(tangent);
-        Pools.Vector3.put(totalTangent);
-        Pools.Vector3.put(coord0);
-        Pools.Vector3.put(coord1);
-        Pools.Vector3.put(coord2);
-        Pools.Vector3.put(deltaCoord0);
-        Pools.Vector3.put(deltaCoord1);
-        Pools.Vector2.put(texCoord0);
-        Pools.Vector2.put(texCoord1);
-        Pools.Vector2.put(texCoord2);
-        Pools.Vector2.put(deltaTexCoord0);
-        Pools.Vector2.put(deltaTexCoord1);
+            for (int i = 0; i < numCoords; i++) {
+                resolveTangent(i, sums, i * 6, normals, tangents, signs);
+            }
+        }
+
+        geom.tangentDirty = true;
+        geom.dirty = true;
+    }
+
+    /**
+     * Calculates the area-weighted tangent and bi-tangent directions of a triangle. Both are zero if the triangle has
+     * no area in either object space or texture space.
+     *
+     * @param indices - index buffer
+     * @param coords - coordinate buffer
+     * @param texCoords - texture coordinate buffer
+     * @param face - triangle index
+     * @param output - storage for the tangent followed by the bi-tangent
+     * @param offset - position in the output array to start writing to
+     */
+    private static void calculateFaceTangent(IntBuffer indices, FloatBuffer coords, FloatBuffer texCoords, int face, float[] output, int offset) {
+        int i0 = indices.get(face * 3);
+        int i1 = indices.get(face * 3 + 1);
+        int i2 = indices.get(face * 3 + 2);
+
+        float x0 = coords.get(i0 * 3);
+        float y0 = coords.get(i0 * 3 + 1);
+        float z0 = coords.get(i0 * 3 + 2);
+        float e1x = coords.get(i1 * 3) - x0;
+        float e1y = coords.get(i1 * 3 + 1) - y0;
+        float e1z = coords.get(i1 * 3 + 2) - z0;
+        float e2x = coords.get(i2 * 3) - x0;
+        float e2y = coords.get(i2 * 3 + 1) - y0;
+        float e2z = coords.get(i2 * 3 + 2) - z0;
+
+        float u0 = texCoords.get(i0 * 2);
+        float v0 = texCoords.get(i0 * 2 + 1);
+        float du1 = texCoords.get(i1 * 2) - u0;
+        float dv1 = texCoords.get(i1 * 2 + 1) - v0;
+        float du2 = texCoords.get(i2 * 2) - u0;
+        float dv2 = texCoords.get(i2 * 2 + 1) - v0;
+
+        float nx = e1y * e2z - e1z * e2y;
+        float ny = e1z * e2x - e1x * e2z;
+        float nz = e1x * e2y - e1y * e2x;
+        float area = (float) Math.sqrt(nx * nx + ny * ny + nz * nz);
+        float det = du1 * dv2 - du2 * dv1;
+
+        Arrays.fill(output, offset, offset + 6, 0f);
+
+        if (area == 0f || det == 0f) {
+            return;
+        }
+
+        /**
+         * Only the orientation of the texture mapping is kept so that faces with tiny texture coordinate deltas
+         * do not outweigh their neighbors.
+         */
+        float orientation = det < 0f ? -1f : 1f;
+
+        float tx = (e1x * dv2 - e2x * dv1) * orientation;
+        float ty = (e1y * dv2 - e2y * dv1) * orientation;
+        float tz = (e1z * dv2 - e2z * dv1) * orientation;
+        float bx = (e2x * du1 - e1x * du2) * orientation;
+        float by = (e2y * du1 - e1y * du2) * orientation;
+        float bz = (e2z * du1 - e1z * du2) * orientation;
+
+        float tLength = tx * tx + ty * ty + tz * tz;
+        float bLength = bx * bx + by * by + bz * bz;
+
+        if (tLength > 0f) {
+            float scale = area * EngineMath.invSqrt(tLength);
+
+            output[offset] = tx * scale;
+            output[offset + 1] = ty * scale;
+            output[offset + 2] = tz * scale;
+        }
+
+        if (bLength > 0f) {
+            float scale = area * EngineMath.invSqrt(bLength);
+
+            output[offset + 3] = bx * scale;
+            output[offset + 4] = by * scale;
+            output[offset + 5] = bz * scale;
+        }
+    }
+
+    /**
+     * Orthogonalizes an accumulated tangent against the vertex normal then stores it along with its bi-tangent sign.
+     *
+     * @param index - vertex index
+     * @param sums - accumulated tangent followed by the accumulated bi-tangent
+     * @param offset - position of the accumulated values in the sums array
+     * @param normals - normal buffer
+     * @param tangents - tangent buffer to write to
+     * @param signs - bi-tangent sign buffer to write to
+     */
+    private static void resolveTangent(int index, float[] sums, int offset, FloatBuffer normals, Vector3Buffer tangents, FloatBuffer signs) {
+        float nx = normals.get(index * 3);
+        float ny = normals.get(index * 3 + 1);
+        float nz = normals.get(index * 3 + 2);
+        float tx = sums[offset];
+        float ty = sums[offset + 1];
+        float tz = sums[offset + 2];
+        float largest = Math.max(EngineMath.abs(tx), Math.max(EngineMath.abs(ty), EngineMath.abs(tz)));
+        float lengthSquared = 0f;
+
+        /**
+         * The sum scales with the mesh's size and texture density, so it is brought to unit scale before the
+         * threshold is applied, which leaves only sums that are zero or parallel to the normal without a tangent.
+         */
+        if (largest > 0f) {
+            tx /= largest;
+            ty /= largest;
+            tz /= largest;
+
+            /**
+             * Gram-Schmidt orthogonalization.
+             */
+            float dot = nx * tx + ny * ty + nz * tz;
+
+            tx -= nx * dot;
+            ty -= ny * dot;
+            tz -= nz * dot;
+
+            lengthSquared = tx * tx + ty * ty + tz * tz;
+        }
+
+        if (lengthSquared <= EngineMath.EPSILON * EngineMath.EPSILON) {
+            /**
+             * No usable contribution, pick the axis least aligned with the normal.
+             */
+            float ax = EngineMath.abs(nx);
+            float ay = EngineMath.abs(ny);
+            float az = EngineMath.abs(nz);
+
+            if (ax <= ay && ax <= az) {
+                tx = 0f;
+                ty = -nz;
+                tz = ny;
+            } else if (ay <= az) {
+                tx = nz;
+                ty = 0f;
+                tz = -nx;
+            } else {
+                tx = -ny;
+                ty = nx;
+                tz = 0f;
+            }
+
+            lengthSquared = tx * tx + ty * ty + tz * tz;
+
+            if (lengthSquared == 0f) {
+                tx = 1f;
+                lengthSquared = 1f;
+            }
+        }
+
+        float inverse = EngineMath.invSqrt(lengthSquared);
+
+        tx *= inverse;
+        ty *= inverse;
+        tz *= inverse;
+
+        float cx = ny * tz - nz * ty;
+        float cy = nz * tx - nx * tz;
+        float cz = nx * ty - ny * tx;
+        float handedness = cx * sums[offset + 3] + cy * sums[offset + 4] + cz * sums[offset + 5];
+
+        tangents.set(index, tx, ty, tz);
+        signs.put(index, handedness < 0f ? -1f : 1f);
     }
 }
@@ -3,7 +3,9 @@ package core;
 import core.math.Matrix4;
 import core.utility.Buffers;
 
+import java.lang.ref.WeakReference;
 import java.nio.FloatBuffer;
+import java.util.List;
 
 /**
  * Spatial is the most basic building-block of a scenegraph.
@@ -11,7 +13,9 @@ import java.nio.FloatBuffer;
  * @author John Paul Quijano
  */
 public class Spatial extends Node<Spatial> {
-    protected int next;
+    int flatIndex;
+    int structureVersion;
+    List<WeakReference<ChangeLog>> changeLogs;
     protected boolean enabled;
     protected boolean boundsDirty;
     protected boolean transformDirty;
@@ -56,6 +60,8 @@ public class Spatial extends Node<Spatial> {
     @Override
     public boolean addChild(Spatial child) {
         if (super.addChild(child)) {
+            changeStructure();
+
             if (transformDirty) {
                 child.propagateTransformDirty();
             }
@@ -70,12 +76,44 @@ public class Spatial extends Node<Spatial> {
         return false;
     }
 
+    @Override
+    public boolean removeChild(int index) {
+        if (super.removeChild(index)) {
+            changeStructure();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public boolean removeChild(Spatial child) {
+        if (super.removeChild(child)) {
+            changeStructure();
+
+            return true;
+        }
+
+        return false;
+    }
+
+    @Override
+    public void removeAllChildren() {
+        super.removeAllChildren();
+        changeStructure();
+    }
+
     /**
      * Sets whether this spatial is sent to the rendering pipeline or not.
      *
      * @param enabled - if true, this spatial is sent to the rendering pipeline
      */
     public void setEnabled(boolean enabled) {
+        if (this.enabled != enabled) {
+            changeStructure();
+        }
+
         this.enabled = enabled;
     }
 
@@ -89,38 +127,13 @@ public class Spatial extends Node<Spatial> {
     }
 
     /**
-     * Spatial maintains a pointer for successive traversal of its children. This method gives the child at the pointer
-     * position then advances the pointer.
-     *
-     * @return child at the pointer position
-     */
-    public Spatial next() {
-        return getChild(next++);
-    }
-
-    /**
-     * Checks if traversal has reached the last child.
-     *
-     * @return true if pointer is not on the last child
-     */
-    public boolean hasNext() {
-        return next < numChildren();
-    }
-
-    /**
-     * Resets the pointer to the first child.
-     */
-    public void resetNext() {
-        next = 0;
-    }
-
-    /**
-     * Checks if the pointer is at the first child.
+     * Gives a number that changes whenever a spatial is attached, detached, enabled or disabled anywhere in this
+     * spatial's subtree, so that structures built from a scene can tell whether they are out of date.
      *
-     * @return true if the pointer is at the first child
+     * @return structure version
      */
-    public boolean isReset() {
-        return next == 0;
+    public int getStructureVersion() {
+        return structureVersion;
     }
 
     /**
@@ -132,6 +145,7 @@ public class Spatial extends Node<Spatial> {
         localTransform.set(transform);
         propagateTransformDirty();
         escalateTransformDirty();
+        recordChange();
     }
 
     /**
@@ -187,6 +201,7 @@ public class Spatial extends Node<Spatial> {
         localBoundingBox.set(boundingBox);
         worldBoundingBox.set(localBoundingBox);
         boundsDirty = true;
+        recordChange();
     }
 
     /**
@@ -294,6 +309,25 @@ public class Spatial extends Node<Spatial> {
         descendantTransformDirty = false;
     }
 
+    /**
+     * Records this spatial in the change logs of the scenes it is part of.
+     */
+    void recordChange() {
+        ChangeLog.record(this);
+    }
+
+    /**
+     * Changes the structure version of this spatial and its ancestors.
+     */
+    private void changeStructure() {
+        Spatial current = this;
+
+        while (current != null) {
+            current.structureVersion++;
+            current = current.parent;
+        }
+    }
+
     /**
      * Sets the ancestors' descendant transform dirty flag.
      */
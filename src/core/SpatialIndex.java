@@ -0,0 +1,53 @@
+package core;
+
+import core.math.Ray;
+
+import java.util.List;
+
+/**
+ * A structure that finds the spatials of a scene by their world bounds without walking the scene graph. The renderer
+ * uses a spatial index for view culling and shadow caster collection when one is set.
+ *
+ * @author John Paul Quijano
+ */
+public interface SpatialIndex<T extends Spatial> {
+    /**
+     * Brings this index up to date with the given scene. This is called by the renderer every frame, after the world
+     * bounds of the scene have been calculated.
+     *
+     * @param scene - scene graph
+     */
+    void update(Spatial scene);
+
+    /**
+     * Collects spatials whose bounds intersect or are completely within the given camera's view frustum.
+     *
+     * @param camera - camera to test against
+     * @param output - list to append the spatials to
+     *
+     * @return output list
+     */
+    List<T> query(Camera camera, List<T> output);
+
+    /**
+     * Collects spatials whose bounds intersect the given bounding box.
+     *
+     * @param boundingBox - bounding box to test against
+     * @param output - list to append the spatials to
+     *
+     * @return output list
+     */
+    List<T> query(BoundingBox boundingBox, List<T> output);
+
+    /**
+     * Collects spatials whose bounds the given ray passes through within the given distance. Distances are measured
+     * in multiples of the ray direction's length.
+     *
+     * @param ray - ray to cast
+     * @param maxDistance - distance beyond which spatials are ignored
+     * @param output - list to append the spatials to
+     *
+     * @return output list
+     */
+    List<T> query(Ray ray, float maxDistance, List<T> output);
+}
@@ -297,6 +297,11 @@ public class Texture extends GraphicsObject {
         }
     }
 
+    @Override
+    public long getUploadSize() {
+        return image == null ? 0 : image.getWidth() * image.getHeight() * 4L;
+    }
+
     /**
      * Updates this texture.
      */
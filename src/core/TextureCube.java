@@ -89,6 +89,19 @@ public class TextureCube extends Texture {
         throw new EngineException("Use setImages method instead.");
     }
 
+    @Override
+    public long getUploadSize() {
+        long size = 0;
+
+        if (images != null) {
+            for (Image image : images) {
+                size += image.getWidth() * image.getHeight() * 4L;
+            }
+        }
+
+        return size;
+    }
+
     @Override
     public void update() {
         if (filterDirty) {
@@ -5,22 +5,38 @@ import core.event.listener.TraverserListener;
 import core.event.type.TraverserEventType;
 
 import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.List;
 
 /**
  * Visits every node in the scenegraph.
+ * <p>
+ * The path from the scene to the current spatial is kept on a stack owned by the traverser, along with the index of
+ * the next child to visit at each level. Spatials hold no traversal state, so any number of traversers can walk the
+ * same scene independently, even at the same time as long as their listeners do not modify it. Listeners that need
+ * state along the path keep it themselves, indexed by {@link #getDepth()}.
  *
  * @author John Paul Quijano
  */
 public final class Traverser {
+    public static final int DEFAULT_CAPACITY = 32;
+
+    private int top;
+    private int childIndex;
+    private int[] cursors;
+    private Spatial[] stack;
     private Spatial current;
     private TraverserEvent event;
     private List<TraverserListener> listeners;
 
-    Traverser() {
+    /**
+     * Creates a traverser with no listeners.
+     */
+    public Traverser() {
         event = new TraverserEvent(this);
         listeners = new ArrayList<>();
+        stack = new Spatial[DEFAULT_CAPACITY];
+        cursors = new int[DEFAULT_CAPACITY];
     }
 
     /**
@@ -32,6 +48,26 @@ public final class Traverser {
         return current;
     }
 
+    /**
+     * Gives the index of the child the current branch is about to descend into on a branch next event, or the number
+     * of children on a branch done event. An index of zero therefore marks the first visit of a branch.
+     *
+     * @return child index of the current branch
+     */
+    public int getChildIndex() {
+        return childIndex;
+    }
+
+    /**
+     * Gives the number of spatials between the traversed scene and the current spatial on branch and leaf events. The
+     * scene itself is at depth zero.
+     *
+     * @return depth of the current spatial
+     */
+    public int getDepth() {
+        return top - 1;
+    }
+
     /**
      * Adds a listener for events fired by this traverser.
      *
@@ -60,10 +96,14 @@ public final class Traverser {
     }
 
     /**
-     * Traverses the given scene.
+     * Traverses the given scene. A listener returning true on a branch next event skips the rest of that branch,
+     * including its branch done event, and on a leaf event stops the remaining listeners from seeing that leaf.
+     *
+     * @param scene - root of the spatials to visit
      */
-    void traverse(Spatial scene) {
+    public void traverse(Spatial scene) {
         current = scene;
+        childIndex = 0;
 
         event.setType(TraverserEventType.INIT);
 
@@ -71,38 +111,47 @@ public final class Traverser {
             listener.listen(event);
         }
 
+        top = 0;
+
+        if (scene != null) {
+            push(scene);
+        }
+
         LOOP:
-        while (current !=  null) {
+        while (top > 0) {
+            current = stack[top - 1];
+
             if (!current.isEnabled()) {
-                current = current.getParent();
+                pop();
                 continue;
             }
 
             if (!current.isLeaf()) {
-                if (!current.hasNext()) {
+                childIndex = cursors[top - 1];
+
+                if (childIndex >= current.numChildren()) {
                     event.setType(TraverserEventType.BRANCH_DONE);
 
                     for (TraverserListener listener : listeners) {
                         listener.listen(event);
                     }
 
-                    current.resetNext();
-                    current = current.getParent();
+                    pop();
                 } else {
                     event.setType(TraverserEventType.BRANCH_NEXT);
 
                     for (TraverserListener listener : listeners) {
-                        listener.listen(event);
-
                         if (listener.listen(event)) {
-                            current = current.getParent();
+                            pop();
                             continue LOOP;
                         }
                     }
 
-                    current = current.next();
+                    cursors[top - 1] = childIndex + 1;
+                    push(current.getChild(childIndex));
                 }
             } else {
+                childIndex = 0;
                 event.setType(TraverserEventType.LEAF);
 
                 for (TraverserListener listener : listeners) {
@@ -111,8 +160,24 @@ public final class Traverser {
                     }
                 }
 
-                current = current.getParent();
+                pop();
             }
         }
+
+        current = null;
+    }
+
+    private void push(Spatial spatial) {
+        if (top == stack.length) {
+            stack = Arrays.copyOf(stack, top * 2);
+            cursors = Arrays.copyOf(cursors, top * 2);
+        }
+
+        stack[top] = spatial;
+        cursors[top++] = 0;
+    }
+
+    private void pop() {
+        stack[--top] = null;
     }
 }
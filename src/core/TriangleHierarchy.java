@@ -0,0 +1,255 @@
+package core;
+
+import core.math.Ray;
+
+import java.util.Arrays;
+
+/**
+ * A bounding volume hierarchy over the triangles of a single geometry, used to cast rays at geometries too large to
+ * test triangle by triangle. Nodes are split with the binned surface area heuristic and stored in flat arrays. The
+ * triangles' vertices are copied in leaf order, so each leaf reads its triangles from one contiguous run of floats.
+ * <p>
+ * The hierarchy is a snapshot of the geometry at the time it was built and is not refitted.
+ *
+ * @author John Paul Quijano
+ */
+final class TriangleHierarchy {
+    static final int LEAF_SIZE = 4;
+
+    private static final int STRIDE = 9;
+
+    private int numTriangles;
+    private float[] vertices;
+    private int[] triangles;
+
+    private int numNodes;
+    private float[] nodeBounds;
+    private int[] nodeFirst;
+    private int[] nodeCount;
+    private int[] nodeLeft;
+    private int[] stack;
+    private float[] entryStack;
+
+    private float[] triangleBounds;
+    private int[] order;
+
+    /**
+     * Builds a hierarchy over the given triangles.
+     *
+     * @param vertices - vertex coordinates, nine per triangle
+     * @param numTriangles - number of triangles
+     */
+    TriangleHierarchy(float[] vertices, int numTriangles) {
+        this.numTriangles = numTriangles;
+
+        triangleBounds = new float[numTriangles * 6];
+        order = new int[numTriangles];
+
+        int capacity = Math.max(1, 2 * numTriangles);
+
+        nodeBounds = new float[capacity * 6];
+        nodeFirst = new int[capacity];
+        nodeCount = new int[capacity];
+        nodeLeft = new int[capacity];
+
+        build(vertices);
+
+        /** build scratch is only needed once */
+        triangleBounds = null;
+        order = null;
+        nodeBounds = Arrays.copyOf(nodeBounds, numNodes * 6);
+        nodeFirst = Arrays.copyOf(nodeFirst, numNodes);
+        nodeCount = Arrays.copyOf(nodeCount, numNodes);
+        nodeLeft = Arrays.copyOf(nodeLeft, numNodes);
+    }
+
+    /**
+     * Gives the number of triangles in this hierarchy.
+     *
+     * @return number of triangles
+     */
+    int size() {
+        return numTriangles;
+    }
+
+    /**
+     * Gives the number of nodes in this hierarchy.
+     *
+     * @return number of nodes
+     */
+    int numNodes() {
+        return numNodes;
+    }
+
+    /**
+     * Casts the given ray at the triangles of this hierarchy. Children are visited nearest first and skipped once
+     * they start beyond the nearest hit so far.
+     *
+     * @param ray - ray to cast
+     * @param hit - nearest hit so far, updated with the distance and triangle index of a nearer hit
+     *
+     * @return true if a nearer triangle was hit
+     */
+    boolean intersect(Ray ray, RayHit hit) {
+        if (numNodes == 0) {
+            return false;
+        }
+
+        boolean found = false;
+        int top = 0;
+
+        stack[top] = 0;
+        entryStack[top++] = BinnedSplitter.intersect(ray, nodeBounds, 0);
+
+        while (top > 0) {
+            int node = stack[--top];
+
+            /** the node may start beyond a hit found after it was pushed */
+            if (entryStack[top] >= hit.distance) {
+                continue;
+            }
+
+            if (nodeLeft[node] < 0) {
+                for (int k = nodeFirst[node]; k < nodeFirst[node] + nodeCount[node]; k++) {
+                    int v = k * STRIDE;
+                    float t = ray.intersectTriangle(vertices[v], vertices[v + 1], vertices[v + 2],
+                        vertices[v + 3], vertices[v + 4], vertices[v + 5],
+                        vertices[v + 6], vertices[v + 7], vertices[v + 8]);
+
+                    if (t < hit.distance) {
+                        hit.distance = t;
+                        hit.triangle = triangles[k];
+                        found = true;
+                    }
+                }
+            } else {
+                int near = nodeLeft[node];
+                int far = near + 1;
+                float nearEntry = BinnedSplitter.intersect(ray, nodeBounds, near * 6);
+                float farEntry = BinnedSplitter.intersect(ray, nodeBounds, far * 6);
+
+                if (farEntry < nearEntry) {
+                    int swap = near;
+                    near = far;
+                    far = swap;
+
+                    float swapEntry = nearEntry;
+                    nearEntry = farEntry;
+                    farEntry = swapEntry;
+                }
+
+                /** the nearer child is pushed last so that it is visited first */
+                if (farEntry < hit.distance) {
+                    stack[top] = far;
+                    entryStack[top++] = farEntry;
+                }
+
+                if (nearEntry < hit.distance) {
+                    stack[top] = near;
+                    entryStack[top++] = nearEntry;
+                }
+            }
+        }
+
+        return found;
+    }
+
+    private void build(float[] source) {
+        for (int i = 0; i < numTriangles; i++) {
+            int v = i * STRIDE;
+            int offset = i * 6;
+
+            for (int axis = 0; axis < 3; axis++) {
+                float a = source[v + axis];
+                float b = source[v + 3 + axis];
+                float c = source[v + 6 + axis];
+
+                triangleBounds[offset + axis] = Math.min(a, Math.min(b, c));
+                triangleBounds[offset + 3 + axis] = Math.max(a, Math.max(b, c));
+            }
+
+            order[i] = i;
+        }
+
+        int maxDepth = 0;
+
+        if (numTriangles > 0) {
+            BinnedSplitter splitter = new BinnedSplitter();
+            int[] buildStack = new int[64];
+            int[] depthStack = new int[64];
+            int top = 0;
+
+            buildStack[top] = allocateNode(0, numTriangles);
+            depthStack[top++] = 1;
+
+            while (top > 0) {
+                int node = buildStack[--top];
+                int depth = depthStack[top];
+
+                maxDepth = Math.max(maxDepth, depth);
+
+                if (split(splitter, node)) {
+                    if (top + 2 > buildStack.length) {
+                        buildStack = Arrays.copyOf(buildStack, buildStack.length * 2);
+                        depthStack = Arrays.copyOf(depthStack, depthStack.length * 2);
+                    }
+
+                    buildStack[top] = nodeLeft[node];
+                    depthStack[top++] = depth + 1;
+                    buildStack[top] = nodeLeft[node] + 1;
+                    depthStack[top++] = depth + 1;
+                }
+            }
+        }
+
+        /** each level leaves at most one sibling on the stack besides the node being visited */
+        stack = new int[maxDepth + 1];
+        entryStack = new float[maxDepth + 1];
+        vertices = new float[numTriangles * STRIDE];
+        triangles = new int[numTriangles];
+
+        for (int k = 0; k < numTriangles; k++) {
+            System.arraycopy(source, order[k] * STRIDE, vertices, k * STRIDE, STRIDE);
+            triangles[k] = order[k];
+        }
+    }
+
+    /**
+     * Splits the given node into two children along the binned split with the lowest surface area cost.
+     *
+     * @return false if the node is a leaf
+     */
+    private boolean split(BinnedSplitter splitter, int node) {
+        int first = nodeFirst[node];
+        int count = nodeCount[node];
+
+        if (count <= LEAF_SIZE) {
+            return false;
+        }
+
+        int middle = splitter.split(triangleBounds, order, first, count);
+        int left = allocateNode(first, middle - first);
+
+        allocateNode(middle, first + count - middle);
+        nodeLeft[node] = left;
+
+        return true;
+    }
+
+    private int allocateNode(int first, int count) {
+        int node = numNodes++;
+        int offset = node * 6;
+
+        nodeFirst[node] = first;
+        nodeCount[node] = count;
+        nodeLeft[node] = -1;
+
+        BinnedSplitter.resetBounds(nodeBounds, offset);
+
+        for (int k = first; k < first + count; k++) {
+            BinnedSplitter.growBounds(nodeBounds, offset, triangleBounds, order[k] * 6);
+        }
+
+        return node;
+    }
+}
@@ -1,10 +1,14 @@
 package core.animation;
 
+import java.nio.FloatBuffer;
 import java.util.ArrayList;
 import java.util.List;
 
 /**
- * A collection of frames to be animated.
+ * A collection of frames to be animated. The frames are turned into an {@link AnimationClip} when the animation is
+ * first played, and the animation plays the clip with its own {@link AnimationInstance}. Shapes that should not move in
+ * lockstep with the others sharing their geometry can play the same clip with instances made by
+ * {@link #createInstance()}.
  *
  * @author John Paul Quijano
  */
@@ -16,29 +20,20 @@ public class Animation {
     public static final float DEFAULT_SPEED = 1f;
     public static final Type DEFAULT_TYPE = Type.INTERPOLATED;
 
-    private int next;
-    private int current;
-    private float speed;
-    private float quantum;
-    private float duration;
-    private double startTime;
-    private double animationTime;
-    private boolean paused;
-    private boolean reset;
+    private int bakedFrames;
+    private double updateTime;
     private Joint bind;
+    private Joint pose;
     private Joint output;
     private List<Frame> keyFrames;
-    private List<Frame> bakedFrames;
-    private Type type;
+    private AnimationClip clip;
+    private AnimationInstance instance;
 
     public Animation() {
-        type = DEFAULT_TYPE;
-        speed = DEFAULT_SPEED;
         keyFrames = new ArrayList<>();
-        bakedFrames = new ArrayList<>();
+        instance = new AnimationInstance(null);
 
-        next = 1;
-        current = 0;
+        updateTime = Double.NaN;
     }
 
     /**
@@ -52,9 +47,9 @@ public class Animation {
      * @param type - the animation type
      */
     public void setType(Type type) {
-        this.type = type;
-        next = 1;
-        current = 0;
+        instance.setType(type);
+        output = null;
+        updateTime = Double.NaN;
     }
 
     /**
@@ -63,7 +58,7 @@ public class Animation {
      * @return type of animation
      */
     public Type getType() {
-        return type;
+        return instance.getType();
     }
 
     /**
@@ -73,6 +68,7 @@ public class Animation {
      */
     public void addKeyFrames(List<Frame> input) {
         keyFrames.addAll(input);
+        clearClip();
     }
 
     /**
@@ -82,6 +78,7 @@ public class Animation {
      */
     public void addKeyFrame(Frame frame) {
         keyFrames.add(frame);
+        clearClip();
     }
 
     /**
@@ -100,6 +97,7 @@ public class Animation {
      */
     public void removeKeyFrame(Frame frame) {
         keyFrames.remove(frame);
+        clearClip();
     }
 
     /**
@@ -109,6 +107,7 @@ public class Animation {
      */
     public void removeKeyFrame(int index) {
         keyFrames.remove(index);
+        clearClip();
     }
 
     /**
@@ -116,6 +115,7 @@ public class Animation {
      */
     public void clearKeyFrames() {
         keyFrames.clear();
+        clearClip();
     }
 
     /**
@@ -129,7 +129,7 @@ public class Animation {
      * Gives the number of baked frames.
      */
     public int numBakedFrames() {
-        return bakedFrames.size();
+        return bakedFrames;
     }
 
     /**
@@ -138,7 +138,7 @@ public class Animation {
      * @param paused - animation is paused if true
      */
     public void setPaused(boolean paused) {
-        this.paused = paused;
+        instance.setPaused(paused);
     }
 
     /**
@@ -147,7 +147,7 @@ public class Animation {
      * @return true if animation is currently paused
      */
     public boolean isPaused() {
-        return paused;
+        return instance.isPaused();
     }
 
     /**
@@ -157,6 +157,7 @@ public class Animation {
      */
     public void setBind(Joint bind) {
         this.bind = bind;
+        clearClip();
     }
 
     /**
@@ -174,7 +175,7 @@ public class Animation {
      * @param speed - animation speed
      */
     public void setSpeed(float speed) {
-        this.speed = speed;
+        instance.setSpeed(speed);
     }
 
     /**
@@ -183,101 +184,135 @@ public class Animation {
      * @return animation speed
      */
     public float getSpeed() {
-        return speed;
+        return instance.getSpeed();
     }
 
     /**
-     * Advances the animation by calculating the current animation time. This value is then used to determine the current
-     * frame to be displayed.
+     * Gives the clip made from this animation's keyframes, bind pose and baked frames, creating it if any of them
+     * changed since it was last created.
      *
-     * @param systemTime - engine running duration in seconds
+     * @return animation clip
+     */
+    public AnimationClip getClip() {
+        if (clip == null) {
+            clip = new AnimationClip(bind, keyFrames, bakedFrames);
+            instance.setClip(clip);
+        }
+
+        return clip;
+    }
+
+    /**
+     * Gives the flattened joint hierarchy and keyframes of this animation.
      *
-     * @return root of the final transformed pose
+     * @return flattened skeleton
      */
-    public Joint update(double systemTime, double deltaTime) {
-        if (paused) {
-            startTime = systemTime - animationTime;
+    public Skeleton getSkeleton() {
+        return getClip().getSkeleton();
+    }
 
-            if (output != null) {
-                return output;
-            }
-        }
+    /**
+     * Gives the instance this animation plays its clip with. Shapes that have no instance of their own play this one.
+     *
+     * @return this animation's instance
+     */
+    public AnimationInstance getInstance() {
+        getClip();
+        return instance;
+    }
 
-        if (reset) {
-            next = 1;
-            current = 0;
-            startTime = systemTime;
-            reset = false;
-        }
+    /**
+     * Creates a new instance playing this animation's clip with this animation's type and speed. Instances made this way
+     * keep playing the clip they were made with after this animation's frames change.
+     *
+     * @return new animation instance
+     */
+    public AnimationInstance createInstance() {
+        AnimationInstance copy = new AnimationInstance(getClip());
 
-        animationTime = systemTime - startTime;
-        duration = keyFrames.get(keyFrames.size() - 1).getTime();
+        copy.setType(instance.getType());
+        copy.setSpeed(instance.getSpeed());
 
-        float time = (float) animationTime * speed;
+        return copy;
+    }
 
-        if (type == Type.INTERPOLATED) {
-            if (time >= duration) {
-                reset = true;
-            } else if (time >= keyFrames.get(next).getTime()) {
-                current = next;
-                next++;
-            }
+    /**
+     * Gives a number that changes whenever the pose returned by {@link #update(double, double)} or the palette returned
+     * by {@link #updatePalette(double, double)} changes, so that users of the pose can tell whether they need to upload
+     * it again.
+     *
+     * @return pose version
+     */
+    public int getPoseVersion() {
+        return instance.getPoseVersion();
+    }
 
-            Frame c = keyFrames.get(current);
-            Frame n = keyFrames.get(next);
+    /**
+     * Advances the animation by calculating the current animation time. This value is then used to determine the current
+     * frame to be displayed. The pose is only calculated once for a given system time, so further calls within the same
+     * frame give the same pose without recalculating it.
+     *
+     * @param systemTime - engine running duration in seconds
+     *
+     * @return root of the final transformed pose
+     */
+    public Joint update(double systemTime, double deltaTime) {
+        if (output != null && systemTime == updateTime) {
+            return output;
+        }
+
+        updateTime = systemTime;
 
-            float delta = (time - c.getTime()) / (n.getTime() - c.getTime());
+        AnimationClip clip = getClip();
 
-            output = c.getPose().interpolate(n.getPose(), output, delta).transform(bind).resolve();
-        } else if (type == Type.BAKED) {
-            current = (int) (time / quantum) % bakedFrames.size();
+        if (!instance.advance(systemTime, output != null)) {
+            return output;
+        }
 
-            if (current >= bakedFrames.size()) {
-                reset = true;
-            }
+        if (instance.getType() == Type.INTERPOLATED) {
+            Frame c = clip.getKeyFrame(instance.getCurrentFrame());
+            Frame n = clip.getKeyFrame(instance.getNextFrame());
 
-            output = bakedFrames.get(current).getPose();
+            pose = c.getPose().interpolate(n.getPose(), pose, instance.getDelta()).transform(bind).resolve();
+            output = pose;
+        } else if (instance.getType() == Type.BAKED) {
+            output = clip.getBakedFrame(instance.getCurrentFrame()).getPose();
         }
 
         return output;
     }
 
+    /**
+     * Advances the animation like {@link #update(double, double)}, but only gives the joint transformations packed in
+     * palette order. Interpolated poses are evaluated from the flattened {@link Skeleton} straight into a buffer owned
+     * by this animation's instance, so no joint trees are walked and nothing is allocated once the clip is created.
+     *
+     * @param systemTime - engine running duration in seconds
+     *
+     * @return buffer of joint transformations
+     */
+    public FloatBuffer updatePalette(double systemTime, double deltaTime) {
+        return getInstance().update(systemTime, deltaTime);
+    }
+
     /**
      * Creates a list of pre-calculated frames where the frame to display is selected based on the calculated animation time.
      *
      * @param frames - the number of frames to create
      */
     public void bake(int frames) {
-        bakedFrames.clear();
-
-        duration = keyFrames.get(keyFrames.size() - 1).getTime();
-
-        int currFrame = 0;
-        int nextFrame = 1;
-        quantum = duration / frames;
-
-        for (int i = 0; i < frames; i++) {
-            float time = quantum * i;
-            Frame frame = new Frame();
-            Joint pose = null;
-
-            if (time >= keyFrames.get(nextFrame).getTime()) {
-                currFrame++;
-                nextFrame++;
-            }
-
-            Frame c = keyFrames.get(currFrame);
-            Frame n = keyFrames.get(nextFrame);
-
-            float d = n.getTime() - c.getTime();
-            float delta = (time - c.getTime()) / d;
-
-            pose = c.getPose().interpolate(n.getPose(), pose, delta).transform(bind).resolve();
-
-            frame.setTime(time);
-            frame.setPose(pose);
+        bakedFrames = frames;
+        clearClip();
+        getClip();
+    }
 
-            bakedFrames.add(frame);
-        }
+    /**
+     * Drops the clip after the keyframes, the bind pose or the baked frames changed.
+     */
+    private void clearClip() {
+        clip = null;
+        pose = null;
+        output = null;
+        updateTime = Double.NaN;
     }
 }
@@ -0,0 +1,167 @@
+package core.animation;
+
+import core.utility.EngineException;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * The keyframes, baked frames and flattened skeleton of an animation. A clip does not change after it is created and
+ * holds no playback state, so any number of {@link AnimationInstance}s can play it at the same time while sharing its
+ * memory.
+ *
+ * @author John Paul Quijano
+ */
+public final class AnimationClip {
+    private final float duration;
+    private final float quantum;
+    private final Joint bind;
+    private final Skeleton skeleton;
+    private final List<Frame> keyFrames;
+    private final List<Frame> bakedFrames;
+
+    /**
+     * Creates a clip from the given inverse bind pose and keyframes without baked frames.
+     *
+     * @param bind - root of the inverse bind pose
+     * @param keyFrames - keyframes ordered by time
+     */
+    public AnimationClip(Joint bind, List<Frame> keyFrames) {
+        this(bind, keyFrames, 0);
+    }
+
+    /**
+     * Creates a clip from the given inverse bind pose and keyframes, then pre-calculates the given number of frames
+     * evenly spread over the clip's duration for baked playback.
+     *
+     * @param bind - root of the inverse bind pose
+     * @param keyFrames - keyframes ordered by time
+     * @param frames - number of frames to bake
+     */
+    public AnimationClip(Joint bind, List<Frame> keyFrames, int frames) {
+        if (keyFrames.size() < 2) {
+            throw new EngineException("An animation clip needs at least two keyframes.");
+        }
+
+        this.bind = bind;
+        this.keyFrames = Collections.unmodifiableList(new ArrayList<>(keyFrames));
+
+        duration = keyFrames.get(keyFrames.size() - 1).getTime();
+        quantum = frames > 0 ? duration / frames : 0f;
+        skeleton = new Skeleton(bind, this.keyFrames);
+        bakedFrames = Collections.unmodifiableList(bake(frames));
+    }
+
+    /**
+     * Gives the time of the last keyframe.
+     *
+     * @return duration of this clip
+     */
+    public float getDuration() {
+        return duration;
+    }
+
+    /**
+     * Gives the time between baked frames.
+     *
+     * @return time between baked frames
+     */
+    public float getQuantum() {
+        return quantum;
+    }
+
+    /**
+     * Gives the inverse bind pose.
+     *
+     * @return root of the inverse bind pose
+     */
+    public Joint getBind() {
+        return bind;
+    }
+
+    /**
+     * Gives the flattened joint hierarchy and keyframes of this clip.
+     *
+     * @return flattened skeleton
+     */
+    public Skeleton getSkeleton() {
+        return skeleton;
+    }
+
+    /**
+     * Gives the keyframe at the given index.
+     *
+     * @param index - index of a keyframe
+     *
+     * @return keyframe at the given index
+     */
+    public Frame getKeyFrame(int index) {
+        return keyFrames.get(index);
+    }
+
+    /**
+     * Gives the number of keyframes.
+     *
+     * @return number of keyframes
+     */
+    public int numKeyFrames() {
+        return keyFrames.size();
+    }
+
+    /**
+     * Gives the baked frame at the given index.
+     *
+     * @param index - index of a baked frame
+     *
+     * @return baked frame at the given index
+     */
+    public Frame getBakedFrame(int index) {
+        return bakedFrames.get(index);
+    }
+
+    /**
+     * Gives the number of baked frames.
+     *
+     * @return number of baked frames
+     */
+    public int numBakedFrames() {
+        return bakedFrames.size();
+    }
+
+    /**
+     * Creates the list of pre-calculated frames.
+     */
+    private List<Frame> bake(int frames) {
+        List<Frame> output = new ArrayList<>(frames);
+
+        int currFrame = 0;
+        int nextFrame = 1;
+
+        for (int i = 0; i < frames; i++) {
+            float time = quantum * i;
+            Frame frame = new Frame();
+            Joint pose = null;
+
+            if (time >= keyFrames.get(nextFrame).getTime()) {
+                currFrame++;
+                nextFrame++;
+            }
+
+            Frame c = keyFrames.get(currFrame);
+            Frame n = keyFrames.get(nextFrame);
+
+            float d = n.getTime() - c.getTime();
+            float delta = (time - c.getTime()) / d;
+
+            pose = c.getPose().interpolate(n.getPose(), pose, delta).transform(bind).resolve();
+
+            frame.setTime(time);
+            frame.setPose(pose);
+
+            output.add(frame);
+        }
+
+        return output;
+    }
+}
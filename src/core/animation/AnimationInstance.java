@@ -0,0 +1,297 @@
+package core.animation;
+
+import core.utility.EngineException;
+
+import java.nio.FloatBuffer;
+
+/**
+ * Plays an {@link AnimationClip}. An instance only holds its playback state and the joint transformations of its
+ * current pose, so many instances can share one clip. Giving instances different time offsets or speeds keeps shapes
+ * playing the same clip from moving in lockstep.
+ *
+ * @author John Paul Quijano
+ */
+public class AnimationInstance {
+    private int next;
+    private int current;
+    private int poseVersion;
+    private float speed;
+    private float delta;
+    private float timeOffset;
+    private double startTime;
+    private double animationTime;
+    private double updateTime;
+    private double advanceTime;
+    private boolean advanced;
+    private boolean paused;
+    private AnimationClip clip;
+    private FloatBuffer palette;
+    private FloatBuffer output;
+    private Animation.Type type;
+
+    /**
+     * Creates an instance playing the given clip.
+     *
+     * @param clip - clip to play
+     */
+    public AnimationInstance(AnimationClip clip) {
+        this.clip = clip;
+
+        type = Animation.DEFAULT_TYPE;
+        speed = Animation.DEFAULT_SPEED;
+        updateTime = Double.NaN;
+        advanceTime = Double.NaN;
+    }
+
+    /**
+     * Sets the clip to play.
+     *
+     * @param clip - clip to play
+     */
+    public void setClip(AnimationClip clip) {
+        this.clip = clip;
+
+        palette = null;
+        restart();
+    }
+
+    /**
+     * Gives the clip being played.
+     *
+     * @return clip being played
+     */
+    public AnimationClip getClip() {
+        return clip;
+    }
+
+    /**
+     * Sets the type of playback. BAKED needs a clip with baked frames.
+     *
+     * @param type - playback type
+     *
+     * @see Animation#setType(Animation.Type)
+     */
+    public void setType(Animation.Type type) {
+        this.type = type;
+
+        restart();
+    }
+
+    /**
+     * Gives the type of playback.
+     *
+     * @return playback type
+     */
+    public Animation.Type getType() {
+        return type;
+    }
+
+    /**
+     * Sets the scaling factor for the playback speed. The higher this value the faster the animation.
+     *
+     * @param speed - playback speed
+     */
+    public void setSpeed(float speed) {
+        this.speed = speed;
+    }
+
+    /**
+     * Gives the playback speed.
+     *
+     * @return playback speed
+     */
+    public float getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Sets the clip time added to this instance's playback time, so that instances sharing a clip can play different
+     * parts of it at the same time.
+     *
+     * @param timeOffset - time offset in clip time
+     */
+    public void setTimeOffset(float timeOffset) {
+        this.timeOffset = timeOffset;
+    }
+
+    /**
+     * Gives the time offset.
+     *
+     * @return time offset in clip time
+     */
+    public float getTimeOffset() {
+        return timeOffset;
+    }
+
+    /**
+     * Pauses and resumes playback.
+     *
+     * @param paused - playback is paused if true
+     */
+    public void setPaused(boolean paused) {
+        this.paused = paused;
+    }
+
+    /**
+     * Gives true if playback is currently paused.
+     *
+     * @return true if playback is currently paused
+     */
+    public boolean isPaused() {
+        return paused;
+    }
+
+    /**
+     * Gives a number that changes whenever the pose of this instance changes, so that users of the pose can tell
+     * whether they need to upload it again.
+     *
+     * @return pose version
+     */
+    public int getPoseVersion() {
+        return poseVersion;
+    }
+
+    /**
+     * Advances playback and gives the joint transformations of the current pose packed in palette order. The pose is
+     * only calculated once for a given system time, so further calls within the same frame give the same buffer.
+     * Interpolated poses are written to a buffer owned by this instance, while baked poses are shared with the clip.
+     *
+     * @param systemTime - engine running duration in seconds
+     *
+     * @return buffer of joint transformations
+     */
+    public FloatBuffer update(double systemTime, double deltaTime) {
+        if (output != null && systemTime == updateTime) {
+            return output;
+        }
+
+        updateTime = systemTime;
+
+        if (!advance(systemTime, output != null)) {
+            return output;
+        }
+
+        if (type == Animation.Type.INTERPOLATED) {
+            if (palette == null) {
+                palette = clip.getSkeleton().createPalette();
+            }
+
+            output = clip.getSkeleton().evaluate(current, next, delta, palette);
+        } else if (type == Animation.Type.BAKED) {
+            output = clip.getBakedFrame(current).getPose().getBuffer();
+        }
+
+        return output;
+    }
+
+    /**
+     * Calculates the current clip time and frame indices, once for a given system time. The clip time wraps around the
+     * clip's duration, so playback loops without skipping a frame.
+     *
+     * @param systemTime - engine running duration in seconds
+     * @param posed - true if the caller already has a pose to show
+     *
+     * @return false if playback is paused and the caller's pose is still current
+     */
+    boolean advance(double systemTime, boolean posed) {
+        if (systemTime == advanceTime) {
+            return advanced || !posed;
+        }
+
+        advanceTime = systemTime;
+        advanced = false;
+
+        if (paused) {
+            startTime = systemTime - animationTime;
+
+            if (posed) {
+                return false;
+            }
+        }
+
+        animationTime = systemTime - startTime;
+
+        float duration = clip.getDuration();
+        double clipTime = animationTime * speed + timeOffset;
+
+        if (duration > 0f) {
+            clipTime %= duration;
+
+            if (clipTime < 0) {
+                clipTime += duration;
+            }
+        } else {
+            clipTime = 0;
+        }
+
+        float time = (float) clipTime;
+
+        if (type == Animation.Type.INTERPOLATED) {
+            int last = clip.numKeyFrames() - 1;
+
+            if (current >= last || time < clip.getKeyFrame(current).getTime()) {
+                current = 0;
+            }
+
+            while (current < last - 1 && time >= clip.getKeyFrame(current + 1).getTime()) {
+                current++;
+            }
+
+            next = current + 1;
+
+            float start = clip.getKeyFrame(current).getTime();
+            float end = clip.getKeyFrame(next).getTime();
+
+            delta = end > start ? Math.min(Math.max((time - start) / (end - start), 0f), 1f) : 0f;
+            poseVersion++;
+        } else if (type == Animation.Type.BAKED) {
+            if (clip.numBakedFrames() == 0) {
+                throw new EngineException("Baked playback needs a clip with baked frames.");
+            }
+
+            int frame = (int) (time / clip.getQuantum()) % clip.numBakedFrames();
+
+            if (frame != current || !posed) {
+                current = frame;
+                poseVersion++;
+            }
+        }
+
+        advanced = true;
+
+        return true;
+    }
+
+    /**
+     * Gives the index of the keyframe or baked frame the current pose starts from.
+     */
+    int getCurrentFrame() {
+        return current;
+    }
+
+    /**
+     * Gives the index of the keyframe the current pose is interpolated to.
+     */
+    int getNextFrame() {
+        return next;
+    }
+
+    /**
+     * Gives the interpolation amount between the current and next keyframes.
+     */
+    float getDelta() {
+        return delta;
+    }
+
+    /**
+     * Forgets the current pose so that the next update calculates it again from the first frame.
+     */
+    private void restart() {
+        next = 1;
+        current = 0;
+        output = null;
+        updateTime = Double.NaN;
+        advanceTime = Double.NaN;
+        poseVersion++;
+    }
+}
@@ -108,7 +108,7 @@ public class Joint extends Node<Joint> {
      */
     public Joint cascade() {
         if (parent != null) {
-            matrix.multiply(parent.matrix);
+            matrix.multiplyAffine(parent.matrix);
             updateVectors();
         }
 
@@ -123,7 +123,7 @@ public class Joint extends Node<Joint> {
      * Recursively inverts the transformation matrices in this joint hierarchy.
      */
     public void invert() {
-        matrix.invert();
+        matrix.invertAffine();
         updateVectors();
 
         for (Joint child : children) {
@@ -139,7 +139,7 @@ public class Joint extends Node<Joint> {
     public Joint transform(Joint input) {
         Matrix4 inputMat = Pools.Matrix4.get().set(input.matrix);
 
-        inputMat.multiply(matrix);
+        inputMat.multiplyAffine(matrix);
         matrix.set(inputMat);
 
         Pools.Matrix4.put(inputMat);
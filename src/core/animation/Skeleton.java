@@ -0,0 +1,254 @@
+package core.animation;
+
+import core.math.Matrix4;
+import core.math.Quaternion;
+import core.math.Vector3;
+import core.utility.Buffers;
+import core.utility.EngineException;
+import core.utility.Pools;
+
+import java.nio.FloatBuffer;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A joint hierarchy and its keyframes flattened into arrays, so that poses can be evaluated without walking or
+ * allocating joint trees. Joints are stored in depth-first order, so every joint comes after its parent, and the
+ * rotations, translations and inverse bind matrices of all joints are packed side by side in that order.
+ * <p>
+ * Keyframe poses are already combined with their ancestors, so a pose is evaluated in one pass over the joints which
+ * writes each joint's skinning matrix straight into its place in the palette buffer.
+ *
+ * @author John Paul Quijano
+ */
+public final class Skeleton {
+    private final int numJoints;
+    private final int numKeyFrames;
+    private final int paletteSize;
+    private final int[] parents;
+    private final int[] slots;
+    private final String[] names;
+    private final float[] rotations;
+    private final float[] translations;
+    private final float[] bindMatrices;
+
+    /**
+     * Flattens the given inverse bind pose and keyframes. The keyframe poses and the bind pose must share the same
+     * joint hierarchy. The palette order is the joint order of the first keyframe's pose.
+     *
+     * @param bind - root of the inverse bind pose
+     * @param keyFrames - keyframes to flatten
+     */
+    public Skeleton(Joint bind, List<Frame> keyFrames) {
+        if (bind == null || keyFrames.isEmpty()) {
+            throw new EngineException("A skeleton needs a bind pose and at least one keyframe.");
+        }
+
+        Joint layout = keyFrames.get(0).getPose().deepCopy().collapse();
+        List<Joint> joints = flatten(layout, null, null);
+        List<Joint> bindJoints = flatten(bind, null, null);
+        Map<Joint, Integer> slotMap = new IdentityHashMap<>();
+
+        for (int i = 0; i < layout.numJoints(); i++) {
+            slotMap.put(layout.getJoint(i), i);
+        }
+
+        numJoints = joints.size();
+        numKeyFrames = keyFrames.size();
+        paletteSize = layout.numJoints();
+        parents = new int[numJoints];
+        slots = new int[numJoints];
+        names = new String[numJoints];
+        rotations = new float[numKeyFrames * numJoints * 4];
+        translations = new float[numKeyFrames * numJoints * 3];
+        bindMatrices = new float[numJoints * 16];
+
+        if (bindJoints.size() != numJoints) {
+            throw new EngineException("The bind pose does not match the keyframe joint hierarchy.");
+        }
+
+        flatten(layout, null, parents);
+
+        for (int i = 0; i < numJoints; i++) {
+            Joint joint = joints.get(i);
+            Integer slot = slotMap.get(joint);
+
+            slots[i] = slot == null ? -1 : slot;
+            names[i] = joint.getName();
+
+            bindJoints.get(i).getMatrix().toArray(bindMatrices, i * 16);
+        }
+
+        for (int f = 0; f < numKeyFrames; f++) {
+            List<Joint> pose = flatten(keyFrames.get(f).getPose(), null, null);
+
+            if (pose.size() != numJoints) {
+                throw new EngineException("Keyframe " + f + " does not match the keyframe joint hierarchy.");
+            }
+
+            for (int i = 0; i < numJoints; i++) {
+                Quaternion rotation = pose.get(i).getRotation();
+                Vector3 translation = pose.get(i).getTranslation();
+                int r = (f * numJoints + i) * 4;
+                int t = (f * numJoints + i) * 3;
+
+                rotations[r] = rotation.getX();
+                rotations[r + 1] = rotation.getY();
+                rotations[r + 2] = rotation.getZ();
+                rotations[r + 3] = rotation.getW();
+
+                translations[t] = translation.getX();
+                translations[t + 1] = translation.getY();
+                translations[t + 2] = translation.getZ();
+            }
+        }
+    }
+
+    /**
+     * Interpolates between two keyframes and writes the transformed joint matrices to the given palette. Gives the
+     * same matrices as interpolating, transforming and resolving the joint trees of the keyframes.
+     *
+     * @param from - index of the keyframe to interpolate from
+     * @param to - index of the keyframe to interpolate to
+     * @param delta - a value between 0 and 1, inclusively
+     * @param palette - storage buffer, see {@link #createPalette()}
+     *
+     * @return the palette
+     */
+    public FloatBuffer evaluate(int from, int to, float delta, FloatBuffer palette) {
+        Quaternion rotation = Pools.Quaternion.get();
+        Quaternion endRotation = Pools.Quaternion.get();
+        Vector3 translation = Pools.Vector3.get();
+        Vector3 endTranslation = Pools.Vector3.get();
+        Matrix4 pose = Pools.Matrix4.get();
+        Matrix4 matrix = Pools.Matrix4.get();
+
+        int start = from * numJoints;
+        int end = to * numJoints;
+
+        for (int i = 0; i < numJoints; i++) {
+            int slot = slots[i];
+
+            if (slot < 0) {
+                continue;
+            }
+
+            int r0 = (start + i) * 4;
+            int r1 = (end + i) * 4;
+            int t0 = (start + i) * 3;
+            int t1 = (end + i) * 3;
+
+            rotation.set(rotations[r0], rotations[r0 + 1], rotations[r0 + 2], rotations[r0 + 3])
+                    .slerp(endRotation.set(rotations[r1], rotations[r1 + 1], rotations[r1 + 2], rotations[r1 + 3]), delta);
+            translation.set(translations[t0], translations[t0 + 1], translations[t0 + 2])
+                    .lerp(endTranslation.set(translations[t1], translations[t1 + 1], translations[t1 + 2]), delta);
+
+            pose.set(rotation);
+            pose.set(3, 0, translation.getX());
+            pose.set(3, 1, translation.getY());
+            pose.set(3, 2, translation.getZ());
+
+            matrix.set(bindMatrices, i * 16).multiplyAffine(pose).toFloatBuffer(palette, slot * 16);
+        }
+
+        Pools.Quaternion.put(rotation);
+        Pools.Quaternion.put(endRotation);
+        Pools.Vector3.put(translation);
+        Pools.Vector3.put(endTranslation);
+        Pools.Matrix4.put(pose);
+        Pools.Matrix4.put(matrix);
+
+        return palette;
+    }
+
+    /**
+     * Creates a buffer large enough to hold the matrices of every joint in the palette.
+     *
+     * @return palette buffer
+     */
+    public FloatBuffer createPalette() {
+        return Buffers.createFloatBuffer(paletteSize * 16);
+    }
+
+    /**
+     * Gives the number of joints.
+     *
+     * @return number of joints
+     */
+    public int numJoints() {
+        return numJoints;
+    }
+
+    /**
+     * Gives the number of keyframes.
+     *
+     * @return number of keyframes
+     */
+    public int numKeyFrames() {
+        return numKeyFrames;
+    }
+
+    /**
+     * Gives the index of the given joint's parent, which always comes before the joint.
+     *
+     * @param index - index of the joint
+     *
+     * @return index of the parent joint, or -1 for the root
+     */
+    public int getParent(int index) {
+        return parents[index];
+    }
+
+    /**
+     * Gives the position of the given joint's matrix in the palette.
+     *
+     * @param index - index of the joint
+     *
+     * @return palette position, or -1 if the joint is not in the palette
+     */
+    public int getSlot(int index) {
+        return slots[index];
+    }
+
+    /**
+     * Gives the name of the given joint.
+     *
+     * @param index - index of the joint
+     *
+     * @return name of the joint
+     */
+    public String getName(int index) {
+        return names[index];
+    }
+
+    /**
+     * Lists the given joint hierarchy in depth-first order, optionally storing the index of each joint's parent.
+     */
+    private static List<Joint> flatten(Joint root, List<Joint> output, int[] parents) {
+        if (output == null) {
+            output = new ArrayList<>();
+        }
+
+        int index = output.size();
+
+        if (parents != null) {
+            parents[index] = -1;
+        }
+
+        output.add(root);
+
+        for (int i = 0; i < root.numChildren(); i++) {
+            int child = output.size();
+
+            flatten(root.getChild(i), output, parents);
+
+            if (parents != null) {
+                parents[child] = index;
+            }
+        }
+
+        return output;
+    }
+}
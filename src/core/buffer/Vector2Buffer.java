@@ -27,6 +27,22 @@ public final class Vector2Buffer {
         bufferImmutable = buffer.asReadOnlyBuffer();
     }
 
+    /**
+     * Wraps the given buffer without copying. Writes to this vector buffer go to the given buffer, unless it is
+     * read-only, in which case it is copied on the first write.
+     *
+     * @param buffer - buffer of packed components, holding 2 components per element
+     */
+    public Vector2Buffer(FloatBuffer buffer) {
+        if (buffer.capacity() % 2 != 0) {
+            throw new EngineException("Buffer capacity must be a multiple of 2.");
+        }
+
+        this.buffer = buffer;
+        size = buffer.capacity() / 2;
+        bufferImmutable = buffer.asReadOnlyBuffer();
+    }
+
     /**
      * Overwrites the element at the specified index with the given value.
      *
@@ -36,6 +52,8 @@ public final class Vector2Buffer {
      * @return this vector buffer
      */
     public Vector2Buffer set(int index, Vector2 vector) {
+        ensureWritable();
+
         int start = index * 2;
         buffer.put(start, vector.getX()).put(start + 1, vector.getY());
         return this;
@@ -51,6 +69,8 @@ public final class Vector2Buffer {
      * @return this vector buffer
      */
     public Vector2Buffer set(int index, float x, float y) {
+        ensureWritable();
+
         int start = index * 2;
         buffer.put(start, x).put(start + 1, y);
         return this;
@@ -156,6 +176,23 @@ public final class Vector2Buffer {
         return this;
     }
 
+    /**
+     * Copies the given number of packed x, y components from the given array to this buffer.
+     *
+     * @param components - array of packed components
+     * @param length - number of components to copy
+     *
+     * @return this vector buffer
+     */
+    public Vector2Buffer set(float[] components, int length) {
+        ensureWritable();
+
+        FloatBuffer target = buffer.duplicate();
+        target.clear();
+        target.put(components, 0, length);
+        return this;
+    }
+
     /**
      * Sets a vector component at the specified index.
      *
@@ -169,6 +206,7 @@ public final class Vector2Buffer {
             throw new EngineException("Component index must be in the range of [0, 1].");
         }
 
+        ensureWritable();
         buffer.put(elementIndex * 2 + componentIndex, value);
 
         return this;
@@ -212,6 +250,17 @@ public final class Vector2Buffer {
         buffer.clear();
     }
 
+    /**
+     * Replaces a read-only backing buffer, such as a view of a mapped file, with a writable copy. Writes do this
+     * themselves, so it only needs calling before writing to this buffer from several threads.
+     */
+    public void ensureWritable() {
+        if (buffer.isReadOnly()) {
+            buffer = Buffers.writable(buffer);
+            bufferImmutable = buffer.asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Returns the backing read-only buffer.
      *
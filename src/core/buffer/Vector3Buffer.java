@@ -27,6 +27,22 @@ public final class Vector3Buffer {
         bufferImmutable = buffer.asReadOnlyBuffer();
     }
 
+    /**
+     * Wraps the given buffer without copying. Writes to this vector buffer go to the given buffer, unless it is
+     * read-only, in which case it is copied on the first write.
+     *
+     * @param buffer - buffer of packed components, holding 3 components per element
+     */
+    public Vector3Buffer(FloatBuffer buffer) {
+        if (buffer.capacity() % 3 != 0) {
+            throw new EngineException("Buffer capacity must be a multiple of 3.");
+        }
+
+        this.buffer = buffer;
+        size = buffer.capacity() / 3;
+        bufferImmutable = buffer.asReadOnlyBuffer();
+    }
+
     /**
      * Overwrites the element at the specified index with the given value.
      *
@@ -36,6 +52,8 @@ public final class Vector3Buffer {
      * @return this vector buffer
      */
     public Vector3Buffer set(int index, Vector3 vector) {
+        ensureWritable();
+
         int start = index * 3;
         buffer.put(start, vector.getX()).put(start + 1, vector.getY()).put(start + 2, vector.getZ());
         return this;
@@ -52,6 +70,8 @@ public final class Vector3Buffer {
      * @return this vector buffer
      */
     public Vector3Buffer set(int index, float x, float y, float z) {
+        ensureWritable();
+
         int start = index * 3;
         buffer.put(start, x).put(start + 1, y).put(start + 2, z);
         return this;
@@ -157,6 +177,23 @@ public final class Vector3Buffer {
         return this;
     }
 
+    /**
+     * Copies the given number of packed x, y, z components from the given array to this buffer.
+     *
+     * @param components - array of packed components
+     * @param length - number of components to copy
+     *
+     * @return this vector buffer
+     */
+    public Vector3Buffer set(float[] components, int length) {
+        ensureWritable();
+
+        FloatBuffer target = buffer.duplicate();
+        target.clear();
+        target.put(components, 0, length);
+        return this;
+    }
+
     /**
      * Sets a vector component at the specified index.
      *
@@ -170,6 +207,7 @@ public final class Vector3Buffer {
             throw new EngineException("Component index must be in the range of [0, 2].");
         }
 
+        ensureWritable();
         buffer.put(elementIndex * 3 + componentIndex, value);
         return this;
     }
@@ -211,6 +249,17 @@ public final class Vector3Buffer {
         buffer.clear();
     }
 
+    /**
+     * Replaces a read-only backing buffer, such as a view of a mapped file, with a writable copy. Writes do this
+     * themselves, so it only needs calling before writing to this buffer from several threads.
+     */
+    public void ensureWritable() {
+        if (buffer.isReadOnly()) {
+            buffer = Buffers.writable(buffer);
+            bufferImmutable = buffer.asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Returns the backing read-only buffer.
      */
@@ -27,6 +27,22 @@ public final class Vector4Buffer {
         bufferImmutable = buffer.asReadOnlyBuffer();
     }
 
+    /**
+     * Wraps the given buffer without copying. Writes to this vector buffer go to the given buffer, unless it is
+     * read-only, in which case it is copied on the first write.
+     *
+     * @param buffer - buffer of packed components, holding 4 components per element
+     */
+    public Vector4Buffer(FloatBuffer buffer) {
+        if (buffer.capacity() % 4 != 0) {
+            throw new EngineException("Buffer capacity must be a multiple of 4.");
+        }
+
+        this.buffer = buffer;
+        size = buffer.capacity() / 4;
+        bufferImmutable = buffer.asReadOnlyBuffer();
+    }
+
     /**
      * Overwrites the element at the specified index with the given value.
      *
@@ -36,6 +52,8 @@ public final class Vector4Buffer {
      * @return this vector buffer
      */
     public Vector4Buffer set(int index, Vector4 vector) {
+        ensureWritable();
+
         int start = index * 4;
         buffer.put(start, vector.getX()).put(start + 1, vector.getY()).put(start + 2, vector.getZ()).put(start + 3, vector.getW());
         return this;
@@ -52,6 +70,8 @@ public final class Vector4Buffer {
      * @return this vector buffer
      */
     public Vector4Buffer set(int index, float x, float y, float z, float w) {
+        ensureWritable();
+
         int start = index * 4;
         buffer.put(start, x).put(start + 1, y).put(start + 2, z).put(start + 3, w);
         return this;
@@ -152,6 +172,23 @@ public final class Vector4Buffer {
         return this;
     }
 
+    /**
+     * Copies the given number of packed x, y, z, w components from the given array to this buffer.
+     *
+     * @param components - array of packed components
+     * @param length - number of components to copy
+     *
+     * @return this vector buffer
+     */
+    public Vector4Buffer set(float[] components, int length) {
+        ensureWritable();
+
+        FloatBuffer target = buffer.duplicate();
+        target.clear();
+        target.put(components, 0, length);
+        return this;
+    }
+
     /**
      * Sets a vector component at the specified index.
      *
@@ -165,6 +202,7 @@ public final class Vector4Buffer {
             throw new EngineException("Component index must be in the range of [0, 3].");
         }
 
+        ensureWritable();
         buffer.put(elementIndex * 4 + componentIndex, value);
         return this;
     }
@@ -207,6 +245,17 @@ public final class Vector4Buffer {
         buffer.clear();
     }
 
+    /**
+     * Replaces a read-only backing buffer, such as a view of a mapped file, with a writable copy. Writes do this
+     * themselves, so it only needs calling before writing to this buffer from several threads.
+     */
+    public void ensureWritable() {
+        if (buffer.isReadOnly()) {
+            buffer = Buffers.writable(buffer);
+            bufferImmutable = buffer.asReadOnlyBuffer();
+        }
+    }
+
     /**
      * Returns the backing read-only buffer.
      *
@@ -112,10 +112,6 @@ public class FrameBuffer extends GraphicsObject {
      * @param height - new height
      */
     public void resize(int width, int height) {
-        if (!isBuilt()) {
-            return;
-        }
-
         this.width = width;
         this.height = height;
 
@@ -0,0 +1,1090 @@
+package core.importer;
+
+import core.utility.EngineException;
+import core.utility.FloatArray;
+import core.utility.IntArray;
+import core.utility.NumberParser;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.CharBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Streaming reader for .dae (COLLADA) files shared by the COLLADA importers. The file is read once through a StAX
+ * cursor and only the requested libraries are kept. Numeric arrays are tokenized directly from the parser's character
+ * buffer into primitive arrays, so no document tree or per-number strings are created.
+ *
+ * @author John Paul Quijano
+ */
+public class DAEReader {
+    private static final int BUFFER_SIZE = 1 << 16;
+
+    /**
+     * COLLADA libraries that can be kept by the reader.
+     */
+    public enum Library {
+        GEOMETRIES("library_geometries"),
+        CONTROLLERS("library_controllers"),
+        VISUAL_SCENES("library_visual_scenes"),
+        ANIMATIONS("library_animations");
+
+        private final String tag;
+
+        Library(String tag) {
+            this.tag = tag;
+        }
+
+        public String getTag() {
+            return tag;
+        }
+    }
+
+    private final EnumSet<Library> libraries;
+    private final XMLInputFactory factory;
+    private final List<Mesh> meshes;
+    private final List<Skin> skins;
+    private final List<Node> nodes;
+    private final List<Channel> channels;
+
+    private char[] token;
+    private int tokenLength;
+    private CharBuffer tokenText;
+
+    /**
+     * @param libraries - libraries to keep, every other library is skipped
+     */
+    public DAEReader(Library... libraries) {
+        this.libraries = EnumSet.noneOf(Library.class);
+        this.libraries.addAll(Arrays.asList(libraries));
+
+        factory = XMLInputFactory.newInstance();
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+
+        meshes = new ArrayList<>();
+        skins = new ArrayList<>();
+        nodes = new ArrayList<>();
+        channels = new ArrayList<>();
+        token = new char[64];
+        tokenText = CharBuffer.wrap(token);
+    }
+
+    /**
+     * Reads the given file, replacing the contents of the previous read.
+     *
+     * @param path - path to the input file
+     */
+    public void read(String path) {
+        meshes.clear();
+        skins.clear();
+        nodes.clear();
+        channels.clear();
+
+        try (InputStream input = new BufferedInputStream(new FileInputStream(path), BUFFER_SIZE)) {
+            XMLStreamReader reader = factory.createXMLStreamReader(input);
+
+            try {
+                while (reader.hasNext()) {
+                    if (reader.next() != XMLStreamConstants.START_ELEMENT) {
+                        continue;
+                    }
+
+                    String name = reader.getLocalName();
+
+                    if (name.equals("COLLADA")) { /** descend into the root element */
+                        continue;
+                    }
+
+                    if (isKept(Library.GEOMETRIES, name)) {
+                        readGeometries(reader);
+                    } else if (isKept(Library.CONTROLLERS, name)) {
+                        readControllers(reader);
+                    } else if (isKept(Library.VISUAL_SCENES, name)) {
+                        readVisualScenes(reader);
+                    } else if (isKept(Library.ANIMATIONS, name)) {
+                        readAnimations(reader);
+                    } else {
+                        skip(reader);
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (XMLStreamException ex) {
+            throw new EngineException("Failed to parse file: " + ex.getMessage());
+        } catch (IOException ex) {
+            throw new EngineException("Failed to read file: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Gives the meshes of library_geometries in document order.
+     *
+     * @return list of meshes
+     */
+    public List<Mesh> getMeshes() {
+        return meshes;
+    }
+
+    /**
+     * Gives the skins of library_controllers in document order.
+     *
+     * @return list of skins
+     */
+    public List<Skin> getSkins() {
+        return skins;
+    }
+
+    /**
+     * Gives the root nodes of every visual scene in document order.
+     *
+     * @return list of root nodes
+     */
+    public List<Node> getNodes() {
+        return nodes;
+    }
+
+    /**
+     * Gives the animation channels of library_animations in document order, with their samplers resolved.
+     *
+     * @return list of channels
+     */
+    public List<Channel> getChannels() {
+        return channels;
+    }
+
+    /**
+     * Finds the first node in the visual scenes with the given id.
+     *
+     * @param id - node id
+     *
+     * @return the node with the given id or null if there is none
+     */
+    public Node findNode(String id) {
+        for (Node node : nodes) {
+            Node found = node.find(id);
+
+            if (found != null) {
+                return found;
+            }
+        }
+
+        return null;
+    }
+
+    private boolean isKept(Library library, String name) {
+        return libraries.contains(library) && library.getTag().equals(name);
+    }
+
+    private void readGeometries(XMLStreamReader reader) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (reader.getLocalName().equals("geometry")) {
+                String id = reader.getAttributeValue(null, "id");
+
+                while (nextChild(reader)) {
+                    if (reader.getLocalName().equals("mesh")) {
+                        meshes.add(readMesh(reader, id));
+                    } else {
+                        skip(reader);
+                    }
+                }
+            } else {
+                skip(reader);
+            }
+        }
+    }
+
+    private Mesh readMesh(XMLStreamReader reader, String id) throws XMLStreamException {
+        Mesh mesh = new Mesh(id);
+
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+
+            switch (name) {
+                case "source":
+                    Source source = readSource(reader);
+                    mesh.sources.put(source.id, source);
+                    break;
+                case "vertices":
+                    mesh.verticesId = reader.getAttributeValue(null, "id");
+
+                    while (nextChild(reader)) {
+                        if (reader.getLocalName().equals("input")) {
+                            mesh.vertices.add(readInput(reader));
+                        } else {
+                            skip(reader);
+                        }
+                    }
+
+                    break;
+                case "triangles":
+                case "polylist":
+                    mesh.primitives.add(readPrimitive(reader, name));
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+
+        return mesh;
+    }
+
+    private Primitive readPrimitive(XMLStreamReader reader, String type) throws XMLStreamException {
+        Primitive primitive = new Primitive(type, parseCount(reader));
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "input":
+                    primitive.inputs.add(readInput(reader));
+                    break;
+                case "vcount":
+                    primitive.vcount = readInts(reader, primitive.count);
+                    break;
+                case "p":
+                    primitive.indices = readInts(reader, -1);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+
+        return primitive;
+    }
+
+    private void readControllers(XMLStreamReader reader) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (reader.getLocalName().equals("controller")) {
+                String id = reader.getAttributeValue(null, "id");
+
+                while (nextChild(reader)) {
+                    if (reader.getLocalName().equals("skin")) {
+                        skins.add(readSkin(reader, id));
+                    } else {
+                        skip(reader);
+                    }
+                }
+            } else {
+                skip(reader);
+            }
+        }
+    }
+
+    private Skin readSkin(XMLStreamReader reader, String id) throws XMLStreamException {
+        Skin skin = new Skin(id, stripReference(reader.getAttributeValue(null, "source")));
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "bind_shape_matrix":
+                    skin.bindShapeMatrix = readFloats(reader, 16);
+                    break;
+                case "source":
+                    Source source = readSource(reader);
+                    skin.sources.put(source.id, source);
+                    break;
+                case "vertex_weights":
+                    int count = parseCount(reader);
+
+                    while (nextChild(reader)) {
+                        switch (reader.getLocalName()) {
+                            case "input":
+                                skin.inputs.add(readInput(reader));
+                                break;
+                            case "vcount":
+                                skin.vcount = readInts(reader, count);
+                                break;
+                            case "v":
+                                skin.indices = readInts(reader, -1);
+                                break;
+                            default:
+                                skip(reader);
+                                break;
+                        }
+                    }
+
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+
+        return skin;
+    }
+
+    private void readVisualScenes(XMLStreamReader reader) throws XMLStreamException {
+        while (nextChild(reader)) {
+            if (reader.getLocalName().equals("visual_scene")) {
+                while (nextChild(reader)) {
+                    if (reader.getLocalName().equals("node")) {
+                        nodes.add(readNode(reader));
+                    } else {
+                        skip(reader);
+                    }
+                }
+            } else {
+                skip(reader);
+            }
+        }
+    }
+
+    private Node readNode(XMLStreamReader reader) throws XMLStreamException {
+        Node node = new Node(reader.getAttributeValue(null, "id"), reader.getAttributeValue(null, "name"),
+                reader.getAttributeValue(null, "type"));
+
+        while (nextChild(reader)) {
+            String name = reader.getLocalName();
+
+            if (name.equals("matrix")) {
+                node.matrix = readFloats(reader, 16);
+            } else if (name.equals("node")) {
+                node.children.add(readNode(reader));
+            } else {
+                skip(reader);
+            }
+        }
+
+        return node;
+    }
+
+    /**
+     * Reads library_animations. Sources and samplers are only held until the end of the library, after which each
+     * channel keeps references to the two sources its sampler points to.
+     */
+    private void readAnimations(XMLStreamReader reader) throws XMLStreamException {
+        Map<String, Source> sources = new HashMap<>();
+        Map<String, String[]> samplers = new HashMap<>();
+        List<String[]> targets = new ArrayList<>();
+
+        readAnimation(reader, sources, samplers, targets);
+
+        for (String[] target : targets) {
+            String[] sampler = samplers.get(target[0]);
+
+            if (sampler == null) {
+                throw new EngineException("Missing sampler: " + target[0]);
+            }
+
+            channels.add(new Channel(target[1], sources.get(sampler[0]), sources.get(sampler[1])));
+        }
+    }
+
+    private void readAnimation(XMLStreamReader reader, Map<String, Source> sources, Map<String, String[]> samplers,
+                               List<String[]> targets) throws XMLStreamException {
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "animation":
+                    readAnimation(reader, sources, samplers, targets);
+                    break;
+                case "source":
+                    Source source = readSource(reader);
+                    sources.put(source.id, source);
+                    break;
+                case "sampler":
+                    String id = reader.getAttributeValue(null, "id");
+                    String[] inputs = new String[2];
+
+                    while (nextChild(reader)) {
+                        if (reader.getLocalName().equals("input")) {
+                            Input input = readInput(reader);
+
+                            if (input.semantic.equals("INPUT")) {
+                                inputs[0] = input.source;
+                            } else if (input.semantic.equals("OUTPUT")) {
+                                inputs[1] = input.source;
+                            }
+                        } else {
+                            skip(reader);
+                        }
+                    }
+
+                    samplers.put(id, inputs);
+                    break;
+                case "channel":
+                    targets.add(new String[]{
+                            stripReference(reader.getAttributeValue(null, "source")),
+                            reader.getAttributeValue(null, "target")
+                    });
+                    skip(reader);
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+    }
+
+    private Source readSource(XMLStreamReader reader) throws XMLStreamException {
+        Source source = new Source(reader.getAttributeValue(null, "id"));
+
+        while (nextChild(reader)) {
+            switch (reader.getLocalName()) {
+                case "float_array":
+                    source.floats = readFloats(reader, parseCount(reader));
+                    break;
+                case "Name_array":
+                case "IDREF_array":
+                    source.names = readNames(reader);
+                    break;
+                case "technique_common":
+                    while (nextChild(reader)) {
+                        if (reader.getLocalName().equals("accessor")) {
+                            String stride = reader.getAttributeValue(null, "stride");
+
+                            if (stride != null) {
+                                source.stride = Integer.parseInt(stride.trim());
+                            }
+                        }
+
+                        skip(reader);
+                    }
+
+                    break;
+                default:
+                    skip(reader);
+                    break;
+            }
+        }
+
+        return source;
+    }
+
+    private Input readInput(XMLStreamReader reader) throws XMLStreamException {
+        String offset = reader.getAttributeValue(null, "offset");
+        String set = reader.getAttributeValue(null, "set");
+
+        Input input = new Input(
+                reader.getAttributeValue(null, "semantic"),
+                stripReference(reader.getAttributeValue(null, "source")),
+                offset == null ? 0 : Integer.parseInt(offset.trim()),
+                set == null ? 0 : Integer.parseInt(set.trim())
+        );
+
+        skip(reader);
+
+        return input;
+    }
+
+    private int parseCount(XMLStreamReader reader) {
+        String count = reader.getAttributeValue(null, "count");
+        return count == null ? -1 : Integer.parseInt(count.trim());
+    }
+
+    private static String stripReference(String reference) {
+        return reference != null && reference.startsWith("#") ? reference.substring(1) : reference;
+    }
+
+    /**
+     * Advances to the next child element of the current element.
+     *
+     * @return true if positioned on a child's start tag, false if the end tag of the current element was reached
+     */
+    private static boolean nextChild(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                return true;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                return false;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Advances past the end tag of the current element without reading its content.
+     */
+    private static void skip(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+
+        while (depth > 0 && reader.hasNext()) {
+            int event = reader.next();
+
+            if (event == XMLStreamConstants.START_ELEMENT) {
+                depth++;
+            } else if (event == XMLStreamConstants.END_ELEMENT) {
+                depth--;
+            }
+        }
+    }
+
+    /**
+     * Reads the text of the current element as whitespace-separated floats.
+     *
+     * @param count - expected number of values or -1 if unknown
+     */
+    private float[] readFloats(XMLStreamReader reader, int count) throws XMLStreamException {
+        FloatArray values = new FloatArray(Math.max(count, FloatArray.DEFAULT_CAPACITY));
+
+        tokenLength = 0;
+
+        while (nextText(reader)) {
+            char[] text = reader.getTextCharacters();
+            int end = reader.getTextStart() + reader.getTextLength();
+
+            for (int i = reader.getTextStart(); i < end; i++) {
+                if (isWhitespace(text[i])) {
+                    if (tokenLength > 0) {
+                        values.add(parseFloat());
+                    }
+                } else {
+                    append(text[i]);
+                }
+            }
+        }
+
+        if (tokenLength > 0) {
+            values.add(parseFloat());
+        }
+
+        return trim(values.array(), values.size());
+    }
+
+    /**
+     * Reads the text of the current element as whitespace-separated integers.
+     *
+     * @param count - expected number of values or -1 if unknown
+     */
+    private int[] readInts(XMLStreamReader reader, int count) throws XMLStreamException {
+        IntArray values = new IntArray(Math.max(count, IntArray.DEFAULT_CAPACITY));
+
+        tokenLength = 0;
+
+        while (nextText(reader)) {
+            char[] text = reader.getTextCharacters();
+            int end = reader.getTextStart() + reader.getTextLength();
+
+            for (int i = reader.getTextStart(); i < end; i++) {
+                if (isWhitespace(text[i])) {
+                    if (tokenLength > 0) {
+                        values.add(parseInt());
+                    }
+                } else {
+                    append(text[i]);
+                }
+            }
+        }
+
+        if (tokenLength > 0) {
+            values.add(parseInt());
+        }
+
+        int[] array = values.array();
+
+        return array.length == values.size() ? array : Arrays.copyOf(array, values.size());
+    }
+
+    /**
+     * Reads the text of the current element as whitespace-separated names.
+     */
+    private String[] readNames(XMLStreamReader reader) throws XMLStreamException {
+        List<String> values = new ArrayList<>();
+
+        tokenLength = 0;
+
+        while (nextText(reader)) {
+            char[] text = reader.getTextCharacters();
+            int end = reader.getTextStart() + reader.getTextLength();
+
+            for (int i = reader.getTextStart(); i < end; i++) {
+                if (isWhitespace(text[i])) {
+                    if (tokenLength > 0) {
+                        values.add(new String(token, 0, tokenLength));
+                        tokenLength = 0;
+                    }
+                } else {
+                    append(text[i]);
+                }
+            }
+        }
+
+        if (tokenLength > 0) {
+            values.add(new String(token, 0, tokenLength));
+        }
+
+        return values.toArray(new String[values.size()]);
+    }
+
+    /**
+     * Advances to the next text event of the current element, skipping comments and nested elements.
+     *
+     * @return true if positioned on text, false if the end tag of the current element was reached
+     */
+    private static boolean nextText(XMLStreamReader reader) throws XMLStreamException {
+        while (reader.hasNext()) {
+            int event = reader.next();
+
+            switch (event) {
+                case XMLStreamConstants.CHARACTERS:
+                case XMLStreamConstants.CDATA:
+                case XMLStreamConstants.SPACE:
+                    return true;
+                case XMLStreamConstants.START_ELEMENT:
+                    skip(reader);
+                    break;
+                case XMLStreamConstants.END_ELEMENT:
+                    return false;
+            }
+        }
+
+        return false;
+    }
+
+    private static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\n' || c == '\r' || c == '\t';
+    }
+
+    private void append(char c) {
+        if (tokenLength == token.length) {
+            token = Arrays.copyOf(token, token.length * 2);
+            tokenText = CharBuffer.wrap(token);
+        }
+
+        token[tokenLength++] = c;
+    }
+
+    private static float[] trim(float[] array, int size) {
+        return array.length == size ? array : Arrays.copyOf(array, size);
+    }
+
+    /**
+     * Parses the buffered token as a signed integer then clears the token.
+     *
+     * @return parsed integer
+     */
+    private int parseInt() {
+        int position = 0;
+        boolean negative = false;
+        long value = 0;
+
+        if (token[0] == '-' || token[0] == '+') {
+            negative = token[0] == '-';
+            position++;
+        }
+
+        if (position == tokenLength) {
+            throw new EngineException("Malformed integer: " + new String(token, 0, tokenLength));
+        }
+
+        for (; position < tokenLength; position++) {
+            int digit = token[position] - '0';
+
+            if (digit < 0 || digit > 9 || value > Integer.MAX_VALUE) {
+                throw new EngineException("Malformed integer: " + new String(token, 0, tokenLength));
+            }
+
+            value = value * 10 + digit;
+        }
+
+        tokenLength = 0;
+
+        return (int) (negative ? -value : value);
+    }
+
+    /**
+     * Parses the buffered token as a decimal floating-point number then clears the token.
+     *
+     * @return parsed float
+     */
+    private float parseFloat() {
+        int length = tokenLength;
+
+        tokenLength = 0;
+
+        try {
+            return NumberParser.parseFloat(tokenText, 0, length);
+        } catch (NumberFormatException ex) {
+            throw new EngineException("Malformed number: " + new String(token, 0, length));
+        }
+    }
+
+    /**
+     * A source element holding either a float array or a name array, with the stride of its accessor.
+     */
+    public static class Source {
+        private final String id;
+        private float[] floats;
+        private String[] names;
+        private int stride;
+
+        Source(String id) {
+            this.id = id;
+            stride = 1;
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return float array contents or null if this source holds no float array
+         */
+        public float[] getFloats() {
+            return floats;
+        }
+
+        /**
+         * @return name array contents or null if this source holds no name array
+         */
+        public String[] getNames() {
+            return names;
+        }
+
+        /**
+         * @return number of array values per element
+         */
+        public int getStride() {
+            return stride;
+        }
+    }
+
+    /**
+     * An input element binding a semantic to a source at an offset of the index stream.
+     */
+    public static class Input {
+        private final String semantic;
+        private final String source;
+        private final int offset;
+        private final int set;
+
+        Input(String semantic, String source, int offset, int set) {
+            this.semantic = semantic;
+            this.source = source;
+            this.offset = offset;
+            this.set = set;
+        }
+
+        public String getSemantic() {
+            return semantic;
+        }
+
+        /**
+         * @return id of the referenced element, without the leading '#'
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public int getOffset() {
+            return offset;
+        }
+
+        public int getSet() {
+            return set;
+        }
+    }
+
+    /**
+     * A triangles or polylist element of a mesh.
+     */
+    public static class Primitive {
+        private final String type;
+        private final int count;
+        private final List<Input> inputs;
+        private int[] vcount;
+        private int[] indices;
+
+        Primitive(String type, int count) {
+            this.type = type;
+            this.count = count;
+            inputs = new ArrayList<>();
+        }
+
+        /**
+         * @return element name, either "triangles" or "polylist"
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return number of faces
+         */
+        public int getCount() {
+            return count;
+        }
+
+        public List<Input> getInputs() {
+            return Collections.unmodifiableList(inputs);
+        }
+
+        /**
+         * @return number of corners of each face or null for triangles
+         */
+        public int[] getVertexCounts() {
+            return vcount;
+        }
+
+        /**
+         * @return interleaved index stream
+         */
+        public int[] getIndices() {
+            return indices;
+        }
+
+        /**
+         * Gives the number of indices per corner, which is one more than the largest input offset.
+         *
+         * @return index stride
+         */
+        public int getStride() {
+            int stride = 0;
+
+            for (Input input : inputs) {
+                stride = Math.max(stride, input.offset + 1);
+            }
+
+            return stride;
+        }
+    }
+
+    /**
+     * A mesh element of library_geometries.
+     */
+    public static class Mesh {
+        private final String id;
+        private final Map<String, Source> sources;
+        private final List<Input> vertices;
+        private final List<Primitive> primitives;
+        private String verticesId;
+
+        Mesh(String id) {
+            this.id = id;
+            sources = new HashMap<>();
+            vertices = new ArrayList<>();
+            primitives = new ArrayList<>();
+        }
+
+        /**
+         * @return id of the enclosing geometry element
+         */
+        public String getId() {
+            return id;
+        }
+
+        public Source getSource(String id) {
+            return sources.get(id);
+        }
+
+        /**
+         * @return id of the vertices element
+         */
+        public String getVerticesId() {
+            return verticesId;
+        }
+
+        /**
+         * @return inputs of the vertices element
+         */
+        public List<Input> getVertices() {
+            return Collections.unmodifiableList(vertices);
+        }
+
+        public List<Primitive> getPrimitives() {
+            return Collections.unmodifiableList(primitives);
+        }
+    }
+
+    /**
+     * A skin element of library_controllers.
+     */
+    public static class Skin {
+        private final String id;
+        private final String source;
+        private final Map<String, Source> sources;
+        private final List<Input> inputs;
+        private float[] bindShapeMatrix;
+        private int[] vcount;
+        private int[] indices;
+
+        Skin(String id, String source) {
+            this.id = id;
+            this.source = source;
+            sources = new HashMap<>();
+            inputs = new ArrayList<>();
+        }
+
+        /**
+         * @return id of the enclosing controller element
+         */
+        public String getId() {
+            return id;
+        }
+
+        /**
+         * @return id of the skinned geometry
+         */
+        public String getSource() {
+            return source;
+        }
+
+        public Source getSource(String id) {
+            return sources.get(id);
+        }
+
+        /**
+         * @return row-major bind shape matrix or null if absent
+         */
+        public float[] getBindShapeMatrix() {
+            return bindShapeMatrix;
+        }
+
+        /**
+         * @return inputs of the vertex_weights element
+         */
+        public List<Input> getInputs() {
+            return Collections.unmodifiableList(inputs);
+        }
+
+        /**
+         * @return number of influences of each source vertex
+         */
+        public int[] getVertexCounts() {
+            return vcount;
+        }
+
+        /**
+         * @return interleaved influence index stream
+         */
+        public int[] getIndices() {
+            return indices;
+        }
+
+        /**
+         * Gives the source referenced by the vertex_weights input with the given semantic.
+         *
+         * @param semantic - input semantic, such as JOINT or WEIGHT
+         *
+         * @return the referenced source or null if there is no such input
+         */
+        public Source getInputSource(String semantic) {
+            for (Input input : inputs) {
+                if (input.semantic.equals(semantic)) {
+                    return sources.get(input.source);
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * A node element of a visual scene.
+     */
+    public static class Node {
+        private final String id;
+        private final String name;
+        private final String type;
+        private final List<Node> children;
+        private float[] matrix;
+
+        Node(String id, String name, String type) {
+            this.id = id;
+            this.name = name;
+            this.type = type;
+            children = new ArrayList<>();
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        /**
+         * @return node type, such as NODE or JOINT
+         */
+        public String getType() {
+            return type;
+        }
+
+        /**
+         * @return row-major transformation matrix or null if this node has no matrix element
+         */
+        public float[] getMatrix() {
+            return matrix;
+        }
+
+        public List<Node> getChildren() {
+            return Collections.unmodifiableList(children);
+        }
+
+        /**
+         * Finds the first node in this subtree with the given id, in depth-first order.
+         *
+         * @param id - node id
+         *
+         * @return the node with the given id or null if there is none
+         */
+        public Node find(String id) {
+            if (id.equals(this.id)) {
+                return this;
+            }
+
+            for (Node child : children) {
+                Node found = child.find(id);
+
+                if (found != null) {
+                    return found;
+                }
+            }
+
+            return null;
+        }
+    }
+
+    /**
+     * A channel element of an animation with the input and output sources of its sampler.
+     */
+    public static class Channel {
+        private final String target;
+        private final Source input;
+        private final Source output;
+
+        Channel(String target, Source input, Source output) {
+            this.target = target;
+            this.input = input;
+            this.output = output;
+        }
+
+        /**
+         * @return target address, such as "joint/transform"
+         */
+        public String getTarget() {
+            return target;
+        }
+
+        /**
+         * @return source of key times
+         */
+        public Source getInput() {
+            return input;
+        }
+
+        /**
+         * @return source of key values
+         */
+        public Source getOutput() {
+            return output;
+        }
+    }
+}
@@ -10,16 +10,19 @@ import core.ShapeGeometry;
  */
 public abstract class GeometryImporter {
     private String extension;
+    private MeshCache cache;
 
     /**
      * @param extension - source file extension
      */
     public GeometryImporter(String extension) {
         this.extension = extension;
+        cache = MeshCache.getDefault();
     }
 
     /**
-     * Parses the given file then outputs the created geometry.
+     * Parses the given file then outputs the created geometry. If a cache is set, a cached geometry of the unmodified
+     * file is returned without parsing, otherwise the parsed geometry is added to the cache.
      *
      * @param path - path to the input file
      *
@@ -27,7 +30,47 @@ public abstract class GeometryImporter {
      */
     public ShapeGeometry importFile(String path) {
         validate(extension, path);
-        return process(path);
+
+        if (cache == null) {
+            return process(path);
+        }
+
+        ShapeGeometry geom = cache.load(path, getVariant());
+
+        if (geom == null) {
+            geom = process(path);
+            cache.store(path, getVariant(), geom);
+        }
+
+        return geom;
+    }
+
+    /**
+     * Sets the cache of imported geometries. The default cache is used unless set otherwise.
+     *
+     * @param cache - mesh cache or null to always parse
+     */
+    public void setCache(MeshCache cache) {
+        this.cache = cache;
+    }
+
+    /**
+     * Gives the cache of imported geometries.
+     *
+     * @return mesh cache or null if caching is disabled
+     */
+    public MeshCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Describes the settings of this importer that affect the created geometry. Geometries imported from the same
+     * file with different variants are cached separately.
+     *
+     * @return importer variant
+     */
+    protected String getVariant() {
+        return getClass().getName();
     }
 
     /**
@@ -0,0 +1,173 @@
+package core.importer;
+
+import core.ShapeGeometry;
+import core.utility.EngineException;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.PosixFilePermissions;
+
+/**
+ * A directory of mesh files holding previously imported geometries. Entries are keyed on the source file's path and
+ * modification time, together with a variant string that distinguishes importer settings, so editing a source file
+ * invalidates its entry.
+ *
+ * @author John Paul Quijano
+ */
+public class MeshCache {
+    public static final String EXTENSION = "mesh";
+
+    private static MeshCache defaultCache;
+
+    private final Path directory;
+
+    /**
+     * @param directory - directory holding the cached files, created on the first store
+     */
+    public MeshCache(String directory) {
+        this.directory = Paths.get(directory);
+    }
+
+    /**
+     * Gives the cache used by importers unless set otherwise, located in the user's home directory. Entries are
+     * trusted when read, so the default is kept out of shared locations such as the system temporary directory where
+     * other users could plant them.
+     *
+     * @return default mesh cache
+     */
+    public static synchronized MeshCache getDefault() {
+        if (defaultCache == null) {
+            defaultCache = new MeshCache(System.getProperty("user.home") + File.separator + ".brew" + File.separator + "mesh-cache");
+        }
+
+        return defaultCache;
+    }
+
+    /**
+     * Gives the cached geometry of the given source file.
+     *
+     * @param source - path to the source file
+     * @param variant - importer settings that produced the geometry
+     *
+     * @return the cached geometry or null if there is no valid entry
+     */
+    public ShapeGeometry load(String source, String variant) {
+        String tag = createTag(source, variant);
+
+        if (tag == null) {
+            return null;
+        }
+
+        Path path = getPath(tag);
+
+        if (!Files.isRegularFile(path)) {
+            return null;
+        }
+
+        try {
+            return MeshFile.read(path.toString(), tag);
+        } catch (EngineException ex) { /** unreadable entries are treated as missing and overwritten */
+            return null;
+        }
+    }
+
+    /**
+     * Stores the given geometry as the entry of the given source file. The file is written next to its final location
+     * and verified, then moved into place, so concurrent readers never see a partial or corrupt entry.
+     *
+     * @param source - path to the source file
+     * @param variant - importer settings that produced the geometry
+     * @param geom - geometry to store
+     *
+     * @return true if the entry was stored
+     */
+    public boolean store(String source, String variant, ShapeGeometry geom) {
+        String tag = createTag(source, variant);
+
+        if (tag == null) {
+            return false;
+        }
+
+        Path path = getPath(tag);
+        Path temp = null;
+
+        try {
+            createDirectory();
+            temp = Files.createTempFile(directory, path.getFileName().toString(), ".tmp");
+
+            MeshFile.write(temp.toString(), geom, tag);
+            MeshFile.verify(temp.toString());
+            Files.move(temp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+
+            return true;
+        } catch (IOException | EngineException | SecurityException ex) { /** caching is best-effort */
+            if (temp != null) {
+                try {
+                    Files.deleteIfExists(temp);
+                } catch (IOException ignored) {}
+            }
+
+            return false;
+        }
+    }
+
+    /**
+     * Creates the cache directory if missing, readable and writable only by its owner where the file system supports
+     * it.
+     */
+    private void createDirectory() throws IOException {
+        if (Files.isDirectory(directory)) {
+            return;
+        }
+
+        if (directory.getFileSystem().supportedFileAttributeViews().contains("posix")) {
+            Files.createDirectories(directory, PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------")));
+        } else {
+            Files.createDirectories(directory);
+        }
+    }
+
+    /**
+     * Gives the directory holding the cached files.
+     *
+     * @return cache directory
+     */
+    public String getDirectory() {
+        return directory.toString();
+    }
+
+    /**
+     * Describes the current state of the given source file.
+     *
+     * @return tag of the source file or null if it cannot be read
+     */
+    private String createTag(String source, String variant) {
+        try {
+            Path path = Paths.get(source).toAbsolutePath().normalize();
+
+            return variant + '\n' + path + '\n' + Files.getLastModifiedTime(path).toMillis() + '\n' + Files.size(path);
+        } catch (IOException | SecurityException ex) {
+            return null;
+        }
+    }
+
+    /**
+     * Gives the location of the entry with the given tag. Only the path and variant name the file, so a modified
+     * source overwrites its stale entry.
+     */
+    private Path getPath(String tag) {
+        String key = tag.substring(0, tag.lastIndexOf('\n', tag.lastIndexOf('\n') - 1));
+        long hash = 0xCBF29CE484222325L;
+
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash = (hash ^ (b & 0xFF)) * 0x100000001B3L;
+        }
+
+        return directory.resolve(String.format("%016x.%s", hash, EXTENSION));
+    }
+}
@@ -0,0 +1,335 @@
+package core.importer;
+
+import core.Geometry;
+import core.ShapeGeometry;
+import core.buffer.Vector2Buffer;
+import core.buffer.Vector3Buffer;
+import core.buffer.Vector4Buffer;
+import core.utility.Buffers;
+import core.utility.EngineException;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.IntBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reader and writer for the binary mesh format, which stores every vertex attribute buffer of a shape geometry.
+ * <p>
+ * A file starts with a fixed header followed by a tag, an arbitrary string that describes where the mesh came from,
+ * then the index, coordinate, color, texture coordinate, normal, tangent, bi-tangent sign, joint and weight sections.
+ * Values are stored in native byte order and every section starts on an 8-byte boundary, so a reader can map the file
+ * and hand out views of each section without copying. The header holds a hash of the sections, which is checked by
+ * {@link #verify(String)} once a file is written rather than every time it is read.
+ *
+ * @author John Paul Quijano
+ */
+public final class MeshFile {
+    public static final int MAGIC = 0x48534D42;
+    public static final int VERSION = 1;
+
+    private static final int BYTE_ORDER_MARK = 0x01020304;
+    private static final int HEADER_SIZE = 40;
+    private static final int COLOR_ENABLED = 1;
+    private static final int TEX_COORD_ENABLED = 1 << 1;
+    private static final int NORMAL_ENABLED = 1 << 2;
+    private static final int TANGENT_ENABLED = 1 << 3;
+    private static final int JOINT_ENABLED = 1 << 4;
+
+    private MeshFile() {}
+
+    /**
+     * Writes the given geometry to the given file, replacing its contents.
+     *
+     * @param path - path to the output file
+     * @param geom - geometry to write
+     * @param tag - description of the geometry's origin, checked by {@link #read(String, String)}
+     */
+    public static void write(String path, ShapeGeometry geom, String tag) {
+        byte[] tagBytes = tag.getBytes(StandardCharsets.UTF_8);
+        int numCoords = geom.numCoordinates();
+        int numIndices = geom.numIndices();
+        int payloadOffset = align(HEADER_SIZE + tagBytes.length);
+        long size = payloadOffset + payloadSize(numCoords, numIndices);
+
+        if (size > Integer.MAX_VALUE) {
+            throw new EngineException("Geometry is too large for the mesh format.");
+        }
+
+        ByteBuffer data = Buffers.createByteBuffer((int) size);
+
+        data.putInt(MAGIC);
+        data.putInt(VERSION);
+        data.putInt(BYTE_ORDER_MARK);
+        data.putInt(geom.getType().ordinal());
+        data.putInt(numCoords);
+        data.putInt(numIndices);
+        data.putInt(getFlags(geom));
+        data.putInt(tagBytes.length);
+        data.putLong(0L);
+        data.put(tagBytes);
+        data.position(payloadOffset);
+
+        putSection(data, geom.getIndexBuffer());
+        putSection(data, geom.getCoordinateBuffer());
+        putSection(data, geom.getColorBuffer());
+        putSection(data, geom.getTextureCoordinateBuffer());
+        putSection(data, geom.getNormalBuffer());
+        putSection(data, geom.getTangentBuffer());
+        putSection(data, geom.getBitangentSignBuffer());
+        putSection(data, geom.getJointBuffer());
+        putSection(data, geom.getWeightsBuffer());
+
+        data.putLong(32, hash(data, payloadOffset, (int) size));
+        data.clear();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            while (data.hasRemaining()) {
+                channel.write(data);
+            }
+        } catch (IOException ex) {
+            throw new EngineException("Failed to write file: " + ex.getMessage());
+        }
+    }
+
+    /**
+     * Reads a geometry from the given file.
+     *
+     * @param path - path to the input file
+     *
+     * @return the geometry stored in the file
+     */
+    public static ShapeGeometry read(String path) {
+        return read(path, null);
+    }
+
+    /**
+     * Reads a geometry from the given file if it was written with the given tag. The file is memory-mapped read-only
+     * and the geometry's buffers are views of the mapping, so a buffer is only copied once the geometry writes to it
+     * and changes are never written back to the file. The payload hash is not checked, see {@link #verify(String)}.
+     *
+     * @param path - path to the input file
+     * @param tag - expected tag or null to accept any tag
+     *
+     * @return the geometry stored in the file or null if the file's tag does not match
+     */
+    public static ShapeGeometry read(String path, String tag) {
+        ByteBuffer data = map(Paths.get(path));
+        int payloadOffset = checkHeader(data, path);
+        int typeIndex = data.getInt(12);
+        int numCoords = data.getInt(16);
+        int numIndices = data.getInt(20);
+        int flags = data.getInt(24);
+        int tagLength = data.getInt(28);
+
+        if (tag != null) {
+            byte[] tagBytes = new byte[tagLength];
+
+            data.position(HEADER_SIZE);
+            data.get(tagBytes);
+
+            if (!tag.equals(new String(tagBytes, StandardCharsets.UTF_8))) {
+                return null;
+            }
+        }
+
+        data.position(payloadOffset);
+
+        IntBuffer indices = nextSection(data, numIndices * 4).asIntBuffer();
+        FloatBuffer coords = nextSection(data, numCoords * 12).asFloatBuffer();
+        FloatBuffer colors = nextSection(data, numCoords * 16).asFloatBuffer();
+        FloatBuffer texCoords = nextSection(data, numCoords * 8).asFloatBuffer();
+        FloatBuffer normals = nextSection(data, numCoords * 12).asFloatBuffer();
+        FloatBuffer tangents = nextSection(data, numCoords * 12).asFloatBuffer();
+        FloatBuffer bitangentSigns = nextSection(data, numCoords * 4).asFloatBuffer();
+        IntBuffer joints = nextSection(data, numCoords * ShapeGeometry.JOINTS_PER_VERTEX * 4).asIntBuffer();
+        FloatBuffer weights = nextSection(data, numCoords * ShapeGeometry.JOINTS_PER_VERTEX * 4).asFloatBuffer();
+
+        ShapeGeometry geom = new ShapeGeometry(Geometry.Type.values()[typeIndex], indices, new Vector3Buffer(coords),
+                new Vector4Buffer(colors), new Vector2Buffer(texCoords), new Vector3Buffer(normals),
+                new Vector3Buffer(tangents), bitangentSigns, joints, weights);
+
+        geom.setColorEnabled((flags & COLOR_ENABLED) != 0);
+        geom.setTexCoordEnabled((flags & TEX_COORD_ENABLED) != 0);
+        geom.setNormalEnabled((flags & NORMAL_ENABLED) != 0);
+        geom.setTangentEnabled((flags & TANGENT_ENABLED) != 0);
+        geom.setJointEnabled((flags & JOINT_ENABLED) != 0);
+
+        return geom;
+    }
+
+    /**
+     * Checks the header and size of the given file and the hash of its sections. This reads the whole file, so it is
+     * meant to be called once after a file is written, such as before a cache entry is moved into place.
+     *
+     * @param path - path to the file
+     *
+     * @throws EngineException if the file is not a valid mesh file
+     */
+    public static void verify(String path) {
+        ByteBuffer data = map(Paths.get(path));
+        int payloadOffset = checkHeader(data, path);
+
+        if (hash(data, payloadOffset, data.capacity()) != data.getLong(32)) {
+            throw new EngineException("Mesh file hash mismatch: " + path);
+        }
+    }
+
+    /**
+     * Checks the header of the given file's contents against the file's size and gives the offset of the first
+     * section.
+     */
+    private static int checkHeader(ByteBuffer data, String path) {
+        if (data.remaining() < HEADER_SIZE || data.getInt(0) != MAGIC) {
+            throw new EngineException("Not a mesh file: " + path);
+        }
+
+        if (data.getInt(4) != VERSION || data.getInt(8) != BYTE_ORDER_MARK) {
+            throw new EngineException("Unsupported mesh file version or byte order: " + path);
+        }
+
+        int typeIndex = data.getInt(12);
+        int numCoords = data.getInt(16);
+        int numIndices = data.getInt(20);
+        int tagLength = data.getInt(28);
+
+        if (typeIndex < 0 || typeIndex >= Geometry.Type.values().length || numCoords < 0 || numIndices < 0
+                || tagLength < 0 || tagLength > data.capacity() - HEADER_SIZE) {
+            throw new EngineException("Corrupt mesh file header: " + path);
+        }
+
+        int payloadOffset = align(HEADER_SIZE + tagLength);
+
+        if (payloadOffset + payloadSize(numCoords, numIndices) != data.capacity()) {
+            throw new EngineException("Truncated mesh file: " + path);
+        }
+
+        return payloadOffset;
+    }
+
+    /**
+     * Maps the given file read-only. Files that cannot be mapped are copied into a direct buffer instead.
+     */
+    private static ByteBuffer map(Path path) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            int size = checkSize(channel.size());
+
+            try {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size).order(ByteOrder.nativeOrder());
+            } catch (IOException | UnsupportedOperationException ex) {
+                ByteBuffer data = Buffers.createByteBuffer(size);
+
+                while (data.hasRemaining()) {
+                    if (channel.read(data) < 0) {
+                        throw new EngineException("Truncated mesh file: " + path);
+                    }
+                }
+
+                data.flip();
+
+                return data;
+            }
+        } catch (IOException ex) {
+            throw new EngineException("Failed to read file: " + ex.getMessage());
+        }
+    }
+
+    private static int checkSize(long size) {
+        if (size > Integer.MAX_VALUE) {
+            throw new EngineException("Mesh file is too large.");
+        }
+
+        return (int) size;
+    }
+
+    private static int getFlags(ShapeGeometry geom) {
+        int flags = 0;
+
+        flags |= geom.isColorEnabled() ? COLOR_ENABLED : 0;
+        flags |= geom.isTexCoordEnabled() ? TEX_COORD_ENABLED : 0;
+        flags |= geom.isNormalEnabled() ? NORMAL_ENABLED : 0;
+        flags |= geom.isTangentEnabled() ? TANGENT_ENABLED : 0;
+        flags |= geom.isJointEnabled() ? JOINT_ENABLED : 0;
+
+        return flags;
+    }
+
+    /**
+     * Gives the number of bytes taken by the sections of a geometry with the given size.
+     */
+    private static long payloadSize(int numCoords, int numIndices) {
+        long vectorSize = align(numCoords * 12L);
+        long jointSize = align(numCoords * ShapeGeometry.JOINTS_PER_VERTEX * 4L);
+
+        return align(numIndices * 4L) + vectorSize * 3 + align(numCoords * 16L) + align(numCoords * 8L)
+                + align(numCoords * 4L) + jointSize * 2;
+    }
+
+    private static long align(long offset) {
+        return (offset + 7) & ~7L;
+    }
+
+    private static int align(int offset) {
+        return (offset + 7) & ~7;
+    }
+
+    private static void putSection(ByteBuffer data, IntBuffer section) {
+        int start = data.position();
+
+        IntBuffer source = section.duplicate();
+
+        source.clear();
+        data.asIntBuffer().put(source);
+        data.position(align(start + section.capacity() * 4));
+    }
+
+    private static void putSection(ByteBuffer data, FloatBuffer section) {
+        int start = data.position();
+
+        FloatBuffer source = section.duplicate();
+
+        source.clear();
+        data.asFloatBuffer().put(source);
+        data.position(align(start + section.capacity() * 4));
+    }
+
+    /**
+     * Gives a view of the given number of bytes at the current position then moves past the section's padding.
+     */
+    private static ByteBuffer nextSection(ByteBuffer data, int length) {
+        int start = data.position();
+        ByteBuffer section = data.duplicate();
+
+        section.position(start).limit(start + length);
+        data.position(align(start + length));
+
+        return section.slice().order(ByteOrder.nativeOrder());
+    }
+
+    /**
+     * Hashes the given 8-byte aligned range of the given buffer, one long at a time.
+     */
+    private static long hash(ByteBuffer data, int start, int end) {
+        ByteBuffer range = data.duplicate();
+
+        range.position(start).limit(end);
+
+        LongBuffer values = range.slice().order(data.order()).asLongBuffer();
+        long hash = 0xCBF29CE484222325L ^ (end - start);
+
+        for (int i = 0; i < values.limit(); i++) {
+            hash = (hash ^ values.get(i)) * 0x9E3779B97F4A7C15L;
+            hash ^= hash >>> 32;
+        }
+
+        return hash;
+    }
+}
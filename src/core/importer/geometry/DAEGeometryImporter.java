@@ -2,26 +2,16 @@ package core.importer.geometry;
 
 import core.Geometry;
 import core.math.EngineMath;
-import core.math.Vector2;
-import core.math.Vector3;
-import core.math.Vector4;
 import core.utility.EngineException;
+import core.utility.FloatArray;
+import core.utility.IntArray;
+import core.utility.LongIntMap;
 import core.ShapeGeometry;
+import core.importer.DAEReader;
 import core.importer.GeometryImporter;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
-
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import java.io.FileInputStream;
-import java.io.IOException;
-import java.util.ArrayList;
+
 import java.util.HashMap;
-import java.util.List;
+import java.util.Map;
 
 /**
  * Constructs a geometry out of a given .dae file.
@@ -29,29 +19,23 @@ import java.util.List;
  * @author John Paul Quijano
  */
 public class DAEGeometryImporter extends GeometryImporter {
+    private static final float FLIP_SIN = EngineMath.sin(EngineMath.toRadians(-90));
+    private static final float FLIP_COS = EngineMath.cos(EngineMath.toRadians(-90));
+
     private boolean flipUp;
-    private ArrayList<Integer> indices;
-    private ArrayList<Vector3> coords;
-    private ArrayList<Vector3> normals;
-    private ArrayList<Vector4> colors;
-    private ArrayList<Vector2> texCoords;
-    private ArrayList<Vector3> sourceCoords;
-    private ArrayList<Vector3> sourceNormals;
-    private ArrayList<Vector4> sourceColors;
-    private ArrayList<Vector2> sourceTexCoords;
-    private ArrayList<Float> sourceWeights;
-    private HashMap<String, Integer> entries;
-    private HashMap<String, List<Integer>> entryMap;
-
-    private int stride;
-    private int coordOffset;
-    private int normalOffset;
-    private int colorOffset;
-    private int texCoordOffset;
-    private int jointOffset;
-    private int weightOffset;
-    private Document doc;
-    private DocumentBuilder docBuilder;
+    private DAEReader reader;
+    private AttributeTable coords;
+    private AttributeTable normals;
+    private AttributeTable colors;
+    private AttributeTable texCoords;
+    private LongIntMap pairs;
+    private LongIntMap entries;
+    private IntArray indices;
+    private IntArray vertexCoords;
+    private IntArray vertexNormals;
+    private IntArray vertexColors;
+    private IntArray vertexTexCoords;
+    private int[] faceVertices;
 
     /**
      * Some modelers, like Blender, may have the z-axis as the up-vector. If flipUp is
@@ -60,284 +44,343 @@ public class DAEGeometryImporter extends GeometryImporter {
     public DAEGeometryImporter(boolean flipUp) {
         super("dae");
 
-        try {
-            docBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        } catch (ParserConfigurationException ex) {
-            throw new EngineException("Failed to create parser: " + ex.getMessage());
-        }
-
         this.flipUp = flipUp;
-        coordOffset = -1;
-        normalOffset = -1;
-        colorOffset = -1;
-        texCoordOffset = -1;
-        jointOffset = -1;
-        weightOffset = -1;
-        entries = new HashMap<>();
-        entryMap = new HashMap<>();
-        indices = new ArrayList<>();
-        coords = new ArrayList<>();
-        normals = new ArrayList<>();
-        colors = new ArrayList<>();
-        texCoords = new ArrayList<>();
-        sourceCoords = new ArrayList<>();
-        sourceNormals = new ArrayList<>();
-        sourceColors = new ArrayList<>();
-        sourceTexCoords = new ArrayList<>();
-        sourceWeights = new ArrayList<>();
+        reader = new DAEReader(DAEReader.Library.GEOMETRIES, DAEReader.Library.CONTROLLERS);
+        pairs = new LongIntMap();
+        entries = new LongIntMap();
+        indices = new IntArray();
+        vertexCoords = new IntArray();
+        vertexNormals = new IntArray();
+        vertexColors = new IntArray();
+        vertexTexCoords = new IntArray();
+        faceVertices = new int[16];
     }
 
     /**
-     * Parses a .dae file to a geometry object.
-     * <p>
-     * Note: Only Geometry.Type.TRIS is supported at this time.
+     * Parses a .dae file to a geometry object. Every triangles and polylist element of the first mesh is merged
+     * into a single geometry, triangulating polygons as fans. Vertices with identical attribute values are shared.
      */
     @Override
     protected ShapeGeometry process(String path) {
-        entries.clear();
-        entryMap.clear();
-        indices.clear();
-        coords.clear();
-        normals.clear();
-        colors.clear();
-        texCoords.clear();
-        sourceCoords.clear();
-        sourceNormals.clear();
-        sourceColors.clear();
-        sourceTexCoords.clear();
-        sourceWeights.clear();
+        reader.read(path);
 
-        try {
-            doc = docBuilder.parse(new FileInputStream(path));
-        } catch (SAXException ex) {
-            throw new EngineException("Failed to parse file: " + ex.getMessage());
-        } catch (IOException ex) {
-            throw new EngineException("Failed to read file: " + ex.getMessage());
+        if (reader.getMeshes().isEmpty()) {
+            throw new EngineException("File contains no mesh.");
         }
 
-        Element root = doc.getDocumentElement();
-        Element geometries = (Element) root.getElementsByTagName("library_geometries").item(0);
-        Element controllers = (Element) root.getElementsByTagName("library_controllers").item(0);
-        Element geometry = (Element) geometries.getElementsByTagName("geometry").item(0);
-        Element controller = (Element) controllers.getElementsByTagName("controller").item(0);
-
-        NodeList geomComponents = geometry.getElementsByTagName("mesh").item(0).getChildNodes();
-        NodeList skinComponents = null;
-
-        ShapeGeometry geom = null;
-
-        root.normalize();
+        DAEReader.Mesh mesh = reader.getMeshes().get(0);
 
-        if (controller != null) {
-            skinComponents = controller.getElementsByTagName("skin").item(0).getChildNodes();
-        }
+        coords = new AttributeTable(3, flipUp);
+        normals = new AttributeTable(3, flipUp);
+        colors = new AttributeTable(4, false);
+        texCoords = new AttributeTable(2, false);
+        pairs.clear();
+        entries.clear();
+        indices.clear();
+        vertexCoords.clear();
+        vertexNormals.clear();
+        vertexColors.clear();
+        vertexTexCoords.clear();
 
         /**
          * Parse geometry data.
          */
-        for (int i = 0; i < geomComponents.getLength(); i++) {
-            Node component = geomComponents.item(i);
-            String name = component.getNodeName();
-
-            if (name.equals("source")) { /** parse vertex attributes */
-                Element source = (Element) component;
-                String id = source.getAttribute("id");
-
-                if (id.contains("positions")) { /** parse coordinates */
-                    String[] data = source.getElementsByTagName("float_array").item(0).getTextContent().split(" ");
-                    parseVector3(data, sourceCoords);
-                } else if (id.contains("normals")) { /** parse normals */
-                    String[] data = source.getElementsByTagName("float_array").item(0).getTextContent().split(" ");
-                    parseVector3(data, sourceNormals);
-                } else if (id.contains("map")) { /** parse texture coordinates */
-                    String[] data = source.getElementsByTagName("float_array").item(0).getTextContent().split(" ");
-                    parseVector2(data, sourceTexCoords);
-                } else if (id.contains("colors")) { /** parse colors */
-                    String[] data = source.getElementsByTagName("float_array").item(0).getTextContent().split(" ");
-                    parseVector4(data, sourceColors);
-                }
-            } else if (name.equals("polylist")) { /** parse indices and construct geometry */
-                Element polylist = (Element) component;
-                NodeList inputs = polylist.getElementsByTagName("input");
-                String[] data = polylist.getElementsByTagName("p").item(0).getTextContent().split(" ");
-
-                for (int j = 0; j < inputs.getLength(); j++) {
-                    Element input = (Element) inputs.item(j);
-                    String semantic = input.getAttribute("semantic");
-                    String offset = input.getAttribute("offset");
-
-                    switch (semantic) {
-                        case "VERTEX":
-                            coordOffset = Integer.valueOf(offset);
-                            stride++;
-                            break;
-                        case "NORMAL":
-                            normalOffset = Integer.valueOf(offset);
-                            stride++;
-                            break;
-                        case "COLOR":
-                            colorOffset = Integer.valueOf(offset);
-                            stride++;
-                            break;
-                        case "TEXCOORD":
-                            texCoordOffset = Integer.valueOf(offset);
-                            stride++;
-                            break;
-                    }
-                }
+        for (DAEReader.Primitive primitive : mesh.getPrimitives()) {
+            buildPrimitive(mesh, primitive);
+        }
 
-                geom = buildGeometry(data);
-            }
+        if (indices.size() == 0) {
+            throw new EngineException("Mesh contains no faces.");
         }
 
-        stride = 0;
+        ShapeGeometry geom = buildGeometry();
 
         /**
          * Parse skinning data.
          */
-        if (skinComponents != null) {
-            for (int i = 0; i < skinComponents.getLength(); i++) {
-                Node component = skinComponents.item(i);
-                String name = component.getNodeName();
-
-                if (name.equals("source")) { /** parse skin attributes */
-                    Element source = (Element) component;
-                    String id = source.getAttribute("id");
-
-                    if (id.contains("weights")) { /** parse vertex weights */
-                        String[] data = source.getElementsByTagName("float_array").item(0).getTextContent().split(" ");
-                        parseFloat(data, sourceWeights);
-                    }
-                } else if (name.equals("vertex_weights")) { /** build skin */
-                    Element vertexWeights = (Element) component;
-                    NodeList inputs = vertexWeights.getElementsByTagName("input");
-                    String[] data = vertexWeights.getElementsByTagName("v").item(0).getTextContent().split(" ");
-                    String[] count = vertexWeights.getElementsByTagName("vcount").item(0).getTextContent().split(" ");
-
-                    for (int j = 0; j < inputs.getLength(); j++) {
-                        Element input = (Element) inputs.item(j);
-                        String semantic = input.getAttribute("semantic");
-                        String offset = input.getAttribute("offset");
-
-                        switch (semantic) {
-                            case "JOINT":
-                                jointOffset = Integer.valueOf(offset);
-                                stride++;
-                                break;
-                            case "WEIGHT":
-                                weightOffset = Integer.valueOf(offset);
-                                stride++;
-                                break;
-                        }
-                    }
-
-                    buildSkin(geom, data, count);
-                }
+        for (DAEReader.Skin skin : reader.getSkins()) {
+            if (mesh.getId() != null && mesh.getId().equals(skin.getSource())) {
+                buildSkin(geom, mesh, skin);
+                break;
             }
         }
 
+        coords = null;
+        normals = null;
+        colors = null;
+        texCoords = null;
+
         return geom;
     }
 
-    private ShapeGeometry buildGeometry(String[] data) {
-        for (int i = 0; i < data.length; i += stride) {
-            Vector3 c = sourceCoords.get(Integer.valueOf(data[i + coordOffset]));
-            Vector3 n = null;
-            Vector4 o = null;
-            Vector2 t = null;
-            String entry = "";
+    @Override
+    protected String getVariant() {
+        return super.getVariant() + (flipUp ? ":flipUp" : "");
+    }
+
+    /**
+     * Resolves the inputs of a primitive then adds its faces, sharing vertices already added by previous faces.
+     */
+    private void buildPrimitive(DAEReader.Mesh mesh, DAEReader.Primitive primitive) {
+        int[] data = primitive.getIndices();
+        int[] counts = primitive.getVertexCounts();
+        int stride = primitive.getStride();
+        int coordOffset = -1;
+        int normalOffset = -1;
+        int colorOffset = -1;
+        int texCoordOffset = -1;
+        int[] coordIds = null;
+        int[] normalIds = null;
+        int[] colorIds = null;
+        int[] texCoordIds = null;
+
+        if (data == null || stride == 0) {
+            return;
+        }
+
+        for (DAEReader.Input input : primitive.getInputs()) {
+            String semantic = input.getSemantic();
+            int offset = input.getOffset();
+
+            if (semantic.equals("VERTEX")) {
+                if (!input.getSource().equals(mesh.getVerticesId())) {
+                    throw new EngineException("Unknown vertices: " + input.getSource());
+                }
+
+                for (DAEReader.Input vertexInput : mesh.getVertices()) {
+                    String vertexSemantic = vertexInput.getSemantic();
+
+                    if (vertexSemantic.equals("POSITION")) {
+                        coordIds = coords.intern(getSource(mesh, vertexInput));
+                        coordOffset = offset;
+                    } else if (vertexSemantic.equals("NORMAL")) {
+                        normalIds = resolve(mesh, vertexInput, vertexSemantic);
+                        normalOffset = offset;
+                    } else if (vertexSemantic.equals("COLOR")) {
+                        colorIds = resolve(mesh, vertexInput, vertexSemantic);
+                        colorOffset = offset;
+                    } else if (vertexSemantic.equals("TEXCOORD") && texCoordIds == null) {
+                        texCoordIds = resolve(mesh, vertexInput, vertexSemantic);
+                        texCoordOffset = offset;
+                    }
+                }
+            } else if (semantic.equals("NORMAL")) {
+                normalIds = resolve(mesh, input, semantic);
+                normalOffset = offset;
+            } else if (semantic.equals("COLOR")) {
+                colorIds = resolve(mesh, input, semantic);
+                colorOffset = offset;
+            } else if (semantic.equals("TEXCOORD") && texCoordIds == null) {
+                texCoordIds = resolve(mesh, input, semantic);
+                texCoordOffset = offset;
+            }
+        }
+
+        if (coordIds == null) {
+            throw new EngineException("Primitive has no vertex positions.");
+        }
 
-            entry += c;
+        int numFaces = counts != null ? counts.length : data.length / (stride * 3);
+        int corner = 0;
 
-            if (texCoordOffset > -1) {
-                t = sourceTexCoords.get(Integer.valueOf(data[i + texCoordOffset]));
-                entry += t;
+        for (int i = 0; i < numFaces; i++) {
+            int numCorners = counts != null ? counts[i] : 3;
+
+            if ((corner + numCorners) * stride > data.length) {
+                throw new EngineException("Face " + i + " exceeds the index data.");
             }
 
-            if (normalOffset > -1) {
-                n = sourceNormals.get(Integer.valueOf(data[i + normalOffset]));
-                entry += n;
+            if (numCorners > faceVertices.length) {
+                faceVertices = new int[numCorners * 2];
             }
 
-            if (colorOffset > -1) {
-                o = sourceColors.get(Integer.valueOf(data[i + colorOffset]));
-                entry += o;
+            for (int j = 0; j < numCorners; j++, corner++) {
+                int base = corner * stride;
+                int coord = lookup(coordIds, data[base + coordOffset]);
+                int normal = normalIds != null ? lookup(normalIds, data[base + normalOffset]) : -1;
+                int color = colorIds != null ? lookup(colorIds, data[base + colorOffset]) : -1;
+                int texCoord = texCoordIds != null ? lookup(texCoordIds, data[base + texCoordOffset]) : -1;
+
+                faceVertices[j] = addVertex(coord, normal, color, texCoord);
             }
 
-            if (entries.containsKey(entry)) {
-                int index = entries.get(entry);
-                indices.add(index);
-            } else {
-                coords.add(new Vector3(c));
+            /** triangulate as a fan around the first corner */
+            for (int j = 1; j < numCorners - 1; j++) {
+                indices.add(faceVertices[0]);
+                indices.add(faceVertices[j]);
+                indices.add(faceVertices[j + 1]);
+            }
+        }
+    }
 
-                if (n != null) {
-                    normals.add(new Vector3(n));
-                }
+    /**
+     * Interns the source of the given input into the table of the given semantic.
+     *
+     * @return table ids of each source element or null for unsupported semantics
+     */
+    private int[] resolve(DAEReader.Mesh mesh, DAEReader.Input input, String semantic) {
+        switch (semantic) {
+            case "NORMAL":
+                return normals.intern(getSource(mesh, input));
+            case "COLOR":
+                return colors.intern(getSource(mesh, input));
+            case "TEXCOORD":
+                return texCoords.intern(getSource(mesh, input));
+            default:
+                return null;
+        }
+    }
 
-                if (o != null) {
-                    colors.add(new Vector4(o));
-                }
+    private DAEReader.Source getSource(DAEReader.Mesh mesh, DAEReader.Input input) {
+        DAEReader.Source source = mesh.getSource(input.getSource());
 
-                if (t != null) {
-                    texCoords.add(new Vector2(t));
-                }
+        if (source == null || source.getFloats() == null) {
+            throw new EngineException("Missing source: " + input.getSource());
+        }
 
-                int index = coords.size() - 1;
+        return source;
+    }
 
-                indices.add(index);
-                entries.put(entry, index);
+    private int lookup(int[] ids, int index) {
+        if (index < 0 || index >= ids.length) {
+            throw new EngineException("Index out of range: " + index);
+        }
 
-                String key = c.toString();
+        return ids[index];
+    }
 
-                if (entryMap.containsKey(key)) {
-                    entryMap.get(key).add(index);
-                } else {
-                    ArrayList<Integer> indexList = new ArrayList<>();
-                    indexList.add(index);
-                    entryMap.put(key, indexList);
-                }
-            }
+    /**
+     * Gives the index of the vertex with the given attribute ids, adding it if it has not been seen before.
+     */
+    private int addVertex(int coord, int normal, int color, int texCoord) {
+        long key = (long) coord << 32 | pair(pair(texCoord, normal), color) & 0xFFFFFFFFL;
+        int index = entries.get(key, -1);
+
+        if (index < 0) {
+            index = vertexCoords.size();
+            entries.put(key, index);
+            vertexCoords.add(coord);
+            vertexNormals.add(normal);
+            vertexColors.add(color);
+            vertexTexCoords.add(texCoord);
         }
 
-        ShapeGeometry geom = new ShapeGeometry(Geometry.Type.TRIS, coords.size(), indices.size());
+        return index;
+    }
 
-        geom.setIndices(indices);
-        geom.setCoordinates(coords);
+    /**
+     * Maps a pair of ids to a single id, assigning ids in order of first appearance.
+     */
+    private int pair(int first, int second) {
+        long key = (long) first << 32 | second & 0xFFFFFFFFL;
+        int id = pairs.get(key, -1);
 
-        if (!normals.isEmpty()) {
-            geom.setNormals(normals);
+        if (id < 0) {
+            id = pairs.size();
+            pairs.put(key, id);
         }
 
-        if (!colors.isEmpty()) {
-            geom.setColors(colors);
+        return id;
+    }
+
+    private ShapeGeometry buildGeometry() {
+        int numCoords = vertexCoords.size();
+        ShapeGeometry geom = new ShapeGeometry(Geometry.Type.TRIS, numCoords, indices.size());
+
+        geom.setIndices(indices.array(), indices.size());
+        geom.setCoordinates(coords.gather(vertexCoords), numCoords * 3);
+
+        if (normals.size() > 0) {
+            geom.setNormals(normals.gather(vertexNormals), numCoords * 3);
         }
 
-        if (!texCoords.isEmpty()) {
-            geom.setTextureCoordinates(texCoords);
+        if (colors.size() > 0) {
+            geom.setColors(colors.gather(vertexColors), numCoords * 4);
+        }
+
+        if (texCoords.size() > 0) {
+            geom.setTextureCoordinates(texCoords.gather(vertexTexCoords), numCoords * 2);
         }
 
         return geom;
     }
 
-    private void buildSkin(ShapeGeometry geom, String[] data, String[] count) {
+    /**
+     * Applies the influences of each source position to every vertex sharing that position's value.
+     */
+    private void buildSkin(ShapeGeometry geom, DAEReader.Mesh mesh, DAEReader.Skin skin) {
+        DAEReader.Source weightSource = skin.getInputSource("WEIGHT");
+        int[] data = skin.getIndices();
+        int[] count = skin.getVertexCounts();
+        int jointOffset = -1;
+        int weightOffset = -1;
+        int stride = 0;
+
+        for (DAEReader.Input input : skin.getInputs()) {
+            if (input.getSemantic().equals("JOINT")) {
+                jointOffset = input.getOffset();
+            } else if (input.getSemantic().equals("WEIGHT")) {
+                weightOffset = input.getOffset();
+            }
+
+            stride = Math.max(stride, input.getOffset() + 1);
+        }
+
+        if (data == null || count == null || jointOffset < 0 || weightSource == null || weightSource.getFloats() == null) {
+            return;
+        }
+
+        int[] coordIds = null;
+
+        for (DAEReader.Input input : mesh.getVertices()) {
+            if (input.getSemantic().equals("POSITION")) {
+                coordIds = coords.intern(getSource(mesh, input));
+            }
+        }
+
+        if (coordIds == null) {
+            return;
+        }
+
+        /** source position that last assigned influences to each position value */
+        int[] influencers = new int[coords.size()];
+        float[] sourceWeights = weightSource.getFloats();
+        int numSources = Math.min(coordIds.length, count.length);
+        int[] offsets = new int[numSources];
         int dataIndex = 0;
+
+        for (int i = 0; i < influencers.length; i++) {
+            influencers[i] = -1;
+        }
+
+        for (int i = 0; i < numSources; i++) {
+            influencers[coordIds[i]] = i;
+            offsets[i] = dataIndex;
+            dataIndex += count[i] * stride;
+        }
+
+        if (dataIndex > data.length) {
+            throw new EngineException("Vertex weights exceed the index data.");
+        }
+
         int[] joints = new int[ShapeGeometry.JOINTS_PER_VERTEX];
         float[] weights = new float[ShapeGeometry.JOINTS_PER_VERTEX];
 
-        for (int i = 0; i < sourceCoords.size(); i++) {
+        for (int i = 0; i < vertexCoords.size(); i++) {
+            int source = influencers[vertexCoords.get(i)];
+
+            if (source < 0) {
+                continue;
+            }
+
             float weight = 0;
-            int numJoints = Integer.valueOf(count[i]);
-            Vector3 coord = sourceCoords.get(i);
-            List<Integer> indexList = entryMap.get(coord.toString());
 
             for (int j = 0; j < ShapeGeometry.JOINTS_PER_VERTEX; j++) {
-                if (j < numJoints) {
-                    int jointIndex = Integer.valueOf(data[dataIndex + jointOffset]);
-                    int weightIndex = Integer.valueOf(data[dataIndex + weightOffset]);
+                if (j < count[source]) {
+                    int base = offsets[source] + j * stride;
 
-                    joints[j] = jointIndex;
-                    weights[j] = sourceWeights.get(weightIndex);
-                    dataIndex += stride;
+                    joints[j] = data[base + jointOffset];
+                    weights[j] = sourceWeights[data[base + weightOffset]];
                 } else {
                     joints[j] = -1;
                     weights[j] = 0f;
@@ -346,107 +389,162 @@ public class DAEGeometryImporter extends GeometryImporter {
                 weight += weights[j];
             }
 
-            /** recalculate index pointer for skipped items */
-            if (numJoints > ShapeGeometry.JOINTS_PER_VERTEX) {
-                dataIndex += stride * (numJoints - ShapeGeometry.JOINTS_PER_VERTEX);
-            }
-
             /** normalize weights */
-            if (weight != 1f) {
+            if (weight != 1f && weight != 0f) {
                 for (int k = 0; k < ShapeGeometry.JOINTS_PER_VERTEX; k++) {
                     weights[k] /= weight;
                 }
             }
 
-            for (Integer coordIndex : indexList) {
-                geom.setJoints(coordIndex, joints);
-                geom.setWeights(coordIndex, weights);
-            }
+            geom.setJoints(i, joints);
+            geom.setWeights(i, weights);
         }
     }
 
-    private void parseFloat(String[] data, List<Float> output) {
-        for (String datum : data) {
-            output.add(Float.parseFloat(datum));
+    /**
+     * Interns vertex attribute values so that equal values share a single id.
+     */
+    private static final class AttributeTable {
+        private final int size;
+        private final boolean flip;
+        private final FloatArray values;
+        private final Map<DAEReader.Source, int[]> sourceIds;
+        private final float[] element;
+        private int[] slots;
+        private int count;
+
+        /**
+         * @param size - number of components per value
+         * @param flip - if set, y and z are rotated from z-up to y-up
+         */
+        AttributeTable(int size, boolean flip) {
+            this.size = size;
+            this.flip = flip;
+            values = new FloatArray();
+            sourceIds = new HashMap<>();
+            element = new float[size];
+            slots = new int[16];
         }
-    }
 
-    private void parseVector2(String[] data, List<Vector2> output) {
-        int count = 0;
-        float x = 0f;
-        float y = 0f;
+        /**
+         * Interns every element of the given source. Missing components are zero, except for alpha which is one.
+         *
+         * @return table id of each source element
+         */
+        int[] intern(DAEReader.Source source) {
+            int[] ids = sourceIds.get(source);
+
+            if (ids != null) {
+                return ids;
+            }
+
+            float[] data = source.getFloats();
+            int stride = source.getStride();
+
+            ids = new int[data.length / stride];
+            values.ensureCapacity(values.size() + ids.length * size);
+
+            for (int i = 0; i < ids.length; i++) {
+                for (int j = 0; j < size; j++) {
+                    element[j] = j < stride ? data[i * stride + j] : j == 3 ? 1f : 0f;
+                }
+
+                if (flip) {
+                    float y = element[1];
+                    float z = element[2];
 
-        for (String datum : data) {
-            if (count == 0) {
-                x = Float.parseFloat(datum);
-            } else if (count == 1) {
-                y = Float.parseFloat(datum);
+                    element[1] = FLIP_COS * y - FLIP_SIN * z;
+                    element[2] = FLIP_SIN * y + FLIP_COS * z;
+                }
+
+                ids[i] = intern();
             }
 
-            if (count == 1) {
-                output.add(new Vector2(x, y));
-                count = 0;
-            } else {
-                count++;
+            sourceIds.put(source, ids);
+
+            return ids;
+        }
+
+        /**
+         * Copies the value of each id in the given list into a packed array. Negative ids produce zeros.
+         */
+        float[] gather(IntArray ids) {
+            float[] output = new float[ids.size() * size];
+            float[] array = values.array();
+
+            for (int i = 0; i < ids.size(); i++) {
+                int id = ids.get(i);
+
+                if (id >= 0) {
+                    System.arraycopy(array, id * size, output, i * size, size);
+                }
             }
+
+            return output;
         }
-    }
 
-    private void parseVector3(String[] data, List<Vector3> output) {
-        int count = 0;
-        float x = 0f;
-        float y = 0f;
-        float z = 0f;
-        float rad = EngineMath.toRadians(-90);
-        float sin = EngineMath.sin(rad);
-        float cos = EngineMath.cos(rad);
-
-        for (String datum : data) {
-            if (count == 0) {
-                x = Float.parseFloat(datum);
-            } else if (count == 1) {
-                y = Float.parseFloat(datum);
-            } else if (count == 2) {
-                z = Float.parseFloat(datum);
+        int size() {
+            return count;
+        }
+
+        private int intern() {
+            if ((count + 1) * 2 > slots.length) {
+                rehash(slots.length * 2);
             }
 
-            if (count == 2) {
-                Vector3 vec = new Vector3(x, y, z);
+            int mask = slots.length - 1;
+            int slot = hash(element, 0) & mask;
+            float[] array = values.array();
+
+            while (slots[slot] != 0) {
+                int id = slots[slot] - 1;
 
-                if (flipUp) {
-                    vec.setY(cos * y - sin * z);
-                    vec.setZ(sin * y + cos * z);
+                if (matches(array, id * size)) {
+                    return id;
                 }
 
-                output.add(vec);
+                slot = (slot + 1) & mask;
+            }
 
-                count = 0;
-            } else {
-                count++;
+            values.add(element, 0, size);
+            slots[slot] = ++count;
+
+            return count - 1;
+        }
+
+        private boolean matches(float[] array, int offset) {
+            for (int j = 0; j < size; j++) {
+                if (Float.floatToIntBits(array[offset + j]) != Float.floatToIntBits(element[j])) {
+                    return false;
+                }
             }
+
+            return true;
         }
-    }
 
-    private void parseVector4(String[] data, List<Vector4> output) {
-        int count = 0;
-        float x = 0f;
-        float y = 0f;
-        float z = 0f;
-
-        for (String datum : data) {
-            if (count == 0) {
-                x = Float.parseFloat(datum);
-            } else if (count == 1) {
-                y = Float.parseFloat(datum);
-            } else if (count == 2) {
-                z = Float.parseFloat(datum);
+        private int hash(float[] array, int offset) {
+            int hash = 0;
+
+            for (int j = 0; j < size; j++) {
+                hash = hash * 31 + Float.floatToIntBits(array[offset + j]);
             }
 
-            if (count == 2) {
-                output.add(new Vector4(x, y, z, 1f));
-                count = 0;
-            } else {
-                count++;
+            return hash * 0x9E3779B9 ^ hash >>> 16;
+        }
+
+        private void rehash(int capacity) {
+            float[] array = values.array();
+
+            slots = new int[capacity];
+
+            for (int id = 0; id < count; id++) {
+                int slot = hash(array, id * size) & (capacity - 1);
+
+                while (slots[slot] != 0) {
+                    slot = (slot + 1) & (capacity - 1);
+                }
+
+                slots[slot] = id + 1;
             }
         }
     }
@@ -1,153 +1,745 @@
 package core.importer.geometry;
 
 import core.Geometry;
-import core.math.Vector2;
-import core.math.Vector3;
 import core.utility.EngineException;
 import core.ShapeGeometry;
 import core.importer.GeometryImporter;
+import core.utility.FloatArray;
+import core.utility.IntArray;
+import core.utility.LongIntMap;
+import core.utility.NumberParser;
+import core.utility.Parallel;
 
-import java.io.*;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.ArrayList;
-import java.util.HashMap;
+import java.util.List;
 
 /**
  * Constructs a geometry out of a given .obj file.
+ * <p>
+ * The file is memory-mapped and tokenized in place. Source attributes are parsed straight into primitive arrays, and
+ * vertices are de-duplicated on their attribute indices through primitive hash maps, so no intermediate objects are
+ * created per line.
+ * <p>
+ * If parallel import is enabled, the file is split at line boundaries into chunks which are parsed and de-duplicated
+ * on the fork-join pool, then merged in file order. The resulting geometry is identical to that of a serial import.
  *
  * @author John Paul Quijano
  */
 public class OBJGeometryImporter extends GeometryImporter {
-    private HashMap<String, Integer> entries;
-    private ArrayList<Integer> indices;
-    private ArrayList<Vector3> coords;
-    private ArrayList<Vector3> normals;
-    private ArrayList<Vector2> texCoords;
-    private ArrayList<Vector3> sourceCoords;
-    private ArrayList<Vector3> sourceNormals;
-    private ArrayList<Vector2> sourceTexCoords;
+    /**
+     * Largest region of the file mapped at once.
+     */
+    public static final int MAX_WINDOW_SIZE = 1 << 30;
+
+    /**
+     * Default size of the chunks parsed by a single task during parallel import.
+     */
+    public static final int DEFAULT_CHUNK_SIZE = 1 << 23;
+
+    /**
+     * Marks an absent texture coordinate or normal in a corner.
+     */
+    private static final int ABSENT = Integer.MIN_VALUE;
+
+    /**
+     * Offset applied to indices that are relative to the parsing chunk, which keeps them negative.
+     */
+    private static final int RELATIVE = 1 << 30;
+
+    private int chunkSize;
+    private boolean parallel;
 
     public OBJGeometryImporter() {
         super("obj");
 
-        entries = new HashMap<>();
-        indices = new ArrayList<>();
-        coords = new ArrayList<>();
-        normals = new ArrayList<>();
-        texCoords = new ArrayList<>();
-        sourceCoords = new ArrayList<>();
-        sourceNormals = new ArrayList<>();
-        sourceTexCoords = new ArrayList<>();
+        chunkSize = DEFAULT_CHUNK_SIZE;
     }
 
     /**
-     * Parses a .obj file to a geometry object.
-     * <p>
-     * Note: Only Geometry.Type.TRIS is supported at this time.
+     * If set, files are parsed in chunks on the fork-join pool.
+     *
+     * @param enabled - parallel import state
+     */
+    public void setParallelEnabled(boolean enabled) {
+        parallel = enabled;
+    }
+
+    /**
+     * Gives the parallel import state.
+     *
+     * @return true if files are parsed in chunks on the fork-join pool
+     */
+    public boolean isParallelEnabled() {
+        return parallel;
+    }
+
+    /**
+     * Sets the approximate size of the chunks parsed by a single task during parallel import.
+     *
+     * @param size - chunk size in bytes
+     */
+    public void setChunkSize(int size) {
+        if (size <= 0) {
+            throw new EngineException("Chunk size must be positive.");
+        }
+
+        chunkSize = size;
+    }
+
+    /**
+     * Gives the approximate size of the chunks parsed by a single task during parallel import.
+     *
+     * @return chunk size in bytes
+     */
+    public int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * Parses a .obj file to a geometry object. Polygons with more than three vertices are triangulated as fans, and
+     * negative indices are resolved relative to the attributes read so far.
      */
     @Override
     protected ShapeGeometry process(String path) {
-        entries.clear();
-        indices.clear();
-        coords.clear();
-        normals.clear();
-        texCoords.clear();
-        sourceCoords.clear();
-        sourceNormals.clear();
-        sourceTexCoords.clear();
-
-
-        try {
-            String line;
-            InputStream stream = new FileInputStream(path);
-
-            try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream))) {
-                while ((line = reader.readLine()) != null) {
-                    String[] source = line.split(" ");
-
-                    switch (source[0]) {
-                        case "v":
-                            Vector3 coord = new Vector3();
-                            coord.setX(Float.parseFloat(source[1]));
-                            coord.setY(Float.parseFloat(source[2]));
-                            coord.setZ(Float.parseFloat(source[3]));
-                            sourceCoords.add(coord);
-                            break;
-                        case "vt":
-                            Vector2 texCoord = new Vector2();
-                            texCoord.setX(Float.parseFloat(source[1]));
-                            texCoord.setY(Float.parseFloat(source[2]));
-                            sourceTexCoords.add(texCoord);
-                            break;
-                        case "vn":
-                            Vector3 normal = new Vector3();
-                            normal.setX(Float.parseFloat(source[1]));
-                            normal.setY(Float.parseFloat(source[2]));
-                            normal.setZ(Float.parseFloat(source[3]));
-                            sourceNormals.add(normal);
-                            break;
-                        case "f":
-                            for (int i = 1; i <= 3; i++) {
-                                String[] indexTrio = source[i].split("/");
-                                Vector3 c = sourceCoords.get(Integer.parseInt(indexTrio[0]) - 1);
-                                Vector2 t = null;
-                                Vector3 n = null;
-                                String entry = "";
-
-                                entry += c;
-
-                                if (!indexTrio[1].equals("")) {
-                                    t = sourceTexCoords.get(Integer.parseInt(indexTrio[1]) - 1);
-                                    entry += t;
-                                }
-
-                                if (!indexTrio[2].equals("")) {
-                                    n = sourceNormals.get(Integer.parseInt(indexTrio[2]) - 1);
-                                    entry += n;
-                                }
-
-                                if (entries.containsKey(entry)) {
-                                    indices.add(entries.get(entry));
-                                } else {
-                                    coords.add(c);
-
-                                    if (t != null) {
-                                        texCoords.add(new Vector2(t));
-                                    }
-
-                                    if (n != null) {
-                                        normals.add(new Vector3(n));
-                                    }
-
-                                    int index = coords.size() - 1;
-
-                                    entries.put(entry, index);
-                                    indices.add(index);
-                                }
-                            }
+        List<Chunk> chunks = split(path);
+
+        if (parallel) {
+            Parallel.forRange(0, chunks.size(), 1, new Parallel.RangeTask() {
+                @Override
+                public void run(int start, int end) {
+                    for (int i = start; i < end; i++) {
+                        chunks.get(i).parse();
+                    }
+                }
+            });
+        } else {
+            for (Chunk chunk : chunks) {
+                chunk.parse();
+            }
+        }
+
+        int coordBase = 0;
+        int texCoordBase = 0;
+        int normalBase = 0;
+
+        for (Chunk chunk : chunks) {
+            chunk.coordBase = coordBase;
+            chunk.texCoordBase = texCoordBase;
+            chunk.normalBase = normalBase;
+
+            coordBase += chunk.coords.size() / 3;
+            texCoordBase += chunk.texCoords.size() / 2;
+            normalBase += chunk.normals.size() / 3;
+        }
+
+        int numCoords = coordBase;
+        int numTexCoords = texCoordBase;
+        int numNormals = normalBase;
+
+        if (parallel) {
+            Parallel.forRange(0, chunks.size(), 1, new Parallel.RangeTask() {
+                @Override
+                public void run(int start, int end) {
+                    for (int i = start; i < end; i++) {
+                        chunks.get(i).resolve(numCoords, numTexCoords, numNormals);
                     }
                 }
-            } catch (FileNotFoundException ex) {
-                throw new EngineException("Cannot locate file: " + ex.getMessage());
-            } catch (IOException ex) {
-                throw new EngineException("Failed to close file: " + ex.getMessage());
+            });
+        } else {
+            for (Chunk chunk : chunks) {
+                chunk.resolve(numCoords, numTexCoords, numNormals);
             }
-        } catch (FileNotFoundException ex) {
+        }
+
+        return merge(chunks, numCoords, numTexCoords, numNormals);
+    }
+
+    /**
+     * Maps the given file and splits it into chunks that end on line boundaries. Unless parallel import is enabled,
+     * each mapped window is a single chunk.
+     *
+     * @param path - path to the input file
+     *
+     * @return chunks in file order
+     */
+    private List<Chunk> split(String path) {
+        List<Chunk> chunks = new ArrayList<>();
+
+        try (FileChannel channel = FileChannel.open(Paths.get(path), StandardOpenOption.READ)) {
+            long size = channel.size();
+            long offset = 0;
+
+            while (offset < size) {
+                long length = Math.min(size - offset, MAX_WINDOW_SIZE);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, offset, length);
+                int end = (int) length;
+
+                if (offset + length < size) {
+                    end = lineBoundary(window, end);
+                }
+
+                int start = 0;
+                int step = parallel ? chunkSize : end;
+
+                while (start < end) {
+                    int chunkEnd = end - start > step ? lineBoundary(window, start + step) : end;
+
+                    if (chunkEnd <= start) {
+                        chunkEnd = end;
+                    }
+
+                    chunks.add(new Chunk(window, start, chunkEnd));
+                    start = chunkEnd;
+                }
+
+                offset += end;
+            }
+        } catch (NoSuchFileException ex) {
             throw new EngineException("Cannot locate file: " + ex.getMessage());
+        } catch (IOException ex) {
+            throw new EngineException("Failed to read file: " + ex.getMessage());
+        }
+
+        return chunks;
+    }
+
+    /**
+     * De-duplicates the vertices of all chunks in file order then builds the geometry.
+     *
+     * @param chunks - parsed and resolved chunks
+     * @param numCoords - total number of source coordinates
+     * @param numTexCoords - total number of source texture coordinates
+     * @param numNormals - total number of source normals
+     *
+     * @return the created geometry
+     */
+    private ShapeGeometry merge(List<Chunk> chunks, int numCoords, int numTexCoords, int numNormals) {
+        IntArray vertices;
+        int[][] remaps = new int[chunks.size()][];
+
+        if (chunks.size() == 1) {
+            vertices = chunks.get(0).vertices;
+        } else {
+            LongIntMap pairs = new LongIntMap();
+            LongIntMap entries = new LongIntMap();
+
+            vertices = new IntArray();
+
+            for (int c = 0; c < chunks.size(); c++) {
+                IntArray local = chunks.get(c).vertices;
+                int[] remap = new int[local.size() / 3];
+
+                for (int i = 0; i < remap.length; i++) {
+                    int coord = local.get(i * 3);
+                    int texCoord = local.get(i * 3 + 1);
+                    int normal = local.get(i * 3 + 2);
+                    long key = vertexKey(pairs, coord, texCoord, normal);
+                    int index = entries.get(key, -1);
+
+                    if (index < 0) {
+                        index = vertices.size() / 3;
+                        entries.put(key, index);
+
+                        vertices.add(coord);
+                        vertices.add(texCoord);
+                        vertices.add(normal);
+                    }
+
+                    remap[i] = index;
+                }
+
+                remaps[c] = remap;
+            }
+        }
+
+        float[] sourceCoords = concatenate(chunks, 0, numCoords * 3);
+        float[] sourceTexCoords = concatenate(chunks, 1, numTexCoords * 2);
+        float[] sourceNormals = concatenate(chunks, 2, numNormals * 3);
+
+        int numVertices = vertices.size() / 3;
+        int[] vertexData = vertices.array();
+        float[] coords = new float[numVertices * 3];
+        float[] texCoords = new float[numVertices * 2];
+        float[] normals = new float[numVertices * 3];
+        boolean[] used = new boolean[2];
+
+        Parallel.RangeTask gather = new Parallel.RangeTask() {
+            @Override
+            public void run(int start, int end) {
+                boolean texCoordsUsed = false;
+                boolean normalsUsed = false;
+
+                for (int i = start; i < end; i++) {
+                    int coord = vertexData[i * 3];
+                    int texCoord = vertexData[i * 3 + 1];
+                    int normal = vertexData[i * 3 + 2];
+
+                    System.arraycopy(sourceCoords, coord * 3, coords, i * 3, 3);
+
+                    if (texCoord >= 0) {
+                        System.arraycopy(sourceTexCoords, texCoord * 2, texCoords, i * 2, 2);
+                        texCoordsUsed = true;
+                    }
+
+                    if (normal >= 0) {
+                        System.arraycopy(sourceNormals, normal * 3, normals, i * 3, 3);
+                        normalsUsed = true;
+                    }
+                }
+
+                synchronized (used) {
+                    used[0] |= texCoordsUsed;
+                    used[1] |= normalsUsed;
+                }
+            }
+        };
+
+        int[] offsets = new int[chunks.size() + 1];
+
+        for (int c = 0; c < chunks.size(); c++) {
+            offsets[c + 1] = offsets[c] + chunks.get(c).indices.size();
+        }
+
+        int[] indices = new int[offsets[chunks.size()]];
+
+        Parallel.RangeTask remap = new Parallel.RangeTask() {
+            @Override
+            public void run(int start, int end) {
+                for (int c = start; c < end; c++) {
+                    IntArray local = chunks.get(c).indices;
+
+                    for (int i = 0; i < local.size(); i++) {
+                        indices[offsets[c] + i] = remaps[c] == null ? local.get(i) : remaps[c][local.get(i)];
+                    }
+                }
+            }
+        };
+
+        if (parallel) {
+            Parallel.forRange(0, numVertices, gather);
+            Parallel.forRange(0, chunks.size(), 1, remap);
+        } else {
+            gather.run(0, numVertices);
+            remap.run(0, chunks.size());
         }
 
-        ShapeGeometry geometry = new ShapeGeometry(Geometry.Type.TRIS, coords.size(), indices.size());
+        ShapeGeometry geometry = new ShapeGeometry(Geometry.Type.TRIS, numVertices, indices.length);
 
         geometry.setIndices(indices);
-        geometry.setCoordinates(coords);
+        geometry.setCoordinates(coords, coords.length);
 
-        if (!texCoords.isEmpty()) {
-            geometry.setTextureCoordinates(texCoords);
+        if (used[0]) {
+            geometry.setTextureCoordinates(texCoords, texCoords.length);
         }
 
-        if (!normals.isEmpty()) {
-            geometry.setNormals(normals);
+        if (used[1]) {
+            geometry.setNormals(normals, normals.length);
         }
 
         return geometry;
     }
+
+    /**
+     * Joins one kind of source attribute of all chunks into a single array.
+     *
+     * @param chunks - parsed chunks
+     * @param attribute - 0 for coordinates, 1 for texture coordinates, and 2 for normals
+     * @param length - total number of components
+     *
+     * @return array of all source components in file order
+     */
+    private static float[] concatenate(List<Chunk> chunks, int attribute, int length) {
+        if (chunks.size() == 1) {
+            return chunks.get(0).attribute(attribute).array();
+        }
+
+        float[] output = new float[length];
+        int offset = 0;
+
+        for (Chunk chunk : chunks) {
+            FloatArray source = chunk.attribute(attribute);
+
+            System.arraycopy(source.array(), 0, output, offset, source.size());
+            offset += source.size();
+        }
+
+        return output;
+    }
+
+    /**
+     * Builds a key identifying the vertex made of the given attribute indices. The texture coordinate and normal pair
+     * is first mapped to a small identifier so that no index has to be truncated.
+     *
+     * @param pairs - texture coordinate and normal pair identifiers
+     * @param coord - coordinate index
+     * @param texCoord - texture coordinate index, or -1 if absent
+     * @param normal - normal index, or -1 if absent
+     *
+     * @return vertex key
+     */
+    private static long vertexKey(LongIntMap pairs, int coord, int texCoord, int normal) {
+        int pair = 0;
+
+        if (texCoord >= 0 || normal >= 0) {
+            long pairKey = ((texCoord + 1L) << 32) | (normal + 1L);
+
+            pair = pairs.get(pairKey, 0);
+
+            if (pair == 0) {
+                pair = pairs.size() + 1;
+                pairs.put(pairKey, pair);
+            }
+        }
+
+        return ((long) coord << 32) | pair;
+    }
+
+    /**
+     * Gives the position just past the last line break before the given end.
+     *
+     * @param buffer - mapped region
+     * @param end - end of the mapped region
+     *
+     * @return end of the last complete line
+     */
+    private static int lineBoundary(ByteBuffer buffer, int end) {
+        for (int i = end - 1; i >= 0; i--) {
+            if (buffer.get(i) == '\n') {
+                return i + 1;
+            }
+        }
+
+        throw new EngineException("Line exceeds the maximum window size.");
+    }
+
+    /**
+     * A range of complete lines along with the attributes and faces parsed from it.
+     */
+    private static final class Chunk {
+        private int position;
+        private int limit;
+        private int numPolygon;
+        private int coordBase;
+        private int texCoordBase;
+        private int normalBase;
+        private int[] polygon;
+        private ByteBuffer data;
+        private CharSequence text;
+        private FloatArray coords;
+        private FloatArray texCoords;
+        private FloatArray normals;
+        private IntArray corners;
+        private IntArray vertices;
+        private IntArray indices;
+
+        Chunk(ByteBuffer data, int start, int end) {
+            this.data = data;
+
+            text = NumberParser.asAscii(data);
+            position = start;
+            limit = end;
+            polygon = new int[48];
+            coords = new FloatArray();
+            texCoords = new FloatArray();
+            normals = new FloatArray();
+            corners = new IntArray();
+        }
+
+        /**
+         * Gives the source attribute of the given kind.
+         */
+        FloatArray attribute(int attribute) {
+            return attribute == 0 ? coords : attribute == 1 ? texCoords : normals;
+        }
+
+        /**
+         * Parses all lines of this chunk. Positive face indices are stored as zero-based indices, while negative ones
+         * are stored relative to this chunk until its position in the file is known.
+         */
+        void parse() {
+            while (position < limit) {
+                skipSpaces();
+
+                if (position < limit) {
+                    byte first = data.get(position);
+                    byte second = peek(1);
+
+                    if (first == 'v') {
+                        if (isSpace(second)) {
+                            position++;
+                            parseFloats(coords, 3);
+                        } else if (second == 't' && isSpace(peek(2))) {
+                            position += 2;
+                            parseFloats(texCoords, 2);
+                        } else if (second == 'n' && isSpace(peek(2))) {
+                            position += 2;
+                            parseFloats(normals, 3);
+                        }
+                    } else if (first == 'f' && isSpace(second)) {
+                        position++;
+                        parseFace();
+                    }
+                }
+
+                skipLine();
+            }
+
+            data = null;
+        }
+
+        /**
+         * Converts all corners to file-wide indices then de-duplicates them into vertices local to this chunk.
+         *
+         * @param numCoords - number of coordinates in the file
+         * @param numTexCoords - number of texture coordinates in the file
+         * @param numNormals - number of normals in the file
+         */
+        void resolve(int numCoords, int numTexCoords, int numNormals) {
+            LongIntMap pairs = new LongIntMap();
+            LongIntMap entries = new LongIntMap();
+            int[] corner = corners.array();
+
+            vertices = new IntArray();
+            indices = new IntArray(corners.size() / 3);
+
+            for (int i = 0; i < corners.size(); i += 3) {
+                int coord = absolute(corner[i], coordBase, numCoords);
+                int texCoord = absolute(corner[i + 1], texCoordBase, numTexCoords);
+                int normal = absolute(corner[i + 2], normalBase, numNormals);
+
+                long key = vertexKey(pairs, coord, texCoord, normal);
+                int index = entries.get(key, -1);
+
+                if (index < 0) {
+                    index = vertices.size() / 3;
+                    entries.put(key, index);
+
+                    vertices.add(coord);
+                    vertices.add(texCoord);
+                    vertices.add(normal);
+                }
+
+                indices.add(index);
+            }
+
+            corners = null;
+        }
+
+        /**
+         * Converts a stored corner index to a file-wide index.
+         *
+         * @param index - stored index
+         * @param base - number of attributes of the same kind preceding this chunk
+         * @param count - number of attributes of the same kind in the file
+         *
+         * @return file-wide index, or -1 if absent
+         */
+        private static int absolute(int index, int base, int count) {
+            if (index == ABSENT) {
+                return -1;
+            }
+
+            int resolved = index >= 0 ? index : base + index + RELATIVE;
+
+            if (resolved < 0 || resolved >= count) {
+                throw new EngineException("Face index out of range: " + (resolved + 1));
+            }
+
+            return resolved;
+        }
+
+        /**
+         * Parses up to the given number of floats from the current line. Missing values default to zero.
+         *
+         * @param output - array to append the values to
+         * @param count - number of values to read
+         */
+        private void parseFloats(FloatArray output, int count) {
+            for (int i = 0; i < count; i++) {
+                skipSpaces();
+                output.add(isLineEnd() ? 0f : parseFloat());
+            }
+        }
+
+        /**
+         * Parses a polygon from the current line then appends its fan triangulation to the corners.
+         */
+        private void parseFace() {
+            numPolygon = 0;
+
+            while (true) {
+                skipSpaces();
+
+                if (isLineEnd()) {
+                    break;
+                }
+
+                int coord = encode(parseInt(), coords.size() / 3);
+                int texCoord = ABSENT;
+                int normal = ABSENT;
+
+                if (position < limit && data.get(position) == '/') {
+                    position++;
+
+                    if (position < limit && data.get(position) != '/' && !isSpace(data.get(position))) {
+                        texCoord = encode(parseInt(), texCoords.size() / 2);
+                    }
+
+                    if (position < limit && data.get(position) == '/') {
+                        position++;
+                        normal = encode(parseInt(), normals.size() / 3);
+                    }
+                }
+
+                if (numPolygon == polygon.length) {
+                    int[] grown = new int[polygon.length * 2];
+                    System.arraycopy(polygon, 0, grown, 0, polygon.length);
+                    polygon = grown;
+                }
+
+                polygon[numPolygon++] = coord;
+                polygon[numPolygon++] = texCoord;
+                polygon[numPolygon++] = normal;
+            }
+
+            for (int i = 3; i < numPolygon - 3; i += 3) {
+                corners.add(polygon, 0, 3);
+                corners.add(polygon, i, 6);
+            }
+        }
+
+        /**
+         * Converts a one-based or negative relative .obj index into a zero-based index, or into an index relative to
+         * this chunk if it is negative.
+         *
+         * @param index - index as written in the file
+         * @param count - number of attributes read so far by this chunk
+         *
+         * @return stored index
+         */
+        private int encode(int index, int count) {
+            if (index > 0) {
+                return index - 1;
+            }
+
+            if (index == 0 || index <= -RELATIVE) {
+                throw new EngineException("Invalid face index: " + index);
+            }
+
+            return count + index - RELATIVE;
+        }
+
+        /**
+         * Parses a signed integer at the current position.
+         *
+         * @return parsed integer
+         */
+        private int parseInt() {
+            boolean negative = false;
+            int value = 0;
+            int start = position;
+
+            if (position < limit && (data.get(position) == '-' || data.get(position) == '+')) {
+                negative = data.get(position) == '-';
+                position++;
+            }
+
+            while (position < limit) {
+                int digit = data.get(position) - '0';
+
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+
+                value = value * 10 + digit;
+                position++;
+            }
+
+            if (position == start || !isDelimiter()) {
+                throw new EngineException("Malformed index at byte " + start + ".");
+            }
+
+            return negative ? -value : value;
+        }
+
+        /**
+         * Parses a decimal floating-point number at the current position.
+         *
+         * @return parsed float
+         */
+        private float parseFloat() {
+            int start = position;
+
+            while (!isDelimiter()) {
+                position++;
+            }
+
+            try {
+                return NumberParser.parseFloat(text, start, position);
+            } catch (NumberFormatException ex) {
+                throw new EngineException("Malformed number at byte " + start + ".");
+            }
+        }
+
+        /**
+         * Gives the byte at the given distance from the current position, or a line break past the end.
+         */
+        private byte peek(int distance) {
+            return position + distance < limit ? data.get(position + distance) : (byte) '\n';
+        }
+
+        /**
+         * Advances past spaces and tabs on the current line.
+         */
+        private void skipSpaces() {
+            while (position < limit && isSpace(data.get(position))) {
+                position++;
+            }
+        }
+
+        /**
+         * Advances to the first byte of the next line.
+         */
+        private void skipLine() {
+            while (position < limit && data.get(position) != '\n') {
+                position++;
+            }
+
+            position++;
+        }
+
+        /**
+         * Checks if the current position is at the end of a line or of the chunk.
+         */
+        private boolean isLineEnd() {
+            if (position >= limit) {
+                return true;
+            }
+
+            byte c = data.get(position);
+
+            return c == '\n' || c == '\r' || c == '#';
+        }
+
+        /**
+         * Checks if the current position ends a token.
+         */
+        private boolean isDelimiter() {
+            return isLineEnd() || isSpace(data.get(position)) || data.get(position) == '/';
+        }
+
+        /**
+         * Checks if the given byte is a space or a tab.
+         */
+        private static boolean isSpace(byte c) {
+            return c == ' ' || c == '\t';
+        }
+    }
 }
@@ -7,7 +7,8 @@ import core.utility.Poolable;
 import java.nio.FloatBuffer;
 
 /**
- * A 9-component square matrix.
+ * A 9-component square matrix. Values are stored in a flat row-major array, so the value at row i and column j is
+ * at index i * 3 + j.
  *
  * @author John Paul Quijano
  */
@@ -15,7 +16,7 @@ public class Matrix3 implements Poolable {
     public static Matrix3 ZERO = new Matrix3(0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f);
     public static Matrix3 IDENTITY = new Matrix3(1f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 1f);
 
-    protected float[][] data;
+    protected final float[] data;
 
     /**
      * Creates a 9-component square identity matrix.
@@ -28,17 +29,17 @@ public class Matrix3 implements Poolable {
      * Creates a Creates a 9-component square matrix with the given initial values.
      */
     public Matrix3(float m00, float m01, float m02, float m10, float m11, float m12, float m20, float m21, float m22) {
-        data = new float[3][3];
-
-        data[0][0] = m00;
-        data[0][1] = m01;
-        data[0][2] = m02;
-        data[1][0] = m10;
-        data[1][1] = m11;
-        data[1][2] = m12;
-        data[2][0] = m20;
-        data[2][1] = m21;
-        data[2][2] = m22;
+        data = new float[9];
+
+        data[0] = m00;
+        data[1] = m01;
+        data[2] = m02;
+        data[3] = m10;
+        data[4] = m11;
+        data[5] = m12;
+        data[6] = m20;
+        data[7] = m21;
+        data[8] = m22;
     }
 
     /**
@@ -47,17 +48,9 @@ public class Matrix3 implements Poolable {
      * @param template - matrix to copy data from
      */
     public Matrix3(Matrix3 template) {
-        data = new float[3][3];
-
-        data[0][0] = template.data[0][0];
-        data[0][1] = template.data[0][1];
-        data[0][2] = template.data[0][2];
-        data[1][0] = template.data[1][0];
-        data[1][1] = template.data[1][1];
-        data[1][2] = template.data[1][2];
-        data[2][0] = template.data[2][0];
-        data[2][1] = template.data[2][1];
-        data[2][2] = template.data[2][2];
+        data = new float[9];
+
+        System.arraycopy(template.data, 0, data, 0, 9);
     }
 
     /**
@@ -70,7 +63,7 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 set(int row, int column, float value) {
-        data[row][column] = value;
+        data[index(row, column)] = value;
         return this;
     }
 
@@ -83,7 +76,7 @@ public class Matrix3 implements Poolable {
      * @return value at the given row and column
      */
     public float get(int row, int column) {
-        return data[row][column];
+        return data[index(row, column)];
     }
 
     /**
@@ -92,15 +85,15 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 set(float m00, float m01, float m02, float m10, float m11, float m12, float m20, float m21, float m22) {
-        data[0][0] = m00;
-        data[0][1] = m01;
-        data[0][2] = m02;
-        data[1][0] = m10;
-        data[1][1] = m11;
-        data[1][2] = m12;
-        data[2][0] = m20;
-        data[2][1] = m21;
-        data[2][2] = m22;
+        data[0] = m00;
+        data[1] = m01;
+        data[2] = m02;
+        data[3] = m10;
+        data[4] = m11;
+        data[5] = m12;
+        data[6] = m20;
+        data[7] = m21;
+        data[8] = m22;
 
         return this;
     }
@@ -113,15 +106,7 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 set(Matrix3 template) {
-        data[0][0] = template.data[0][0];
-        data[0][1] = template.data[0][1];
-        data[0][2] = template.data[0][2];
-        data[1][0] = template.data[1][0];
-        data[1][1] = template.data[1][1];
-        data[1][2] = template.data[1][2];
-        data[2][0] = template.data[2][0];
-        data[2][1] = template.data[2][1];
-        data[2][2] = template.data[2][2];
+        System.arraycopy(template.data, 0, data, 0, 9);
 
         return this;
     }
@@ -151,17 +136,17 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 fromAxes(Vector3 u, Vector3 v, Vector3 w) {
-        data[0][0] = u.getX();
-        data[1][0] = u.getY();
-        data[2][0] = u.getZ();
+        data[0] = u.getX();
+        data[3] = u.getY();
+        data[6] = u.getZ();
 
-        data[0][1] = v.getX();
-        data[1][1] = v.getY();
-        data[2][1] = v.getZ();
+        data[1] = v.getX();
+        data[4] = v.getY();
+        data[7] = v.getZ();
 
-        data[0][2] = w.getX();
-        data[1][2] = w.getY();
-        data[2][2] = w.getZ();
+        data[2] = w.getX();
+        data[5] = w.getY();
+        data[8] = w.getZ();
 
         return this;
     }
@@ -188,15 +173,15 @@ public class Matrix3 implements Poolable {
         float ySin = axis.getY() * sin;
         float zSin = axis.getZ() * sin;
 
-        data[0][0] = squaredX * cosComp + cos;
-        data[0][1] = xyCosComp - zSin;
-        data[0][2] = xzCosComp + ySin;
-        data[1][0] = xyCosComp + zSin;
-        data[1][1] = squaredY * cosComp + cos;
-        data[1][2] = yzCosComp - xSin;
-        data[2][0] = xzCosComp - ySin;
-        data[2][1] = yzCosComp + xSin;
-        data[2][2] = squaredZ * cosComp + cos;
+        data[0] = squaredX * cosComp + cos;
+        data[1] = xyCosComp - zSin;
+        data[2] = xzCosComp + ySin;
+        data[3] = xyCosComp + zSin;
+        data[4] = squaredY * cosComp + cos;
+        data[5] = yzCosComp - xSin;
+        data[6] = xzCosComp - ySin;
+        data[7] = yzCosComp + xSin;
+        data[8] = squaredZ * cosComp + cos;
 
         return this;
     }
@@ -218,15 +203,15 @@ public class Matrix3 implements Poolable {
         float cosZ = EngineMath.cos(zAngle);
         float sinZ = EngineMath.sin(zAngle);
 
-        data[0][0] = cosZ * cosX;
-        data[0][1] = sinZ * sinY - cosZ * sinX * cosY;
-        data[0][2] = cosZ * sinX * sinY + sinZ * cosY;
-        data[1][0] = sinX;
-        data[1][1] = cosX * cosY;
-        data[1][2] = -cosX * sinY;
-        data[2][0] = -sinZ * cosX;
-        data[2][1] = sinZ * sinX * cosY + cosZ * sinY;
-        data[2][2] = -sinZ * sinX * sinY + cosZ * cosY;
+        data[0] = cosZ * cosX;
+        data[1] = sinZ * sinY - cosZ * sinX * cosY;
+        data[2] = cosZ * sinX * sinY + sinZ * cosY;
+        data[3] = sinX;
+        data[4] = cosX * cosY;
+        data[5] = -cosX * sinY;
+        data[6] = -sinZ * cosX;
+        data[7] = sinZ * sinX * cosY + cosZ * sinY;
+        data[8] = -sinZ * sinX * sinY + cosZ * cosY;
 
         return this;
     }
@@ -244,9 +229,9 @@ public class Matrix3 implements Poolable {
             output = new Vector3();
         }
 
-        output.setX(data[0][index]);
-        output.setY(data[1][index]);
-        output.setZ(data[2][index]);
+        output.setX(data[index(0, index)]);
+        output.setY(data[index(1, index)]);
+        output.setZ(data[index(2, index)]);
 
         return output;
     }
@@ -264,9 +249,9 @@ public class Matrix3 implements Poolable {
             output = new Vector3();
         }
 
-        output.setX(data[index][0]);
-        output.setY(data[index][1]);
-        output.setZ(data[index][2]);
+        output.setX(data[index(index, 0)]);
+        output.setY(data[index(index, 1)]);
+        output.setZ(data[index(index, 2)]);
 
         return output;
     }
@@ -284,14 +269,33 @@ public class Matrix3 implements Poolable {
         }
 
         output.clear();
+        output.put(data, 0, 9);
+        output.flip();
 
-        for (int i = 0; i < 3; i++) {
-            for (int j = 0; j < 3; j++) {
-                output.put(data[i][j]);
-            }
-        }
+        return output;
+    }
 
-        output.flip();
+    /**
+     * Stores this matrix's values to the given output buffer starting at the given index. The buffer's position and
+     * limit are left unchanged, so matrices can be packed side by side into one buffer.
+     *
+     * @param output - output float buffer
+     * @param offset - index of the first value
+     *
+     * @return output float buffer
+     */
+    public FloatBuffer toFloatBuffer(FloatBuffer output, int offset) {
+        float[] d = data;
+
+        output.put(offset, d[0]);
+        output.put(offset + 1, d[1]);
+        output.put(offset + 2, d[2]);
+        output.put(offset + 3, d[3]);
+        output.put(offset + 4, d[4]);
+        output.put(offset + 5, d[5]);
+        output.put(offset + 6, d[6]);
+        output.put(offset + 7, d[7]);
+        output.put(offset + 8, d[8]);
 
         return output;
     }
@@ -304,17 +308,28 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 multiply(Matrix3 input) {
-        float m00 = data[0][0] * input.data[0][0] + data[0][1] * input.data[1][0] + data[0][2] * input.data[2][0];
-        float m01 = data[0][0] * input.data[0][1] + data[0][1] * input.data[1][1] + data[0][2] * input.data[2][1];
-        float m02 = data[0][0] * input.data[0][2] + data[0][1] * input.data[1][2] + data[0][2] * input.data[2][2];
-        float m10 = data[1][0] * input.data[0][0] + data[1][1] * input.data[1][0] + data[1][2] * input.data[2][0];
-        float m11 = data[1][0] * input.data[0][1] + data[1][1] * input.data[1][1] + data[1][2] * input.data[2][1];
-        float m12 = data[1][0] * input.data[0][2] + data[1][1] * input.data[1][2] + data[1][2] * input.data[2][2];
-        float m20 = data[2][0] * input.data[0][0] + data[2][1] * input.data[1][0] + data[2][2] * input.data[2][0];
-        float m21 = data[2][0] * input.data[0][1] + data[2][1] * input.data[1][1] + data[2][2] * input.data[2][1];
-        float m22 = data[2][0] * input.data[0][2] + data[2][1] * input.data[1][2] + data[2][2] * input.data[2][2];
-
-        return set(m00, m01, m02, m10, m11, m12, m20, m21, m22);
+        float[] a = data;
+        float[] b = input.data;
+
+        float a00 = a[0], a01 = a[1], a02 = a[2];
+        float a10 = a[3], a11 = a[4], a12 = a[5];
+        float a20 = a[6], a21 = a[7], a22 = a[8];
+
+        float b00 = b[0], b01 = b[1], b02 = b[2];
+        float b10 = b[3], b11 = b[4], b12 = b[5];
+        float b20 = b[6], b21 = b[7], b22 = b[8];
+
+        a[0] = a00 * b00 + a01 * b10 + a02 * b20;
+        a[1] = a00 * b01 + a01 * b11 + a02 * b21;
+        a[2] = a00 * b02 + a01 * b12 + a02 * b22;
+        a[3] = a10 * b00 + a11 * b10 + a12 * b20;
+        a[4] = a10 * b01 + a11 * b11 + a12 * b21;
+        a[5] = a10 * b02 + a11 * b12 + a12 * b22;
+        a[6] = a20 * b00 + a21 * b10 + a22 * b20;
+        a[7] = a20 * b01 + a21 * b11 + a22 * b21;
+        a[8] = a20 * b02 + a21 * b12 + a22 * b22;
+
+        return this;
     }
 
     /**
@@ -325,15 +340,15 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 multiply(float scalar) {
-        data[0][0] *= scalar;
-        data[0][1] *= scalar;
-        data[0][2] *= scalar;
-        data[1][0] *= scalar;
-        data[1][1] *= scalar;
-        data[1][2] *= scalar;
-        data[2][0] *= scalar;
-        data[2][1] *= scalar;
-        data[2][2] *= scalar;
+        data[0] *= scalar;
+        data[1] *= scalar;
+        data[2] *= scalar;
+        data[3] *= scalar;
+        data[4] *= scalar;
+        data[5] *= scalar;
+        data[6] *= scalar;
+        data[7] *= scalar;
+        data[8] *= scalar;
 
         return this;
     }
@@ -353,9 +368,9 @@ public class Matrix3 implements Poolable {
             output = new Vector3();
         }
 
-        return output.setX(data[0][0] * input.getX() + data[1][0] * input.getY() + data[2][0] * input.getZ())
-                .setY(data[0][1] * input.getX() + data[1][1] * input.getY() + data[2][1] * input.getZ())
-                .setZ(data[0][2] * input.getX() + data[1][2] * input.getY() + data[2][2] * input.getZ());
+        return output.setX(data[0] * input.getX() + data[3] * input.getY() + data[6] * input.getZ())
+                .setY(data[1] * input.getX() + data[4] * input.getY() + data[7] * input.getZ())
+                .setZ(data[2] * input.getX() + data[5] * input.getY() + data[8] * input.getZ());
     }
 
     /**
@@ -366,9 +381,9 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 scale(Vector3 scale) {
-        return Matrix3.this.set(data[0][0] * scale.getX(), data[0][1] * scale.getY(), data[0][2] * scale.getZ(),
-                data[1][0] * scale.getX(), data[1][1] * scale.getY(), data[1][2] * scale.getZ(),
-                data[2][0] * scale.getX(), data[2][1] * scale.getY(), data[2][2] * scale.getZ());
+        return Matrix3.this.set(data[0] * scale.getX(), data[1] * scale.getY(), data[2] * scale.getZ(),
+                data[3] * scale.getX(), data[4] * scale.getY(), data[5] * scale.getZ(),
+                data[6] * scale.getX(), data[7] * scale.getY(), data[8] * scale.getZ());
     }
 
     /**
@@ -377,16 +392,16 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 transpose() {
-        float m01 = data[0][1];
-        float m02 = data[0][2];
-        float m12 = data[1][2];
+        float m01 = data[1];
+        float m02 = data[2];
+        float m12 = data[5];
 
-        data[0][1] = data[1][0];
-        data[0][2] = data[2][0];
-        data[1][2] = data[2][1];
-        data[1][0] = m01;
-        data[2][0] = m02;
-        data[2][1] = m12;
+        data[1] = data[3];
+        data[2] = data[6];
+        data[5] = data[7];
+        data[3] = m01;
+        data[6] = m02;
+        data[7] = m12;
 
         return this;
     }
@@ -403,15 +418,15 @@ public class Matrix3 implements Poolable {
             throw new EngineException("Matrix cannot be inverted.");
         }
 
-        float temp00 = data[1][1] * data[2][2] - data[1][2] * data[2][1];
-        float temp01 = data[0][2] * data[2][1] - data[0][1] * data[2][2];
-        float temp02 = data[0][1] * data[1][2] - data[0][2] * data[1][1];
-        float temp10 = data[1][2] * data[2][0] - data[1][0] * data[2][2];
-        float temp11 = data[0][0] * data[2][2] - data[0][2] * data[2][0];
-        float temp12 = data[0][2] * data[1][0] - data[0][0] * data[1][2];
-        float temp20 = data[1][0] * data[2][1] - data[1][1] * data[2][0];
-        float temp21 = data[0][1] * data[2][0] - data[0][0] * data[2][1];
-        float temp22 = data[0][0] * data[1][1] - data[0][1] * data[1][0];
+        float temp00 = data[4] * data[8] - data[5] * data[7];
+        float temp01 = data[2] * data[7] - data[1] * data[8];
+        float temp02 = data[1] * data[5] - data[2] * data[4];
+        float temp10 = data[5] * data[6] - data[3] * data[8];
+        float temp11 = data[0] * data[8] - data[2] * data[6];
+        float temp12 = data[2] * data[3] - data[0] * data[5];
+        float temp20 = data[3] * data[7] - data[4] * data[6];
+        float temp21 = data[1] * data[6] - data[0] * data[7];
+        float temp22 = data[0] * data[4] - data[1] * data[3];
 
         return set(temp00, temp01, temp02, temp10, temp11, temp12, temp20, temp21, temp22).multiply(1f / det);
     }
@@ -420,11 +435,11 @@ public class Matrix3 implements Poolable {
      * Calculates the determinant of this matrix.
      */
     public float determinant() {
-        float fCo00 = data[1][1] * data[2][2] - data[1][2] * data[2][1];
-        float fCo10 = data[1][2] * data[2][0] - data[1][0] * data[2][2];
-        float fCo20 = data[1][0] * data[2][1] - data[1][1] * data[2][0];
+        float fCo00 = data[4] * data[8] - data[5] * data[7];
+        float fCo10 = data[5] * data[6] - data[3] * data[8];
+        float fCo20 = data[3] * data[7] - data[4] * data[6];
 
-        return data[0][0] * fCo00 + data[0][1] * fCo10 + data[0][2] * fCo20;
+        return data[0] * fCo00 + data[1] * fCo10 + data[2] * fCo20;
     }
 
     /**
@@ -433,15 +448,15 @@ public class Matrix3 implements Poolable {
      * @return this matrix
      */
     public Matrix3 absolute() {
-        data[0][0] = EngineMath.abs(data[0][0]);
-        data[0][1] = EngineMath.abs(data[0][1]);
-        data[0][2] = EngineMath.abs(data[0][2]);
-        data[1][0] = EngineMath.abs(data[1][0]);
-        data[1][1] = EngineMath.abs(data[1][1]);
-        data[1][2] = EngineMath.abs(data[1][2]);
-        data[2][0] = EngineMath.abs(data[2][0]);
-        data[2][1] = EngineMath.abs(data[2][1]);
-        data[2][2] = EngineMath.abs(data[2][2]);
+        data[0] = EngineMath.abs(data[0]);
+        data[1] = EngineMath.abs(data[1]);
+        data[2] = EngineMath.abs(data[2]);
+        data[3] = EngineMath.abs(data[3]);
+        data[4] = EngineMath.abs(data[4]);
+        data[5] = EngineMath.abs(data[5]);
+        data[6] = EngineMath.abs(data[6]);
+        data[7] = EngineMath.abs(data[7]);
+        data[8] = EngineMath.abs(data[8]);
 
         return this;
     }
@@ -453,7 +468,7 @@ public class Matrix3 implements Poolable {
         for (int i = 0; i < 3; i++) {
             for (int j = 0; j < 3; j++) {
                 result.append(" ");
-                result.append(data[i][j]);
+                result.append(data[i * 3 + j]);
             }
             result.append(" \n");
         }
@@ -471,14 +486,25 @@ public class Matrix3 implements Poolable {
      * @return true if this matrix equals the given matrix field-for-field
      */
     public boolean equals(Matrix3 matrix) {
-        return data[0][0] == matrix.data[0][0]
-                && data[0][1] == matrix.data[0][1]
-                && data[0][2] == matrix.data[0][2]
-                && data[1][0] == matrix.data[1][0]
-                && data[1][1] == matrix.data[1][1]
-                && data[1][2] == matrix.data[1][2]
-                && data[2][0] == matrix.data[2][0]
-                && data[2][1] == matrix.data[2][1]
-                && data[2][2] == matrix.data[2][2];
+        return data[0] == matrix.data[0]
+                && data[1] == matrix.data[1]
+                && data[2] == matrix.data[2]
+                && data[3] == matrix.data[3]
+                && data[4] == matrix.data[4]
+                && data[5] == matrix.data[5]
+                && data[6] == matrix.data[6]
+                && data[7] == matrix.data[7]
+                && data[8] == matrix.data[8];
+    }
+
+    /**
+     * Gives the array index of the given row and column, rejecting indices outside the matrix.
+     */
+    private static int index(int row, int column) {
+        if (row < 0 || row > 2 || column < 0 || column > 2) {
+            throw new ArrayIndexOutOfBoundsException("Matrix index out of range: " + row + ", " + column);
+        }
+
+        return row * 3 + column;
     }
 }
@@ -7,7 +7,8 @@ import core.utility.Poolable;
 import java.nio.FloatBuffer;
 
 /**
- * A 16-component square matrix.
+ * A 16-component square matrix. Values are stored in a flat row-major array, so the value at row i and column j is
+ * at index i * 4 + j.
  *
  * @author John Paul Quijano
  */
@@ -15,7 +16,7 @@ public class Matrix4 implements Poolable {
     public final static Matrix4 ZERO = new Matrix4(0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f, 0f);
     public final static Matrix4 IDENTITY = new Matrix4(1f, 0f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 0f, 1f, 0f, 0f, 0f, 0f, 1f);
 
-    private float[][] data;
+    private final float[] data;
 
     /**
      * Creates a 16-component square identity matrix.
@@ -28,24 +29,9 @@ public class Matrix4 implements Poolable {
      * Creates a Creates a 16-component square matrix with the given initial values.
      */
     public Matrix4(float m00, float m01, float m02, float m03, float m10, float m11, float m12, float m13, float m20, float m21, float m22, float m23, float m30, float m31, float m32, float m33) {
-        data = new float[4][4];
-
-        data[0][0] = m00;
-        data[0][1] = m01;
-        data[0][2] = m02;
-        data[0][3] = m03;
-        data[1][0] = m10;
-        data[1][1] = m11;
-        data[1][2] = m12;
-        data[1][3] = m13;
-        data[2][0] = m20;
-        data[2][1] = m21;
-        data[2][2] = m22;
-        data[2][3] = m23;
-        data[3][0] = m30;
-        data[3][1] = m31;
-        data[3][2] = m32;
-        data[3][3] = m33;
+        data = new float[16];
+
+        set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33);
     }
 
     /**
@@ -54,24 +40,9 @@ public class Matrix4 implements Poolable {
      * @param template - matrix to copy data from
      */
     public Matrix4(Matrix4 template) {
-        data = new float[4][4];
-
-        data[0][0] = template.data[0][0];
-        data[0][1] = template.data[0][1];
-        data[0][2] = template.data[0][2];
-        data[0][3] = template.data[0][3];
-        data[1][0] = template.data[1][0];
-        data[1][1] = template.data[1][1];
-        data[1][2] = template.data[1][2];
-        data[1][3] = template.data[1][3];
-        data[2][0] = template.data[2][0];
-        data[2][1] = template.data[2][1];
-        data[2][2] = template.data[2][2];
-        data[2][3] = template.data[2][3];
-        data[3][0] = template.data[3][0];
-        data[3][1] = template.data[3][1];
-        data[3][2] = template.data[3][2];
-        data[3][3] = template.data[3][3];
+        data = new float[16];
+
+        System.arraycopy(template.data, 0, data, 0, 16);
     }
 
     /**
@@ -84,7 +55,7 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 set(int row, int column, float value) {
-        data[row][column] = value;
+        data[index(row, column)] = value;
         return this;
     }
 
@@ -97,7 +68,7 @@ public class Matrix4 implements Poolable {
      * @return value at the given row and column
      */
     public float get(int row, int column) {
-        return data[row][column];
+        return data[index(row, column)];
     }
 
     /**
@@ -106,22 +77,24 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 set(float m00, float m01, float m02, float m03, float m10, float m11, float m12, float m13, float m20, float m21, float m22, float m23, float m30, float m31, float m32, float m33) {
-        data[0][0] = m00;
-        data[0][1] = m01;
-        data[0][2] = m02;
-        data[0][3] = m03;
-        data[1][0] = m10;
-        data[1][1] = m11;
-        data[1][2] = m12;
-        data[1][3] = m13;
-        data[2][0] = m20;
-        data[2][1] = m21;
-        data[2][2] = m22;
-        data[2][3] = m23;
-        data[3][0] = m30;
-        data[3][1] = m31;
-        data[3][2] = m32;
-        data[3][3] = m33;
+        float[] d = data;
+
+        d[0] = m00;
+        d[1] = m01;
+        d[2] = m02;
+        d[3] = m03;
+        d[4] = m10;
+        d[5] = m11;
+        d[6] = m12;
+        d[7] = m13;
+        d[8] = m20;
+        d[9] = m21;
+        d[10] = m22;
+        d[11] = m23;
+        d[12] = m30;
+        d[13] = m31;
+        d[14] = m32;
+        d[15] = m33;
 
         return this;
     }
@@ -134,23 +107,20 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 set(Matrix4 template) {
-        data[0][0] = template.data[0][0];
-        data[0][1] = template.data[0][1];
-        data[0][2] = template.data[0][2];
-        data[0][3] = template.data[0][3];
-        data[1][0] = template.data[1][0];
-        data[1][1] = template.data[1][1];
-        data[1][2] = template.data[1][2];
-        data[1][3] = template.data[1][3];
-        data[2][0] = template.data[2][0];
-        data[2][1] = template.data[2][1];
-        data[2][2] = template.data[2][2];
-        data[2][3] = template.data[2][3];
-        data[3][0] = template.data[3][0];
-        data[3][1] = template.data[3][1];
-        data[3][2] = template.data[3][2];
-        data[3][3] = template.data[3][3];
+        System.arraycopy(template.data, 0, data, 0, 16);
+        return this;
+    }
 
+    /**
+     * Sets this matrix to the 16 row-major values starting at the given offset of the given array.
+     *
+     * @param values - source array
+     * @param offset - index of the first value
+     *
+     * @return this matrix
+     */
+    public Matrix4 set(float[] values, int offset) {
+        System.arraycopy(values, offset, data, 0, 16);
         return this;
     }
 
@@ -160,15 +130,17 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 set(float m00, float m01, float m02, float m10, float m11, float m12, float m20, float m21, float m22) {
-        data[0][0] = m00;
-        data[0][1] = m01;
-        data[0][2] = m02;
-        data[1][0] = m10;
-        data[1][1] = m11;
-        data[1][2] = m12;
-        data[2][0] = m20;
-        data[2][1] = m21;
-        data[2][2] = m22;
+        float[] d = data;
+
+        d[0] = m00;
+        d[1] = m01;
+        d[2] = m02;
+        d[4] = m10;
+        d[5] = m11;
+        d[6] = m12;
+        d[8] = m20;
+        d[9] = m21;
+        d[10] = m22;
 
         return this;
     }
@@ -179,17 +151,9 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 set(Matrix3 source) {
-        data[0][0] = source.data[0][0];
-        data[0][1] = source.data[0][1];
-        data[0][2] = source.data[0][2];
-        data[1][0] = source.data[1][0];
-        data[1][1] = source.data[1][1];
-        data[1][2] = source.data[1][2];
-        data[2][0] = source.data[2][0];
-        data[2][1] = source.data[2][1];
-        data[2][2] = source.data[2][2];
+        float[] s = source.data;
 
-        return this;
+        return set(s[0], s[1], s[2], s[3], s[4], s[5], s[6], s[7], s[8]);
     }
 
     /**
@@ -213,15 +177,25 @@ public class Matrix4 implements Poolable {
             output = new Matrix3();
         }
 
-        output.data[0][0] = data[0][0];
-        output.data[0][1] = data[0][1];
-        output.data[0][2] = data[0][2];
-        output.data[1][0] = data[1][0];
-        output.data[1][1] = data[1][1];
-        output.data[1][2] = data[1][2];
-        output.data[2][0] = data[2][0];
-        output.data[2][1] = data[2][1];
-        output.data[2][2] = data[2][2];
+        float[] d = data;
+
+        return output.set(d[0], d[1], d[2], d[4], d[5], d[6], d[8], d[9], d[10]);
+    }
+
+    /**
+     * Copies this matrix's 16 row-major values to the given array.
+     *
+     * @param output - storage array
+     * @param offset - index of the first value
+     *
+     * @return the output array
+     */
+    public float[] toArray(float[] output, int offset) {
+        if (output == null) {
+            output = new float[offset + 16];
+        }
+
+        System.arraycopy(data, 0, output, offset, 16);
 
         return output;
     }
@@ -238,14 +212,40 @@ public class Matrix4 implements Poolable {
         }
 
         output.clear();
+        output.put(data, 0, 16);
+        output.flip();
 
-        for (int i = 0; i < 4; i++) {
-            for (int j = 0; j < 4; j++) {
-                output.put(data[i][j]);
-            }
-        }
+        return output;
+    }
 
-        output.flip();
+    /**
+     * Stores this matrix's values to the given output buffer starting at the given index. The buffer's position and
+     * limit are left unchanged, so matrices can be packed side by side into one buffer.
+     *
+     * @param output - output float buffer
+     * @param offset - index of the first value
+     *
+     * @return the output float buffer
+     */
+    public FloatBuffer toFloatBuffer(FloatBuffer output, int offset) {
+        float[] d = data;
+
+        output.put(offset, d[0]);
+        output.put(offset + 1, d[1]);
+        output.put(offset + 2, d[2]);
+        output.put(offset + 3, d[3]);
+        output.put(offset + 4, d[4]);
+        output.put(offset + 5, d[5]);
+        output.put(offset + 6, d[6]);
+        output.put(offset + 7, d[7]);
+        output.put(offset + 8, d[8]);
+        output.put(offset + 9, d[9]);
+        output.put(offset + 10, d[10]);
+        output.put(offset + 11, d[11]);
+        output.put(offset + 12, d[12]);
+        output.put(offset + 13, d[13]);
+        output.put(offset + 14, d[14]);
+        output.put(offset + 15, d[15]);
 
         return output;
     }
@@ -257,87 +257,79 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 multiply(Matrix4 matrix) {
-        float m00 = data[0][0] * matrix.data[0][0]
-                + data[0][1] * matrix.data[1][0]
-                + data[0][2] * matrix.data[2][0]
-                + data[0][3] * matrix.data[3][0];
-
-        float m01 = data[0][0] * matrix.data[0][1]
-                + data[0][1] * matrix.data[1][1]
-                + data[0][2] * matrix.data[2][1]
-                + data[0][3] * matrix.data[3][1];
-
-        float m02 = data[0][0] * matrix.data[0][2]
-                + data[0][1] * matrix.data[1][2]
-                + data[0][2] * matrix.data[2][2]
-                + data[0][3] * matrix.data[3][2];
-
-        float m03 = data[0][0] * matrix.data[0][3]
-                + data[0][1] * matrix.data[1][3]
-                + data[0][2] * matrix.data[2][3]
-                + data[0][3] * matrix.data[3][3];
-
-        float m10 = data[1][0] * matrix.data[0][0]
-                + data[1][1] * matrix.data[1][0]
-                + data[1][2] * matrix.data[2][0]
-                + data[1][3] * matrix.data[3][0];
-
-        float m11 = data[1][0] * matrix.data[0][1]
-                + data[1][1] * matrix.data[1][1]
-                + data[1][2] * matrix.data[2][1]
-                + data[1][3] * matrix.data[3][1];
-
-        float m12 = data[1][0] * matrix.data[0][2]
-                + data[1][1] * matrix.data[1][2]
-                + data[1][2] * matrix.data[2][2]
-                + data[1][3] * matrix.data[3][2];
-
-        float m13 = data[1][0] * matrix.data[0][3]
-                + data[1][1] * matrix.data[1][3]
-                + data[1][2] * matrix.data[2][3]
-                + data[1][3] * matrix.data[3][3];
-
-        float m20 = data[2][0] * matrix.data[0][0]
-                + data[2][1] * matrix.data[1][0]
-                + data[2][2] * matrix.data[2][0]
-                + data[2][3] * matrix.data[3][0];
-
-        float m21 = data[2][0] * matrix.data[0][1]
-                + data[2][1] * matrix.data[1][1]
-                + data[2][2] * matrix.data[2][1]
-                + data[2][3] * matrix.data[3][1];
-
-        float m22 = data[2][0] * matrix.data[0][2]
-                + data[2][1] * matrix.data[1][2]
-                + data[2][2] * matrix.data[2][2]
-                + data[2][3] * matrix.data[3][2];
-
-        float m23 = data[2][0] * matrix.data[0][3]
-                + data[2][1] * matrix.data[1][3]
-                + data[2][2] * matrix.data[2][3]
-                + data[2][3] * matrix.data[3][3];
-
-        float m30 = data[3][0] * matrix.data[0][0]
-                + data[3][1] * matrix.data[1][0]
-                + data[3][2] * matrix.data[2][0]
-                + data[3][3] * matrix.data[3][0];
-
-        float m31 = data[3][0] * matrix.data[0][1]
-                + data[3][1] * matrix.data[1][1]
-                + data[3][2] * matrix.data[2][1]
-                + data[3][3] * matrix.data[3][1];
-
-        float m32 = data[3][0] * matrix.data[0][2]
-                + data[3][1] * matrix.data[1][2]
-                + data[3][2] * matrix.data[2][2]
-                + data[3][3] * matrix.data[3][2];
-
-        float m33 = data[3][0] * matrix.data[0][3]
-                + data[3][1] * matrix.data[1][3]
-                + data[3][2] * matrix.data[2][3]
-                + data[3][3] * matrix.data[3][3];
-
-        return Matrix4.this.set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33);
+        float[] a = data;
+        float[] b = matrix.data;
+
+        float a00 = a[0], a01 = a[1], a02 = a[2], a03 = a[3];
+        float a10 = a[4], a11 = a[5], a12 = a[6], a13 = a[7];
+        float a20 = a[8], a21 = a[9], a22 = a[10], a23 = a[11];
+        float a30 = a[12], a31 = a[13], a32 = a[14], a33 = a[15];
+
+        float b00 = b[0], b01 = b[1], b02 = b[2], b03 = b[3];
+        float b10 = b[4], b11 = b[5], b12 = b[6], b13 = b[7];
+        float b20 = b[8], b21 = b[9], b22 = b[10], b23 = b[11];
+        float b30 = b[12], b31 = b[13], b32 = b[14], b33 = b[15];
+
+        a[0] = a00 * b00 + a01 * b10 + a02 * b20 + a03 * b30;
+        a[1] = a00 * b01 + a01 * b11 + a02 * b21 + a03 * b31;
+        a[2] = a00 * b02 + a01 * b12 + a02 * b22 + a03 * b32;
+        a[3] = a00 * b03 + a01 * b13 + a02 * b23 + a03 * b33;
+        a[4] = a10 * b00 + a11 * b10 + a12 * b20 + a13 * b30;
+        a[5] = a10 * b01 + a11 * b11 + a12 * b21 + a13 * b31;
+        a[6] = a10 * b02 + a11 * b12 + a12 * b22 + a13 * b32;
+        a[7] = a10 * b03 + a11 * b13 + a12 * b23 + a13 * b33;
+        a[8] = a20 * b00 + a21 * b10 + a22 * b20 + a23 * b30;
+        a[9] = a20 * b01 + a21 * b11 + a22 * b21 + a23 * b31;
+        a[10] = a20 * b02 + a21 * b12 + a22 * b22 + a23 * b32;
+        a[11] = a20 * b03 + a21 * b13 + a22 * b23 + a23 * b33;
+        a[12] = a30 * b00 + a31 * b10 + a32 * b20 + a33 * b30;
+        a[13] = a30 * b01 + a31 * b11 + a32 * b21 + a33 * b31;
+        a[14] = a30 * b02 + a31 * b12 + a32 * b22 + a33 * b32;
+        a[15] = a30 * b03 + a31 * b13 + a32 * b23 + a33 * b33;
+
+        return this;
+    }
+
+    /**
+     * Multiplies the given input matrix by this matrix in that order, then stores the result to this matrix. Both
+     * matrices must be affine, that is, their last column must be (0, 0, 0, 1), which holds for any combination of
+     * translation, rotation and scale. The last column is skipped, so this is faster than {@link #multiply(Matrix4)}.
+     *
+     * @param matrix - the affine matrix to multiply by
+     * @return this matrix
+     */
+    public Matrix4 multiplyAffine(Matrix4 matrix) {
+        float[] a = data;
+        float[] b = matrix.data;
+
+        float a00 = a[0], a01 = a[1], a02 = a[2];
+        float a10 = a[4], a11 = a[5], a12 = a[6];
+        float a20 = a[8], a21 = a[9], a22 = a[10];
+        float a30 = a[12], a31 = a[13], a32 = a[14];
+
+        float b00 = b[0], b01 = b[1], b02 = b[2];
+        float b10 = b[4], b11 = b[5], b12 = b[6];
+        float b20 = b[8], b21 = b[9], b22 = b[10];
+        float b30 = b[12], b31 = b[13], b32 = b[14];
+
+        a[0] = a00 * b00 + a01 * b10 + a02 * b20;
+        a[1] = a00 * b01 + a01 * b11 + a02 * b21;
+        a[2] = a00 * b02 + a01 * b12 + a02 * b22;
+        a[3] = 0f;
+        a[4] = a10 * b00 + a11 * b10 + a12 * b20;
+        a[5] = a10 * b01 + a11 * b11 + a12 * b21;
+        a[6] = a10 * b02 + a11 * b12 + a12 * b22;
+        a[7] = 0f;
+        a[8] = a20 * b00 + a21 * b10 + a22 * b20;
+        a[9] = a20 * b01 + a21 * b11 + a22 * b21;
+        a[10] = a20 * b02 + a21 * b12 + a22 * b22;
+        a[11] = 0f;
+        a[12] = a30 * b00 + a31 * b10 + a32 * b20 + b30;
+        a[13] = a30 * b01 + a31 * b11 + a32 * b21 + b31;
+        a[14] = a30 * b02 + a31 * b12 + a32 * b22 + b32;
+        a[15] = 1f;
+
+        return this;
     }
 
     /**
@@ -347,22 +339,24 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 multiply(float scalar) {
-        data[0][0] *= scalar;
-        data[0][1] *= scalar;
-        data[0][2] *= scalar;
-        data[0][3] *= scalar;
-        data[1][0] *= scalar;
-        data[1][1] *= scalar;
-        data[1][2] *= scalar;
-        data[1][3] *= scalar;
-        data[2][0] *= scalar;
-        data[2][1] *= scalar;
-        data[2][2] *= scalar;
-        data[2][3] *= scalar;
-        data[3][0] *= scalar;
-        data[3][1] *= scalar;
-        data[3][2] *= scalar;
-        data[3][3] *= scalar;
+        float[] d = data;
+
+        d[0] *= scalar;
+        d[1] *= scalar;
+        d[2] *= scalar;
+        d[3] *= scalar;
+        d[4] *= scalar;
+        d[5] *= scalar;
+        d[6] *= scalar;
+        d[7] *= scalar;
+        d[8] *= scalar;
+        d[9] *= scalar;
+        d[10] *= scalar;
+        d[11] *= scalar;
+        d[12] *= scalar;
+        d[13] *= scalar;
+        d[14] *= scalar;
+        d[15] *= scalar;
 
         return this;
     }
@@ -373,26 +367,28 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 transpose() {
-        float m01 = data[0][1];
-        float m02 = data[0][2];
-        float m03 = data[0][3];
-        float m12 = data[1][2];
-        float m13 = data[1][3];
-        float m23 = data[2][3];
-
-        data[0][1] = data[1][0];
-        data[0][2] = data[2][0];
-        data[0][3] = data[3][0];
-        data[1][2] = data[2][1];
-        data[1][3] = data[3][1];
-        data[2][3] = data[3][2];
-
-        data[1][0] = m01;
-        data[2][0] = m02;
-        data[3][0] = m03;
-        data[2][1] = m12;
-        data[3][1] = m13;
-        data[3][2] = m23;
+        float[] d = data;
+
+        float m01 = d[1];
+        float m02 = d[2];
+        float m03 = d[3];
+        float m12 = d[6];
+        float m13 = d[7];
+        float m23 = d[11];
+
+        d[1] = d[4];
+        d[2] = d[8];
+        d[3] = d[12];
+        d[6] = d[9];
+        d[7] = d[13];
+        d[11] = d[14];
+
+        d[4] = m01;
+        d[8] = m02;
+        d[12] = m03;
+        d[9] = m12;
+        d[13] = m13;
+        d[14] = m23;
 
         return this;
     }
@@ -403,18 +399,25 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 invert() {
-        float a0 = data[0][0] * data[1][1] - data[0][1] * data[1][0];
-        float a1 = data[0][0] * data[1][2] - data[0][2] * data[1][0];
-        float a2 = data[0][0] * data[1][3] - data[0][3] * data[1][0];
-        float a3 = data[0][1] * data[1][2] - data[0][2] * data[1][1];
-        float a4 = data[0][1] * data[1][3] - data[0][3] * data[1][1];
-        float a5 = data[0][2] * data[1][3] - data[0][3] * data[1][2];
-        float b0 = data[2][0] * data[3][1] - data[2][1] * data[3][0];
-        float b1 = data[2][0] * data[3][2] - data[2][2] * data[3][0];
-        float b2 = data[2][0] * data[3][3] - data[2][3] * data[3][0];
-        float b3 = data[2][1] * data[3][2] - data[2][2] * data[3][1];
-        float b4 = data[2][1] * data[3][3] - data[2][3] * data[3][1];
-        float b5 = data[2][2] * data[3][3] - data[2][3] * data[3][2];
+        float[] d = data;
+
+        float m00 = d[0], m01 = d[1], m02 = d[2], m03 = d[3];
+        float m10 = d[4], m11 = d[5], m12 = d[6], m13 = d[7];
+        float m20 = d[8], m21 = d[9], m22 = d[10], m23 = d[11];
+        float m30 = d[12], m31 = d[13], m32 = d[14], m33 = d[15];
+
+        float a0 = m00 * m11 - m01 * m10;
+        float a1 = m00 * m12 - m02 * m10;
+        float a2 = m00 * m13 - m03 * m10;
+        float a3 = m01 * m12 - m02 * m11;
+        float a4 = m01 * m13 - m03 * m11;
+        float a5 = m02 * m13 - m03 * m12;
+        float b0 = m20 * m31 - m21 * m30;
+        float b1 = m20 * m32 - m22 * m30;
+        float b2 = m20 * m33 - m23 * m30;
+        float b3 = m21 * m32 - m22 * m31;
+        float b4 = m21 * m33 - m23 * m31;
+        float b5 = m22 * m33 - m23 * m32;
 
         float det = a0 * b5 - a1 * b4 + a2 * b3 + a3 * b2 - a4 * b1 + a5 * b0;
 
@@ -422,24 +425,83 @@ public class Matrix4 implements Poolable {
             throw new EngineException("Matrix cannot be inverted.");
         }
 
-        float m00 = +data[1][1] * b5 - data[1][2] * b4 + data[1][3] * b3;
-        float m10 = -data[1][0] * b5 + data[1][2] * b2 - data[1][3] * b1;
-        float m20 = +data[1][0] * b4 - data[1][1] * b2 + data[1][3] * b0;
-        float m30 = -data[1][0] * b3 + data[1][1] * b1 - data[1][2] * b0;
-        float m01 = -data[0][1] * b5 + data[0][2] * b4 - data[0][3] * b3;
-        float m11 = +data[0][0] * b5 - data[0][2] * b2 + data[0][3] * b1;
-        float m21 = -data[0][0] * b4 + data[0][1] * b2 - data[0][3] * b0;
-        float m31 = +data[0][0] * b3 - data[0][1] * b1 + data[0][2] * b0;
-        float m02 = +data[3][1] * a5 - data[3][2] * a4 + data[3][3] * a3;
-        float m12 = -data[3][0] * a5 + data[3][2] * a2 - data[3][3] * a1;
-        float m22 = +data[3][0] * a4 - data[3][1] * a2 + data[3][3] * a0;
-        float m32 = -data[3][0] * a3 + data[3][1] * a1 - data[3][2] * a0;
-        float m03 = -data[2][1] * a5 + data[2][2] * a4 - data[2][3] * a3;
-        float m13 = +data[2][0] * a5 - data[2][2] * a2 + data[2][3] * a1;
-        float m23 = -data[2][0] * a4 + data[2][1] * a2 - data[2][3] * a0;
-        float m33 = +data[2][0] * a3 - data[2][1] * a1 + data[2][2] * a0;
-
-        return set(m00, m01, m02, m03, m10, m11, m12, m13, m20, m21, m22, m23, m30, m31, m32, m33).multiply(1f / det);
+        float invDet = 1f / det;
+
+        d[0] = (+m11 * b5 - m12 * b4 + m13 * b3) * invDet;
+        d[4] = (-m10 * b5 + m12 * b2 - m13 * b1) * invDet;
+        d[8] = (+m10 * b4 - m11 * b2 + m13 * b0) * invDet;
+        d[12] = (-m10 * b3 + m11 * b1 - m12 * b0) * invDet;
+        d[1] = (-m01 * b5 + m02 * b4 - m03 * b3) * invDet;
+        d[5] = (+m00 * b5 - m02 * b2 + m03 * b1) * invDet;
+        d[9] = (-m00 * b4 + m01 * b2 - m03 * b0) * invDet;
+        d[13] = (+m00 * b3 - m01 * b1 + m02 * b0) * invDet;
+        d[2] = (+m31 * a5 - m32 * a4 + m33 * a3) * invDet;
+        d[6] = (-m30 * a5 + m32 * a2 - m33 * a1) * invDet;
+        d[10] = (+m30 * a4 - m31 * a2 + m33 * a0) * invDet;
+        d[14] = (-m30 * a3 + m31 * a1 - m32 * a0) * invDet;
+        d[3] = (-m21 * a5 + m22 * a4 - m23 * a3) * invDet;
+        d[7] = (+m20 * a5 - m22 * a2 + m23 * a1) * invDet;
+        d[11] = (-m20 * a4 + m21 * a2 - m23 * a0) * invDet;
+        d[15] = (+m20 * a3 - m21 * a1 + m22 * a0) * invDet;
+
+        return this;
+    }
+
+    /**
+     * Calculates the inverse of this matrix, which must be affine. The upper-left 3x3 matrix is inverted through its
+     * cofactors and the translation row is transformed by the result, which takes far fewer operations than
+     * {@link #invert()}.
+     *
+     * @return this matrix
+     */
+    public Matrix4 invertAffine() {
+        float[] d = data;
+
+        float m00 = d[0], m01 = d[1], m02 = d[2];
+        float m10 = d[4], m11 = d[5], m12 = d[6];
+        float m20 = d[8], m21 = d[9], m22 = d[10];
+        float m30 = d[12], m31 = d[13], m32 = d[14];
+
+        float c00 = m11 * m22 - m12 * m21;
+        float c10 = m12 * m20 - m10 * m22;
+        float c20 = m10 * m21 - m11 * m20;
+
+        float det = m00 * c00 + m01 * c10 + m02 * c20;
+
+        if (EngineMath.abs(det) <= EngineMath.EPSILON) {
+            throw new EngineException("Matrix cannot be inverted.");
+        }
+
+        float invDet = 1f / det;
+
+        float i00 = c00 * invDet;
+        float i01 = (m02 * m21 - m01 * m22) * invDet;
+        float i02 = (m01 * m12 - m02 * m11) * invDet;
+        float i10 = c10 * invDet;
+        float i11 = (m00 * m22 - m02 * m20) * invDet;
+        float i12 = (m02 * m10 - m00 * m12) * invDet;
+        float i20 = c20 * invDet;
+        float i21 = (m01 * m20 - m00 * m21) * invDet;
+        float i22 = (m00 * m11 - m01 * m10) * invDet;
+
+        d[0] = i00;
+        d[1] = i01;
+        d[2] = i02;
+        d[3] = 0f;
+        d[4] = i10;
+        d[5] = i11;
+        d[6] = i12;
+        d[7] = 0f;
+        d[8] = i20;
+        d[9] = i21;
+        d[10] = i22;
+        d[11] = 0f;
+        d[12] = -(m30 * i00 + m31 * i10 + m32 * i20);
+        d[13] = -(m30 * i01 + m31 * i11 + m32 * i21);
+        d[14] = -(m30 * i02 + m31 * i12 + m32 * i22);
+        d[15] = 1f;
+
+        return this;
     }
 
     /**
@@ -448,18 +510,20 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public float determinant() {
-        float a0 = data[0][0] * data[1][1] - data[0][1] * data[1][0];
-        float a1 = data[0][0] * data[1][2] - data[0][2] * data[1][0];
-        float a2 = data[0][0] * data[1][3] - data[0][3] * data[1][0];
-        float a3 = data[0][1] * data[1][2] - data[0][2] * data[1][1];
-        float a4 = data[0][1] * data[1][3] - data[0][3] * data[1][1];
-        float a5 = data[0][2] * data[1][3] - data[0][3] * data[1][2];
-        float b0 = data[2][0] * data[3][1] - data[2][1] * data[3][0];
-        float b1 = data[2][0] * data[3][2] - data[2][2] * data[3][0];
-        float b2 = data[2][0] * data[3][3] - data[2][3] * data[3][0];
-        float b3 = data[2][1] * data[3][2] - data[2][2] * data[3][1];
-        float b4 = data[2][1] * data[3][3] - data[2][3] * data[3][1];
-        float b5 = data[2][2] * data[3][3] - data[2][3] * data[3][2];
+        float[] d = data;
+
+        float a0 = d[0] * d[5] - d[1] * d[4];
+        float a1 = d[0] * d[6] - d[2] * d[4];
+        float a2 = d[0] * d[7] - d[3] * d[4];
+        float a3 = d[1] * d[6] - d[2] * d[5];
+        float a4 = d[1] * d[7] - d[3] * d[5];
+        float a5 = d[2] * d[7] - d[3] * d[6];
+        float b0 = d[8] * d[13] - d[9] * d[12];
+        float b1 = d[8] * d[14] - d[10] * d[12];
+        float b2 = d[8] * d[15] - d[11] * d[12];
+        float b3 = d[9] * d[14] - d[10] * d[13];
+        float b4 = d[9] * d[15] - d[11] * d[13];
+        float b5 = d[10] * d[15] - d[11] * d[14];
 
         return a0 * b5 - a1 * b4 + a2 * b3 + a3 * b2 - a4 * b1 + a5 * b0;
     }
@@ -470,22 +534,9 @@ public class Matrix4 implements Poolable {
      * @return this matrix
      */
     public Matrix4 absolute() {
-        data[0][0] = EngineMath.abs(data[0][0]);
-        data[0][1] = EngineMath.abs(data[0][1]);
-        data[0][2] = EngineMath.abs(data[0][2]);
-        data[0][3] = EngineMath.abs(data[0][3]);
-        data[1][0] = EngineMath.abs(data[1][0]);
-        data[1][1] = EngineMath.abs(data[1][1]);
-        data[1][2] = EngineMath.abs(data[1][2]);
-        data[1][3] = EngineMath.abs(data[1][3]);
-        data[2][0] = EngineMath.abs(data[2][0]);
-        data[2][1] = EngineMath.abs(data[2][1]);
-        data[2][2] = EngineMath.abs(data[2][2]);
-        data[2][3] = EngineMath.abs(data[2][3]);
-        data[3][0] = EngineMath.abs(data[3][0]);
-        data[3][1] = EngineMath.abs(data[3][1]);
-        data[3][2] = EngineMath.abs(data[3][2]);
-        data[3][3] = EngineMath.abs(data[3][3]);
+        for (int i = 0; i < 16; i++) {
+            data[i] = EngineMath.abs(data[i]);
+        }
 
         return this;
     }
@@ -505,15 +556,17 @@ public class Matrix4 implements Poolable {
             output = new Vector4();
         }
 
+        float[] d = data;
+
         float x = input.getX();
         float y = input.getY();
         float z = input.getZ();
         float w = input.getW();
 
-        output.setX(data[0][0] * x + data[1][0] * y + data[2][0] * z + data[3][0] * w);
-        output.setY(data[0][1] * x + data[1][1] * y + data[2][1] * z + data[3][1] * w);
-        output.setZ(data[0][2] * x + data[1][2] * y + data[2][2] * z + data[3][2] * w);
-        output.setW(data[0][3] * x + data[1][3] * y + data[2][3] * z + data[3][3] * w);
+        output.setX(d[0] * x + d[4] * y + d[8] * z + d[12] * w);
+        output.setY(d[1] * x + d[5] * y + d[9] * z + d[13] * w);
+        output.setZ(d[2] * x + d[6] * y + d[10] * z + d[14] * w);
+        output.setW(d[3] * x + d[7] * y + d[11] * z + d[15] * w);
 
         return output;
     }
@@ -525,7 +578,7 @@ public class Matrix4 implements Poolable {
         for (int i = 0; i < 4; i++) {
             for (int j = 0; j < 4; j++) {
                 result.append(" ");
-                result.append(data[i][j]);
+                result.append(data[i * 4 + j]);
             }
             result.append(" \n");
         }
@@ -542,21 +595,23 @@ public class Matrix4 implements Poolable {
      * @return true if this matrix equals the given matrix field-for-field
      */
     public boolean equals(Matrix4 matrix) {
-        return data[0][0] == matrix.data[0][0]
-                && data[0][1] == matrix.data[0][1]
-                && data[0][2] == matrix.data[0][2]
-                && data[0][3] == matrix.data[0][3]
-                && data[1][0] == matrix.data[1][0]
-                && data[1][1] == matrix.data[1][1]
-                && data[1][2] == matrix.data[1][2]
-                && data[1][3] == matrix.data[1][3]
-                && data[2][0] == matrix.data[2][0]
-                && data[2][1] == matrix.data[2][1]
-                && data[2][2] == matrix.data[2][2]
-                && data[2][3] == matrix.data[2][3]
-                && data[3][0] == matrix.data[3][0]
-                && data[3][1] == matrix.data[3][1]
-                && data[3][2] == matrix.data[3][2]
-                && data[3][3] == matrix.data[3][3];
+        for (int i = 0; i < 16; i++) {
+            if (data[i] != matrix.data[i]) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Gives the array index of the given row and column, rejecting indices outside the matrix.
+     */
+    private static int index(int row, int column) {
+        if (row < 0 || row > 3 || column < 0 || column > 3) {
+            throw new ArrayIndexOutOfBoundsException("Matrix index out of range: " + row + ", " + column);
+        }
+
+        return row * 4 + column;
     }
 }
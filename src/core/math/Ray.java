@@ -81,6 +81,127 @@ public final class Ray implements Poolable {
         return this;
     }
 
+    /**
+     * Intersects this ray with the given axis-aligned box using the slab method. Distances are measured in multiples
+     * of the direction's length.
+     *
+     * @param minX - minimum x coordinate of the box
+     * @param minY - minimum y coordinate of the box
+     * @param minZ - minimum z coordinate of the box
+     * @param maxX - maximum x coordinate of the box
+     * @param maxY - maximum y coordinate of the box
+     * @param maxZ - maximum z coordinate of the box
+     *
+     * @return distance to where this ray enters the box, zero if the origin is inside the box or positive infinity if
+     * this ray misses the box
+     */
+    public float intersectBox(float minX, float minY, float minZ, float maxX, float maxY, float maxZ) {
+        float near = 0f;
+        float far = Float.POSITIVE_INFINITY;
+
+        /** comparisons are written so that a NaN from a zero direction on a slab boundary is ignored */
+        float inverse = 1f / direction.getX();
+        float t0 = (minX - origin.getX()) * inverse;
+        float t1 = (maxX - origin.getX()) * inverse;
+
+        if (inverse < 0f) {
+            float swap = t0;
+            t0 = t1;
+            t1 = swap;
+        }
+
+        near = t0 > near ? t0 : near;
+        far = t1 < far ? t1 : far;
+
+        inverse = 1f / direction.getY();
+        t0 = (minY - origin.getY()) * inverse;
+        t1 = (maxY - origin.getY()) * inverse;
+
+        if (inverse < 0f) {
+            float swap = t0;
+            t0 = t1;
+            t1 = swap;
+        }
+
+        near = t0 > near ? t0 : near;
+        far = t1 < far ? t1 : far;
+
+        inverse = 1f / direction.getZ();
+        t0 = (minZ - origin.getZ()) * inverse;
+        t1 = (maxZ - origin.getZ()) * inverse;
+
+        if (inverse < 0f) {
+            float swap = t0;
+            t0 = t1;
+            t1 = swap;
+        }
+
+        near = t0 > near ? t0 : near;
+        far = t1 < far ? t1 : far;
+
+        return near <= far ? near : Float.POSITIVE_INFINITY;
+    }
+
+    /**
+     * Intersects this ray with the given triangle using the Moller-Trumbore method. Both sides of the triangle are
+     * hit. Distances are measured in multiples of the direction's length.
+     *
+     * @param ax - x coordinate of the first vertex
+     * @param ay - y coordinate of the first vertex
+     * @param az - z coordinate of the first vertex
+     * @param bx - x coordinate of the second vertex
+     * @param by - y coordinate of the second vertex
+     * @param bz - z coordinate of the second vertex
+     * @param cx - x coordinate of the third vertex
+     * @param cy - y coordinate of the third vertex
+     * @param cz - z coordinate of the third vertex
+     *
+     * @return distance to the hit point or positive infinity if this ray misses the triangle
+     */
+    public float intersectTriangle(float ax, float ay, float az, float bx, float by, float bz, float cx, float cy, float cz) {
+        float dx = direction.getX();
+        float dy = direction.getY();
+        float dz = direction.getZ();
+        float e1x = bx - ax;
+        float e1y = by - ay;
+        float e1z = bz - az;
+        float e2x = cx - ax;
+        float e2y = cy - ay;
+        float e2z = cz - az;
+
+        float px = dy * e2z - dz * e2y;
+        float py = dz * e2x - dx * e2z;
+        float pz = dx * e2y - dy * e2x;
+        float det = e1x * px + e1y * py + e1z * pz;
+
+        if (det == 0f || det != det) { /** ray is parallel to the triangle or the triangle is degenerate */
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float invDet = 1f / det;
+        float tx = origin.getX() - ax;
+        float ty = origin.getY() - ay;
+        float tz = origin.getZ() - az;
+        float u = (tx * px + ty * py + tz * pz) * invDet;
+
+        if (u < 0f || u > 1f) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float qx = ty * e1z - tz * e1y;
+        float qy = tz * e1x - tx * e1z;
+        float qz = tx * e1y - ty * e1x;
+        float v = (dx * qx + dy * qy + dz * qz) * invDet;
+
+        if (v < 0f || u + v > 1f) {
+            return Float.POSITIVE_INFINITY;
+        }
+
+        float t = (e2x * qx + e2y * qy + e2z * qz) * invDet;
+
+        return t >= 0f ? t : Float.POSITIVE_INFINITY;
+    }
+
     @Override
     public String toString() {
         return getClass().getSimpleName() + "[Origin: (" + origin.getX() + ", " + origin.getY() + ", " + origin.getZ() + "), "
@@ -584,16 +584,37 @@ public class Shader {
 
     private String buildInputs() {
         String source = "";
+        int location = 0;
 
         for (int i = 0; i < inputs.size(); i++) {
             Variable input = inputs.get(i);
             source += buildComment(input, "");
-            source += "layout (location = " + i + ") " + buildVariable(input);
+            source += "layout (location = " + location + ") " + buildVariable(input);
+            location += numLocations(input.getType());
         }
 
         return source + "\n";
     }
 
+    /**
+     * Gives the number of consecutive input locations taken by the given type. Matrices take one per column.
+     */
+    private static int numLocations(Type type) {
+        switch (type) {
+            case MAT2:
+            case DMAT2:
+                return 2;
+            case MAT3:
+            case DMAT3:
+                return 3;
+            case MAT4:
+            case DMAT4:
+                return 4;
+            default:
+                return 1;
+        }
+    }
+
     private String buildOutputs() {
         String source = "";
 
@@ -65,4 +65,48 @@ public final class Buffers {
         buffer.clear();
         return buffer;
     }
+
+    /**
+     * Gives the given buffer if it can be written to, otherwise a new buffer holding a copy of its contents.
+     *
+     * @param buffer - buffer to write to
+     *
+     * @return writable buffer with the same contents, position and limit
+     */
+    public static IntBuffer writable(IntBuffer buffer) {
+        if (!buffer.isReadOnly()) {
+            return buffer;
+        }
+
+        IntBuffer copy = createIntBuffer(buffer.capacity());
+        IntBuffer source = buffer.duplicate();
+
+        source.clear();
+        copy.put(source);
+        copy.limit(buffer.limit()).position(buffer.position());
+
+        return copy;
+    }
+
+    /**
+     * Gives the given buffer if it can be written to, otherwise a new buffer holding a copy of its contents.
+     *
+     * @param buffer - buffer to write to
+     *
+     * @return writable buffer with the same contents, position and limit
+     */
+    public static FloatBuffer writable(FloatBuffer buffer) {
+        if (!buffer.isReadOnly()) {
+            return buffer;
+        }
+
+        FloatBuffer copy = createFloatBuffer(buffer.capacity());
+        FloatBuffer source = buffer.duplicate();
+
+        source.clear();
+        copy.put(source);
+        copy.limit(buffer.limit()).position(buffer.position());
+
+        return copy;
+    }
 }
@@ -0,0 +1,129 @@
+package core.utility;
+
+import java.util.Arrays;
+
+/**
+ * A growable array of primitive float values.
+ *
+ * @author John Paul Quijano
+ */
+public final class FloatArray {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private int size;
+    private float[] values;
+
+    /**
+     * Creates an empty array with the default capacity.
+     */
+    public FloatArray() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty array with the given capacity.
+     *
+     * @param capacity - number of values this array can hold before growing
+     */
+    public FloatArray(int capacity) {
+        values = new float[Math.max(capacity, 1)];
+    }
+
+    /**
+     * Appends the given value.
+     *
+     * @param value - value to append
+     */
+    public void add(float value) {
+        if (size == values.length) {
+            grow(size + 1);
+        }
+
+        values[size++] = value;
+    }
+
+    /**
+     * Appends the given number of values from the given array.
+     *
+     * @param source - array to copy from
+     * @param offset - position of the first value to copy
+     * @param length - number of values to copy
+     */
+    public void add(float[] source, int offset, int length) {
+        ensureCapacity(size + length);
+        System.arraycopy(source, offset, values, size, length);
+        size += length;
+    }
+
+    /**
+     * Overwrites the value at the given index.
+     *
+     * @param index - position of the value
+     * @param value - value to set
+     */
+    public void set(int index, float value) {
+        if (index >= size) {
+            throw new EngineException("Index out of bounds: " + index);
+        }
+
+        values[index] = value;
+    }
+
+    /**
+     * Gives the value at the given index.
+     *
+     * @param index - position of the value
+     *
+     * @return value at the given index
+     */
+    public float get(int index) {
+        if (index >= size) {
+            throw new EngineException("Index out of bounds: " + index);
+        }
+
+        return values[index];
+    }
+
+    /**
+     * Makes sure this array can hold the given number of values without growing.
+     *
+     * @param capacity - minimum capacity
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity > values.length) {
+            grow(capacity);
+        }
+    }
+
+    /**
+     * Gives the backing array. Only the first size() values are valid.
+     *
+     * @return backing array
+     */
+    public float[] array() {
+        return values;
+    }
+
+    /**
+     * Gives the number of values in this array.
+     *
+     * @return number of values
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all values while keeping the backing array.
+     */
+    public void clear() {
+        size = 0;
+    }
+
+    /**
+     * Grows the backing array to at least the given capacity.
+     */
+    private void grow(int capacity) {
+        values = Arrays.copyOf(values, Math.max(capacity, values.length + (values.length >> 1) + 1));
+    }
+}
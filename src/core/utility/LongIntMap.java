@@ -0,0 +1,213 @@
+package core.utility;
+
+import java.util.Arrays;
+
+/**
+ * An open-addressing hash map from primitive long keys to primitive integer values. Collisions are resolved by
+ * linear probing.
+ *
+ * @author John Paul Quijano
+ */
+public final class LongIntMap {
+    public static final int DEFAULT_CAPACITY = 16;
+
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private int size;
+    private int mask;
+    private int threshold;
+    private int zeroValue;
+    private boolean zeroKeyed;
+    private long[] keys;
+    private int[] values;
+
+    /**
+     * Creates an empty map with the default capacity.
+     */
+    public LongIntMap() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * Creates an empty map that can hold the given number of entries before growing.
+     *
+     * @param capacity - expected number of entries
+     */
+    public LongIntMap(int capacity) {
+        allocate(tableSize(capacity));
+    }
+
+    /**
+     * Associates the given value with the given key, replacing any previous value.
+     *
+     * @param key - key
+     * @param value - value
+     */
+    public void put(long key, int value) {
+        if (key == 0L) {
+            if (!zeroKeyed) {
+                zeroKeyed = true;
+                size++;
+            }
+
+            zeroValue = value;
+            return;
+        }
+
+        int slot = slot(key);
+
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                values[slot] = value;
+                return;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        keys[slot] = key;
+        values[slot] = value;
+
+        if (++size > threshold) {
+            rehash(keys.length << 1);
+        }
+    }
+
+    /**
+     * Gives the value associated with the given key.
+     *
+     * @param key - key
+     * @param defaultValue - value returned if the key is absent
+     *
+     * @return value associated with the key, or the default value if absent
+     */
+    public int get(long key, int defaultValue) {
+        if (key == 0L) {
+            return zeroKeyed ? zeroValue : defaultValue;
+        }
+
+        int slot = slot(key);
+
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                return values[slot];
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return defaultValue;
+    }
+
+    /**
+     * Checks if the given key is present.
+     *
+     * @param key - key
+     *
+     * @return true if the key is present
+     */
+    public boolean containsKey(long key) {
+        if (key == 0L) {
+            return zeroKeyed;
+        }
+
+        int slot = slot(key);
+
+        while (keys[slot] != 0L) {
+            if (keys[slot] == key) {
+                return true;
+            }
+
+            slot = (slot + 1) & mask;
+        }
+
+        return false;
+    }
+
+    /**
+     * Makes sure this map can hold the given number of entries without growing.
+     *
+     * @param capacity - expected number of entries
+     */
+    public void ensureCapacity(int capacity) {
+        int length = tableSize(capacity);
+
+        if (length > keys.length) {
+            rehash(length);
+        }
+    }
+
+    /**
+     * Gives the number of entries in this map.
+     *
+     * @return number of entries
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Removes all entries while keeping the allocated table.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0L);
+        size = 0;
+        zeroKeyed = false;
+    }
+
+    /**
+     * Gives the starting table slot of the given key.
+     */
+    private int slot(long key) {
+        long hash = key * 0x9E3779B97F4A7C15L;
+        return (int) (hash ^ (hash >>> 32)) & mask;
+    }
+
+    /**
+     * Gives the power of two table length that holds the given number of entries under the load factor.
+     */
+    private static int tableSize(int capacity) {
+        int length = Integer.highestOneBit(Math.max((int) (capacity / LOAD_FACTOR), 2) - 1) << 1;
+
+        if (length <= 0) {
+            throw new EngineException("Map capacity is too large: " + capacity);
+        }
+
+        return length;
+    }
+
+    /**
+     * Allocates an empty table of the given length.
+     */
+    private void allocate(int length) {
+        keys = new long[length];
+        values = new int[length];
+        mask = length - 1;
+        threshold = (int) (length * LOAD_FACTOR);
+    }
+
+    /**
+     * Moves all entries into a table of the given length.
+     */
+    private void rehash(int length) {
+        long[] oldKeys = keys;
+        int[] oldValues = values;
+
+        allocate(length);
+
+        for (int i = 0; i < oldKeys.length; i++) {
+            long key = oldKeys[i];
+
+            if (key != 0L) {
+                int slot = slot(key);
+
+                while (keys[slot] != 0L) {
+                    slot = (slot + 1) & mask;
+                }
+
+                keys[slot] = key;
+                values[slot] = oldValues[i];
+            }
+        }
+    }
+}
@@ -0,0 +1,178 @@
+package core.utility;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Utility class for parsing decimal numbers straight out of text buffers without creating a string per number.
+ *
+ * @author John Paul Quijano
+ */
+public final class NumberParser {
+    /**
+     * Most significant digits accumulated before the remaining digits only scale the exponent.
+     */
+    private static final int MAX_DIGITS = 18;
+
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private NumberParser() {
+    }
+
+    /**
+     * Parses the decimal floating-point number between the given positions. Up to 18 significant digits are
+     * accumulated into a long then scaled by an exact power of ten, falling back to Float.parseFloat for anything
+     * else, such as NaN and Infinity.
+     *
+     * @param text - text holding the number
+     * @param start - position of the first character
+     * @param end - position after the last character
+     *
+     * @return parsed float
+     *
+     * @throws NumberFormatException if the text between the given positions is not a number
+     */
+    public static float parseFloat(CharSequence text, int start, int end) {
+        int position = start;
+        boolean negative = false;
+        boolean digits = false;
+        int significant = 0;
+        int exponent = 0;
+        long mantissa = 0;
+
+        if (position < end && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+            negative = text.charAt(position) == '-';
+            position++;
+        }
+
+        for (; position < end; position++) {
+            int digit = text.charAt(position) - '0';
+
+            if (digit < 0 || digit > 9) {
+                break;
+            }
+
+            if (significant < MAX_DIGITS) {
+                mantissa = mantissa * 10 + digit;
+                significant += mantissa == 0 ? 0 : 1;
+            } else {
+                exponent++;
+            }
+
+            digits = true;
+        }
+
+        if (position < end && text.charAt(position) == '.') {
+            for (position++; position < end; position++) {
+                int digit = text.charAt(position) - '0';
+
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+
+                if (significant < MAX_DIGITS) {
+                    mantissa = mantissa * 10 + digit;
+                    significant += mantissa == 0 ? 0 : 1;
+                    exponent--;
+                }
+
+                digits = true;
+            }
+        }
+
+        if (digits && position < end && (text.charAt(position) == 'e' || text.charAt(position) == 'E')) {
+            boolean negativeExponent = false;
+            int value = 0;
+
+            position++;
+
+            if (position < end && (text.charAt(position) == '-' || text.charAt(position) == '+')) {
+                negativeExponent = text.charAt(position) == '-';
+                position++;
+            }
+
+            for (; position < end; position++) {
+                int digit = text.charAt(position) - '0';
+
+                if (digit < 0 || digit > 9) {
+                    break;
+                }
+
+                value = Math.min(value * 10 + digit, 9999);
+            }
+
+            exponent += negativeExponent ? -value : value;
+        }
+
+        if (!digits || position != end) {
+            return Float.parseFloat(text.subSequence(start, end).toString());
+        }
+
+        double value = mantissa;
+
+        if (mantissa != 0) {
+            if (exponent < 0) {
+                value = -exponent < POWERS_OF_TEN.length ? value / POWERS_OF_TEN[-exponent] : value / Math.pow(10, -exponent);
+            } else if (exponent > 0) {
+                value = exponent < POWERS_OF_TEN.length ? value * POWERS_OF_TEN[exponent] : value * Math.pow(10, exponent);
+            }
+        }
+
+        return (float) (negative ? -value : value);
+    }
+
+    /**
+     * Gives a view of the given byte buffer as ASCII characters, so numbers can be parsed from it in place. The view
+     * follows the buffer's absolute indices and ignores its position and limit.
+     *
+     * @param data - buffer of ASCII text
+     *
+     * @return character view of the buffer
+     */
+    public static CharSequence asAscii(ByteBuffer data) {
+        return new AsciiSequence(data, 0, data.capacity());
+    }
+
+    /**
+     * A character view over a range of a byte buffer.
+     */
+    private static final class AsciiSequence implements CharSequence {
+        private final int offset;
+        private final int length;
+        private final ByteBuffer data;
+
+        AsciiSequence(ByteBuffer data, int offset, int length) {
+            this.data = data;
+            this.offset = offset;
+            this.length = length;
+        }
+
+        @Override
+        public int length() {
+            return length;
+        }
+
+        @Override
+        public char charAt(int index) {
+            return (char) (data.get(offset + index) & 0xFF);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return new AsciiSequence(data, offset + start, end - start);
+        }
+
+        @Override
+        public String toString() {
+            char[] chars = new char[length];
+
+            for (int i = 0; i < length; i++) {
+                chars[i] = charAt(i);
+            }
+
+            return new String(chars);
+        }
+    }
+}
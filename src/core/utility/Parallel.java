@@ -0,0 +1,114 @@
+package core.utility;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Utility class for splitting index ranges into tasks that run on a fork-join pool.
+ *
+ * @author John Paul Quijano
+ */
+public final class Parallel {
+    public static final int DEFAULT_GRAIN = 4096;
+
+    private static ForkJoinPool pool = ForkJoinPool.commonPool();
+
+    /**
+     * Work to be applied to a contiguous range of indices.
+     */
+    public interface RangeTask {
+        /**
+         * Processes the given range of indices.
+         *
+         * @param start - first index, inclusive
+         * @param end - last index, exclusive
+         */
+        void run(int start, int end);
+    }
+
+    private Parallel() {}
+
+    /**
+     * Sets the pool used to execute parallel tasks. The common pool is used by default.
+     *
+     * @param pool - fork-join pool
+     */
+    public static void setPool(ForkJoinPool pool) {
+        if (pool == null) {
+            throw new EngineException("Pool cannot be null.");
+        }
+
+        Parallel.pool = pool;
+    }
+
+    /**
+     * Gives the pool used to execute parallel tasks.
+     *
+     * @return fork-join pool
+     */
+    public static ForkJoinPool getPool() {
+        return pool;
+    }
+
+    /**
+     * Applies the given task over the given range, splitting it in halves until each sub-range is no larger than the
+     * given grain. Ranges no larger than the grain run on the calling thread.
+     *
+     * @param start - first index, inclusive
+     * @param end - last index, exclusive
+     * @param grain - maximum number of indices processed by a single task
+     * @param task - work to apply to each sub-range
+     */
+    public static void forRange(int start, int end, int grain, RangeTask task) {
+        if (end - start <= Math.max(grain, 1)) {
+            task.run(start, end);
+        } else if (ForkJoinTask.getPool() == pool) {
+            new RangeAction(start, end, Math.max(grain, 1), task).invoke();
+        } else {
+            pool.invoke(new RangeAction(start, end, Math.max(grain, 1), task));
+        }
+    }
+
+    /**
+     * Applies the given task over the given range using the default grain.
+     *
+     * @param start - first index, inclusive
+     * @param end - last index, exclusive
+     * @param task - work to apply to each sub-range
+     */
+    public static void forRange(int start, int end, RangeTask task) {
+        forRange(start, end, DEFAULT_GRAIN, task);
+    }
+
+    /**
+     * Recursively splits a range of indices into sub-tasks.
+     */
+    private static final class RangeAction extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+
+        private final int start;
+        private final int end;
+        private final int grain;
+        private final RangeTask task;
+
+        RangeAction(int start, int end, int grain, RangeTask task) {
+            this.start = start;
+            this.end = end;
+            this.grain = grain;
+            this.task = task;
+        }
+
+        @Override
+        protected void compute() {
+            if (end - start <= grain) {
+                task.run(start, end);
+                return;
+            }
+
+            int mid = (start + end) >>> 1;
+
+            invokeAll(new RangeAction(start, mid, grain, task), new RangeAction(mid, end, grain, task));
+        }
+    }
+}
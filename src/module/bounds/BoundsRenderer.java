@@ -87,7 +87,7 @@ public class BoundsRenderer extends RenderingModule implements TraverserListener
     @Override
     public boolean listen(TraverserEvent event) {
         if (event.getType() == TraverserEventType.BRANCH_NEXT) {
-            if (event.getSource().getCurrent().isReset()) {
+            if (event.getSource().getChildIndex() == 0) {
                 spatialList.add(event.getSource().getCurrent());
             }
         } else if (event.getType() == TraverserEventType.LEAF) {
@@ -0,0 +1,199 @@
+package module.shape;
+
+import core.Material;
+import core.Shape;
+
+import java.util.Arrays;
+
+/**
+ * A list of shapes to draw, ordered by 64-bit sort keys so that draws sharing the same rendering states come one after
+ * another. Keys are compared as unsigned values and sorted with a radix sort, which keeps shapes with equal keys in the
+ * order they were added.
+ * <p>
+ * From the most significant bit, opaque keys hold the pass, the translucency flag, the material states, the vertex
+ * array and the depth, so that state changes are kept to a minimum and shapes sharing the same states are drawn front
+ * to back. Translucent keys hold the pass, the translucency flag, the inverted depth, the material states and the
+ * vertex array, since translucent shapes have to be drawn back to front.
+ *
+ * @author John Paul Quijano
+ */
+public final class RenderQueue {
+    public static final int DEFAULT_CAPACITY = 64;
+    public static final int MAX_PASS = 3;
+
+    private static final int PASS_SHIFT = 62;
+    private static final int TRANSLUCENT_SHIFT = 61;
+    private static final int STATE_BITS = 16;
+    private static final int VERTEX_ARRAY_BITS = 21;
+    private static final int DEPTH_BITS = 24;
+    private static final int MATERIAL_BITS = 13;
+    private static final long STATE_MASK = (1L << STATE_BITS) - 1;
+    private static final long VERTEX_ARRAY_MASK = (1L << VERTEX_ARRAY_BITS) - 1;
+    private static final long DEPTH_MASK = (1L << DEPTH_BITS) - 1;
+    private static final int MATERIAL_MASK = (1 << MATERIAL_BITS) - 1;
+
+    private int size;
+    private long[] keys;
+    private long[] sortedKeys;
+    private Shape[] shapes;
+    private Shape[] sortedShapes;
+    private int[] counts;
+
+    /**
+     * Creates an empty render queue.
+     */
+    public RenderQueue() {
+        keys = new long[DEFAULT_CAPACITY];
+        sortedKeys = new long[DEFAULT_CAPACITY];
+        shapes = new Shape[DEFAULT_CAPACITY];
+        sortedShapes = new Shape[DEFAULT_CAPACITY];
+        counts = new int[256];
+    }
+
+    /**
+     * Adds a shape with the given sort key.
+     *
+     * @param shape - shape to draw
+     * @param key - sort key, see {@link #createKey(int, boolean, Shape, float)}
+     */
+    public void add(Shape shape, long key) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+
+            keys = Arrays.copyOf(keys, capacity);
+            sortedKeys = new long[capacity];
+            shapes = Arrays.copyOf(shapes, capacity);
+            sortedShapes = new Shape[capacity];
+        }
+
+        keys[size] = key;
+        shapes[size] = shape;
+        size++;
+    }
+
+    /**
+     * Sorts the shapes by their keys in ascending unsigned order. Bytes that are the same in every key are skipped.
+     */
+    public void sort() {
+        for (int shift = 0; shift < Long.SIZE; shift += 8) {
+            Arrays.fill(counts, 0);
+
+            for (int i = 0; i < size; i++) {
+                counts[(int) (keys[i] >>> shift) & 0xFF]++;
+            }
+
+            if (size == 0 || counts[(int) (keys[0] >>> shift) & 0xFF] == size) {
+                continue;
+            }
+
+            int offset = 0;
+
+            for (int i = 0; i < counts.length; i++) {
+                int count = counts[i];
+                counts[i] = offset;
+                offset += count;
+            }
+
+            for (int i = 0; i < size; i++) {
+                int index = counts[(int) (keys[i] >>> shift) & 0xFF]++;
+
+                sortedKeys[index] = keys[i];
+                sortedShapes[index] = shapes[i];
+            }
+
+            long[] swapKeys = keys;
+            keys = sortedKeys;
+            sortedKeys = swapKeys;
+
+            Shape[] swapShapes = shapes;
+            shapes = sortedShapes;
+            sortedShapes = swapShapes;
+        }
+    }
+
+    /**
+     * Gives the number of queued shapes.
+     *
+     * @return number of queued shapes
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gives the queued shape at the given position.
+     *
+     * @param index - position in the queue
+     *
+     * @return queued shape
+     */
+    public Shape get(int index) {
+        return shapes[index];
+    }
+
+    /**
+     * Gives the sort key of the queued shape at the given position.
+     *
+     * @param index - position in the queue
+     *
+     * @return sort key
+     */
+    public long getKey(int index) {
+        return keys[index];
+    }
+
+    /**
+     * Removes all queued shapes.
+     */
+    public void clear() {
+        Arrays.fill(shapes, 0, size, null);
+        Arrays.fill(sortedShapes, 0, size, null);
+        size = 0;
+    }
+
+    /**
+     * Creates the sort key of the given shape at its current levels of detail.
+     *
+     * @param pass - rendering pass, from 0 to {@link #MAX_PASS}, drawn in ascending order
+     * @param translucent - if true, the shape is ordered back to front before its states are considered
+     * @param shape - shape to create the key for
+     * @param depth - distance from the camera relative to the far clip distance, from 0 to 1
+     *
+     * @return sort key
+     */
+    public static long createKey(int pass, boolean translucent, Shape shape, float depth) {
+        long key = (long) (pass & MAX_PASS) << PASS_SHIFT;
+        long state = getState(shape) & STATE_MASK;
+        long vertexArray = shape.hasGeometry() ? shape.getGeometryDetail(shape.getGeometryLevel()).getID() & VERTEX_ARRAY_MASK : 0;
+        long quantizedDepth = (long) (Math.min(Math.max(depth, 0f), 1f) * DEPTH_MASK) & DEPTH_MASK;
+
+        if (translucent) {
+            key |= 1L << TRANSLUCENT_SHIFT;
+            key |= (DEPTH_MASK - quantizedDepth) << (STATE_BITS + VERTEX_ARRAY_BITS);
+            key |= state << VERTEX_ARRAY_BITS;
+            key |= vertexArray;
+        } else {
+            key |= state << (VERTEX_ARRAY_BITS + DEPTH_BITS);
+            key |= vertexArray << DEPTH_BITS;
+            key |= quantizedDepth;
+        }
+
+        return key;
+    }
+
+    /**
+     * Packs the rendering states of the given shape's material, polygon mode and face culling first so that materials
+     * sharing them are drawn together, then the material's cache index, which also stands for its texture set.
+     */
+    private static int getState(Shape shape) {
+        if (!shape.hasMaterial()) {
+            return 0;
+        }
+
+        Material material = shape.getMaterialDetail(shape.getMaterialLevel());
+        int polygonMode = material.getPolygonMode() == null ? 0 : material.getPolygonMode().ordinal();
+        int faceCulling = material.isFaceCullingEnabled() ? 1 : 0;
+
+        return (polygonMode & 0x3) << (MATERIAL_BITS + 1) | faceCulling << MATERIAL_BITS | (material.getIndex() + 1) & MATERIAL_MASK;
+    }
+}
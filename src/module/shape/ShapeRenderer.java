@@ -8,8 +8,10 @@ import core.event.listener.TraverserListener;
 import core.event.type.EngineEventType;
 import core.event.type.TraverserEventType;
 import core.shader.*;
+import core.utility.Buffers;
+import core.utility.Parallel;
 import core.utility.Reader;
-import core.animation.Animation;
+import core.animation.AnimationInstance;
 
 import java.nio.FloatBuffer;
 import java.util.*;
@@ -25,10 +27,22 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     public static final int MAX_CACHED_SHADOWS = 512;
     public static final int MAX_CACHED_MATERIALS = 512;
 
+    private static final int ANIMATION_GRAIN = 4;
+    private static final int OPAQUE_PASS = 0;
+    private static final int TRANSLUCENT_PASS = 1;
+    private static final int INSTANCE_STRIDE = 25;
+
     private double deltaTime;
     private double systemTime;
     private boolean lightingEnabled;
     private boolean animationEnabled;
+    private boolean instancingEnabled;
+    private boolean parallelAnimationEnabled;
+    private int cullPlane;
+    private int instanceBuffer;
+    private int uploadedPoseVersion;
+    private AnimationInstance uploadedAnimation;
+    private FloatBuffer instanceData;
 
     private Shader shader;
 
@@ -39,6 +53,7 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     private Variable material_u;
     private Variable lightingEnabled_u;
     private Variable animationEnabled_u;
+    private Variable instanced_u;
     private Variable shadowSources_u;
     private Function animate_f;
     private Function animate_normal_f;
@@ -51,12 +66,20 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     private List<Shape> opaquesSorted;
     private List<Shape> opaquesUnsorted;
     private List<Shape> translucents;
+    private List<Shape> visibles;
     private Set<Light> lights;
     private Set<Shadow> shadows;
     private Set<Material> materials;
     private Set<ShapeGeometry> geometries;
+    private Set<Texture> textures;
     private Set<Texture> normalMaps;
     private Set<Texture> specularMaps;
+    private RenderQueue queue;
+    private List<AnimationInstance> animations;
+    private Set<AnimationInstance> animationSet;
+    private List<InstanceBatch> batches;
+    private List<InstanceBatch> freeBatches;
+    private Map<ShapeGeometry, InstanceBatch> batchesByGeometry;
     private ShaderCache<Light> lightCache;
     private ShaderCache<Shadow> shadowCache;
     private ShaderCache<Material> materialCache;
@@ -69,11 +92,20 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         shadows = new HashSet<>();
         materials = new HashSet<>();
         geometries = new HashSet<>();
+        textures = new HashSet<>();
         normalMaps = new HashSet<>();
         specularMaps = new HashSet<>();
         opaquesSorted = new ArrayList<>();
         opaquesUnsorted = new ArrayList<>();
         translucents = new ArrayList<>();
+        visibles = new ArrayList<>();
+        queue = new RenderQueue();
+        animations = new ArrayList<>();
+        animationSet = new HashSet<>();
+        batches = new ArrayList<>();
+        freeBatches = new ArrayList<>();
+        batchesByGeometry = new HashMap<>();
+        instanceData = Buffers.createFloatBuffer(INSTANCE_STRIDE);
         appendedVertexSource = "";
         appendedFragmentSource = "";
     }
@@ -123,6 +155,15 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         return shadows;
     }
 
+    /**
+     * Gives the set of traversed material textures.
+     *
+     * @return set of traversed material textures
+     */
+    public Set<Texture> getTextures() {
+        return textures;
+    }
+
     /**
      * Gives the set of traversed normal maps.
      *
@@ -174,12 +215,20 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     }
 
     /**
-     * Sets the shader animation data.
+     * Sets the shader animation data. The animation is evaluated at most once per frame, and its joint transformations
+     * are only uploaded if they are not the ones already in the joint buffer.
      *
-     * @param animation - animation to set
+     * @param animation - animation instance to set
      */
-    public void setAnimation(Animation animation) {
-        GL.updateUniformBuffer(joint_ub.getID(), 0, animation.update(systemTime, deltaTime).getBuffer());
+    public void setAnimation(AnimationInstance animation) {
+        FloatBuffer palette = animation.update(systemTime, deltaTime);
+
+        if (animation != uploadedAnimation || animation.getPoseVersion() != uploadedPoseVersion) {
+            GL.updateUniformBuffer(joint_ub.getID(), 0, palette);
+
+            uploadedAnimation = animation;
+            uploadedPoseVersion = animation.getPoseVersion();
+        }
     }
 
     /**
@@ -201,6 +250,47 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         return animationEnabled;
     }
 
+    /**
+     * Sets the instancing state. If enabled, unsorted opaque shapes that share a geometry, material and lights are
+     * drawn together in one instanced draw, with their world transformations passed as a per-instance attribute.
+     * Shapes that receive shadows or whose material has contours, reflection or refraction are still drawn one at a
+     * time, since those depend on each shape's own transformation or environment map. This is disabled by default.
+     *
+     * @param enabled - if true, shapes are drawn in instanced batches where possible
+     */
+    public void setInstancingEnabled(boolean enabled) {
+        instancingEnabled = enabled;
+    }
+
+    /**
+     * Gives the instancing state.
+     *
+     * @return true if shapes are drawn in instanced batches where possible
+     */
+    public boolean isInstancingEnabled() {
+        return instancingEnabled;
+    }
+
+    /**
+     * Sets the parallel animation state. If enabled, the animation instances of the visible shapes are evaluated in parallel
+     * on the fork-join pool of {@link Parallel} before anything is drawn. Each animation writes its pose into its own
+     * buffers, so the poses come out the same as when evaluated one after another. This is disabled by default.
+     *
+     * @param enabled - if true, animations are evaluated in parallel
+     */
+    public void setParallelAnimationEnabled(boolean enabled) {
+        parallelAnimationEnabled = enabled;
+    }
+
+    /**
+     * Gives the parallel animation state.
+     *
+     * @return true if animations are evaluated in parallel
+     */
+    public boolean isParallelAnimationEnabled() {
+        return parallelAnimationEnabled;
+    }
+
     /**
      * Sets the lighting state in the shader.
      *
@@ -247,7 +337,7 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         boolean animate = shape.isAnimationReady();
 
         if (animate) {
-            setAnimation(shape.getGeometryDetail(shape.getGeometryLevel()).getAnimation());
+            setAnimation(shape.getActiveAnimation());
         }
 
         setAnimationEnabled(animate);
@@ -276,7 +366,8 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
 
     @Override
     public boolean listen(TraverserEvent event) {
-        if (event.getType() == TraverserEventType.LEAF) {
+        /** with a spatial index, only the shapes it finds are prepared, in render() once bounds are up to date */
+        if (event.getType() == TraverserEventType.LEAF && renderer.getSpatialIndex() == null) {
             Camera camera = renderer.getCamera();
             Spatial leaf = event.getSource().getCurrent();
 
@@ -286,54 +377,72 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
                 shape.calculateTransforms(camera);
                 shape.calculateLevelOfDetail(camera);
 
-                if (!camera.intersects(shape.getWorldBounds())) {
+                int mask = camera.cull(shape.getWorldBounds(), renderer.getFrustumMask(), cullPlane);
+
+                if (mask < 0) {
+                    cullPlane = ~mask;
                     return true;
                 }
 
-                if (shape.hasMaterial()) {
-                    Material material = shape.getMaterialDetail(shape.getMaterialLevel());
-
-                    if (material.getOpacity() < 1f) {
-                        translucents.add(shape);
-                    } else {
-                        if (shape.isSortEnabled()) {
-                            opaquesSorted.add(shape);
-                        } else {
-                            opaquesUnsorted.add(shape);
-                        }
-                    }
+                collect(shape);
+            }
+        }
 
-                    if (material.getNormalMap() != null) {
-                        if (material.isNormalMapEnabled()) {
-                            normalMaps.add(material.getNormalMap());
-                        }
-                    }
+        return false;
+    }
 
-                    if (material.getSpecularMap() != null) {
-                        if (material.isSpecularMapEnabled()) {
-                            specularMaps.add(material.getSpecularMap());
-                        }
-                    }
+    /**
+     * Sorts the given visible shape into the render lists and gathers its resources.
+     *
+     * @param shape - visible shape
+     */
+    private void collect(Shape shape) {
+        if (shape.hasMaterial()) {
+            Material material = shape.getMaterialDetail(shape.getMaterialLevel());
 
-                    materials.add(material);
+            if (material.getOpacity() < 1f) {
+                translucents.add(shape);
+            } else {
+                if (shape.isSortEnabled()) {
+                    opaquesSorted.add(shape);
                 } else {
-                    if (shape.isSortEnabled()) {
-                        opaquesSorted.add(shape);
-                    } else {
-                        opaquesUnsorted.add(shape);
-                    }
+                    opaquesUnsorted.add(shape);
                 }
+            }
 
-                if (shape.hasGeometry()) {
-                    geometries.add(shape.getGeometryDetail(shape.getGeometryLevel()));
+            textures.addAll(material.getTextures());
+
+            if (material.getNormalMap() != null) {
+                if (material.isNormalMapEnabled()) {
+                    normalMaps.add(material.getNormalMap());
                 }
+            }
 
-                lights.addAll(shape.getLights());
-                shadows.addAll(shape.getShadows());
+            if (material.getSpecularMap() != null) {
+                if (material.isSpecularMapEnabled()) {
+                    specularMaps.add(material.getSpecularMap());
+                }
+            }
+
+            materials.add(material);
+        } else {
+            if (shape.isSortEnabled()) {
+                opaquesSorted.add(shape);
+            } else {
+                opaquesUnsorted.add(shape);
             }
         }
 
-        return false;
+        if (shape.hasGeometry()) {
+            geometries.add(shape.getGeometryDetail(shape.getGeometryLevel()));
+
+            if (shape.isAnimationReady() && animationSet.add(shape.getActiveAnimation())) {
+                animations.add(shape.getActiveAnimation());
+            }
+        }
+
+        lights.addAll(shape.getLights());
+        shadows.addAll(shape.getShadows());
     }
 
     @Override
@@ -356,7 +465,7 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
      * @param processors - list of shape processors
      */
     public void renderShape(Shape shape, FloatBuffer transform, int geometryLOD, int materialLOD, List<RenderingProcessor> processors) {
-        if (shape.hasGeometry()) {
+        if (shape.hasGeometry() && isUploaded(shape, geometryLOD, materialLOD)) {
             for (RenderingProcessor processor : processors) {
                 if (processor.isEnabled()) {
                     ((ShapeProcessor) processor).apply(shape);
@@ -372,13 +481,124 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         }
     }
 
+    /**
+     * Renders the given batch of shapes in one instanced draw. Processors, animation and material are applied from the
+     * first shape, which all the shapes in the batch share.
+     *
+     * @param batch - shapes sharing a geometry, material and lights
+     * @param processors - list of shape processors
+     */
+    private void renderInstances(InstanceBatch batch, List<RenderingProcessor> processors) {
+        Shape shape = batch.shapes.get(0);
+        int numInstances = batch.shapes.size();
+
+        if (!isUploaded(shape, shape.getGeometryLevel(), shape.getMaterialLevel())) {
+            return;
+        }
+
+        if (instanceData.capacity() < numInstances * INSTANCE_STRIDE) {
+            instanceData = Buffers.createFloatBuffer(Math.max(numInstances * INSTANCE_STRIDE, instanceData.capacity() * 2));
+        }
+
+        instanceData.clear();
+
+        /** normal matrices were already calculated with the shapes' transforms, so the shader does not invert */
+        for (int i = 0; i < numInstances; i++) {
+            Shape instance = batch.shapes.get(i);
+            int offset = i * INSTANCE_STRIDE;
+
+            instance.getWorldTransformMatrix().toFloatBuffer(instanceData, offset);
+            instance.getNormalTransformMatrix().toFloatBuffer(instanceData, offset + 16);
+        }
+
+        instanceData.limit(numInstances * INSTANCE_STRIDE);
+
+        for (RenderingProcessor processor : processors) {
+            if (processor.isEnabled()) {
+                ((ShapeProcessor) processor).apply(shape);
+            }
+        }
+
+        applyAnimation(shape);
+        applyMaterial(shape, shape.getMaterialLevel());
+
+        shader.execute(shape_e);
+        renderer.setVPMatrix(renderer.getCamera().getViewProjectionBuffer()); /** other modules may have left another */
+        GL.setBoolean(instanced_u.getID(), true);
+        GL.setInstanceBuffer(batch.geometry.getID(), instanceBuffer, ShapeGeometry.VertexAttribute.INSTANCE.getIdentifier(),
+            ShapeGeometry.VertexAttribute.INSTANCE_NORMAL.getIdentifier(), instanceData);
+        batch.geometry.drawInstanced(numInstances);
+        GL.clearInstanceBuffer(batch.geometry.getID(), ShapeGeometry.VertexAttribute.INSTANCE.getIdentifier(),
+            ShapeGeometry.VertexAttribute.INSTANCE_NORMAL.getIdentifier());
+        GL.setBoolean(instanced_u.getID(), false);
+    }
+
+    /**
+     * Checks if the given shape can be drawn as part of an instanced batch. Shadow receivers, contours, reflection and
+     * refraction need data specific to each shape that the instanced draw does not provide.
+     *
+     * @param shape - shape to check
+     *
+     * @return true if the shape can be instanced
+     */
+    private boolean isInstanceable(Shape shape) {
+        if (!shape.hasGeometry()) {
+            return false;
+        }
+
+        if (shape.isShadowReceiver() && !shape.getShadows().isEmpty()) {
+            return false;
+        }
+
+        if (shape.hasMaterial()) {
+            Material material = shape.getMaterialDetail(shape.getMaterialLevel());
+
+            if (material.isContourEnabled() || material.isReflectionEnabled() || material.isRefractionEnabled()) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Adds the given shape to the batch of shapes that share its geometry, material, lights and animation instance,
+     * starting a new batch if there is none yet.
+     *
+     * @param shape - shape to add
+     */
+    private void batch(Shape shape) {
+        ShapeGeometry geometry = shape.getGeometryDetail(shape.getGeometryLevel());
+        Material material = shape.hasMaterial() ? shape.getMaterialDetail(shape.getMaterialLevel()) : null;
+        InstanceBatch first = batchesByGeometry.get(geometry);
+
+        for (InstanceBatch batch = first; batch != null; batch = batch.next) {
+            Shape shared = batch.shapes.get(0);
+
+            if (batch.material == material && shared.getLights().equals(shape.getLights()) && shared.getActiveAnimation() == shape.getActiveAnimation()) {
+                batch.shapes.add(shape);
+                return;
+            }
+        }
+
+        InstanceBatch batch = freeBatches.isEmpty() ? new InstanceBatch() : freeBatches.remove(freeBatches.size() - 1);
+
+        batch.geometry = geometry;
+        batch.material = material;
+        batch.next = first;
+        batch.shapes.add(shape);
+
+        batchesByGeometry.put(geometry, batch);
+        batches.add(batch);
+    }
+
     /**
      * Draws inflated back-facing geometry to show the given shape's contour and outline.
      *
      * @param shape - shape to draw contour on
      */
     public void renderContour(Shape shape) {
-        if (shape.hasGeometry() && shape.hasMaterial()) {
+        if (shape.hasGeometry() && shape.hasMaterial() && isUploaded(shape, shape.getGeometryLevel(), shape.getMaterialLevel())) {
             Material material = shape.getMaterialDetail(shape.getMaterialLevel());
 
             if (material.isContourEnabled()) {
@@ -485,6 +705,9 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         shader.addVariable(new Variable(Shader.Type.VEC3, "tangent", null, 0, Shader.Qualifier.IN));
         shader.addVariable(new Variable(Shader.Type.IVEC4, "joint", null, 0, Shader.Qualifier.IN));
         shader.addVariable(new Variable(Shader.Type.VEC4, "weight", null, 0, Shader.Qualifier.IN));
+        shader.addVariable(new Variable(Shader.Type.FLOAT, "bitangentSign", null, 0, Shader.Qualifier.IN));
+        shader.addVariable(new Variable(Shader.Type.MAT4, "instanceMatrix", null, 0, Shader.Qualifier.IN));
+        shader.addVariable(new Variable(Shader.Type.MAT3, "instanceNormalMatrix", null, 0, Shader.Qualifier.IN));
 
         /**
          * Initialize uniforms.
@@ -501,6 +724,9 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         animationEnabled_u = new Variable(Shader.Type.BOOL, "animationEnabled", null, 0, Shader.Qualifier.UNIFORM);
         shader.addVariable(animationEnabled_u);
 
+        instanced_u = new Variable(Shader.Type.BOOL, "instanced", null, 0, Shader.Qualifier.UNIFORM);
+        shader.addVariable(instanced_u);
+
         lightingEnabled_u = new Variable(Shader.Type.BOOL, "lightEnabled", null, 0, Shader.Qualifier.UNIFORM);
         shader.addVariable(lightingEnabled_u);
 
@@ -543,7 +769,7 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         /**
          * Initialize executables.
          */
-        String vertexSource = Reader.read(getClass().getResource("shader/shape-ev.glsl")) + appendedVertexSource + "gl_Position = wvpMatrix * p;";
+        String vertexSource = Reader.read(getClass().getResource("shader/shape-ev.glsl")) + appendedVertexSource + "gl_Position = wvpm * p;";
         String fragmentSource = Reader.read(getClass().getResource("shader/shape-ef.glsl")) + appendedFragmentSource + "output0 = color;";
 
         shape_e = new Executable("SHAPE");
@@ -559,20 +785,34 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
 
     @Override
     protected void init() {
+        instanceBuffer = GL.createVertexBuffer();
         initProcessors();
     }
 
     @Override
     protected void render() {
+        if (renderer.getSpatialIndex() != null) {
+            Camera camera = renderer.getCamera();
+
+            for (Shape shape : renderer.getSpatialIndex().query(camera, visibles)) {
+                shape.calculateTransforms(camera);
+                shape.calculateLevelOfDetail(camera);
+                collect(shape);
+            }
+
+            visibles.clear();
+        }
+
         processGeometry();
+        processAnimations();
         processMaterial();
         processLights();
         processShadows();
+        processTextures();
         processNormalMaps();
         processSpecularMaps();
         runProcessors();
-        renderOpaquesSorted(opaquesSorted, processors);
-        renderOpaquesUnsorted(opaquesUnsorted, processors);
+        renderOpaques(processors);
         renderTranslucents(translucents, processors);
 
         renderer.resetStates();
@@ -608,6 +848,10 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
             shadow.clean();
         }
 
+        for (Texture texture : textures) {
+            texture.clean();
+        }
+
         for (Texture texture : normalMaps) {
             texture.clean();
         }
@@ -622,6 +866,7 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
         shadows.clear();
         materials.clear();
         geometries.clear();
+        textures.clear();
         normalMaps.clear();
         specularMaps.clear();
         opaquesSorted.clear();
@@ -630,31 +875,52 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     }
 
     /**
-     * Render sorted opaque shapes.
+     * Renders opaque shapes ordered by their sort keys, so that shapes sharing polygon mode, face culling, material and
+     * vertex array are drawn one after another. Sorted shapes are drawn front to back among shapes sharing the same
+     * states, while unsorted shapes keep their traversal order.
      *
-     * @param sorted - list of sorted shapes
      * @param processors - list of shape processors
      */
-    private void renderOpaquesSorted(List<Shape> sorted, List<RenderingProcessor> processors) {
-        Collections.sort(sorted);
+    private void renderOpaques(List<RenderingProcessor> processors) {
+        float farClip = renderer.getCamera().getFarClipDistance();
 
-        for (Shape shape : sorted) {
-            renderShape(shape, shape.getWorldViewProjectionTransformBuffer(), shape.getGeometryLevel(), shape.getMaterialLevel(), processors);
-            renderContour(shape);
+        for (Shape shape : opaquesSorted) {
+            queue.add(shape, RenderQueue.createKey(OPAQUE_PASS, false, shape, shape.getCameraDistance() / farClip));
         }
-    }
 
-    /**
-     * Render unsorted opaque shapes.
-     *
-     * @param unsorted - list of unsorted shapes
-     * @param processors - list of shape processors
-     */
-    private void renderOpaquesUnsorted(List<Shape> unsorted, List<RenderingProcessor> processors) {
-        for (Shape shape : unsorted) {
-            renderShape(shape, shape.getWorldViewProjectionTransformBuffer(), shape.getGeometryLevel(), shape.getMaterialLevel(), processors);
-            renderContour(shape);
+        for (Shape shape : opaquesUnsorted) {
+            queue.add(shape, RenderQueue.createKey(OPAQUE_PASS, false, shape, 0f));
+        }
+
+        queue.sort();
+
+        for (int i = 0; i < queue.size(); i++) {
+            Shape shape = queue.get(i);
+
+            if (instancingEnabled && !shape.isSortEnabled() && isInstanceable(shape)) {
+                batch(shape);
+            } else {
+                renderShape(shape, shape.getWorldViewProjectionTransformBuffer(), shape.getGeometryLevel(), shape.getMaterialLevel(), processors);
+                renderContour(shape);
+            }
         }
+
+        for (InstanceBatch batch : batches) {
+            if (batch.shapes.size() == 1) {
+                Shape shape = batch.shapes.get(0);
+                renderShape(shape, shape.getWorldViewProjectionTransformBuffer(), shape.getGeometryLevel(), shape.getMaterialLevel(), processors);
+            } else {
+                renderInstances(batch, processors);
+            }
+
+            batch.shapes.clear();
+            batch.next = null;
+            freeBatches.add(batch);
+        }
+
+        batches.clear();
+        batchesByGeometry.clear();
+        queue.clear();
     }
 
     /**
@@ -665,7 +931,7 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
      */
     private void renderTranslucents(List<Shape> translucents, List<RenderingProcessor> processors) {
         if (!translucents.isEmpty()) {
-            Collections.sort(translucents, Comparator.reverseOrder());
+            float farClip = renderer.getCamera().getFarClipDistance();
 
             for (Shape shape : translucents) {
                 Camera camera = renderer.getCamera();
@@ -675,35 +941,108 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
                     geometry.generateFaces();
                 }
 
+                if (!geometry.isBuilt()) {
+                    continue;
+                }
+
                 if (camera.isLocationDirty() || shape.isTransformDirty() || shape.isAnimationReady()) {
                     geometry.sortFaces(camera);
                     geometry.update();
                 }
+
+                queue.add(shape, RenderQueue.createKey(TRANSLUCENT_PASS, true, shape, shape.getCameraDistance() / farClip));
             }
 
+            queue.sort();
+
             GL.setBlendEnabled(true);
             GL.setBlendFunction(0, GL.BlendFunction.SRC_ALPHA, GL.BlendFunction.ONE_MINUS_SRC_ALPHA);
 
-            for (Shape shape : translucents) {
+            for (int i = 0; i < queue.size(); i++) {
+                Shape shape = queue.get(i);
+
                 renderShape(shape, shape.getWorldViewProjectionTransformBuffer(), shape.getGeometryLevel(), shape.getMaterialLevel(), processors);
                 renderContour(shape);
             }
+
+            queue.clear();
         }
     }
 
     /**
-     * Creates or updates geometries.
+     * Checks if the given shape's geometry and textures have been built. Shapes still waiting for their uploads are
+     * skipped until every object they sample from is ready.
+     *
+     * @param shape - shape to check
+     * @param geometryLOD - geometry level-of-detail
+     * @param materialLOD - material level-of-detail
+     *
+     * @return true if the shape can be drawn
+     */
+    private boolean isUploaded(Shape shape, int geometryLOD, int materialLOD) {
+        if (!shape.getGeometryDetail(geometryLOD).isBuilt()) {
+            return false;
+        }
+
+        if (shape.hasMaterial()) {
+            Material material = shape.getMaterialDetail(materialLOD);
+
+            if (material.getNormalMap() != null && material.isNormalMapEnabled() && !material.getNormalMap().isBuilt()) {
+                return false;
+            }
+
+            if (material.getSpecularMap() != null && material.isSpecularMapEnabled() && !material.getSpecularMap().isBuilt()) {
+                return false;
+            }
+
+            for (Texture texture : material.getTextures()) {
+                if (!texture.isBuilt()) {
+                    return false;
+                }
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Schedules new geometries for building or updates built ones. Updates are applied immediately since dirty flags
+     * are reset at the end of every frame.
      */
     private void processGeometry() {
         for (ShapeGeometry geometry : geometries) {
             if (!geometry.isBuilt()) {
-                renderer.build(geometry);
+                renderer.schedule(geometry);
             } else if (geometry.isDirty()) {
                 geometry.update();
             }
         }
     }
 
+    /**
+     * Evaluates the animation instances of the visible shapes once for this frame, before any shape or shadow caster is
+     * drawn with them.
+     */
+    private void processAnimations() {
+        if (parallelAnimationEnabled && animations.size() > ANIMATION_GRAIN) {
+            Parallel.forRange(0, animations.size(), ANIMATION_GRAIN, new Parallel.RangeTask() {
+                @Override
+                public void run(int start, int end) {
+                    for (int i = start; i < end; i++) {
+                        animations.get(i).update(systemTime, deltaTime);
+                    }
+                }
+            });
+        } else {
+            for (AnimationInstance animation : animations) {
+                animation.update(systemTime, deltaTime);
+            }
+        }
+
+        animations.clear();
+        animationSet.clear();
+    }
+
     /**
      * Caches materials or updates cache data.
      */
@@ -744,12 +1083,25 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     }
 
     /**
-     * Builds or updates normal maps.
+     * Schedules new material textures for building or updates built ones.
+     */
+    private void processTextures() {
+        for (Texture texture : textures) {
+            if (!texture.isBuilt()) {
+                renderer.schedule(texture);
+            } else if (texture.isDirty()) {
+                texture.update();
+            }
+        }
+    }
+
+    /**
+     * Schedules new normal maps for building or updates built ones.
      */
     private void processNormalMaps() {
         for (Texture normalMap : normalMaps) {
             if (!normalMap.isBuilt()) {
-                renderer.build(normalMap);
+                renderer.schedule(normalMap);
             } else if (normalMap.isDirty()) {
                 normalMap.update();
             }
@@ -757,15 +1109,25 @@ public class ShapeRenderer extends RenderingModule implements TraverserListener,
     }
 
     /**
-     * Builds or updates specular maps.
+     * Schedules new specular maps for building or updates built ones.
      */
     private void processSpecularMaps() {
         for (Texture specularMap : specularMaps) {
             if (!specularMap.isBuilt()) {
-                renderer.build(specularMap);
+                renderer.schedule(specularMap);
             } else if (specularMap.isDirty()) {
                 specularMap.update();
             }
         }
     }
+
+    /**
+     * Visible shapes that share a geometry, material and lights. Batches sharing a geometry are chained together.
+     */
+    private static final class InstanceBatch {
+        private ShapeGeometry geometry;
+        private Material material;
+        private InstanceBatch next;
+        private List<Shape> shapes = new ArrayList<>();
+    }
 }
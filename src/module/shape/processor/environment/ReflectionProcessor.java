@@ -168,8 +168,9 @@ public class ReflectionProcessor extends ShapeProcessor implements TraverserList
                 map.update();
             }
 
+            map.collectReflectables(renderer.getScene(), reflector);
+
             for (int i = 0; i < 6; i++) {
-                map.collectReflectables(renderer.getScene(), reflector);
                 map.initDraw(i);
 
                 renderReflectables(i, module, map.getReflectableShapes(i), map);
@@ -1,10 +1,10 @@
 if (lightEnabled) {
-    vertex.normal = normalize(nMatrix * normal);
-    vertex.wCoord = wMatrix * p;
+    vertex.normal = normalize(nm * normal);
+    vertex.wCoord = wm * p;
 
     if (materials[material].normalMapEnabled) {
-        vec3 tan = normalize(nMatrix * (tangent - dot(tangent, normal) * normal));
-        vec3 bitan = normalize(nMatrix * cross(normal, tangent));
+        vec3 tan = normalize(nm * (tangent - dot(tangent, normal) * normal));
+        vec3 bitan = normalize(nm * (cross(normal, tangent) * bitangentSign));
         vertex.tbnMatrix = mat3(tan, bitan, vertex.normal);
 
         t = animate_normal(animationEnabled, t);
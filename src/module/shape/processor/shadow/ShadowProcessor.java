@@ -64,6 +64,10 @@ public class ShadowProcessor extends ShapeProcessor implements TraverserListener
     private Set<Shadow> shadows;
     private Set<Shadow> cascaded;
     private List<Shape>[] casters;
+    private List<Shape> candidates;
+    private List<Spatial> pending;
+    private BoundsBatch candidateBounds;
+    private long[] visibility;
     private FloatBuffer transformBuffer;
     private FloatBuffer biasedTransformBuffer;
 
@@ -76,6 +80,9 @@ public class ShadowProcessor extends ShapeProcessor implements TraverserListener
 
     public ShadowProcessor() {
         casters = new List[6];
+        candidates = new ArrayList<>();
+        pending = new ArrayList<>();
+        candidateBounds = new BoundsBatch();
         shadows = new HashSet<>();
         transformBuffer = Buffers.createFloatBuffer(16);
         biasedTransformBuffer = Buffers.createFloatBuffer(Shape.MAX_SHADOWS * 16);
@@ -329,35 +336,83 @@ public class ShadowProcessor extends ShapeProcessor implements TraverserListener
      * @return array of sets of shapes
      */
     private void collectCasters(Shadow shadow) {
-        for (int i = 0; i < shadow.numBuffers(); i++) {
-            Spatial current = renderer.getScene();
+        Camera[] cameras = shadow.getCameras();
+        int numBuffers = shadow.numBuffers();
+        candidates.clear();
+        candidateBounds.clear();
+
+        if (renderer.getSpatialIndex() != null) {
+            for (int i = 0; i < numBuffers; i++) {
+                casters[i].clear();
+                candidates.clear();
+
+                for (Shape shape : renderer.getSpatialIndex().query(cameras[i], candidates)) {
+                    if (shape.isShadowCaster()) {
+                        shape.calculateLevelOfDetail(renderer.getCamera()); /** casters outside the view were not prepared */
+                        casters[i].add(shape);
+                    }
+                }
+            }
 
-            casters[i].clear();
+            candidates.clear();
 
-            while (current != null) {
-                if (current.isLeaf() || !current.hasNext()) {
-                    if (current instanceof Shape) {
-                        Shape shape = (Shape) current;
+            return;
+        }
 
-                        if (shape.isShadowCaster() && shadow.getCameras()[i].intersects(shape.getWorldBounds())) {
-                            casters[i].add(shape);
-                        }
-                    }
+        pending.clear();
 
-                    current.resetNext();
-                    current = current.getParent();
-                } else {
-                    if (!shadow.getCameras()[i].intersects(current.getWorldBounds())) {
-                        current = current.getParent();
-                        continue;
-                    }
+        if (renderer.getScene() != null) {
+            pending.add(renderer.getScene());
+        }
+
+        /** one traversal for all buffers, pruning branches that none of the cameras can see */
+        while (!pending.isEmpty()) {
+            Spatial current = pending.remove(pending.size() - 1);
+
+            if (current.isLeaf()) {
+                if (current instanceof Shape && ((Shape) current).isShadowCaster()) {
+                    candidates.add((Shape) current);
+                    candidateBounds.add(current.getWorldBounds());
+                }
+            } else if (intersectsAny(cameras, numBuffers, current.getWorldBounds())) {
+                /** children are pushed last to first so that they are visited in order */
+                for (int i = current.numChildren() - 1; i >= 0; i--) {
+                    pending.add(current.getChild(i));
+                }
+            }
+        }
 
-                    current = current.next();
+        for (int i = 0; i < numBuffers; i++) {
+            casters[i].clear();
+            visibility = cameras[i].intersects(candidateBounds, visibility);
+
+            for (int j = 0; j < candidates.size(); j++) {
+                if (BoundsBatch.isVisible(visibility, j)) {
+                    casters[i].add(candidates.get(j));
                 }
             }
         }
     }
 
+    /**
+     * Tests the given bounds against the first cameras of a shadow.
+     *
+     * @param cameras - shadow cameras
+     * @param numCameras - number of cameras in use
+     * @param bounds - bounds to test
+     *
+     * @return true if any of the cameras can see the bounds
+     */
+    private boolean intersectsAny(Camera[] cameras, int numCameras, BoundingBox bounds) {
+        for (int i = 0; i < numCameras; i++) {
+            if (cameras[i].intersects(bounds)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Draws shadow casters onto the shadow map.
      *
@@ -372,10 +427,12 @@ public class ShadowProcessor extends ShapeProcessor implements TraverserListener
 
                 for (Shape caster : casters[i]) {
                     applyAnimation(caster);
-                    processGeometry(caster);
-                    calculateCasterTransform(caster, shadow.getCameras()[i]);
-                    renderer.setWVPMatrix(transformBuffer);
-                    caster.getGeometryDetail(caster.getGeometryLevel()).draw();
+
+                    if (processGeometry(caster)) {
+                        calculateCasterTransform(caster, shadow.getCameras()[i]);
+                        renderer.setWVPMatrix(transformBuffer);
+                        caster.getGeometryDetail(caster.getGeometryLevel()).draw();
+                    }
                 }
             }
         }
@@ -390,7 +447,7 @@ public class ShadowProcessor extends ShapeProcessor implements TraverserListener
         boolean animate = caster.isAnimationReady();
 
         if (animate) {
-            module.setAnimation(caster.getGeometryDetail(caster.getGeometryLevel()).getAnimation());
+            module.setAnimation(caster.getActiveAnimation());
         }
 
         module.setAnimationEnabled(animate);
@@ -401,15 +458,19 @@ public class ShadowProcessor extends ShapeProcessor implements TraverserListener
      * viewed yet should be built or updated.
      *
      * @param caster - shadow caster
+     *
+     * @return true if the caster's geometry has been built
      */
-    private void processGeometry(Shape caster) {
+    private boolean processGeometry(Shape caster) {
         ShapeGeometry geometry = caster.getGeometryDetail(caster.getGeometryLevel());
 
-        if (geometry.getID() == 0) {
-            renderer.build(geometry);
+        if (!geometry.isBuilt()) {
+            renderer.schedule(geometry);
         } else if (geometry.isDirty()) {
             geometry.update();
         }
+
+        return geometry.isBuilt();
     }
 
     /**
@@ -3,9 +3,6 @@ package module.shape.processor.texture;
 import core.GL;
 import core.Renderer;
 import core.Texture;
-import core.event.TraverserEvent;
-import core.event.listener.TraverserListener;
-import core.event.type.TraverserEventType;
 import core.shader.Function;
 import core.shader.Shader;
 import core.shader.Variable;
@@ -15,10 +12,7 @@ import core.Shape;
 import module.shape.ShapeProcessor;
 import module.shape.ShapeRenderer;
 
-import java.util.HashSet;
-import java.util.Set;
-
-public class TextureProcessor extends ShapeProcessor implements TraverserListener {
+public class TextureProcessor extends ShapeProcessor {
     private Variable blendModes_u;
     private Variable numTextures_u;
     private Variable textureEnabled_u;
@@ -28,12 +22,6 @@ public class TextureProcessor extends ShapeProcessor implements TraverserListene
     private Renderer renderer;
     private ShapeRenderer module;
 
-    private Set<Texture> bucketTextures;
-
-    public TextureProcessor() {
-        bucketTextures = new HashSet<>();
-    }
-
     @Override
     public void apply(Shape shape) {
         boolean texturingReady = shape.isTexturingReady();
@@ -48,8 +36,6 @@ public class TextureProcessor extends ShapeProcessor implements TraverserListene
 
             GL.setScalar(numTextures_u.getID(), material.getTextures().size());
             GL.setArray1(blendModes_u.getID(), material.getBlendModesBuffer());
-
-            bucketTextures.addAll(material.getTextures());
         }
 
         GL.setBoolean(textureEnabled_u.getID(), texturingReady);
@@ -90,37 +76,15 @@ public class TextureProcessor extends ShapeProcessor implements TraverserListene
     protected void init() {
     }
 
+    /**
+     * Material textures are scheduled and updated by the module, which also skips shapes until their textures are
+     * built.
+     */
     @Override
     protected void render() {
-        for (Texture texture : bucketTextures) {
-            if (!texture.isBuilt()) {
-                renderer.build(texture);
-            } else if (texture.isDirty()) {
-                texture.update();
-            }
-        }
     }
 
     @Override
     protected void clean() {
-        for (Texture texture : bucketTextures) {
-            texture.clean();
-        }
-
-        bucketTextures.clear();
-    }
-
-    @Override
-    public boolean listen(TraverserEvent event) {
-        if (event.getType() == TraverserEventType.LEAF) {
-            if (event.getSource().getCurrent() instanceof Shape) {
-                Shape shape = (Shape) event.getSource().getCurrent();
-                Material material = shape.getMaterialDetail(shape.getMaterialLevel());
-
-                bucketTextures.addAll(material.getTextures());
-            }
-        }
-
-        return false;
     }
 }
@@ -1,3 +1,7 @@
+mat4 wm = instanced ? instanceMatrix : wMatrix;
+mat4 wvpm = instanced ? vpMatrix * instanceMatrix : wvpMatrix;
+mat3 nm = instanced ? instanceNormalMatrix : nMatrix;
+
 vec3 n = normal;
 vec3 t = tangent;
 vec4 c = color;
@@ -95,7 +95,6 @@ public class TextureTest implements EngineListener, MouseListener {
         renderer.addRenderingModule(shapeRenderer);
         renderer.getTraverser().addListener(shapeRenderer);
 //        renderer.getTraverser().addListener(illuminationProcessor);
-        renderer.getTraverser().addListener(textureProcessor);
         renderer.getCamera().setLocation(0f, 0f, 20f);
 
         engine.getDisplay().setSize(640, 640);